@@ -13,6 +13,7 @@ import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.model.util.ModelBuilder;
 
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -36,12 +37,24 @@ public class ThingDescription {
   private final List<ActionAffordance> actions;
   private final List<EventAffordance> events;
 
-  private final Optional<Model> graph;
+  private final Supplier<Optional<Model>> graph;
 
   protected ThingDescription(String title, Set<SecurityScheme> security, Map<String,
     SecurityScheme> securityDefinitions, Optional<String> uri, Set<String> types, Optional<String> baseURI,
                              List<PropertyAffordance> properties, List<ActionAffordance> actions,
                              List<EventAffordance> events, Optional<Model> graph) {
+    this(title, security, securityDefinitions, uri, types, baseURI, properties, actions, events,
+      () -> graph);
+  }
+
+  /**
+   * Creates a TD whose RDF graph is computed by the given supplier the first time
+   * {@link #getGraph()} is called.
+   */
+  protected ThingDescription(String title, Set<SecurityScheme> security, Map<String,
+    SecurityScheme> securityDefinitions, Optional<String> uri, Set<String> types, Optional<String> baseURI,
+                             List<PropertyAffordance> properties, List<ActionAffordance> actions,
+                             List<EventAffordance> events, Supplier<Optional<Model>> graph) {
 
     if (title == null) {
       throw new InvalidTDException("The title of a Thing cannot be null.");
@@ -320,17 +333,29 @@ public class ThingDescription {
     return this.events;
   }
 
+  /**
+   * Gets the RDF graph of this TD, if any. If the graph was added lazily (e.g., by a
+   * {@link ch.unisg.ics.interactions.wot.td.io.TDJsonReader}), it is computed on the first call.
+   *
+   * @return an <code>Optional</code> with the RDF graph (empty if not available)
+   * @throws ch.unisg.ics.interactions.wot.td.io.InvalidTDException if the graph is computed on this
+   * call and the TD cannot be expanded to RDF, e.g. because it references a JSON-LD context that is
+   * not available
+   */
   public Optional<Model> getGraph() {
-    return graph;
+    return graph.get();
   }
 
   /**
-   * Supported serialization formats -- currently only RDF serialization formats, namely Turtle and
-   * JSON-LD 1.0. The version of JSON-LD currently supported is the one provided by RDF4J.
+   * Supported serialization formats -- currently only RDF serialization formats, namely Turtle,
+   * JSON-LD 1.0, N-Triples, and RDF4J's binary RDF format. The version of JSON-LD currently
+   * supported is the one provided by RDF4J.
    */
   public enum TDFormat {
     RDF_TURTLE,
-    RDF_JSONLD
+    RDF_JSONLD,
+    RDF_NTRIPLES,
+    RDF_BINARY
   }
 
   /**
@@ -351,6 +376,7 @@ public class ThingDescription {
     private Optional<String> uri;
     private Optional<String> baseURI;
     private Optional<Model> graph;
+    private Optional<Supplier<Model>> lazyGraph;
 
     public Builder(String title) {
       this.title = title;
@@ -366,6 +392,7 @@ public class ThingDescription {
       this.events = new ArrayList<EventAffordance>();
 
       this.graph = Optional.empty();
+      this.lazyGraph = Optional.empty();
     }
 
     public Builder addSecurityScheme(String name, SecurityScheme security, boolean applied) {
@@ -458,6 +485,30 @@ public class ThingDescription {
       return this;
     }
 
+    /**
+     * Adds an RDF graph that is computed only when it is first requested via
+     * {@link ThingDescription#getGraph()}, e.g. because it requires an expensive JSON-LD expansion.
+     * The computed graph is merged with any graph added via <code>addGraph(Model)</code> or
+     * <code>addTriple</code>. The supplier is invoked at most once.
+     *
+     * @param graph the supplier of the RDF graph to be added
+     * @return this <code>Builder</code>
+     */
+    public Builder addGraph(Supplier<Model> graph) {
+      if (this.lazyGraph.isPresent()) {
+        Supplier<Model> previous = this.lazyGraph.get();
+        this.lazyGraph = Optional.of(() -> {
+          Model model = previous.get();
+          model.addAll(graph.get());
+          return model;
+        });
+      } else {
+        this.lazyGraph = Optional.of(graph);
+      }
+
+      return this;
+    }
+
     /**
      * Convenience method used to add a single triple. If an RDF graph is already present, the triple
      * will be added to the existing graph.
@@ -483,8 +534,46 @@ public class ThingDescription {
      * @return the constructed <code>ThingDescription</code>
      */
     public ThingDescription build() {
-      return new ThingDescription(title, security, securityDefinitions, uri, types, baseURI, properties, actions,
-        events, graph);
+      if (!lazyGraph.isPresent()) {
+        return new ThingDescription(title, security, securityDefinitions, uri, types, baseURI, properties,
+          actions, events, graph);
+      }
+
+      Supplier<Model> supplier = lazyGraph.get();
+      Optional<Model> eagerGraph = graph;
+
+      return new ThingDescription(title, security, securityDefinitions, uri, types, baseURI, properties,
+        actions, events, new LazyGraph(() -> {
+          Model model = supplier.get();
+          eagerGraph.ifPresent(model::addAll);
+          return model;
+        }));
+    }
+  }
+
+  /* Computes a graph on first access and keeps the result */
+  private static final class LazyGraph implements Supplier<Optional<Model>> {
+    private Supplier<Model> supplier;
+    private volatile Optional<Model> graph;
+
+    LazyGraph(Supplier<Model> supplier) {
+      this.supplier = supplier;
+    }
+
+    @Override
+    public Optional<Model> get() {
+      Optional<Model> result = graph;
+      if (result == null) {
+        synchronized (this) {
+          result = graph;
+          if (result == null) {
+            result = Optional.of(supplier.get());
+            graph = result;
+            supplier = null;
+          }
+        }
+      }
+      return result;
     }
   }
 }
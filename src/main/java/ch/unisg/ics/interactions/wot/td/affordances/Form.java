@@ -11,6 +11,7 @@ public class Form {
   private final Set<String> operationTypes;
   private final Optional<String> subProtocol;
   private Optional<String> methodName;
+  private volatile UriTemplate uriTemplate;
 
   private Form(String href, Optional<String> methodName, String mediaType, Set<String> operationTypes,
                Optional<String> subProtocol) {
@@ -46,6 +47,23 @@ public class Form {
     return target;
   }
 
+  /**
+   * Returns the URI template of the target of this form, which is compiled when first requested
+   * and reused afterwards, such that the requests created for this form do not parse its target
+   * again.
+   *
+   * @return the URI template of the target
+   */
+  public UriTemplate getUriTemplate() {
+    UriTemplate current = uriTemplate;
+    if (current == null) {
+      /* The target is immutable, so a template compiled concurrently is equivalent */
+      current = new UriTemplate(target);
+      uriTemplate = current;
+    }
+    return current;
+  }
+
   public String getContentType() {
     return contentType;
   }
@@ -22,6 +22,7 @@ public class InteractionAffordance {
   protected List<Form> forms;
   protected Optional<Map<String, DataSchema>> uriVariables;
   protected Optional<String> comment;
+  private volatile UriVariableValidator uriVariableValidator;
 
   protected InteractionAffordance(String name, Optional<String> title, List<String> types,
                                   List<Form> forms, Optional<Map<String, DataSchema>> uriVariables,
@@ -33,7 +34,9 @@ public class InteractionAffordance {
     this.title = title;
     this.types = types;
     this.forms = forms;
-    this.uriVariables = uriVariables;
+    /* The builder keeps adding URI variables to its own map */
+    this.uriVariables = uriVariables.map(variables ->
+      Collections.unmodifiableMap(new LinkedHashMap<>(variables)));
     this.comment = comment;
   }
 
@@ -56,6 +59,22 @@ public class InteractionAffordance {
 
   public Optional<Map<String, DataSchema>> getUriVariables() { return uriVariables; }
 
+  /**
+   * Returns the validator of the URI variables of this affordance, which is compiled when first
+   * requested and reused afterwards. If the affordance has no URI variables, the validator accepts
+   * any values.
+   *
+   * @return the validator
+   */
+  public UriVariableValidator getUriVariableValidator() {
+    UriVariableValidator current = uriVariableValidator;
+    if (current == null) {
+      current = new UriVariableValidator(uriVariables.orElse(Collections.emptyMap()));
+      uriVariableValidator = current;
+    }
+    return current;
+  }
+
   public boolean hasFormWithOperationType(String operationType) {
     return !forms.stream().filter(form -> form.hasOperationType(operationType))
       .collect(Collectors.toList()).isEmpty();
@@ -0,0 +1,509 @@
+package ch.unisg.ics.interactions.wot.td.affordances;
+
+import ch.unisg.ics.interactions.wot.td.schemas.DataSchema;
+
+import java.util.*;
+
+/**
+ * A URI template as defined by <a href="https://www.rfc-editor.org/rfc/rfc6570">RFC 6570</a>, up
+ * to and including level 4: all expression operators (<code>+ # . / ; ? &amp;</code>), value
+ * lists, prefix modifiers (e.g., <code>{var:3}</code>), and exploded lists and maps (e.g.,
+ * <code>{/path*}</code>). Values are percent-encoded as required by the operator of their
+ * expression.
+ * <p>
+ * A template is parsed once when constructed and can then be expanded any number of times. Use
+ * {@link Form#getUriTemplate()} to obtain the template of a form, which is compiled on first use
+ * and kept by the form. A <code>UriTemplate</code> is immutable and thread-safe.
+ */
+public class UriTemplate {
+  private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+  private final String template;
+  /* Each part is either a literal String or an Expression */
+  private final Object[] parts;
+  private final int literalLength;
+
+  public UriTemplate(String expression) {
+    this.template = expression;
+    List<String> extracted = extract(expression);
+    this.parts = new Object[extracted.size()];
+
+    int length = 0;
+    for (int i = 0; i < parts.length; i++) {
+      String part = extracted.get(i);
+      if (part.charAt(0) == '{') {
+        parts[i] = Expression.parse(part);
+      } else {
+        parts[i] = part;
+        length += part.length();
+      }
+    }
+    this.literalLength = length;
+  }
+
+  /**
+   * @return the template this <code>UriTemplate</code> was created from
+   */
+  public String getTemplate() {
+    return template;
+  }
+
+  /**
+   * @return the names of the variables of this template, in order of first occurrence
+   */
+  public Set<String> getVariableNames() {
+    Set<String> names = new LinkedHashSet<>();
+    for (Object part : parts) {
+      if (part instanceof Expression) {
+        for (VarSpec var : ((Expression) part).vars) {
+          names.add(var.name);
+        }
+      }
+    }
+    return names;
+  }
+
+  /**
+   * Splits a template into literals and expressions. Percent-encoded braces (e.g., from an RDF
+   * serialization of the template) delimit expressions as well, and percent-encoded characters
+   * within expressions are decoded. Literals are kept as is.
+   */
+  static List<String> extract(String path) {
+    List<String> extracted = new ArrayList<>();
+    StringBuilder s = new StringBuilder();
+    boolean inExpression = false;
+    int n = path.length();
+
+    for (int i = 0; i < n; i++) {
+      char c = path.charAt(i);
+
+      if (c == '%' && i + 2 < n) {
+        int decoded = decodeHex(path.charAt(i + 1), path.charAt(i + 2));
+        if (inExpression ? decoded >= 0 : decoded == '{') {
+          c = (char) decoded;
+          i += 2;
+        }
+      }
+
+      if (c == '{' && !inExpression) {
+        if (s.length() > 0) {
+          extracted.add(s.toString());
+          s.setLength(0);
+        }
+        inExpression = true;
+        s.append(c);
+      } else if (c == '}' && inExpression) {
+        s.append(c);
+        extracted.add(s.toString());
+        s.setLength(0);
+        inExpression = false;
+      } else {
+        s.append(c);
+      }
+    }
+
+    if (inExpression) {
+      throw new IllegalArgumentException("Unterminated expression in URI template: " + path);
+    }
+    if (s.length() > 0) {
+      extracted.add(s.toString());
+    }
+    return extracted;
+  }
+
+  static List<String> getListVariables(String expression) {
+    List<String> variables = new ArrayList<>();
+    for (VarSpec var : Expression.parse(expression).vars) {
+      variables.add(var.name);
+    }
+    return variables;
+  }
+
+  static Set<String> getVariables(String expression) {
+    return new HashSet<>(getListVariables(expression));
+  }
+
+  static String replace(String expression, Map<String, DataSchema> uriVariables, Map<String, Object> values) {
+    StringBuilder builder = new StringBuilder();
+    Expression.parse(expression).expand(builder, uriVariables, values);
+    return builder.toString();
+  }
+
+  static String getValue(Object object, String datatype) {
+    String value;
+    try {
+      switch (datatype) {
+        case DataSchema.STRING:
+          value = object.toString();
+          break;
+        case DataSchema.INTEGER:
+          value = (object instanceof Long) ? object.toString() : String.valueOf((int) object);
+          break;
+        case DataSchema.NUMBER:
+          value = (object instanceof Integer || object instanceof Long) ? object.toString()
+            : String.valueOf(((Number) object).doubleValue());
+          break;
+        case DataSchema.BOOLEAN:
+          value = String.valueOf((boolean) object);
+          break;
+        case DataSchema.NULL:
+          if (object == null) {
+            value = "null";
+            break;
+          }
+        default:
+          throw new IllegalArgumentException("Unknown data schema of URI variable.");
+      }
+    } catch (ClassCastException e) {
+      throw new IllegalArgumentException("Invalid value for URI variable. Expected value of type "
+        + datatype, e);
+    }
+    return value;
+  }
+
+  static boolean check(Map<String, DataSchema> uriVariables, Map<String, Object> values) {
+    return new UriVariableValidator(uriVariables).isValid(values);
+  }
+
+  /**
+   * Expands this template. The values of all variables declared in <code>uriVariables</code> are
+   * first checked by the {@link UriVariableValidator} of the declared variables. Variables that
+   * are not declared are undefined and expand as specified by RFC 6570 (i.e., they are omitted).
+   * Scalar values are converted according to the declared data schema; arrays are expanded from
+   * {@link List}s and objects from {@link Map}s.
+   *
+   * @param uriVariables the data schemas of the URI variables
+   * @param values the values of the URI variables
+   * @return the expanded URI
+   * @throws UriVariableException if any value does not conform to the data schema of its
+   * variable
+   */
+  public String createUri(Map<String, DataSchema> uriVariables, Map<String, Object> values) {
+    return createUri(new UriVariableValidator(uriVariables), uriVariables, values);
+  }
+
+  /**
+   * Expands this template with the URI variables of an affordance. Unlike
+   * {@link #createUri(Map, Map)}, the values are checked by the validator kept by the affordance,
+   * which is not compiled again for each expansion.
+   *
+   * @param affordance the affordance that declares the URI variables
+   * @param values the values of the URI variables
+   * @return the expanded URI
+   * @throws UriVariableException if any value does not conform to the data schema of its
+   * variable
+   */
+  public String createUri(InteractionAffordance affordance, Map<String, Object> values) {
+    return createUri(affordance.getUriVariableValidator(),
+      affordance.getUriVariables().orElse(Collections.emptyMap()), values);
+  }
+
+  private String createUri(UriVariableValidator validator, Map<String, DataSchema> uriVariables,
+                           Map<String, Object> values) {
+    validator.requireValid(values);
+
+    StringBuilder builder = new StringBuilder(literalLength + 16 * parts.length);
+    for (Object part : parts) {
+      if (part instanceof Expression) {
+        ((Expression) part).expand(builder, uriVariables, values);
+      } else {
+        builder.append((String) part);
+      }
+    }
+    return builder.toString();
+  }
+
+  @Override
+  public String toString() {
+    return template;
+  }
+
+  private static int decodeHex(char high, char low) {
+    int h = Character.digit(high, 16);
+    int l = Character.digit(low, 16);
+    return (h < 0 || l < 0) ? -1 : (h << 4) | l;
+  }
+
+  private static boolean isUnreserved(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+      || c == '-' || c == '.' || c == '_' || c == '~';
+  }
+
+  private static boolean isReserved(char c) {
+    return ":/?#[]@!$&'()*+,;=".indexOf(c) >= 0;
+  }
+
+  /**
+   * Appends a value, percent-encoding the characters that are not allowed by the operator. At most
+   * <code>maxLength</code> code points of the value are appended.
+   */
+  private static void appendEncoded(StringBuilder builder, String value, boolean allowReserved,
+                                    int maxLength) {
+    int n = value.length();
+    int codePoints = 0;
+
+    for (int i = 0; i < n && codePoints < maxLength; i++, codePoints++) {
+      char c = value.charAt(i);
+
+      if (isUnreserved(c) || (allowReserved && isReserved(c))) {
+        builder.append(c);
+      } else if (allowReserved && c == '%' && i + 2 < n
+          && decodeHex(value.charAt(i + 1), value.charAt(i + 2)) >= 0) {
+        /* Percent-encoded triplets are kept as is */
+        builder.append(value, i, i + 3);
+        i += 2;
+      } else if (c < 0x80) {
+        appendByte(builder, c);
+      } else {
+        int codePoint = value.codePointAt(i);
+        i += Character.charCount(codePoint) - 1;
+
+        if (codePoint < 0x800) {
+          appendByte(builder, 0xC0 | (codePoint >> 6));
+        } else {
+          if (codePoint < 0x10000) {
+            appendByte(builder, 0xE0 | (codePoint >> 12));
+          } else {
+            appendByte(builder, 0xF0 | (codePoint >> 18));
+            appendByte(builder, 0x80 | ((codePoint >> 12) & 0x3F));
+          }
+          appendByte(builder, 0x80 | ((codePoint >> 6) & 0x3F));
+        }
+        appendByte(builder, 0x80 | (codePoint & 0x3F));
+      }
+    }
+  }
+
+  private static void appendByte(StringBuilder builder, int b) {
+    builder.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+  }
+
+  /* Operators as defined in Appendix A of RFC 6570 */
+  private enum Operator {
+    SIMPLE('\0', "", ',', false, "", false),
+    RESERVED('+', "", ',', false, "", true),
+    FRAGMENT('#', "#", ',', false, "", true),
+    LABEL('.', ".", '.', false, "", false),
+    PATH('/', "/", '/', false, "", false),
+    PATH_PARAMETER(';', ";", ';', true, "", false),
+    QUERY('?', "?", '&', true, "=", false),
+    QUERY_CONTINUATION('&', "&", '&', true, "=", false);
+
+    private final char symbol;
+    private final String first;
+    private final char separator;
+    private final boolean named;
+    private final String ifEmpty;
+    private final boolean allowReserved;
+
+    Operator(char symbol, String first, char separator, boolean named, String ifEmpty,
+             boolean allowReserved) {
+      this.symbol = symbol;
+      this.first = first;
+      this.separator = separator;
+      this.named = named;
+      this.ifEmpty = ifEmpty;
+      this.allowReserved = allowReserved;
+    }
+
+    static Operator forSymbol(char symbol) {
+      for (Operator operator : values()) {
+        if (operator.symbol == symbol) {
+          return operator;
+        }
+      }
+      return null;
+    }
+  }
+
+  private static class VarSpec {
+    private final String name;
+    private final int maxLength;
+    private final boolean explode;
+
+    VarSpec(String name, int maxLength, boolean explode) {
+      this.name = name;
+      this.maxLength = maxLength;
+      this.explode = explode;
+    }
+
+    static VarSpec parse(String spec, String expression) {
+      if (spec.endsWith("*")) {
+        return new VarSpec(checkName(spec.substring(0, spec.length() - 1), expression),
+          Integer.MAX_VALUE, true);
+      }
+
+      int colon = spec.indexOf(':');
+      if (colon < 0) {
+        return new VarSpec(checkName(spec, expression), Integer.MAX_VALUE, false);
+      }
+
+      int maxLength;
+      try {
+        maxLength = Integer.parseInt(spec.substring(colon + 1));
+      } catch (NumberFormatException e) {
+        maxLength = -1;
+      }
+      if (maxLength <= 0 || maxLength >= 10000) {
+        throw new IllegalArgumentException("Invalid prefix modifier in URI template expression: "
+          + expression);
+      }
+      return new VarSpec(checkName(spec.substring(0, colon), expression), maxLength, false);
+    }
+
+    private static String checkName(String name, String expression) {
+      if (name.isEmpty()) {
+        throw new IllegalArgumentException("Empty variable name in URI template expression: "
+          + expression);
+      }
+      return name;
+    }
+  }
+
+  private static class Expression {
+    private final Operator operator;
+    private final VarSpec[] vars;
+
+    Expression(Operator operator, VarSpec[] vars) {
+      this.operator = operator;
+      this.vars = vars;
+    }
+
+    /* Parses an expression including its braces, e.g. {?p,q} */
+    static Expression parse(String expression) {
+      String body = expression.substring(1, expression.length() - 1);
+      if (body.isEmpty()) {
+        throw new IllegalArgumentException("Empty URI template expression: " + expression);
+      }
+
+      Operator operator = Operator.forSymbol(body.charAt(0));
+      if (operator == null) {
+        operator = Operator.SIMPLE;
+      } else {
+        body = body.substring(1);
+      }
+
+      String[] specs = body.split(",", -1);
+      VarSpec[] vars = new VarSpec[specs.length];
+      for (int i = 0; i < specs.length; i++) {
+        vars[i] = VarSpec.parse(specs[i], expression);
+      }
+      return new Expression(operator, vars);
+    }
+
+    void expand(StringBuilder builder, Map<String, DataSchema> uriVariables,
+                Map<String, Object> values) {
+      boolean first = true;
+
+      for (VarSpec var : vars) {
+        DataSchema schema = uriVariables.get(var.name);
+        if (schema == null || !values.containsKey(var.name)) {
+          continue;
+        }
+
+        Object value = values.get(var.name);
+        if (value == null && !DataSchema.NULL.equals(schema.getDatatype())) {
+          continue;
+        }
+
+        /* Undefined values (i.e., empty lists and maps) must not add a separator */
+        int mark = builder.length();
+        if (first) {
+          builder.append(operator.first);
+        } else {
+          builder.append(operator.separator);
+        }
+
+        boolean defined;
+        if (value instanceof List) {
+          defined = expandList(builder, var, (List<?>) value);
+        } else if (value instanceof Map) {
+          defined = expandMap(builder, var, (Map<?, ?>) value);
+        } else {
+          expandString(builder, var, getValue(value, schema.getDatatype()));
+          defined = true;
+        }
+
+        if (defined) {
+          first = false;
+        } else {
+          builder.setLength(mark);
+        }
+      }
+    }
+
+    private void expandString(StringBuilder builder, VarSpec var, String value) {
+      if (operator.named) {
+        builder.append(var.name);
+        if (value.isEmpty()) {
+          builder.append(operator.ifEmpty);
+          return;
+        }
+        builder.append('=');
+      }
+      appendEncoded(builder, value, operator.allowReserved, var.maxLength);
+    }
+
+    private boolean expandList(StringBuilder builder, VarSpec var, List<?> list) {
+      if (list.isEmpty()) {
+        return false;
+      }
+
+      if (!var.explode && operator.named) {
+        builder.append(var.name).append('=');
+      }
+
+      for (int i = 0; i < list.size(); i++) {
+        if (i > 0) {
+          builder.append(var.explode ? operator.separator : ',');
+        }
+
+        String item = String.valueOf(list.get(i));
+        if (var.explode && operator.named) {
+          builder.append(var.name);
+          if (item.isEmpty()) {
+            builder.append(operator.ifEmpty);
+            continue;
+          }
+          builder.append('=');
+        }
+        appendEncoded(builder, item, operator.allowReserved, Integer.MAX_VALUE);
+      }
+      return true;
+    }
+
+    private boolean expandMap(StringBuilder builder, VarSpec var, Map<?, ?> map) {
+      if (map.isEmpty()) {
+        return false;
+      }
+
+      if (!var.explode && operator.named) {
+        builder.append(var.name).append('=');
+      }
+
+      boolean firstEntry = true;
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        if (!firstEntry) {
+          builder.append(var.explode ? operator.separator : ',');
+        }
+        firstEntry = false;
+
+        String value = String.valueOf(entry.getValue());
+        appendEncoded(builder, String.valueOf(entry.getKey()), operator.allowReserved,
+          Integer.MAX_VALUE);
+
+        if (var.explode) {
+          if (operator.named && value.isEmpty()) {
+            builder.append(operator.ifEmpty);
+            continue;
+          }
+          builder.append('=');
+        } else {
+          builder.append(',');
+        }
+        appendEncoded(builder, value, operator.allowReserved, Integer.MAX_VALUE);
+      }
+      return true;
+    }
+  }
+}
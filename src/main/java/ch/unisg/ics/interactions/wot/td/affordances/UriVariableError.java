@@ -0,0 +1,63 @@
+package ch.unisg.ics.interactions.wot.td.affordances;
+
+/**
+ * Describes why the value of a URI variable does not conform to the data schema of the variable.
+ * Errors are reported by a {@link UriVariableValidator}.
+ */
+public class UriVariableError {
+
+  /**
+   * The reasons for which a value can be rejected.
+   */
+  public enum Reason {
+    /** No value is given for the variable */
+    MISSING,
+    /** The value is not of the type required by the data schema */
+    INVALID_TYPE,
+    /** The value is less than the minimum of the data schema */
+    BELOW_MINIMUM,
+    /** The value is greater than the maximum of the data schema */
+    ABOVE_MAXIMUM,
+    /** The value is not one of the values enumerated by the data schema */
+    NOT_IN_ENUM,
+    /** The data schema cannot be used for URI variables */
+    UNSUPPORTED_SCHEMA
+  }
+
+  private final String variableName;
+  private final Reason reason;
+  private final Object value;
+  private final String message;
+
+  UriVariableError(String variableName, Reason reason, Object value, String message) {
+    this.variableName = variableName;
+    this.reason = reason;
+    this.value = value;
+    this.message = message;
+  }
+
+  public String getVariableName() {
+    return variableName;
+  }
+
+  public Reason getReason() {
+    return reason;
+  }
+
+  /**
+   * @return the rejected value, or <code>null</code> if no value was given
+   */
+  public Object getValue() {
+    return value;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  @Override
+  public String toString() {
+    return "[UriVariableError] Variable: " + variableName + ", Reason: " + reason + ", Message: "
+      + message;
+  }
+}
@@ -0,0 +1,31 @@
+package ch.unisg.ics.interactions.wot.td.affordances;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Thrown when a URI template cannot be expanded because values of URI variables do not conform
+ * to the data schemas of the variables. The exception reports all invalid values, not only the
+ * first one.
+ */
+public class UriVariableException extends IllegalArgumentException {
+  private static final long serialVersionUID = 1L;
+
+  private final transient List<UriVariableError> errors;
+
+  public UriVariableException(List<UriVariableError> errors) {
+    super("Failed to fill URI path template: " + errors.stream()
+      .map(UriVariableError::getMessage)
+      .collect(Collectors.joining("; ")));
+    this.errors = Collections.unmodifiableList(errors);
+  }
+
+  /**
+   * @return the errors of the invalid values, in the iteration order of the map of URI
+   * variables
+   */
+  public List<UriVariableError> getErrors() {
+    return errors;
+  }
+}
@@ -0,0 +1,187 @@
+package ch.unisg.ics.interactions.wot.td.affordances;
+
+import ch.unisg.ics.interactions.wot.td.affordances.UriVariableError.Reason;
+import ch.unisg.ics.interactions.wot.td.schemas.DataSchema;
+import ch.unisg.ics.interactions.wot.td.schemas.NumberSchema;
+
+import java.util.*;
+
+/**
+ * Checks the values of URI variables against the data schemas of the variables (see
+ * {@link InteractionAffordance#getUriVariables()}) before a URI template is expanded, such that
+ * invalid URIs are rejected without sending a request. The validator checks:
+ * <ul>
+ * <li>that a value is given for each variable (unless its schema is a null schema)</li>
+ * <li>the type of each value: strings for string schemas, {@link Integer}s and {@link Long}s for
+ * integer schemas, any {@link Number} for number schemas, {@link Boolean}s for boolean schemas,
+ * {@link List}s for array schemas, and {@link Map}s for object schemas</li>
+ * <li>the <code>minimum</code> and <code>maximum</code> of number and integer schemas</li>
+ * <li>the <code>enum</code> of the schemas</li>
+ * </ul>
+ * The schemas are inspected once when the validator is created. Use
+ * {@link InteractionAffordance#getUriVariableValidator()} to obtain the validator of the URI
+ * variables of an affordance, which is created on first use and kept by the affordance. A
+ * <code>UriVariableValidator</code> is immutable and thread-safe.
+ */
+public class UriVariableValidator {
+  private final VariableCheck[] checks;
+
+  public UriVariableValidator(Map<String, DataSchema> uriVariables) {
+    this.checks = new VariableCheck[uriVariables.size()];
+
+    int i = 0;
+    for (Map.Entry<String, DataSchema> variable : uriVariables.entrySet()) {
+      checks[i++] = new VariableCheck(variable.getKey(), variable.getValue());
+    }
+  }
+
+  /**
+   * Checks the values of all URI variables in a single pass.
+   *
+   * @param values the values of the URI variables
+   * @return the errors of all invalid values, or an empty list if all values are valid
+   */
+  public List<UriVariableError> validate(Map<String, Object> values) {
+    List<UriVariableError> errors = null;
+
+    for (VariableCheck check : checks) {
+      UriVariableError error = check.validate(values.get(check.name));
+      if (error != null) {
+        if (errors == null) {
+          errors = new ArrayList<>();
+        }
+        errors.add(error);
+      }
+    }
+
+    return (errors == null) ? Collections.emptyList() : errors;
+  }
+
+  /**
+   * @param values the values of the URI variables
+   * @return <code>true</code> if the values of all URI variables are valid
+   */
+  public boolean isValid(Map<String, Object> values) {
+    for (VariableCheck check : checks) {
+      if (check.validate(values.get(check.name)) != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks the values of all URI variables.
+   *
+   * @param values the values of the URI variables
+   * @throws UriVariableException if any value is invalid
+   */
+  public void requireValid(Map<String, Object> values) {
+    List<UriVariableError> errors = validate(values);
+    if (!errors.isEmpty()) {
+      throw new UriVariableException(errors);
+    }
+  }
+
+  private static class VariableCheck {
+    private final String name;
+    private final String datatype;
+    private final double minimum;
+    private final double maximum;
+    private final Set<String> enumeration;
+
+    VariableCheck(String name, DataSchema schema) {
+      this.name = name;
+      this.datatype = schema.getDatatype();
+      this.enumeration = schema.getEnumeration();
+
+      if (schema instanceof NumberSchema) {
+        this.minimum = ((NumberSchema) schema).getMinimum().orElse(Double.NEGATIVE_INFINITY);
+        this.maximum = ((NumberSchema) schema).getMaximum().orElse(Double.POSITIVE_INFINITY);
+      } else {
+        this.minimum = Double.NEGATIVE_INFINITY;
+        this.maximum = Double.POSITIVE_INFINITY;
+      }
+    }
+
+    /* Returns null if the value is valid, to avoid allocations on the common path */
+    UriVariableError validate(Object value) {
+      if (value == null) {
+        return DataSchema.NULL.equals(datatype) ? null
+          : error(Reason.MISSING, null, "No value for URI variable " + name);
+      }
+
+      switch (datatype) {
+        case DataSchema.STRING:
+          if (!(value instanceof String)) {
+            return invalidType(value);
+          }
+          break;
+        case DataSchema.INTEGER:
+          if (!(value instanceof Integer || value instanceof Long)) {
+            return invalidType(value);
+          }
+          return checkRange(value, ((Number) value).doubleValue());
+        case DataSchema.NUMBER:
+          if (!(value instanceof Number)) {
+            return invalidType(value);
+          }
+          return checkRange(value, ((Number) value).doubleValue());
+        case DataSchema.BOOLEAN:
+          if (!(value instanceof Boolean)) {
+            return invalidType(value);
+          }
+          break;
+        case DataSchema.ARRAY:
+          return (value instanceof List) ? null : invalidType(value);
+        case DataSchema.OBJECT:
+          return (value instanceof Map) ? null : invalidType(value);
+        case DataSchema.NULL:
+          return invalidType(value);
+        default:
+          return error(Reason.UNSUPPORTED_SCHEMA, value, "Unsupported data schema of URI variable "
+            + name + ": " + datatype);
+      }
+
+      return checkEnumeration(value, value.toString());
+    }
+
+    private UriVariableError checkRange(Object value, double number) {
+      if (number < minimum) {
+        return error(Reason.BELOW_MINIMUM, value, "Value of URI variable " + name + " is less "
+          + "than the minimum " + minimum + ": " + value);
+      }
+      if (number > maximum) {
+        return error(Reason.ABOVE_MAXIMUM, value, "Value of URI variable " + name + " is greater "
+          + "than the maximum " + maximum + ": " + value);
+      }
+      if (enumeration.isEmpty() || enumeration.contains(value.toString())
+          /* Enumerations are strings, e.g. "3" also matches the number 3.0 */
+          || (number == Math.rint(number) && enumeration.contains(String.valueOf((long) number)))) {
+        return null;
+      }
+      return notInEnumeration(value);
+    }
+
+    private UriVariableError checkEnumeration(Object value, String lexicalValue) {
+      if (enumeration.isEmpty() || enumeration.contains(lexicalValue)) {
+        return null;
+      }
+      return notInEnumeration(value);
+    }
+
+    private UriVariableError notInEnumeration(Object value) {
+      return error(Reason.NOT_IN_ENUM, value, "Value of URI variable " + name + " is not one of "
+        + enumeration + ": " + value);
+    }
+
+    private UriVariableError invalidType(Object value) {
+      return error(Reason.INVALID_TYPE, value, "Invalid value for URI variable " + name
+        + ". Expected value of type " + datatype + ": " + value);
+    }
+
+    private UriVariableError error(Reason reason, Object value, String message) {
+      return new UriVariableError(name, reason, value, message);
+    }
+  }
+}
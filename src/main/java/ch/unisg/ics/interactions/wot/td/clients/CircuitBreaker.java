@@ -0,0 +1,221 @@
+package ch.unisg.ics.interactions.wot.td.clients;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Guards the requests sent to a single host. The circuit breaker tracks the latencies of recent
+ * requests to derive a timeout for the next request, and fails requests fast once the host is
+ * considered unavailable:
+ * <ul>
+ * <li><code>CLOSED</code>: requests are sent; the circuit opens after a configured number of
+ * consecutive failures (I/O errors, timeouts, and server errors)</li>
+ * <li><code>OPEN</code>: requests are rejected with a {@link CircuitBreakerOpenException} until
+ * the configured open duration has elapsed</li>
+ * <li><code>HALF_OPEN</code>: a single trial request is sent, while other requests are still
+ * rejected; the circuit closes if the trial succeeds, and opens again otherwise</li>
+ * </ul>
+ * The timeout is a multiple of a percentile of the latencies of the recent successful requests,
+ * bounded by a minimum and a maximum timeout. Until enough latencies have been observed, the
+ * maximum timeout is used. Since only successful requests are observed, the latencies are
+ * discarded when the circuit opens: the trial request and the requests that follow it use the
+ * maximum timeout again, so that the timeout can adapt to a host whose latency has increased.
+ * <p>
+ * Circuit breakers are created and configured by a {@link CircuitBreakerRegistry}. A
+ * <code>CircuitBreaker</code> is thread-safe.
+ */
+public class CircuitBreaker {
+  static final int WINDOW_SIZE = 128;
+  static final int MIN_SAMPLES = 10;
+
+  /**
+   * The states of a circuit breaker.
+   */
+  public enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private final String host;
+  private final int failureThreshold;
+  private final Duration openDuration;
+  private final double percentile;
+  private final double timeoutMultiplier;
+  private final Duration minTimeout;
+  private final Duration maxTimeout;
+  private final Clock clock;
+
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private final LongAdder successes = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private final LongAdder rejections = new LongAdder();
+
+  /* Guarded by this */
+  private State state = State.CLOSED;
+  private int consecutiveFailures = 0;
+  private Instant openedAt;
+  private boolean trialInFlight = false;
+  private final long[] window = new long[WINDOW_SIZE];
+  private long samples = 0;
+  private Duration timeout;
+
+  CircuitBreaker(String host, int failureThreshold, Duration openDuration, double percentile,
+      double timeoutMultiplier, Duration minTimeout, Duration maxTimeout, Clock clock) {
+    this.host = host;
+    this.failureThreshold = failureThreshold;
+    this.openDuration = openDuration;
+    this.percentile = percentile;
+    this.timeoutMultiplier = timeoutMultiplier;
+    this.minTimeout = minTimeout;
+    this.maxTimeout = maxTimeout;
+    this.clock = clock;
+    this.timeout = maxTimeout;
+  }
+
+  public String getHost() {
+    return host;
+  }
+
+  /**
+   * @return the current state of the circuit; an open circuit whose open duration has elapsed is
+   * reported as half-open
+   */
+  public synchronized State getState() {
+    if (state == State.OPEN && hasOpenDurationElapsed()) {
+      return State.HALF_OPEN;
+    }
+    return state;
+  }
+
+  /**
+   * @return the timeout to be used for the next request
+   */
+  public synchronized Duration getTimeout() {
+    return timeout;
+  }
+
+  public synchronized int getConsecutiveFailures() {
+    return consecutiveFailures;
+  }
+
+  /**
+   * @return the number of requests that succeeded
+   */
+  public long getSuccessCount() {
+    return successes.sum();
+  }
+
+  /**
+   * @return the number of requests that failed
+   */
+  public long getFailureCount() {
+    return failures.sum();
+  }
+
+  /**
+   * @return the number of requests that were rejected without being sent
+   */
+  public long getRejectedCount() {
+    return rejections.sum();
+  }
+
+  /**
+   * @return the latencies of all successful requests
+   */
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  /**
+   * Checks whether a request may be sent to the host. Each permitted request must be followed by
+   * a call to {@link #onSuccess(long)}, {@link #onFailure()}, or {@link #release()}.
+   *
+   * @throws CircuitBreakerOpenException if the circuit is open, or half-open with a trial request
+   * in flight
+   */
+  public synchronized void acquire() throws CircuitBreakerOpenException {
+    if (state == State.OPEN && hasOpenDurationElapsed()) {
+      state = State.HALF_OPEN;
+      trialInFlight = false;
+    }
+
+    if (state == State.OPEN || (state == State.HALF_OPEN && trialInFlight)) {
+      rejections.increment();
+      throw new CircuitBreakerOpenException(host);
+    }
+
+    if (state == State.HALF_OPEN) {
+      trialInFlight = true;
+    }
+  }
+
+  /**
+   * Records a request that succeeded.
+   *
+   * @param latencyNanos the latency of the request in nanoseconds
+   */
+  public void onSuccess(long latencyNanos) {
+    successes.increment();
+    latency.recordNanos(latencyNanos);
+
+    synchronized (this) {
+      consecutiveFailures = 0;
+      state = State.CLOSED;
+      trialInFlight = false;
+
+      window[(int) (samples % WINDOW_SIZE)] = latencyNanos;
+      samples++;
+      if (samples >= MIN_SAMPLES) {
+        timeout = computeTimeout();
+      }
+    }
+  }
+
+  /**
+   * Records a request that failed.
+   */
+  public void onFailure() {
+    failures.increment();
+
+    synchronized (this) {
+      consecutiveFailures++;
+      trialInFlight = false;
+
+      if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+        state = State.OPEN;
+        openedAt = clock.instant();
+
+        /* The requests may have timed out because the latency of the host has increased */
+        samples = 0;
+        timeout = maxTimeout;
+      }
+    }
+  }
+
+  /**
+   * Records a request that completed without an outcome, e.g. because it was cancelled.
+   */
+  public synchronized void release() {
+    trialInFlight = false;
+  }
+
+  private boolean hasOpenDurationElapsed() {
+    return !clock.instant().isBefore(openedAt.plus(openDuration));
+  }
+
+  private Duration computeTimeout() {
+    int size = (int) Math.min(samples, WINDOW_SIZE);
+    long[] sorted = Arrays.copyOf(window, size);
+    Arrays.sort(sorted);
+
+    int index = Math.max(0, (int) Math.ceil(size * percentile / 100) - 1);
+    Duration computed = Duration.ofNanos((long) (sorted[index] * timeoutMultiplier));
+
+    if (computed.compareTo(minTimeout) < 0) {
+      return minTimeout;
+    }
+    return (computed.compareTo(maxTimeout) > 0) ? maxTimeout : computed;
+  }
+}
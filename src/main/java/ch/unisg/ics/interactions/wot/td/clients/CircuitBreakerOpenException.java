@@ -0,0 +1,22 @@
+package ch.unisg.ics.interactions.wot.td.clients;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a request is rejected without being sent because the {@link CircuitBreaker} of its
+ * target host is open.
+ */
+public class CircuitBreakerOpenException extends IOException {
+  private static final long serialVersionUID = 1L;
+
+  private final String host;
+
+  public CircuitBreakerOpenException(String host) {
+    super("The circuit breaker for host " + host + " is open.");
+    this.host = host;
+  }
+
+  public String getHost() {
+    return host;
+  }
+}
@@ -0,0 +1,165 @@
+package ch.unisg.ics.interactions.wot.td.clients;
+
+import ch.unisg.ics.interactions.wot.td.affordances.Form;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates and holds one {@link CircuitBreaker} per host, such that a Thing that becomes
+ * unavailable does not slow down requests to other Things. Hosts are identified by the authority
+ * (host and port) of the target of a form.
+ * <p>
+ * A registry is used by passing it to the builder of a {@link TDHttpClient} or a
+ * {@link TDCoapClient}; clients built without a registry do not use circuit breakers. A registry
+ * can be shared by several clients. A <code>CircuitBreakerRegistry</code> is thread-safe.
+ */
+public class CircuitBreakerRegistry {
+  private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+  private final int failureThreshold;
+  private final Duration openDuration;
+  private final double percentile;
+  private final double timeoutMultiplier;
+  private final Duration minTimeout;
+  private final Duration maxTimeout;
+  private final Clock clock;
+
+  protected CircuitBreakerRegistry(int failureThreshold, Duration openDuration, double percentile,
+      double timeoutMultiplier, Duration minTimeout, Duration maxTimeout, Clock clock) {
+    this.failureThreshold = failureThreshold;
+    this.openDuration = openDuration;
+    this.percentile = percentile;
+    this.timeoutMultiplier = timeoutMultiplier;
+    this.minTimeout = minTimeout;
+    this.maxTimeout = maxTimeout;
+    this.clock = clock;
+  }
+
+  /**
+   * @param form the form used to send a request
+   * @return the circuit breaker of the host of the target of the form
+   */
+  public CircuitBreaker getCircuitBreaker(Form form) {
+    return getCircuitBreaker(form.getTarget());
+  }
+
+  /**
+   * @param target the target URI of a request
+   * @return the circuit breaker of the host of the target
+   */
+  public CircuitBreaker getCircuitBreaker(String target) {
+    return circuitBreakers.computeIfAbsent(getHost(target), host -> new CircuitBreaker(host,
+      failureThreshold, openDuration, percentile, timeoutMultiplier, minTimeout, maxTimeout,
+      clock));
+  }
+
+  /**
+   * @return the circuit breakers created so far, sorted by host
+   */
+  public Map<String, CircuitBreaker> getCircuitBreakers() {
+    return Collections.unmodifiableMap(new TreeMap<>(circuitBreakers));
+  }
+
+  /* Targets may be URI templates, which is why they are not parsed as URIs */
+  static String getHost(String target) {
+    int start = target.indexOf("://");
+    start = (start < 0) ? 0 : start + 3;
+
+    int end = target.length();
+    for (char delimiter : new char[] {'/', '?', '#', '{'}) {
+      int index = target.indexOf(delimiter, start);
+      if (index >= 0 && index < end) {
+        end = index;
+      }
+    }
+
+    String authority = target.substring(start, end);
+    return authority.substring(authority.lastIndexOf('@') + 1).toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Helper class used to construct a <code>CircuitBreakerRegistry</code>. Implements a fluent API.
+   */
+  public static class Builder {
+    private int failureThreshold = 5;
+    private Duration openDuration = Duration.ofSeconds(30);
+    private double percentile = 99;
+    private double timeoutMultiplier = 2;
+    private Duration minTimeout = Duration.ofMillis(200);
+    private Duration maxTimeout = Duration.ofSeconds(30);
+    private Clock clock = Clock.systemUTC();
+
+    /**
+     * Sets the number of consecutive failures after which the circuit of a host opens
+     * (default: 5).
+     */
+    public Builder setFailureThreshold(int failureThreshold) {
+      if (failureThreshold <= 0) {
+        throw new IllegalArgumentException("The failure threshold must be positive.");
+      }
+      this.failureThreshold = failureThreshold;
+      return this;
+    }
+
+    /**
+     * Sets the time during which requests are rejected once a circuit has opened, before a trial
+     * request is sent (default: 30 seconds).
+     */
+    public Builder setOpenDuration(Duration openDuration) {
+      this.openDuration = openDuration;
+      return this;
+    }
+
+    /**
+     * Sets the latency percentile from which timeouts are derived (default: 99).
+     */
+    public Builder setPercentile(double percentile) {
+      if (percentile <= 0 || percentile > 100) {
+        throw new IllegalArgumentException("The percentile must be between 0 (exclusive) and 100.");
+      }
+      this.percentile = percentile;
+      return this;
+    }
+
+    /**
+     * Sets the factor applied to the latency percentile to obtain a timeout (default: 2).
+     */
+    public Builder setTimeoutMultiplier(double timeoutMultiplier) {
+      if (timeoutMultiplier < 1) {
+        throw new IllegalArgumentException("The timeout multiplier must be at least 1.");
+      }
+      this.timeoutMultiplier = timeoutMultiplier;
+      return this;
+    }
+
+    /**
+     * Sets the bounds of the adaptive timeouts (default: 200 milliseconds to 30 seconds). The
+     * maximum timeout is used until enough latencies of a host have been observed.
+     */
+    public Builder setTimeoutBounds(Duration minTimeout, Duration maxTimeout) {
+      if (minTimeout.isNegative() || minTimeout.compareTo(maxTimeout) > 0) {
+        throw new IllegalArgumentException("Invalid timeout bounds: " + minTimeout + ", "
+          + maxTimeout);
+      }
+      this.minTimeout = minTimeout;
+      this.maxTimeout = maxTimeout;
+      return this;
+    }
+
+    Builder setClock(Clock clock) {
+      this.clock = clock;
+      return this;
+    }
+
+    public CircuitBreakerRegistry build() {
+      return new CircuitBreakerRegistry(failureThreshold, openDuration, percentile,
+        timeoutMultiplier, minTimeout, maxTimeout, clock);
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package ch.unisg.ics.interactions.wot.td.clients;
+
+import ch.unisg.ics.interactions.wot.td.schemas.DataSchema;
+import com.google.gson.*;
+import com.google.gson.stream.JsonReader;
+
+/**
+ * A {@link PayloadCodec} backed by a {@link Gson} instance. Gson instances are thread-safe and
+ * cache the type adapters they create, which is why a codec should be reused rather than created
+ * per request.
+ */
+public class GsonPayloadCodec implements PayloadCodec {
+  static final GsonPayloadCodec DEFAULT = new GsonPayloadCodec(new Gson());
+
+  private final Gson gson;
+
+  /**
+   * Constructs a codec backed by the given Gson instance, e.g. one configured with custom type
+   * adapters.
+   *
+   * @param gson the Gson instance
+   */
+  public GsonPayloadCodec(Gson gson) {
+    this.gson = gson;
+  }
+
+  public Gson getGson() {
+    return gson;
+  }
+
+  @Override
+  public String encode(Object value) {
+    return gson.toJson(value);
+  }
+
+  @Override
+  public <T> T decode(String payload, Class<T> type) {
+    return gson.fromJson(payload, type);
+  }
+
+  @Override
+  public JsonElement parse(String payload) {
+    return JsonParser.parseString(payload);
+  }
+
+  @Override
+  public JsonElement parse(JsonReader reader) {
+    return JsonParser.parseReader(reader);
+  }
+
+  /**
+   * Decodes the payload token by token with {@link DataSchema#parseJson(JsonReader)}, such that no
+   * tree is built for the payload and members not declared by the schema are skipped. As with
+   * {@link JsonParser}, the payload is read leniently, an empty payload is decoded as JSON
+   * <code>null</code>, and the payload must not contain anything after the decoded value.
+   */
+  @Override
+  public Object decode(JsonReader reader, DataSchema schema) {
+    return JsonDocuments.read(reader, schema::parseJson, () -> schema.parseJson(JsonNull.INSTANCE));
+  }
+}
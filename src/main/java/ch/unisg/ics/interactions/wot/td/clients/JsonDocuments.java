@@ -0,0 +1,53 @@
+package ch.unisg.ics.interactions.wot.td.clients;
+
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/*
+ * Reads JSON payloads token by token for the codecs, independently of the codec implementation.
+ */
+final class JsonDocuments {
+
+  private JsonDocuments() { }
+
+  /*
+   * Reads a whole JSON document leniently, like JsonParser does: an empty document is read as
+   * given by ifEmpty, and the document must not contain anything after the value.
+   */
+  static <T> T read(JsonReader reader, ValueReader<T> valueReader, Supplier<T> ifEmpty) {
+    Strictness strictness = reader.getStrictness();
+    reader.setStrictness(Strictness.LENIENT);
+
+    try {
+      try {
+        reader.peek();
+      } catch (EOFException e) {
+        return ifEmpty.get();
+      }
+
+      T value = valueReader.read(reader);
+      if (reader.peek() != JsonToken.END_DOCUMENT) {
+        throw new JsonSyntaxException("Did not consume the entire document.");
+      }
+      return value;
+    } catch (MalformedJsonException | EOFException e) {
+      throw new JsonSyntaxException(e);
+    } catch (IOException e) {
+      throw new JsonIOException(e);
+    } finally {
+      reader.setStrictness(strictness);
+    }
+  }
+
+  interface ValueReader<T> {
+    T read(JsonReader reader) throws IOException;
+  }
+}
@@ -0,0 +1,125 @@
+package ch.unisg.ics.interactions.wot.td.clients;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies with exponentially growing buckets: bucket <code>i</code> counts the
+ * latencies between 2<sup>i-1</sup> (exclusive) and 2<sup>i</sup> (inclusive) microseconds, such
+ * that percentiles are reported with a relative error of at most a factor of two. Recording a
+ * latency does not allocate and does not lock, which allows a histogram to be updated by many
+ * threads at once.
+ */
+public class LatencyHistogram {
+  private static final int BUCKETS = 40;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Records a latency.
+   *
+   * @param latency the latency
+   */
+  public void record(Duration latency) {
+    recordNanos(latency.toNanos());
+  }
+
+  void recordNanos(long nanos) {
+    long value = Math.max(0, nanos);
+
+    counts.incrementAndGet(getBucket(value));
+    count.increment();
+    totalNanos.add(value);
+    maxNanos.accumulate(value);
+  }
+
+  /**
+   * @return the number of recorded latencies
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * @return the mean of the recorded latencies, or zero if no latency was recorded
+   */
+  public Duration getMean() {
+    long n = count.sum();
+    return (n == 0) ? Duration.ZERO : Duration.ofNanos(totalNanos.sum() / n);
+  }
+
+  /**
+   * @return the highest recorded latency, or zero if no latency was recorded
+   */
+  public Duration getMax() {
+    return Duration.ofNanos(maxNanos.get());
+  }
+
+  /**
+   * Gets an upper bound of the given percentile of the recorded latencies, e.g.
+   * <code>getPercentile(99)</code> for the 99th percentile.
+   *
+   * @param percentile the percentile, between 0 and 100
+   * @return the upper bound of the bucket that contains the percentile, capped to the highest
+   * recorded latency, or zero if no latency was recorded
+   * @throws IllegalArgumentException if the percentile is not between 0 and 100
+   */
+  public Duration getPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("The percentile must be between 0 and 100.");
+    }
+
+    long[] snapshot = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = counts.get(i);
+      total += snapshot[i];
+    }
+
+    if (total == 0) {
+      return Duration.ZERO;
+    }
+
+    long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        return Duration.ofNanos(Math.min(getUpperBoundNanos(i), maxNanos.get()));
+      }
+    }
+
+    return getMax();
+  }
+
+  /**
+   * @return the number of recorded latencies per bucket, where the bucket at index <code>i</code>
+   * holds latencies of up to 2<sup>i</sup> microseconds
+   */
+  public long[] getBucketCounts() {
+    long[] snapshot = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = counts.get(i);
+    }
+    return snapshot;
+  }
+
+  private static int getBucket(long nanos) {
+    long micros = (nanos + 999) / 1000;
+    if (micros <= 1) {
+      return 0;
+    }
+
+    int bucket = 64 - Long.numberOfLeadingZeros(micros - 1);
+    return Math.min(bucket, BUCKETS - 1);
+  }
+
+  private static long getUpperBoundNanos(int bucket) {
+    return (bucket == BUCKETS - 1) ? Long.MAX_VALUE : (1L << bucket) * 1000;
+  }
+}
@@ -0,0 +1,151 @@
+package ch.unisg.ics.interactions.wot.td.clients;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Configures how the notifications of a CoAP observe relation are delivered by a
+ * {@link TDCoapObservePublisher}, i.e. what happens when notifications arrive faster than a
+ * subscriber requests them, and when a relation that has gone stale is reregistered.
+ */
+public class ObserveOptions {
+
+  /**
+   * The strategies applied when notifications arrive while the buffer of a subscription is full.
+   */
+  public enum OverflowStrategy {
+    /** The oldest buffered notification is dropped to make room for the new one */
+    DROP_OLDEST,
+    /** Only the latest notification is kept; the buffer size is ignored */
+    LATEST_ONLY,
+    /** The subscription fails with an {@link IllegalStateException} and the relation is cancelled */
+    BUFFER
+  }
+
+  static final int DEFAULT_BUFFER_SIZE = 128;
+  static final Duration DEFAULT_REREGISTRATION_BACKOFF = Duration.ofSeconds(2);
+
+  private static final ObserveOptions DEFAULT = new Builder().build();
+
+  private final OverflowStrategy overflowStrategy;
+  private final int bufferSize;
+  private final Executor executor;
+  private final boolean reregistering;
+  private final Duration reregistrationBackoff;
+
+  protected ObserveOptions(OverflowStrategy overflowStrategy, int bufferSize, Executor executor,
+                           boolean reregistering, Duration reregistrationBackoff) {
+    this.overflowStrategy = overflowStrategy;
+    this.bufferSize = bufferSize;
+    this.executor = executor;
+    this.reregistering = reregistering;
+    this.reregistrationBackoff = reregistrationBackoff;
+  }
+
+  /**
+   * @return the options used when none are given: notifications are buffered up to a size of 128,
+   * dropping the oldest notifications on overflow, and stale relations are reregistered
+   */
+  public static ObserveOptions getDefault() {
+    return DEFAULT;
+  }
+
+  public OverflowStrategy getOverflowStrategy() {
+    return overflowStrategy;
+  }
+
+  /**
+   * @return the maximum number of notifications buffered per subscription
+   */
+  public int getBufferSize() {
+    return (overflowStrategy == OverflowStrategy.LATEST_ONLY) ? 1 : bufferSize;
+  }
+
+  /**
+   * @return the executor on which notifications are delivered to subscribers
+   */
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  public boolean isReregistering() {
+    return reregistering;
+  }
+
+  /**
+   * @return the time to wait after the Max-Age of the latest notification has elapsed, before a
+   * relation is considered stale
+   */
+  public Duration getReregistrationBackoff() {
+    return reregistrationBackoff;
+  }
+
+  /**
+   * Helper class used to construct <code>ObserveOptions</code>. Implements a fluent API.
+   */
+  public static class Builder {
+    private OverflowStrategy overflowStrategy = OverflowStrategy.DROP_OLDEST;
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private Executor executor = ForkJoinPool.commonPool();
+    private boolean reregistering = true;
+    private Duration reregistrationBackoff = DEFAULT_REREGISTRATION_BACKOFF;
+
+    /**
+     * Sets the strategy applied when the buffer of a subscription is full (default:
+     * <code>DROP_OLDEST</code>).
+     */
+    public Builder setOverflowStrategy(OverflowStrategy overflowStrategy) {
+      this.overflowStrategy = overflowStrategy;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of notifications buffered per subscription (default: 128).
+     */
+    public Builder setBufferSize(int bufferSize) {
+      if (bufferSize <= 0) {
+        throw new IllegalArgumentException("The buffer size must be positive.");
+      }
+      this.bufferSize = bufferSize;
+      return this;
+    }
+
+    /**
+     * Sets the executor on which notifications are delivered to subscribers, such that slow
+     * subscribers do not block the threads of the CoAP client (default: the common fork-join
+     * pool).
+     */
+    public Builder setExecutor(Executor executor) {
+      this.executor = executor;
+      return this;
+    }
+
+    /**
+     * Sets whether a relation is reregistered when no notification has arrived within the Max-Age
+     * of the latest notification plus a backoff (default: <code>true</code>, with a backoff of 2
+     * seconds).
+     */
+    public Builder setReregistering(boolean reregistering) {
+      this.reregistering = reregistering;
+      return this;
+    }
+
+    /**
+     * Sets the time to wait after the Max-Age of the latest notification has elapsed, before a
+     * relation is reregistered (default: 2 seconds).
+     */
+    public Builder setReregistrationBackoff(Duration reregistrationBackoff) {
+      if (reregistrationBackoff.isNegative()) {
+        throw new IllegalArgumentException("The reregistration backoff must not be negative.");
+      }
+      this.reregistrationBackoff = reregistrationBackoff;
+      return this;
+    }
+
+    public ObserveOptions build() {
+      return new ObserveOptions(overflowStrategy, bufferSize, executor, reregistering,
+        reregistrationBackoff);
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package ch.unisg.ics.interactions.wot.td.clients;
+
+import ch.unisg.ics.interactions.wot.td.schemas.ArraySchema;
+import ch.unisg.ics.interactions.wot.td.schemas.DataSchema;
+import ch.unisg.ics.interactions.wot.td.schemas.ObjectBinding;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.apache.commons.io.output.StringBuilderWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Encodes and decodes the JSON payloads of requests and responses. Implementations must be
+ * thread-safe, such that a single codec can be shared by all requests and responses. Requests
+ * and responses use the codec returned by {@link #getDefault()} unless another codec is set.
+ */
+public interface PayloadCodec {
+
+  /**
+   * @return the shared default codec, which is backed by a {@link GsonPayloadCodec}
+   */
+  static PayloadCodec getDefault() {
+    return GsonPayloadCodec.DEFAULT;
+  }
+
+  /**
+   * Encodes a value (e.g., a primitive, a <code>Map&lt;String,Object&gt;</code>, or a
+   * <code>List&lt;Object&gt;</code>) as JSON.
+   *
+   * @param value the value to be encoded
+   * @return the JSON representation of the value
+   */
+  String encode(Object value);
+
+  /**
+   * Encodes an array of numbers as a JSON array without boxing its items. As JSON does not allow
+   * <code>NaN</code> and infinite values, such items are rejected.
+   *
+   * @param values the array to be encoded
+   * @return the JSON representation of the array
+   * @throws IllegalArgumentException if the array contains <code>NaN</code> or an infinite value
+   */
+  default String encode(double[] values) {
+    StringBuilder json = new StringBuilder(values.length * 8 + 2).append('[');
+
+    for (int i = 0; i < values.length; i++) {
+      if (Double.isNaN(values[i]) || Double.isInfinite(values[i])) {
+        throw new IllegalArgumentException(values[i] + " is not a valid double value as per JSON "
+          + "specification.");
+      }
+      json.append(i == 0 ? "" : ",").append(values[i]);
+    }
+
+    return json.append(']').toString();
+  }
+
+  /**
+   * Encodes an array of integers as a JSON array without boxing its items.
+   *
+   * @param values the array to be encoded
+   * @return the JSON representation of the array
+   */
+  default String encode(long[] values) {
+    StringBuilder json = new StringBuilder(values.length * 4 + 2).append('[');
+
+    for (int i = 0; i < values.length; i++) {
+      json.append(i == 0 ? "" : ",").append(values[i]);
+    }
+
+    return json.append(']').toString();
+  }
+
+  /**
+   * Encodes a record as a JSON object, as written by
+   * {@link ObjectBinding#writeJson(JsonWriter, Record)}.
+   *
+   * @param binding the binding of the record type to its object schema
+   * @param value the record to be encoded
+   * @param <T> the type of the record
+   * @return the JSON representation of the record
+   * @throws IllegalArgumentException if the record is not valid against the schema
+   */
+  default <T extends Record> String encode(ObjectBinding<T> binding, T value) {
+    StringBuilderWriter json = new StringBuilderWriter();
+
+    try (JsonWriter writer = new JsonWriter(json)) {
+      binding.writeJson(writer, value);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    return json.toString();
+  }
+
+  /**
+   * Decodes a JSON payload into a value of the given type.
+   *
+   * @param payload the JSON payload
+   * @param type the type of the value
+   * @return the decoded value
+   * @throws com.google.gson.JsonParseException if the payload is not valid JSON or cannot be
+   * decoded into the given type
+   */
+  <T> T decode(String payload, Class<T> type);
+
+  /**
+   * Parses a JSON payload into a tree.
+   *
+   * @param payload the JSON payload
+   * @return the parsed tree
+   * @throws com.google.gson.JsonParseException if the payload is not valid JSON
+   */
+  JsonElement parse(String payload);
+
+  /**
+   * Parses the next JSON value read by a reader into a tree.
+   *
+   * @param reader the reader of the JSON payload
+   * @return the parsed tree
+   * @throws com.google.gson.JsonParseException if the payload is not valid JSON
+   */
+  JsonElement parse(JsonReader reader);
+
+  /**
+   * Decodes the JSON payload read by a reader into a value that conforms to a given
+   * <code>DataSchema</code>, as constructed by {@link DataSchema#parseJson(JsonElement)}. The
+   * default implementation parses the payload into a tree with {@link #parse(JsonReader)} first.
+   *
+   * @param reader the reader of the JSON payload
+   * @param schema the schema used to construct the value
+   * @return the decoded value
+   * @throws IllegalArgumentException if the payload does not conform to the schema
+   * @throws com.google.gson.JsonParseException if the payload is not valid JSON
+   */
+  default Object decode(JsonReader reader, DataSchema schema) {
+    return schema.parseJson(parse(reader));
+  }
+
+  /**
+   * Decodes the JSON array read by a reader into an array of <code>double</code>s, as constructed
+   * by {@link ArraySchema#parseJsonAsDoubleArray(JsonReader)}.
+   *
+   * @param reader the reader of the JSON payload
+   * @param schema the schema of the array, with numeric items
+   * @return the decoded array
+   * @throws IllegalArgumentException if the payload does not conform to the schema
+   * @throws com.google.gson.JsonParseException if the payload is not valid JSON
+   */
+  default double[] decodeDoubleArray(JsonReader reader, ArraySchema schema) {
+    return JsonDocuments.read(reader, schema::parseJsonAsDoubleArray, () -> {
+      throw new IllegalArgumentException("The payload is not an array.");
+    });
+  }
+
+  /**
+   * Decodes the JSON array read by a reader into an array of <code>long</code>s, as constructed
+   * by {@link ArraySchema#parseJsonAsLongArray(JsonReader)}.
+   *
+   * @param reader the reader of the JSON payload
+   * @param schema the schema of the array, with numeric items
+   * @return the decoded array
+   * @throws IllegalArgumentException if the payload does not conform to the schema
+   * @throws com.google.gson.JsonParseException if the payload is not valid JSON
+   */
+  default long[] decodeLongArray(JsonReader reader, ArraySchema schema) {
+    return JsonDocuments.read(reader, schema::parseJsonAsLongArray, () -> {
+      throw new IllegalArgumentException("The payload is not an array.");
+    });
+  }
+
+  /**
+   * Decodes the JSON object read by a reader into a record, as constructed by
+   * {@link ObjectBinding#parseJson(JsonReader)}.
+   *
+   * @param reader the reader of the JSON payload
+   * @param binding the binding of the record type to its object schema
+   * @param <T> the type of the record
+   * @return the decoded record
+   * @throws IllegalArgumentException if the payload does not conform to the schema
+   * @throws com.google.gson.JsonParseException if the payload is not valid JSON
+   */
+  default <T extends Record> T decode(JsonReader reader, ObjectBinding<T> binding) {
+    return JsonDocuments.read(reader, binding::parseJson, () -> {
+      throw new IllegalArgumentException("The payload is not an object.");
+    });
+  }
+}
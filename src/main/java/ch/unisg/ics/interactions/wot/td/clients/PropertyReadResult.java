@@ -0,0 +1,75 @@
+package ch.unisg.ics.interactions.wot.td.clients;
+
+import ch.unisg.ics.interactions.wot.td.clients.PropertyReader.PropertyRead;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * The result of reading a batch of properties with {@link PropertyReader#readAll(List)}.
+ * Responses and errors are kept in input order. A read that failed does not abort the batch, but
+ * is reported through {@link #getErrors()}.
+ */
+public class PropertyReadResult {
+  private final List<PropertyRead> reads;
+  private final List<TDHttpResponse> responses;
+  private final Map<PropertyRead, Exception> errors;
+  private final Duration elapsedTime;
+
+  PropertyReadResult(List<PropertyRead> reads, List<TDHttpResponse> responses,
+      Map<PropertyRead, Exception> errors, Duration elapsedTime) {
+    this.reads = reads;
+    this.responses = responses;
+    this.errors = errors;
+    this.elapsedTime = elapsedTime;
+  }
+
+  /**
+   * @return the number of reads in the batch
+   */
+  public int size() {
+    return reads.size();
+  }
+
+  /**
+   * @return the responses of the reads that succeeded, in input order
+   */
+  public List<TDHttpResponse> getResponses() {
+    List<TDHttpResponse> result = new ArrayList<>();
+
+    for (TDHttpResponse response : responses) {
+      if (response != null) {
+        result.add(response);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * @param index the position of the read in the batch
+   * @return the response of the read, or an empty optional if the read failed
+   */
+  public Optional<TDHttpResponse> getResponse(int index) {
+    return Optional.ofNullable(responses.get(index));
+  }
+
+  /**
+   * @return the reads that failed, in input order, mapped to the cause of the failure (e.g., an
+   * {@link IllegalArgumentException} or an {@link java.io.IOException})
+   */
+  public Map<PropertyRead, Exception> getErrors() {
+    return Collections.unmodifiableMap(errors);
+  }
+
+  public boolean hasErrors() {
+    return !errors.isEmpty();
+  }
+
+  /**
+   * @return the wall-clock time spent reading the batch
+   */
+  public Duration getElapsedTime() {
+    return elapsedTime;
+  }
+}
@@ -0,0 +1,284 @@
+package ch.unisg.ics.interactions.wot.td.clients;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.affordances.Form;
+import ch.unisg.ics.interactions.wot.td.affordances.PropertyAffordance;
+import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reads properties of many Things concurrently over HTTP. For each property, the request is built
+ * from the first HTTP or HTTPS form of the property affordance with the operation type
+ * {@link TD#readProperty}.
+ * <p>
+ * At most a configured number of requests are in flight at any time; further reads are queued
+ * without blocking the caller. Reads with the same method and target that are issued while such a
+ * request is in flight are coalesced, i.e. they are served by the response of the pending request
+ * instead of a request of their own. The latencies of reads and of network requests are recorded
+ * in histograms.
+ * <p>
+ * A <code>PropertyReader</code> is thread-safe.
+ */
+public class PropertyReader {
+  static final int DEFAULT_MAX_IN_FLIGHT = 64;
+
+  private final TDHttpClient client;
+  private final Executor executor;
+  private final Semaphore permits;
+  private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+  private final Map<String, CompletableFuture<TDHttpResponse>> inFlight = new ConcurrentHashMap<>();
+  private final AtomicInteger drainRequests = new AtomicInteger();
+
+  private final LatencyHistogram readLatency = new LatencyHistogram();
+  private final LatencyHistogram requestLatency = new LatencyHistogram();
+  private final LongAdder coalescedReads = new LongAdder();
+
+  /**
+   * Constructs a reader that uses the shared {@link TDHttpClient#getDefault() default client}.
+   */
+  public PropertyReader() {
+    this(TDHttpClient.getDefault(), DEFAULT_MAX_IN_FLIGHT);
+  }
+
+  /**
+   * @param client the client used to execute the requests
+   * @param maxInFlight the maximum number of requests in flight at any time
+   */
+  public PropertyReader(TDHttpClient client, int maxInFlight) {
+    this(client, maxInFlight, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * @param client the client used to execute the requests
+   * @param maxInFlight the maximum number of requests in flight at any time
+   * @param executor the executor used to complete the futures returned by this reader
+   */
+  public PropertyReader(TDHttpClient client, int maxInFlight, Executor executor) {
+    if (maxInFlight <= 0) {
+      throw new IllegalArgumentException("The maximum number of requests in flight must be "
+        + "positive.");
+    }
+
+    this.client = client;
+    this.executor = executor;
+    this.permits = new Semaphore(maxInFlight);
+  }
+
+  /**
+   * Reads a property of a Thing without blocking the calling thread.
+   *
+   * @param td the thing description of the Thing
+   * @param propertyName the name of the property
+   * @return a future completed with the response, or exceptionally with an
+   * {@link IllegalArgumentException} if the property cannot be read over HTTP, or with an
+   * {@link java.io.IOException} if the request failed
+   */
+  public CompletableFuture<TDHttpResponse> read(ThingDescription td, String propertyName) {
+    long start = System.nanoTime();
+
+    TDHttpRequest request;
+    try {
+      request = createRequest(td, propertyName);
+    } catch (IllegalArgumentException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+
+    String key = request.getRequest().getMethod() + " " + request.getTarget();
+    CompletableFuture<TDHttpResponse> shared = new CompletableFuture<>();
+    CompletableFuture<TDHttpResponse> existing = inFlight.putIfAbsent(key, shared);
+
+    if (existing != null) {
+      coalescedReads.increment();
+      shared = existing;
+    } else {
+      CompletableFuture<TDHttpResponse> result = shared;
+      submit(() -> send(request, key, result));
+    }
+
+    /* Each caller gets its own future, such that cancelling it does not affect other callers */
+    return shared.copy().whenComplete((response, ex) ->
+      readLatency.recordNanos(System.nanoTime() - start));
+  }
+
+  /**
+   * Reads a batch of properties concurrently and waits until all reads have completed. Reads that
+   * fail do not abort the batch: the cause of each failure is collected in the result.
+   *
+   * @param reads the properties to be read
+   * @return the responses and errors, in input order
+   * @throws InterruptedException if the current thread is interrupted while waiting for the batch,
+   * in which case the pending reads are cancelled
+   */
+  public PropertyReadResult readAll(List<PropertyRead> reads) throws InterruptedException {
+    long start = System.nanoTime();
+
+    List<CompletableFuture<TDHttpResponse>> futures = new ArrayList<>(reads.size());
+    for (PropertyRead read : reads) {
+      futures.add(read(read.getThingDescription(), read.getPropertyName()));
+    }
+
+    List<TDHttpResponse> responses = new ArrayList<>(reads.size());
+    Map<PropertyRead, Exception> errors = new LinkedHashMap<>();
+
+    try {
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          responses.add(futures.get(i).get());
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof Error) {
+            throw (Error) e.getCause();
+          }
+
+          responses.add(null);
+          errors.put(reads.get(i), (Exception) e.getCause());
+        }
+      }
+    } catch (InterruptedException e) {
+      futures.forEach(future -> future.cancel(true));
+      throw e;
+    }
+
+    return new PropertyReadResult(reads, responses, errors,
+      Duration.ofNanos(System.nanoTime() - start));
+  }
+
+  /**
+   * @return the latencies observed by callers, from the call to {@link #read(ThingDescription,
+   * String)} until the response is available, including the time spent waiting for a free slot
+   */
+  public LatencyHistogram getReadLatency() {
+    return readLatency;
+  }
+
+  /**
+   * @return the latencies of the network requests, excluding the time spent waiting for a free
+   * slot
+   */
+  public LatencyHistogram getRequestLatency() {
+    return requestLatency;
+  }
+
+  /**
+   * @return the number of reads served by a request issued for another read of the same target
+   */
+  public long getCoalescedReadCount() {
+    return coalescedReads.sum();
+  }
+
+  /**
+   * @return the number of requests currently in flight
+   */
+  public int getInFlightCount() {
+    return inFlight.size();
+  }
+
+  private void send(TDHttpRequest request, String key, CompletableFuture<TDHttpResponse> result) {
+    long start = System.nanoTime();
+
+    CompletableFuture<TDHttpResponse> exchange;
+    try {
+      exchange = client.executeAsync(request, executor);
+    } catch (RuntimeException e) {
+      exchange = CompletableFuture.failedFuture(e);
+    }
+
+    exchange.whenComplete((response, ex) -> {
+      requestLatency.recordNanos(System.nanoTime() - start);
+      /* Reads issued from now on must not be coalesced with this completed request */
+      inFlight.remove(key, result);
+      permits.release();
+      drain();
+
+      if (ex == null) {
+        result.complete(response);
+      } else {
+        result.completeExceptionally((ex instanceof CompletionException && ex.getCause() != null)
+          ? ex.getCause() : ex);
+      }
+    });
+  }
+
+  private void submit(Runnable task) {
+    pending.add(task);
+    drain();
+  }
+
+  /*
+   * Called after each submission and each completion, such that no queued task is left behind.
+   * Requests may complete synchronously, e.g. when a circuit is open, and call drain() from within
+   * task.run(). Such calls only record that there is more work for the thread that is already
+   * draining, instead of running the next task further down the stack.
+   */
+  private void drain() {
+    if (drainRequests.getAndIncrement() != 0) {
+      return;
+    }
+
+    int missed = 1;
+    do {
+      while (!pending.isEmpty() && permits.tryAcquire()) {
+        Runnable task = pending.poll();
+
+        if (task == null) {
+          permits.release();
+        } else {
+          task.run();
+        }
+      }
+
+      missed = drainRequests.addAndGet(-missed);
+    } while (missed != 0);
+  }
+
+  private static TDHttpRequest createRequest(ThingDescription td, String propertyName) {
+    Optional<PropertyAffordance> property = td.getPropertyByName(propertyName);
+    if (!property.isPresent()) {
+      throw new IllegalArgumentException("Unknown property: " + propertyName);
+    }
+
+    /* The protocol binding covers both the http and the https URI schemes */
+    Optional<Form> form = property.get().getFirstFormForProtocol(TD.readProperty, "HTTP");
+    if (!form.isPresent()) {
+      throw new IllegalArgumentException("No HTTP form for operation type " + TD.readProperty
+        + " for property: " + propertyName);
+    }
+
+    return new TDHttpRequest(form.get(), TD.readProperty);
+  }
+
+  /**
+   * A property of a Thing to be read with {@link #readAll(List)}.
+   */
+  public static class PropertyRead {
+    private final ThingDescription td;
+    private final String propertyName;
+
+    public PropertyRead(ThingDescription td, String propertyName) {
+      this.td = td;
+      this.propertyName = propertyName;
+    }
+
+    public ThingDescription getThingDescription() {
+      return td;
+    }
+
+    public String getPropertyName() {
+      return propertyName;
+    }
+
+    @Override
+    public String toString() {
+      return "[PropertyRead] Thing: " + td.getTitle() + ", Property: " + propertyName;
+    }
+  }
+}
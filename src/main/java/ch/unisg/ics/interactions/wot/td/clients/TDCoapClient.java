@@ -0,0 +1,251 @@
+package ch.unisg.ics.interactions.wot.td.clients;
+
+import org.eclipse.californium.core.CoapClient;
+import org.eclipse.californium.core.CoapResponse;
+import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.eclipse.californium.core.coap.Request;
+import org.eclipse.californium.core.network.CoapEndpoint;
+import org.eclipse.californium.core.network.config.NetworkConfig;
+import org.eclipse.californium.elements.exception.ConnectorException;
+import org.eclipse.californium.elements.util.DaemonThreadFactory;
+import org.eclipse.californium.elements.util.ExecutorsUtil;
+import org.eclipse.californium.elements.util.NamedThreadFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * A CoAP client used to execute {@link TDCoapRequest}s. All requests executed with the same
+ * client, including asynchronous requests and observe relations, are sent from a single CoAP
+ * endpoint (i.e., a single local UDP port) and processed by a bounded pool of threads shared by
+ * that endpoint, instead of creating an endpoint and executors per request.
+ * <p>
+ * A <code>TDCoapClient</code> is thread-safe and meant to be shared. Requests executed without
+ * an explicit client use the client returned by {@link #getDefault()}. A client constructed with
+ * a <code>TDCoapClient.Builder</code> should be closed when no longer needed, which also ends all
+ * observe relations established with it.
+ */
+public class TDCoapClient implements Closeable {
+  private static final long SHUTDOWN_TIMEOUT_MILLIS = 1000;
+
+  private final CoapEndpoint endpoint;
+  private final ScheduledExecutorService mainExecutor;
+  private final ScheduledThreadPoolExecutor secondaryExecutor;
+  private final Optional<CircuitBreakerRegistry> circuitBreakers;
+
+  protected TDCoapClient(CoapEndpoint endpoint, ScheduledExecutorService mainExecutor,
+                         ScheduledThreadPoolExecutor secondaryExecutor,
+                         Optional<CircuitBreakerRegistry> circuitBreakers) {
+    this.endpoint = endpoint;
+    this.mainExecutor = mainExecutor;
+    this.secondaryExecutor = secondaryExecutor;
+    this.circuitBreakers = circuitBreakers;
+
+    this.endpoint.setExecutors(mainExecutor, secondaryExecutor);
+  }
+
+  /**
+   * Gets the client shared by all requests executed without an explicit client. The shared
+   * client uses the default configuration of <code>TDCoapClient.Builder</code>, except that its
+   * threads are daemon threads so that it does not keep the JVM from exiting, and should not be
+   * closed.
+   *
+   * @return the shared client
+   */
+  public static TDCoapClient getDefault() {
+    return DefaultClientHolder.INSTANCE;
+  }
+
+  /**
+   * @return the local address of the endpoint of this client, which is bound once the first
+   * request has been sent
+   */
+  public InetSocketAddress getAddress() {
+    return endpoint.getAddress();
+  }
+
+  /**
+   * @return <code>true</code> if the endpoint of this client has been started and not closed
+   */
+  public boolean isStarted() {
+    return endpoint.isStarted();
+  }
+
+  /**
+   * @return the registry of the circuit breakers used by this client, if any
+   */
+  public Optional<CircuitBreakerRegistry> getCircuitBreakerRegistry() {
+    return circuitBreakers;
+  }
+
+  /**
+   * Stops the endpoint of this client and its threads. Pending requests and observe relations
+   * are cancelled.
+   */
+  @Override
+  public void close() {
+    endpoint.destroy();
+    ExecutorsUtil.shutdownExecutorGracefully(SHUTDOWN_TIMEOUT_MILLIS, mainExecutor,
+      secondaryExecutor);
+  }
+
+  /**
+   * Sends a request and waits for its response. If this client uses circuit breakers, the request
+   * is rejected while the circuit of its host is open, and the time to wait for the response is
+   * the adaptive timeout of the host.
+   */
+  CoapResponse execute(Request request) throws IOException {
+    CircuitBreaker circuitBreaker = null;
+    CoapClient client = createClient();
+
+    if (circuitBreakers.isPresent()) {
+      circuitBreaker = circuitBreakers.get().getCircuitBreaker(request.getURI());
+      circuitBreaker.acquire();
+      client.setTimeout(Math.max(1, circuitBreaker.getTimeout().toMillis()));
+    }
+
+    long start = System.nanoTime();
+    CoapResponse response;
+
+    try {
+      response = client.advanced(request);
+    } catch (ConnectorException e) {
+      onFailure(circuitBreaker);
+      throw new IOException(e);
+    } catch (IOException | RuntimeException e) {
+      onFailure(circuitBreaker);
+      throw e;
+    }
+
+    if (circuitBreaker != null) {
+      /* Server errors count as failures of the host */
+      if (response == null || ResponseCode.isServerError(response.getCode())) {
+        circuitBreaker.onFailure();
+      } else {
+        circuitBreaker.onSuccess(System.nanoTime() - start);
+      }
+    }
+
+    if (response == null) {
+      throw new IOException("No response received for request: " + request.getURI());
+    }
+
+    return response;
+  }
+
+  private static void onFailure(CircuitBreaker circuitBreaker) {
+    if (circuitBreaker != null) {
+      circuitBreaker.onFailure();
+    }
+  }
+
+  /* Used for timers that must not occupy the threads processing requests and responses */
+  ScheduledExecutorService getScheduler() {
+    return secondaryExecutor;
+  }
+
+  /* Californium clients are lightweight as long as they share the endpoint and executors */
+  CoapClient createClient() {
+    return configure(new CoapClient());
+  }
+
+  CoapClient createClient(String uri) {
+    return configure(new CoapClient(uri));
+  }
+
+  private CoapClient configure(CoapClient client) {
+    client.setEndpoint(endpoint);
+    client.setExecutors(mainExecutor, secondaryExecutor, true);
+    return client;
+  }
+
+  private static class DefaultClientHolder {
+    private static final TDCoapClient INSTANCE = new Builder().setDaemonThreads(true).build();
+  }
+
+  /**
+   * Helper class used to construct a <code>TDCoapClient</code>. Implements a fluent API.
+   */
+  public static class Builder {
+    private NetworkConfig config;
+    private InetSocketAddress address = new InetSocketAddress(0);
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean daemonThreads = false;
+    private Optional<CircuitBreakerRegistry> circuitBreakers = Optional.empty();
+
+    /**
+     * Sets the Californium configuration of the endpoint (default: the standard configuration,
+     * without reading or writing a <code>Californium.properties</code> file).
+     */
+    public Builder setNetworkConfig(NetworkConfig config) {
+      this.config = config;
+      return this;
+    }
+
+    /**
+     * Sets the local address the endpoint is bound to (default: an ephemeral port on all
+     * interfaces).
+     */
+    public Builder setAddress(InetSocketAddress address) {
+      this.address = address;
+      return this;
+    }
+
+    /**
+     * Sets the number of threads used to process requests and responses (default: the number of
+     * available processors).
+     */
+    public Builder setThreads(int threads) {
+      if (threads <= 0) {
+        throw new IllegalArgumentException("The number of threads must be positive.");
+      }
+      this.threads = threads;
+      return this;
+    }
+
+    /**
+     * Sets whether the threads used to process requests and responses are daemon threads, which do
+     * not keep the JVM from exiting (default: <code>false</code>).
+     */
+    public Builder setDaemonThreads(boolean daemonThreads) {
+      this.daemonThreads = daemonThreads;
+      return this;
+    }
+
+    /**
+     * Sets the registry of the circuit breakers that guard the hosts of the synchronous requests
+     * executed by the client, which also sets the timeouts of the requests adaptively (default: no
+     * circuit breakers).
+     */
+    public Builder setCircuitBreakerRegistry(CircuitBreakerRegistry circuitBreakers) {
+      this.circuitBreakers = Optional.of(circuitBreakers);
+      return this;
+    }
+
+    public TDCoapClient build() {
+      CoapEndpoint endpoint = new CoapEndpoint.Builder()
+        .setNetworkConfig((config == null) ? NetworkConfig.createStandardWithoutFile() : config)
+        .setInetSocketAddress(address)
+        .build();
+
+      if (!daemonThreads) {
+        return new TDCoapClient(endpoint,
+          ExecutorsUtil.newScheduledThreadPool(threads, new NamedThreadFactory("TDCoapClient#")),
+          ExecutorsUtil.newDefaultSecondaryScheduler("TDCoapClient-timer#"), circuitBreakers);
+      }
+
+      /* Same as the default secondary scheduler of Californium, but with daemon threads */
+      ScheduledThreadPoolExecutor secondaryExecutor = new ScheduledThreadPoolExecutor(2,
+        new DaemonThreadFactory("TDCoapClient-timer#"));
+      secondaryExecutor.setRemoveOnCancelPolicy(true);
+
+      return new TDCoapClient(endpoint,
+        ExecutorsUtil.newScheduledThreadPool(threads, new DaemonThreadFactory("TDCoapClient#")),
+        secondaryExecutor, circuitBreakers);
+    }
+  }
+}
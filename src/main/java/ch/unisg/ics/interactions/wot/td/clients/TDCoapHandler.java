@@ -12,11 +12,12 @@ import org.eclipse.californium.core.CoapResponse;
  * {@link TDCoapRequest#establishRelationAndWait(TDCoapHandler)}.
  */
 public abstract class TDCoapHandler {
+  private final PayloadCodec payloadCodec;
 
   private final CoapHandler coapHandler = new CoapHandler() {
     @Override
     public void onLoad(CoapResponse response) {
-      handleLoad(new TDCoapResponse(response.advanced()));
+      handleLoad(new TDCoapResponse(response.advanced(), payloadCodec));
     }
 
     @Override
@@ -25,6 +26,17 @@ public abstract class TDCoapHandler {
     }
   };
 
+  protected TDCoapHandler() {
+    this(PayloadCodec.getDefault());
+  }
+
+  /**
+   * @param payloadCodec the codec used to decode the payloads of responses and notifications
+   */
+  protected TDCoapHandler(PayloadCodec payloadCodec) {
+    this.payloadCodec = payloadCodec;
+  }
+
   /**
    * Invoked when a CoAP response or notification has arrived.
    *
@@ -0,0 +1,316 @@
+package ch.unisg.ics.interactions.wot.td.clients;
+
+import ch.unisg.ics.interactions.wot.td.clients.ObserveOptions.OverflowStrategy;
+import org.eclipse.californium.core.CoapHandler;
+import org.eclipse.californium.core.CoapObserveRelation;
+import org.eclipse.californium.core.CoapResponse;
+import org.eclipse.californium.core.coap.OptionNumberRegistry;
+import org.eclipse.californium.core.coap.OptionSet;
+import org.eclipse.californium.core.coap.Request;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes the notifications of a CoAP observe relation as a reactive stream. Each subscriber
+ * gets a relation of its own, which is established when subscribing and cancelled when the
+ * subscription is cancelled. Publishers are created with {@link TDCoapRequest#observe()} and its
+ * overloads.
+ * <p>
+ * Notifications are delivered only as requested by the subscriber. Notifications that arrive
+ * without demand are buffered, and the {@link ObserveOptions.OverflowStrategy overflow strategy}
+ * decides what happens when the buffer is full. Subscribers are invoked on the executor of the
+ * {@link ObserveOptions}, never on the threads of the CoAP client.
+ * <p>
+ * A relation is considered stale when no notification has arrived within the Max-Age of the
+ * latest notification (plus a backoff), in which case it is reregistered. A subscription
+ * completes when the server ends the relation by sending a response without the Observe option,
+ * and fails with an {@link IOException} if the observe request is rejected or times out.
+ */
+public class TDCoapObservePublisher implements Flow.Publisher<TDCoapResponse> {
+  private final TDCoapClient client;
+  private final Request request;
+  private final PayloadCodec payloadCodec;
+  private final ObserveOptions options;
+
+  private final LongAdder droppedNotifications = new LongAdder();
+  private final LongAdder reregistrations = new LongAdder();
+
+  TDCoapObservePublisher(TDCoapClient client, Request request, PayloadCodec payloadCodec,
+                         ObserveOptions options) {
+    this.client = client;
+    this.request = request;
+    this.payloadCodec = payloadCodec;
+    this.options = options;
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super TDCoapResponse> subscriber) {
+    Objects.requireNonNull(subscriber);
+
+    ObserveSubscription subscription = new ObserveSubscription(subscriber);
+    subscriber.onSubscribe(subscription);
+    subscription.start();
+  }
+
+  public ObserveOptions getOptions() {
+    return options;
+  }
+
+  /**
+   * @return the number of notifications dropped by all subscriptions because their buffers were
+   * full
+   */
+  public long getDroppedCount() {
+    return droppedNotifications.sum();
+  }
+
+  /**
+   * @return the number of stale relations reregistered by all subscriptions
+   */
+  public long getReregistrationCount() {
+    return reregistrations.sum();
+  }
+
+  /* A Californium request can be sent only once, hence each relation uses a copy */
+  private Request copyRequest() {
+    Request copy = new Request(request.getCode(), request.getType());
+    copy.setURI(request.getURI());
+    copy.setOptions(new OptionSet(request.getOptions()));
+    copy.setPayload(request.getPayload());
+    return copy;
+  }
+
+  private class ObserveSubscription implements Flow.Subscription {
+    private final Flow.Subscriber<? super TDCoapResponse> subscriber;
+
+    /* Guarded by buffer */
+    private final ArrayDeque<TDCoapResponse> buffer = new ArrayDeque<>();
+    private boolean completed = false;
+    private Throwable error;
+    private ScheduledFuture<?> staleCheck;
+
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile boolean cancelled = false;
+    private volatile boolean terminated = false;
+    private volatile CoapObserveRelation relation;
+
+    private final CoapHandler handler = new CoapHandler() {
+      @Override
+      public void onLoad(CoapResponse response) {
+        onNotification(response);
+      }
+
+      @Override
+      public void onError() {
+        fail(new IOException("The observe request was rejected or timed out: "
+          + request.getURI()));
+      }
+    };
+
+    ObserveSubscription(Flow.Subscriber<? super TDCoapResponse> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    void start() {
+      if (cancelled) {
+        return;
+      }
+
+      relation = client.createClient(request.getURI()).observe(copyRequest(), handler);
+      /* The subscription may have been cancelled while the relation was being established */
+      if (cancelled) {
+        relation.proactiveCancel();
+      }
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        fail(new IllegalArgumentException("The number of requested notifications must be "
+          + "positive (Reactive Streams rule 3.9): " + n));
+        return;
+      }
+
+      demand.getAndUpdate(current -> (current + n < 0) ? Long.MAX_VALUE : current + n);
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      if (cancelled) {
+        return;
+      }
+      cancelled = true;
+
+      synchronized (buffer) {
+        buffer.clear();
+        cancelStaleCheck();
+      }
+
+      CoapObserveRelation current = relation;
+      if (current != null && !current.isCanceled()) {
+        current.proactiveCancel();
+      }
+    }
+
+    private void onNotification(CoapResponse response) {
+      if (cancelled) {
+        return;
+      }
+
+      OptionSet responseOptions = response.getOptions();
+      boolean last = !responseOptions.hasObserve();
+
+      synchronized (buffer) {
+        if (completed || error != null) {
+          return;
+        }
+
+        if (buffer.size() >= options.getBufferSize()) {
+          if (options.getOverflowStrategy() == OverflowStrategy.BUFFER) {
+            error = new IllegalStateException("More than " + options.getBufferSize()
+              + " notifications buffered for: " + request.getURI());
+          } else {
+            buffer.pollFirst();
+            droppedNotifications.increment();
+          }
+        }
+
+        if (error == null) {
+          buffer.addLast(new TDCoapResponse(response.advanced(), payloadCodec));
+        }
+
+        if (last) {
+          completed = true;
+          cancelStaleCheck();
+        } else if (error == null && options.isReregistering()) {
+          long maxAge = responseOptions.hasMaxAge() ? responseOptions.getMaxAge()
+            : OptionNumberRegistry.Defaults.MAX_AGE;
+          scheduleStaleCheck(TimeUnit.SECONDS.toMillis(maxAge)
+            + options.getReregistrationBackoff().toMillis());
+        }
+      }
+
+      if (error != null) {
+        cancelRelation();
+      }
+      drain();
+    }
+
+    private void fail(Throwable cause) {
+      synchronized (buffer) {
+        if (completed || error != null) {
+          return;
+        }
+        error = cause;
+      }
+
+      cancelRelation();
+      drain();
+    }
+
+    private void cancelRelation() {
+      synchronized (buffer) {
+        cancelStaleCheck();
+      }
+
+      CoapObserveRelation current = relation;
+      if (current != null && !current.isCanceled()) {
+        current.proactiveCancel();
+      }
+    }
+
+    /* Guarded by buffer */
+    private void scheduleStaleCheck(long delayMillis) {
+      cancelStaleCheck();
+      staleCheck = client.getScheduler().schedule(() -> reregister(delayMillis), delayMillis,
+        TimeUnit.MILLISECONDS);
+    }
+
+    /* Guarded by buffer */
+    private void cancelStaleCheck() {
+      if (staleCheck != null) {
+        staleCheck.cancel(false);
+        staleCheck = null;
+      }
+    }
+
+    private void reregister(long delayMillis) {
+      CoapObserveRelation current = relation;
+      if (cancelled || current == null || current.isCanceled()) {
+        return;
+      }
+
+      synchronized (buffer) {
+        if (completed || error != null) {
+          return;
+        }
+        /* Check again later, in case the reregistration is not answered either */
+        scheduleStaleCheck(delayMillis);
+      }
+
+      if (current.reregister()) {
+        reregistrations.increment();
+      }
+    }
+
+    /* Signals are delivered by at most one thread at a time, on the executor of the options */
+    private void drain() {
+      if (wip.getAndIncrement() == 0) {
+        try {
+          options.getExecutor().execute(this::deliver);
+        } catch (RuntimeException e) {
+          wip.set(0);
+          cancel();
+        }
+      }
+    }
+
+    private void deliver() {
+      int missed = 1;
+
+      while (true) {
+        while (!cancelled && !terminated) {
+          TDCoapResponse next = null;
+          Throwable failure;
+          boolean done;
+
+          synchronized (buffer) {
+            failure = error;
+            if (failure == null && demand.get() > 0) {
+              next = buffer.pollFirst();
+            }
+            done = completed && buffer.isEmpty();
+          }
+
+          if (failure != null) {
+            terminated = true;
+            subscriber.onError(failure);
+          } else if (next != null) {
+            demand.decrementAndGet();
+            subscriber.onNext(next);
+          } else if (done) {
+            terminated = true;
+            subscriber.onComplete();
+          } else {
+            break;
+          }
+        }
+
+        missed = wip.addAndGet(-missed);
+        if (missed == 0) {
+          return;
+        }
+      }
+    }
+  }
+}
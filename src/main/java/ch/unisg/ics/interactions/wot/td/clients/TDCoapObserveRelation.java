@@ -24,9 +24,15 @@ import org.eclipse.californium.core.CoapObserveRelation;
 public class TDCoapObserveRelation {
 
   private final CoapObserveRelation observeRelation;
+  private final PayloadCodec payloadCodec;
 
   protected TDCoapObserveRelation(CoapObserveRelation observeRelation) {
+    this(observeRelation, PayloadCodec.getDefault());
+  }
+
+  protected TDCoapObserveRelation(CoapObserveRelation observeRelation, PayloadCodec payloadCodec) {
     this.observeRelation = observeRelation;
+    this.payloadCodec = payloadCodec;
   }
 
   /**
@@ -35,7 +41,7 @@ public class TDCoapObserveRelation {
    * @return the current notification wrapped in a <code>TDCoapResponse</code>
    */
   public TDCoapResponse getCurrent() {
-    return new TDCoapResponse(observeRelation.getCurrentResponse());
+    return new TDCoapResponse(observeRelation.getCurrentResponse(), payloadCodec);
   }
 
   /**
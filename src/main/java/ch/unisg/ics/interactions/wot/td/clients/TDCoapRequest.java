@@ -1,26 +1,23 @@
 package ch.unisg.ics.interactions.wot.td.clients;
 
 import ch.unisg.ics.interactions.wot.td.affordances.Form;
+import ch.unisg.ics.interactions.wot.td.affordances.InteractionAffordance;
 import ch.unisg.ics.interactions.wot.td.schemas.ArraySchema;
 import ch.unisg.ics.interactions.wot.td.schemas.DataSchema;
+import ch.unisg.ics.interactions.wot.td.schemas.ObjectBinding;
 import ch.unisg.ics.interactions.wot.td.schemas.ObjectSchema;
 import ch.unisg.ics.interactions.wot.td.vocabularies.COV;
 import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
-import com.google.gson.Gson;
-import org.eclipse.californium.core.CoapClient;
 import org.eclipse.californium.core.CoapObserveRelation;
-import org.eclipse.californium.core.CoapResponse;
 import org.eclipse.californium.core.coap.CoAP;
 import org.eclipse.californium.core.coap.MediaTypeRegistry;
 import org.eclipse.californium.core.coap.Request;
 import org.eclipse.californium.elements.exception.ConnectorException;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -34,10 +31,8 @@ public class TDCoapRequest {
   private final Form form;
   private final Request request;
 
-  private final List<CoapClient> executors = new ArrayList<>();
-  private final ReentrantLock executorsLock = new ReentrantLock();
-
   private final String target;
+  private PayloadCodec payloadCodec = PayloadCodec.getDefault();
 
   public TDCoapRequest(Form form, String operationType) {
     this(form, form.getTarget(), operationType);
@@ -45,7 +40,16 @@ public class TDCoapRequest {
 
   public TDCoapRequest(Form form, String operationType, Map<String, DataSchema> uriVariables,
                        Map<String, Object> values) {
-    this(form, new UriTemplate(form.getTarget()).createUri(uriVariables, values), operationType);
+    this(form, form.getUriTemplate().createUri(uriVariables, values), operationType);
+  }
+
+  /**
+   * Constructs a request with the target of a form expanded with the values of the URI variables
+   * of an affordance, which are checked by the validator kept by the affordance.
+   */
+  public TDCoapRequest(Form form, String operationType, InteractionAffordance affordance,
+                       Map<String, Object> values) {
+    this(form, form.getUriTemplate().createUri(affordance, values), operationType);
   }
 
   private TDCoapRequest(Form form, String target, String operationType) {
@@ -82,39 +86,68 @@ public class TDCoapRequest {
     return target;
   }
 
+  public PayloadCodec getPayloadCodec() {
+    return payloadCodec;
+  }
+
   /**
-   * Sends a synchronous CoAP request.
+   * Sets the codec used to encode the payload of this request and to decode the payload of its
+   * response. By default, the shared {@link PayloadCodec#getDefault() default codec} is used.
+   *
+   * @param payloadCodec the codec
+   * @return this <code>TDCoapRequest</code>
+   */
+  public TDCoapRequest setPayloadCodec(PayloadCodec payloadCodec) {
+    this.payloadCodec = payloadCodec;
+    return this;
+  }
+
+  /**
+   * Sends a synchronous CoAP request with the shared {@link TDCoapClient#getDefault() default
+   * client}.
    *
    * @return the CoAP response
    * @throws IOException if any issue occurred
    */
   public TDCoapResponse execute() throws IOException {
-    CoapClient client = new CoapClient();
-    CoapResponse response = null;
+    return execute(TDCoapClient.getDefault());
+  }
 
-    try {
-      response = client.advanced(request);
-    } catch (ConnectorException e) {
-      throw new IOException(e);
-    }
-    addExecutor(client);
-    return new TDCoapResponse(response.advanced());
+  /**
+   * Sends a synchronous CoAP request with the given client.
+   *
+   * @param client the client used to send the request
+   * @return the CoAP response
+   * @throws IOException if any issue occurred
+   */
+  public TDCoapResponse execute(TDCoapClient client) throws IOException {
+    return new TDCoapResponse(client.execute(request).advanced(), payloadCodec);
   }
 
   /**
-   * Sends an asynchronous CoAP request and invokes the specified
-   * <code>TDCoAPHandler</code> each time a notification arrives.
+   * Sends an asynchronous CoAP request with the shared {@link TDCoapClient#getDefault() default
+   * client} and invokes the specified <code>TDCoAPHandler</code> each time a notification arrives.
    *
    * @param handler the Response handler
    */
   public void execute(TDCoapHandler handler) {
-    CoapClient client = new CoapClient();
-    client.advanced(handler.getCoapHandler(), request);
-    addExecutor(client);
+    execute(TDCoapClient.getDefault(), handler);
+  }
+
+  /**
+   * Sends an asynchronous CoAP request with the given client and invokes the specified
+   * <code>TDCoAPHandler</code> each time a notification arrives.
+   *
+   * @param client the client used to send the request
+   * @param handler the Response handler
+   */
+  public void execute(TDCoapClient client, TDCoapHandler handler) {
+    client.createClient().advanced(handler.getCoapHandler(), request);
   }
 
   /**
-   * Sends an asynchronous observe CoAP request and invokes the specified
+   * Sends an asynchronous observe CoAP request with the shared
+   * {@link TDCoapClient#getDefault() default client} and invokes the specified
    * <code>TDCoAPHandler</code> each time a notification arrives.
    *
    * @param handler the CoAP Response handler
@@ -122,21 +155,29 @@ public class TDCoapRequest {
    * @throws IllegalArgumentException if no form is found for the subprotocol "cov:observe"
    */
   public TDCoapObserveRelation establishRelation(TDCoapHandler handler) {
+    return establishRelation(TDCoapClient.getDefault(), handler);
+  }
 
-    if (!request.getOptions().hasObserve()) {
-      throw new IllegalArgumentException("No form for subprotocol: " + COV.observe
-        + " for the given operation type.");
-    }
+  /**
+   * Sends an asynchronous observe CoAP request with the given client and invokes the specified
+   * <code>TDCoAPHandler</code> each time a notification arrives.
+   *
+   * @param client the client used to send the request
+   * @param handler the CoAP Response handler
+   * @return the CoAP observe relation
+   * @throws IllegalArgumentException if no form is found for the subprotocol "cov:observe"
+   */
+  public TDCoapObserveRelation establishRelation(TDCoapClient client, TDCoapHandler handler) {
+    checkObserve();
 
-    CoapClient client = new CoapClient(form.getTarget());
-    CoapObserveRelation relation = client.observe(request, handler.getCoapHandler());
-    TDCoapObserveRelation establishedRelation = new TDCoapObserveRelation(relation);
-    addExecutor(client);
-    return establishedRelation;
+    CoapObserveRelation relation = client.createClient(form.getTarget())
+      .observe(request, handler.getCoapHandler());
+    return new TDCoapObserveRelation(relation, payloadCodec);
   }
 
   /**
-   * Sends a synchronous observe request and waits until it has been established
+   * Sends a synchronous observe request with the shared
+   * {@link TDCoapClient#getDefault() default client} and waits until it has been established
    * whereupon the specified CoAP handler is invoked when a notification arrives.
    *
    * @param handler the CoAP Response handler
@@ -145,35 +186,81 @@ public class TDCoapRequest {
    * @throws IOException              if any other issue occurred
    */
   public TDCoapObserveRelation establishRelationAndWait(TDCoapHandler handler) throws IOException {
-    if (!request.getOptions().hasObserve()) {
-      throw new IllegalArgumentException("No form for subprotocol: " + COV.observe + " for the " +
-        "given operation type.");
-    }
+    return establishRelationAndWait(TDCoapClient.getDefault(), handler);
+  }
+
+  /**
+   * Sends a synchronous observe request with the given client and waits until it has been
+   * established whereupon the specified CoAP handler is invoked when a notification arrives.
+   *
+   * @param client the client used to send the request
+   * @param handler the CoAP Response handler
+   * @return the CoAP observe relation
+   * @throws IllegalArgumentException if no form is found for the subprotocol "cov:observe"
+   * @throws IOException              if any other issue occurred
+   */
+  public TDCoapObserveRelation establishRelationAndWait(TDCoapClient client,
+                                                        TDCoapHandler handler) throws IOException {
+    checkObserve();
 
     CoapObserveRelation relation;
-    CoapClient client = new CoapClient(form.getTarget());
     try {
-      relation = client.observeAndWait(request, handler.getCoapHandler());
+      relation = client.createClient(form.getTarget())
+        .observeAndWait(request, handler.getCoapHandler());
     } catch (ConnectorException e) {
       throw new IOException(e);
     }
-    addExecutor(client);
-    return new TDCoapObserveRelation(relation);
+    return new TDCoapObserveRelation(relation, payloadCodec);
   }
 
-  public void shutdownExecutors() {
-    try {
-      executorsLock.lock();
-      if (!executors.isEmpty()) {
-        for (CoapClient client : executors) {
-          client.shutdown();
-        }
-        executors.clear();
-      }
-    } finally {
-      executorsLock.unlock();
-    }
+  /**
+   * Creates a publisher of the notifications of an observe relation, which uses the shared
+   * {@link TDCoapClient#getDefault() default client} and the
+   * {@link ObserveOptions#getDefault() default options}. A relation is established for each
+   * subscriber.
+   *
+   * @return the publisher of the notifications
+   * @throws IllegalArgumentException if no form is found for the subprotocol "cov:observe"
+   */
+  public TDCoapObservePublisher observe() {
+    return observe(TDCoapClient.getDefault(), ObserveOptions.getDefault());
+  }
+
+  /**
+   * Creates a publisher of the notifications of an observe relation, which uses the given client
+   * and the {@link ObserveOptions#getDefault() default options}. A relation is established for
+   * each subscriber.
+   *
+   * @param client the client used to establish the relations
+   * @return the publisher of the notifications
+   * @throws IllegalArgumentException if no form is found for the subprotocol "cov:observe"
+   */
+  public TDCoapObservePublisher observe(TDCoapClient client) {
+    return observe(client, ObserveOptions.getDefault());
+  }
 
+  /**
+   * Creates a publisher of the notifications of an observe relation, which uses the given client
+   * and options. A relation is established for each subscriber.
+   *
+   * @param client the client used to establish the relations
+   * @param options the options that control buffering and reregistration
+   * @return the publisher of the notifications
+   * @throws IllegalArgumentException if no form is found for the subprotocol "cov:observe"
+   */
+  public TDCoapObservePublisher observe(TDCoapClient client, ObserveOptions options) {
+    checkObserve();
+    return new TDCoapObservePublisher(client, request, payloadCodec, options);
+  }
+
+  /**
+   * Requests no longer hold CoAP clients of their own: the endpoint and threads used to execute
+   * them are shared by a {@link TDCoapClient}, which is released with {@link TDCoapClient#close()}.
+   *
+   * @deprecated this method has no effect
+   */
+  @Deprecated
+  public void shutdownExecutors() {
   }
 
   public TDCoapRequest addOption(String key, String value) {
@@ -242,13 +329,32 @@ public class TDCoapRequest {
    *                     the request
    * @param payload      the actual payload
    * @return this <code>TDCoapRequest</code>
+   * @throws IllegalArgumentException if the payload is not valid against the schema
    */
   public TDCoapRequest setObjectPayload(ObjectSchema objectSchema, Map<String, Object> payload) {
-    if (objectSchema.validate(payload)) {
-      Map<String, Object> instance = objectSchema.instantiate(payload);
-      String body = new Gson().toJson(instance);
-      request.setPayload(body);
-    }
+    Map<String, Object> instance = objectSchema.instantiate(payload);
+    objectSchema.getValidator().requireValid(instance);
+
+    String body = payloadCodec.encode(instance);
+    request.setPayload(body);
+
+    return this;
+  }
+
+  /**
+   * Sets a payload of type <code>ObjectSchema</code> given as a record, which is validated and
+   * encoded with a binding of the record type to the schema, without going through a map.
+   *
+   * @param binding the binding used for validating and encoding the payload
+   * @param payload the actual payload
+   * @param <T>     the type of the record
+   * @return this <code>TDCoapRequest</code>
+   * @throws IllegalArgumentException if the payload is not valid against the schema
+   * @see ObjectBinding
+   */
+  public <T extends Record> TDCoapRequest setObjectPayload(ObjectBinding<T> binding, T payload) {
+    String body = payloadCodec.encode(binding, payload);
+    request.setPayload(body);
 
     return this;
   }
@@ -262,12 +368,49 @@ public class TDCoapRequest {
    *                    the request
    * @param payload     the actual payload
    * @return this <code>TDCoapRequest</code>
+   * @throws IllegalArgumentException if the payload is not valid against the schema
    */
   public TDCoapRequest setArrayPayload(ArraySchema arraySchema, List<Object> payload) {
-    if (arraySchema.validate(payload)) {
-      String body = new Gson().toJson(payload);
-      request.setPayload(body);
-    }
+    arraySchema.getValidator().requireValid(payload);
+
+    String body = payloadCodec.encode(payload);
+    request.setPayload(body);
+
+    return this;
+  }
+
+  /**
+   * Sets a payload of type <code>ArraySchema</code> given as an array of <code>double</code>s,
+   * which is validated and encoded without boxing its items.
+   *
+   * @param arraySchema schema used for validating the payload
+   * @param payload     the actual payload
+   * @return this <code>TDCoapRequest</code>
+   * @throws IllegalArgumentException if the payload is not valid against the schema
+   */
+  public TDCoapRequest setArrayPayload(ArraySchema arraySchema, double[] payload) {
+    arraySchema.getValidator().requireValidArray(payload);
+
+    String body = payloadCodec.encode(payload);
+    request.setPayload(body);
+
+    return this;
+  }
+
+  /**
+   * Sets a payload of type <code>ArraySchema</code> given as an array of <code>long</code>s,
+   * which is validated and encoded without boxing its items.
+   *
+   * @param arraySchema schema used for validating the payload
+   * @param payload     the actual payload
+   * @return this <code>TDCoapRequest</code>
+   * @throws IllegalArgumentException if the payload is not valid against the schema
+   */
+  public TDCoapRequest setArrayPayload(ArraySchema arraySchema, long[] payload) {
+    arraySchema.getValidator().requireValidArray(payload);
+
+    String body = payloadCodec.encode(payload);
+    request.setPayload(body);
 
     return this;
   }
@@ -299,25 +442,10 @@ public class TDCoapRequest {
     return this.request;
   }
 
-  private void addExecutor(CoapClient client) {
-    try {
-      executorsLock.lock();
-      if (client != null && !executors.contains(client)) {
-        executors.add(client);
-      }
-    } finally {
-      executorsLock.unlock();
-    }
-  }
-
-  private void removeExecutor(CoapClient client) {
-    try {
-      executorsLock.lock();
-      if (client != null) {
-        executors.remove(client);
-      }
-    } finally {
-      executorsLock.unlock();
+  private void checkObserve() {
+    if (!request.getOptions().hasObserve()) {
+      throw new IllegalArgumentException("No form for subprotocol: " + COV.observe
+        + " for the given operation type.");
     }
   }
 
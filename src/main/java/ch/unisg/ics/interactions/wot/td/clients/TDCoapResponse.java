@@ -2,14 +2,14 @@ package ch.unisg.ics.interactions.wot.td.clients;
 
 import ch.unisg.ics.interactions.wot.td.schemas.ArraySchema;
 import ch.unisg.ics.interactions.wot.td.schemas.DataSchema;
+import ch.unisg.ics.interactions.wot.td.schemas.ObjectBinding;
 import ch.unisg.ics.interactions.wot.td.schemas.ObjectSchema;
-import com.google.gson.Gson;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 import org.eclipse.californium.core.coap.Option;
 import org.eclipse.californium.core.coap.OptionNumberRegistry;
 import org.eclipse.californium.core.coap.Response;
 
+import java.io.StringReader;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
@@ -25,11 +25,20 @@ public class TDCoapResponse {
   private final static Logger LOGGER = Logger.getLogger(TDCoapResponse.class.getCanonicalName());
 
   private final Response response;
+  private final PayloadCodec payloadCodec;
   private Optional<String> payload;
 
   public TDCoapResponse(Response response) {
+    this(response, PayloadCodec.getDefault());
+  }
 
+  /**
+   * @param response the CoAP response
+   * @param payloadCodec the codec used to decode the payload of the response
+   */
+  public TDCoapResponse(Response response, PayloadCodec payloadCodec) {
     this.response = response;
+    this.payloadCodec = payloadCodec;
 
     if (response.getPayload() == null) {
       this.payload = Optional.empty();
@@ -62,19 +71,19 @@ public class TDCoapResponse {
   }
 
   public Boolean getPayloadAsBoolean() {
-    return new Gson().fromJson(payload.get(), Boolean.class);
+    return payloadCodec.decode(payload.get(), Boolean.class);
   }
 
   public Integer getPayloadAsInteger() {
-    return new Gson().fromJson(payload.get(), Integer.class);
+    return payloadCodec.decode(payload.get(), Integer.class);
   }
 
   public Double getPayloadAsDouble() {
-    return new Gson().fromJson(payload.get(), Double.class);
+    return payloadCodec.decode(payload.get(), Double.class);
   }
 
   public String getPayloadAsString() {
-    return new Gson().fromJson(payload.get(), String.class);
+    return payloadCodec.decode(payload.get(), String.class);
   }
 
   /**
@@ -100,6 +109,21 @@ public class TDCoapResponse {
     return (Map<String, Object>) getPayloadWithSchema(schema);
   }
 
+  /**
+   * Gets the payload of the response as a record, which is decoded with a binding of the record
+   * type to an <code>ObjectSchema</code>, without going through a map.
+   *
+   * @param binding the binding used for constructing the record
+   * @param <T> the type of the record
+   * @return the constructed record
+   * @throws IllegalArgumentException if the payload of the response does not conform to the schema
+   * @see ObjectBinding
+   */
+  public <T extends Record> T getPayloadAsObject(ObjectBinding<T> binding)
+      throws IllegalArgumentException {
+    return payloadCodec.decode(new JsonReader(new StringReader(payload.get())), binding);
+  }
+
   /**
    * Gets the payload of the response as an array that conforms to a given <code>ArraySchema</code>.
    * The array payload is represented as an ordered list of
@@ -119,9 +143,45 @@ public class TDCoapResponse {
     return (List<Object>) getPayloadWithSchema(schema);
   }
 
+  /**
+   * Gets the payload of the response as a value that conforms to a given <code>DataSchema</code>.
+   * The payload is decoded token by token, without first being parsed into a tree.
+   *
+   * @param schema schema to be used for validating the payload and constructing the value
+   * @return the constructed value
+   * @throws IllegalArgumentException if the payload of the response does not conform to the
+   * provided schema
+   */
   public Object getPayloadWithSchema(DataSchema schema) throws IllegalArgumentException {
-    JsonElement content = JsonParser.parseString(payload.get());
-    return schema.parseJson(content);
+    return payloadCodec.decode(new JsonReader(new StringReader(payload.get())), schema);
+  }
+
+  /**
+   * Gets the payload of the response as an array of <code>double</code>s, without boxing its
+   * items. The items of the schema must include a <code>NumberSchema</code> or an
+   * <code>IntegerSchema</code>.
+   *
+   * @param schema schema to be used for validating the payload
+   * @return the constructed array
+   * @throws IllegalArgumentException if the payload of the response is not an array of numbers
+   * that conforms to the provided schema
+   */
+  public double[] getPayloadAsDoubleArray(ArraySchema schema) throws IllegalArgumentException {
+    return payloadCodec.decodeDoubleArray(new JsonReader(new StringReader(payload.get())), schema);
+  }
+
+  /**
+   * Gets the payload of the response as an array of <code>long</code>s, without boxing its items.
+   * The items of the schema must include a <code>NumberSchema</code> or an
+   * <code>IntegerSchema</code>, and all items of the payload must be integral numbers.
+   *
+   * @param schema schema to be used for validating the payload
+   * @return the constructed array
+   * @throws IllegalArgumentException if the payload of the response is not an array of integers
+   * that conforms to the provided schema
+   */
+  public long[] getPayloadAsLongArray(ArraySchema schema) throws IllegalArgumentException {
+    return payloadCodec.decodeLongArray(new JsonReader(new StringReader(payload.get())), schema);
   }
 
 }
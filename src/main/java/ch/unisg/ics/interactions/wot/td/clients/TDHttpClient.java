@@ -0,0 +1,521 @@
+package ch.unisg.ics.interactions.wot.td.clients;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * An HTTP client used to execute {@link TDHttpRequest}s. Connections are kept alive and pooled
+ * per route (i.e., per target host), such that subsequent requests to the same Thing reuse the
+ * same connections instead of paying for connection and TLS setup. Connections that have been
+ * idle for longer than the configured time are closed by a background thread.
+ * <p>
+ * Requests can also be executed asynchronously with {@link #executeAsync(TDHttpRequest, Executor)},
+ * in which case they are sent over non-blocking I/O by an async client with its own connection
+ * pool. The async client negotiates HTTP/2 via ALPN on TLS connections, such that concurrent
+ * requests to the same Thing are multiplexed over a single connection. It is started on first use.
+ * <p>
+ * A <code>TDHttpClient</code> is thread-safe and meant to be shared. Requests executed with
+ * {@link TDHttpRequest#execute()} use the client returned by {@link #getDefault()}. A client
+ * constructed with a <code>TDHttpClient.Builder</code> should be closed when no longer needed.
+ */
+public class TDHttpClient implements Closeable {
+  private final PoolingHttpClientConnectionManager connectionManager;
+  private final CloseableHttpClient client;
+  private final Supplier<CloseableHttpAsyncClient> asyncClientFactory;
+  private final RequestConfig requestConfig;
+  private final Optional<CircuitBreakerRegistry> circuitBreakers;
+  private CloseableHttpAsyncClient asyncClient;
+  private boolean closed = false;
+
+  protected TDHttpClient(PoolingHttpClientConnectionManager connectionManager,
+                         CloseableHttpClient client,
+                         Supplier<CloseableHttpAsyncClient> asyncClientFactory,
+                         RequestConfig requestConfig,
+                         Optional<CircuitBreakerRegistry> circuitBreakers) {
+    this.connectionManager = connectionManager;
+    this.client = client;
+    this.asyncClientFactory = asyncClientFactory;
+    this.requestConfig = requestConfig;
+    this.circuitBreakers = circuitBreakers;
+  }
+
+  /**
+   * Gets the client shared by all requests executed with {@link TDHttpRequest#execute()}. The
+   * shared client uses the default configuration of <code>TDHttpClient.Builder</code> and should
+   * not be closed.
+   *
+   * @return the shared client
+   */
+  public static TDHttpClient getDefault() {
+    return DefaultClientHolder.INSTANCE;
+  }
+
+  /**
+   * Executes a request and reads the response. The connection is returned to the pool once the
+   * response has been read.
+   *
+   * @param request the request to be executed
+   * @return the response
+   * @throws IOException if the request could not be executed
+   */
+  public TDHttpResponse execute(TDHttpRequest request) throws IOException {
+    CircuitBreaker circuitBreaker = acquireCircuitBreaker(request);
+    long start = System.nanoTime();
+
+    try {
+      TDHttpResponse response = client.execute(request.getRequest(), createContext(circuitBreaker),
+        classicResponse -> TDHttpResponse.buffer(classicResponse, request.getPayloadCodec()));
+      onResponse(circuitBreaker, start, response.getStatusCode());
+      return response;
+    } catch (IOException | RuntimeException e) {
+      onFailure(circuitBreaker);
+      throw e;
+    } catch (Error e) {
+      release(circuitBreaker);
+      throw e;
+    }
+  }
+
+  /**
+   * Executes a request without reading the response payload into memory. The connection is held
+   * by the returned response until its payload has been read completely or the response is
+   * closed.
+   *
+   * @param request the request to be executed
+   * @return the streaming response, which must be closed
+   * @throws IOException if the request could not be executed
+   */
+  public TDHttpResponse executeStreaming(TDHttpRequest request) throws IOException {
+    CircuitBreaker circuitBreaker = acquireCircuitBreaker(request);
+    long start = System.nanoTime();
+
+    try {
+      TDHttpResponse response = TDHttpResponse.stream(client.executeOpen(null, request.getRequest(),
+        createContext(circuitBreaker)), request.getPayloadCodec());
+      onResponse(circuitBreaker, start, response.getStatusCode());
+      return response;
+    } catch (IOException | RuntimeException e) {
+      onFailure(circuitBreaker);
+      throw e;
+    } catch (Error e) {
+      release(circuitBreaker);
+      throw e;
+    }
+  }
+
+  /**
+   * Executes a request without blocking the calling thread. The returned future is completed on
+   * the common fork-join pool.
+   *
+   * @param request the request to be executed
+   * @return a future completed with the response, or exceptionally if the request could not be
+   * executed
+   */
+  public CompletableFuture<TDHttpResponse> executeAsync(TDHttpRequest request) {
+    return executeAsync(request, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Executes a request without blocking the calling thread. No thread is held while the request
+   * is in flight: the response is received by the I/O threads of the async client, and the future
+   * is then completed on the given executor (e.g., an executor that creates virtual threads), such
+   * that dependent stages do not run on the I/O threads. Cancelling the returned future aborts the
+   * exchange.
+   *
+   * @param request the request to be executed
+   * @param executor the executor used to complete the returned future
+   * @return a future completed with the response, or exceptionally if the request could not be
+   * executed
+   */
+  public CompletableFuture<TDHttpResponse> executeAsync(TDHttpRequest request, Executor executor) {
+    SimpleHttpRequest asyncRequest;
+    CloseableHttpAsyncClient asyncClient;
+
+    try {
+      asyncRequest = toAsyncRequest(request.getRequest());
+      asyncClient = getAsyncClient();
+    } catch (IOException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+
+    CircuitBreaker circuitBreaker;
+    try {
+      circuitBreaker = acquireCircuitBreaker(request);
+    } catch (CircuitBreakerOpenException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+
+    long start = System.nanoTime();
+    CompletableFuture<TDHttpResponse> result = new CompletableFuture<>();
+
+    /* The circuit breaker is acquired, so it must learn about requests that fail to start */
+    Future<SimpleHttpResponse> exchange;
+    try {
+      if (circuitBreaker != null) {
+        asyncRequest.setConfig(createRequestConfig(circuitBreaker));
+      }
+
+      exchange = asyncClient.execute(asyncRequest, new FutureCallback<>() {
+        @Override
+        public void completed(SimpleHttpResponse response) {
+          onResponse(circuitBreaker, start, response.getCode());
+          complete(result, executor, () -> result.complete(new TDHttpResponse(
+            toClassicResponse(response), request.getPayloadCodec())));
+        }
+
+        @Override
+        public void failed(Exception ex) {
+          onFailure(circuitBreaker);
+          complete(result, executor, () -> result.completeExceptionally(ex));
+        }
+
+        @Override
+        public void cancelled() {
+          release(circuitBreaker);
+          complete(result, executor, () -> result.completeExceptionally(
+            new CancellationException("The request was cancelled.")));
+        }
+      });
+    } catch (RuntimeException e) {
+      onFailure(circuitBreaker);
+      throw e;
+    } catch (Error e) {
+      release(circuitBreaker);
+      throw e;
+    }
+
+    result.whenComplete((response, ex) -> {
+      if (result.isCancelled()) {
+        exchange.cancel(true);
+      }
+    });
+
+    return result;
+  }
+
+  /**
+   * @return the registry of the circuit breakers used by this client, if any
+   */
+  public Optional<CircuitBreakerRegistry> getCircuitBreakerRegistry() {
+    return circuitBreakers;
+  }
+
+  /**
+   * @return the statistics of the connection pool shared by all routes
+   */
+  public PoolStats getPoolStats() {
+    return connectionManager.getTotalStats();
+  }
+
+  /**
+   * Closes all pooled connections and stops the eviction of idle connections.
+   */
+  @Override
+  public void close() throws IOException {
+    CloseableHttpAsyncClient startedClient;
+    synchronized (this) {
+      closed = true;
+      startedClient = asyncClient;
+    }
+
+    try {
+      client.close();
+    } finally {
+      if (startedClient != null) {
+        startedClient.close(CloseMode.GRACEFUL);
+      }
+    }
+  }
+
+  private synchronized CloseableHttpAsyncClient getAsyncClient() throws IOException {
+    if (closed) {
+      throw new IOException("The client has been closed.");
+    }
+
+    if (asyncClient == null) {
+      asyncClient = asyncClientFactory.get();
+      asyncClient.start();
+    }
+
+    return asyncClient;
+  }
+
+  /* Returns null if this client does not use circuit breakers */
+  private CircuitBreaker acquireCircuitBreaker(TDHttpRequest request)
+      throws CircuitBreakerOpenException {
+    if (!circuitBreakers.isPresent()) {
+      return null;
+    }
+
+    CircuitBreaker circuitBreaker = circuitBreakers.get().getCircuitBreaker(request.getTarget());
+    circuitBreaker.acquire();
+    return circuitBreaker;
+  }
+
+  private HttpClientContext createContext(CircuitBreaker circuitBreaker) {
+    if (circuitBreaker == null) {
+      return null;
+    }
+
+    HttpClientContext context = HttpClientContext.create();
+    context.setRequestConfig(createRequestConfig(circuitBreaker));
+    return context;
+  }
+
+  private RequestConfig createRequestConfig(CircuitBreaker circuitBreaker) {
+    return RequestConfig.copy(requestConfig)
+      .setResponseTimeout(Timeout.of(circuitBreaker.getTimeout()))
+      .build();
+  }
+
+  /* Server errors count as failures of the host */
+  private static void onResponse(CircuitBreaker circuitBreaker, long start, int statusCode) {
+    if (circuitBreaker != null) {
+      if (statusCode >= HttpStatus.SC_SERVER_ERROR) {
+        circuitBreaker.onFailure();
+      } else {
+        circuitBreaker.onSuccess(System.nanoTime() - start);
+      }
+    }
+  }
+
+  private static void onFailure(CircuitBreaker circuitBreaker) {
+    if (circuitBreaker != null) {
+      circuitBreaker.onFailure();
+    }
+  }
+
+  /* Ends a request without an outcome, e.g. because it was cancelled or failed with an Error */
+  private static void release(CircuitBreaker circuitBreaker) {
+    if (circuitBreaker != null) {
+      circuitBreaker.release();
+    }
+  }
+
+  /* Runs the completion of a future on the executor, or in place if the executor rejects it */
+  private static void complete(CompletableFuture<TDHttpResponse> result, Executor executor,
+                               Runnable completion) {
+    Runnable guarded = () -> {
+      try {
+        completion.run();
+      } catch (RuntimeException e) {
+        result.completeExceptionally(e);
+      }
+    };
+
+    try {
+      executor.execute(guarded);
+    } catch (RejectedExecutionException e) {
+      guarded.run();
+    }
+  }
+
+  private static SimpleHttpRequest toAsyncRequest(ClassicHttpRequest request) throws IOException {
+    SimpleHttpRequest asyncRequest;
+    try {
+      asyncRequest = SimpleHttpRequest.create(request.getMethod(), request.getUri());
+    } catch (URISyntaxException e) {
+      throw new IOException("Invalid request URI: " + request.getRequestUri(), e);
+    }
+
+    asyncRequest.setHeaders(request.getHeaders());
+
+    HttpEntity entity = request.getEntity();
+    if (entity != null) {
+      ContentType contentType = (entity.getContentType() == null) ? null
+        : ContentType.parse(entity.getContentType());
+      asyncRequest.setBody(EntityUtils.toByteArray(entity), contentType);
+    }
+
+    return asyncRequest;
+  }
+
+  private static BasicClassicHttpResponse toClassicResponse(SimpleHttpResponse response) {
+    BasicClassicHttpResponse classicResponse = new BasicClassicHttpResponse(response.getCode(),
+      response.getReasonPhrase());
+    classicResponse.setVersion(response.getVersion());
+    classicResponse.setHeaders(response.getHeaders());
+
+    byte[] body = response.getBodyBytes();
+    if (body != null) {
+      classicResponse.setEntity(new ByteArrayEntity(body, response.getContentType()));
+    }
+
+    return classicResponse;
+  }
+
+  private static class DefaultClientHolder {
+    private static final TDHttpClient INSTANCE = new Builder().build();
+  }
+
+  /**
+   * Helper class used to construct a <code>TDHttpClient</code>. Implements a fluent API.
+   */
+  public static class Builder {
+    private int maxConnections = 200;
+    private int maxConnectionsPerRoute = 50;
+    private Duration connectTimeout = Duration.ofSeconds(10);
+    private Duration responseTimeout = Duration.ofSeconds(30);
+    private Duration keepAlive = Duration.ofMinutes(1);
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+    private Optional<CircuitBreakerRegistry> circuitBreakers = Optional.empty();
+
+    /**
+     * Sets the maximum number of pooled connections across all routes (default: 200).
+     */
+    public Builder setMaxConnections(int maxConnections) {
+      if (maxConnections <= 0) {
+        throw new IllegalArgumentException("The maximum number of connections must be positive.");
+      }
+      this.maxConnections = maxConnections;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of pooled connections to a single route (default: 50).
+     */
+    public Builder setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+      if (maxConnectionsPerRoute <= 0) {
+        throw new IllegalArgumentException("The maximum number of connections per route must be "
+          + "positive.");
+      }
+      this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+      return this;
+    }
+
+    public Builder setConnectTimeout(Duration connectTimeout) {
+      this.connectTimeout = connectTimeout;
+      return this;
+    }
+
+    public Builder setResponseTimeout(Duration responseTimeout) {
+      this.responseTimeout = responseTimeout;
+      return this;
+    }
+
+    /**
+     * Sets how long connections are kept alive if the server does not specify a
+     * <code>Keep-Alive</code> timeout (default: 1 minute).
+     */
+    public Builder setKeepAlive(Duration keepAlive) {
+      this.keepAlive = keepAlive;
+      return this;
+    }
+
+    /**
+     * Sets the time after which idle connections are evicted from the pool (default: 30 seconds).
+     */
+    public Builder setMaxIdleTime(Duration maxIdleTime) {
+      this.maxIdleTime = maxIdleTime;
+      return this;
+    }
+
+    /**
+     * Sets the registry of the circuit breakers that guard the hosts of the requests executed by
+     * the client, which also sets the response timeouts of the requests adaptively (default: no
+     * circuit breakers).
+     */
+    public Builder setCircuitBreakerRegistry(CircuitBreakerRegistry circuitBreakers) {
+      this.circuitBreakers = Optional.of(circuitBreakers);
+      return this;
+    }
+
+    public TDHttpClient build() {
+      /* The async client is built lazily, so it only captures the configuration as of this call,
+      and not the builder, which could still be changed */
+      int maxConnections = this.maxConnections;
+      int maxConnectionsPerRoute = this.maxConnectionsPerRoute;
+      ConnectionConfig connectionConfig = createConnectionConfig();
+      RequestConfig requestConfig = createRequestConfig();
+      TimeValue maxIdleTime = TimeValue.of(this.maxIdleTime);
+
+      PoolingHttpClientConnectionManager connectionManager =
+        PoolingHttpClientConnectionManagerBuilder.create()
+          .setMaxConnTotal(maxConnections)
+          .setMaxConnPerRoute(maxConnectionsPerRoute)
+          .setDefaultConnectionConfig(connectionConfig)
+          .build();
+
+      CloseableHttpClient client = HttpClients.custom()
+        .setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(requestConfig)
+        .evictExpiredConnections()
+        .evictIdleConnections(maxIdleTime)
+        .build();
+
+      return new TDHttpClient(connectionManager, client, () -> buildAsyncClient(maxConnections,
+        maxConnectionsPerRoute, connectionConfig, requestConfig, maxIdleTime), requestConfig,
+        circuitBreakers);
+    }
+
+    private static CloseableHttpAsyncClient buildAsyncClient(int maxConnections,
+        int maxConnectionsPerRoute, ConnectionConfig connectionConfig, RequestConfig requestConfig,
+        TimeValue maxIdleTime) {
+      return HttpAsyncClients.custom()
+        .setConnectionManager(PoolingAsyncClientConnectionManagerBuilder.create()
+          .setMaxConnTotal(maxConnections)
+          .setMaxConnPerRoute(maxConnectionsPerRoute)
+          .setDefaultConnectionConfig(connectionConfig)
+          .setDefaultTlsConfig(TlsConfig.custom()
+            .setVersionPolicy(HttpVersionPolicy.NEGOTIATE)
+            .build())
+          .setMessageMultiplexing(true)
+          .build())
+        .setDefaultRequestConfig(requestConfig)
+        .evictExpiredConnections()
+        .evictIdleConnections(maxIdleTime)
+        .build();
+    }
+
+    private ConnectionConfig createConnectionConfig() {
+      return ConnectionConfig.custom()
+        .setConnectTimeout(Timeout.of(connectTimeout))
+        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+        .build();
+    }
+
+    private RequestConfig createRequestConfig() {
+      return RequestConfig.custom()
+        .setResponseTimeout(Timeout.of(responseTimeout))
+        .setConnectionKeepAlive(TimeValue.of(keepAlive))
+        .build();
+    }
+  }
+}
@@ -1,15 +1,14 @@
 package ch.unisg.ics.interactions.wot.td.clients;
 
 import ch.unisg.ics.interactions.wot.td.affordances.Form;
+import ch.unisg.ics.interactions.wot.td.affordances.InteractionAffordance;
 import ch.unisg.ics.interactions.wot.td.schemas.ArraySchema;
 import ch.unisg.ics.interactions.wot.td.schemas.DataSchema;
+import ch.unisg.ics.interactions.wot.td.schemas.ObjectBinding;
 import ch.unisg.ics.interactions.wot.td.schemas.ObjectSchema;
 import ch.unisg.ics.interactions.wot.td.security.APIKeySecurityScheme;
 import ch.unisg.ics.interactions.wot.td.security.TokenBasedSecurityScheme.TokenLocation;
-import com.google.gson.Gson;
 import org.apache.commons.io.IOUtils;
-import org.apache.hc.client5.http.classic.HttpClient;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.core5.http.*;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.io.entity.StringEntity;
@@ -22,6 +21,8 @@ import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -35,13 +36,23 @@ public class TDHttpRequest {
   private final Form form;
   private final String target;
   private final BasicClassicHttpRequest request;
+  private PayloadCodec payloadCodec = PayloadCodec.getDefault();
 
   public TDHttpRequest(Form form, String operationType) {
     this(form, form.getTarget(), operationType);
   }
 
   public TDHttpRequest(Form form, String operationType, Map<String, DataSchema> uriVariables, Map<String, Object> values) {
-    this(form, new UriTemplate(form.getTarget()).createUri(uriVariables, values), operationType);
+    this(form, form.getUriTemplate().createUri(uriVariables, values), operationType);
+  }
+
+  /**
+   * Constructs a request with the target of a form expanded with the values of the URI variables
+   * of an affordance, which are checked by the validator kept by the affordance.
+   */
+  public TDHttpRequest(Form form, String operationType, InteractionAffordance affordance,
+                       Map<String, Object> values) {
+    this(form, form.getUriTemplate().createUri(affordance, values), operationType);
   }
 
   private TDHttpRequest(Form form, String target, String operationType) {
@@ -67,10 +78,98 @@ public class TDHttpRequest {
     return target;
   }
 
+  public PayloadCodec getPayloadCodec() {
+    return payloadCodec;
+  }
+
+  /**
+   * Sets the codec used to encode the payload of this request and to decode the payload of its
+   * response. By default, the shared {@link PayloadCodec#getDefault() default codec} is used.
+   *
+   * @param payloadCodec the codec
+   * @return this <code>TDHttpRequest</code>
+   */
+  public TDHttpRequest setPayloadCodec(PayloadCodec payloadCodec) {
+    this.payloadCodec = payloadCodec;
+    return this;
+  }
+
+  /**
+   * Executes this request with the shared {@link TDHttpClient#getDefault() default client}.
+   *
+   * @return the response
+   * @throws IOException if the request could not be executed
+   */
   public TDHttpResponse execute() throws IOException {
-    HttpClient client = HttpClients.createDefault();
-    HttpResponse response = client.execute(request);
-    return new TDHttpResponse((ClassicHttpResponse) response);
+    return execute(TDHttpClient.getDefault());
+  }
+
+  /**
+   * Executes this request with the given client, e.g. a client with a connection pool configured
+   * for a specific deployment.
+   *
+   * @param client the client used to execute the request
+   * @return the response
+   * @throws IOException if the request could not be executed
+   */
+  public TDHttpResponse execute(TDHttpClient client) throws IOException {
+    return client.execute(this);
+  }
+
+  /**
+   * Executes this request with the shared {@link TDHttpClient#getDefault() default client} without
+   * reading the response payload into memory, e.g. to read large property values with
+   * {@link TDHttpResponse#getPayloadAsStream()}.
+   *
+   * @return the streaming response, which must be closed
+   * @throws IOException if the request could not be executed
+   */
+  public TDHttpResponse executeStreaming() throws IOException {
+    return executeStreaming(TDHttpClient.getDefault());
+  }
+
+  /**
+   * Executes this request with the given client without reading the response payload into memory.
+   *
+   * @param client the client used to execute the request
+   * @return the streaming response, which must be closed
+   * @throws IOException if the request could not be executed
+   */
+  public TDHttpResponse executeStreaming(TDHttpClient client) throws IOException {
+    return client.executeStreaming(this);
+  }
+
+  /**
+   * Executes this request asynchronously with the shared {@link TDHttpClient#getDefault() default
+   * client}. The returned future is completed on the common fork-join pool.
+   *
+   * @return a future completed with the response
+   */
+  public CompletableFuture<TDHttpResponse> executeAsync() {
+    return TDHttpClient.getDefault().executeAsync(this);
+  }
+
+  /**
+   * Executes this request asynchronously with the shared {@link TDHttpClient#getDefault() default
+   * client}.
+   *
+   * @param executor the executor used to complete the returned future, e.g. an executor that
+   *                 creates a virtual thread per task
+   * @return a future completed with the response
+   */
+  public CompletableFuture<TDHttpResponse> executeAsync(Executor executor) {
+    return TDHttpClient.getDefault().executeAsync(this, executor);
+  }
+
+  /**
+   * Executes this request asynchronously with the given client.
+   *
+   * @param client the client used to execute the request
+   * @param executor the executor used to complete the returned future
+   * @return a future completed with the response
+   */
+  public CompletableFuture<TDHttpResponse> executeAsync(TDHttpClient client, Executor executor) {
+    return client.executeAsync(this, executor);
   }
 
   public TDHttpRequest setAPIKey(APIKeySecurityScheme scheme, String token) {
@@ -152,13 +251,32 @@ public class TDHttpRequest {
    *                     the request
    * @param payload      the actual payload
    * @return this <code>TDHttpRequest</code>
+   * @throws IllegalArgumentException if the payload is not valid against the schema
    */
   public TDHttpRequest setObjectPayload(ObjectSchema objectSchema, Map<String, Object> payload) {
-    if (objectSchema.validate(payload)) {
-      Map<String, Object> instance = objectSchema.instantiate(payload);
-      String body = new Gson().toJson(instance);
-      request.setEntity(new StringEntity(body, ContentType.create(form.getContentType())));
-    }
+    Map<String, Object> instance = objectSchema.instantiate(payload);
+    objectSchema.getValidator().requireValid(instance);
+
+    String body = payloadCodec.encode(instance);
+    request.setEntity(new StringEntity(body, ContentType.create(form.getContentType())));
+
+    return this;
+  }
+
+  /**
+   * Sets a payload of type <code>ObjectSchema</code> given as a record, which is validated and
+   * encoded with a binding of the record type to the schema, without going through a map.
+   *
+   * @param binding the binding used for validating and encoding the payload
+   * @param payload the actual payload
+   * @param <T>     the type of the record
+   * @return this <code>TDHttpRequest</code>
+   * @throws IllegalArgumentException if the payload is not valid against the schema
+   * @see ObjectBinding
+   */
+  public <T extends Record> TDHttpRequest setObjectPayload(ObjectBinding<T> binding, T payload) {
+    String body = payloadCodec.encode(binding, payload);
+    request.setEntity(new StringEntity(body, ContentType.create(form.getContentType())));
 
     return this;
   }
@@ -172,12 +290,49 @@ public class TDHttpRequest {
    *                    the request
    * @param payload     the actual payload
    * @return this <code>TDHttpRequest</code>
+   * @throws IllegalArgumentException if the payload is not valid against the schema
    */
   public TDHttpRequest setArrayPayload(ArraySchema arraySchema, List<Object> payload) {
-    if (arraySchema.validate(payload)) {
-      String body = new Gson().toJson(payload);
-      request.setEntity(new StringEntity(body, ContentType.create(form.getContentType())));
-    }
+    arraySchema.getValidator().requireValid(payload);
+
+    String body = payloadCodec.encode(payload);
+    request.setEntity(new StringEntity(body, ContentType.create(form.getContentType())));
+
+    return this;
+  }
+
+  /**
+   * Sets a payload of type <code>ArraySchema</code> given as an array of <code>double</code>s,
+   * which is validated and encoded without boxing its items.
+   *
+   * @param arraySchema schema used for validating the payload
+   * @param payload     the actual payload
+   * @return this <code>TDHttpRequest</code>
+   * @throws IllegalArgumentException if the payload is not valid against the schema
+   */
+  public TDHttpRequest setArrayPayload(ArraySchema arraySchema, double[] payload) {
+    arraySchema.getValidator().requireValidArray(payload);
+
+    String body = payloadCodec.encode(payload);
+    request.setEntity(new StringEntity(body, ContentType.create(form.getContentType())));
+
+    return this;
+  }
+
+  /**
+   * Sets a payload of type <code>ArraySchema</code> given as an array of <code>long</code>s,
+   * which is validated and encoded without boxing its items.
+   *
+   * @param arraySchema schema used for validating the payload
+   * @param payload     the actual payload
+   * @return this <code>TDHttpRequest</code>
+   * @throws IllegalArgumentException if the payload is not valid against the schema
+   */
+  public TDHttpRequest setArrayPayload(ArraySchema arraySchema, long[] payload) {
+    arraySchema.getValidator().requireValidArray(payload);
+
+    String body = payloadCodec.encode(payload);
+    request.setEntity(new StringEntity(body, ContentType.create(form.getContentType())));
 
     return this;
   }
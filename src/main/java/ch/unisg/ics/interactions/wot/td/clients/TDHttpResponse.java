@@ -1,57 +1,98 @@
 package ch.unisg.ics.interactions.wot.td.clients;
 
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.HttpEntity;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 
 import ch.unisg.ics.interactions.wot.td.schemas.ArraySchema;
 import ch.unisg.ics.interactions.wot.td.schemas.DataSchema;
+import ch.unisg.ics.interactions.wot.td.schemas.ObjectBinding;
 import ch.unisg.ics.interactions.wot.td.schemas.ObjectSchema;
 
 /**
  * Wrapper for an HTTP response received when performing a
  * {@link ch.unisg.ics.interactions.wot.td.clients.TDHttpRequest}. The payload of the response is
  * deserialized based on a <code>DataSchema</code> from a given <code>ThingDescription</code>.
- *
+ * <p>
+ * By default, the payload is read into memory when the response is received. A response obtained
+ * with {@link TDHttpRequest#executeStreaming()} is instead backed by the open connection: its
+ * payload can be read once, e.g. with {@link #getPayloadAsStream()} or
+ * {@link #getPayloadAsJsonReader()}, and the response must be closed to release the connection.
+ * The payload is decoded with the charset given in the <code>Content-Type</code> header of the
+ * response, or UTF-8 if none is given.
  */
-public class TDHttpResponse {
-  private final static Logger LOGGER = Logger.getLogger(TDHttpResponse.class.getCanonicalName());
-
+public class TDHttpResponse implements Closeable {
   private final ClassicHttpResponse response;
+  private final Charset charset;
+  private final byte[] body;
+  private final boolean streaming;
+  private final PayloadCodec payloadCodec;
+  private boolean consumed = false;
   private Optional<String> payload;
 
+  /**
+   * Constructs a response with a payload read into memory.
+   *
+   * @param response the HTTP response
+   * @throws UncheckedIOException if the payload could not be read
+   */
   public TDHttpResponse(ClassicHttpResponse response) {
+    this(response, PayloadCodec.getDefault());
+  }
+
+  /**
+   * Constructs a response with a payload read into memory.
+   *
+   * @param response the HTTP response
+   * @param payloadCodec the codec used to decode the payload
+   * @throws UncheckedIOException if the payload could not be read
+   */
+  public TDHttpResponse(ClassicHttpResponse response, PayloadCodec payloadCodec) {
+    this(response, readBody(response), false, payloadCodec);
+  }
 
+  private TDHttpResponse(ClassicHttpResponse response, byte[] body, boolean streaming,
+                         PayloadCodec payloadCodec) {
     this.response = response;
+    this.body = body;
+    this.streaming = streaming;
+    this.payloadCodec = payloadCodec;
+    this.charset = getCharset(response.getEntity());
+  }
 
+  /* Used by response handlers, which close the response once the handler returns */
+  static TDHttpResponse buffer(ClassicHttpResponse response, PayloadCodec payloadCodec)
+      throws IOException {
     HttpEntity entity = response.getEntity();
+    return new TDHttpResponse(response, (entity == null) ? null : EntityUtils.toByteArray(entity),
+      false, payloadCodec);
+  }
 
-    if (entity == null) {
-      this.payload = Optional.empty();
-    } else {
-      String encoding = entity.getContentEncoding() == null ? "UTF-8" : entity.getContentEncoding();
-
-      try {
-        this.payload = Optional.of(IOUtils.toString(entity.getContent(), encoding));
-        EntityUtils.consume(entity);
-      } catch (IOException e) {
-        LOGGER.log(Level.WARNING, e.getMessage());
-      }
-    }
+  /* The response is kept open and its payload is read from the connection on demand */
+  static TDHttpResponse stream(ClassicHttpResponse response, PayloadCodec payloadCodec) {
+    return new TDHttpResponse(response, null, true, payloadCodec);
   }
 
   public int getStatusCode() {
@@ -69,24 +110,110 @@ public class TDHttpResponse {
     return headerMap;
   }
 
+  /**
+   * @return <code>true</code> if the payload of this response is read from the connection on
+   * demand rather than from memory
+   */
+  public boolean isStreaming() {
+    return streaming;
+  }
+
+  /**
+   * @return the charset used to decode the payload
+   */
+  public Charset getCharset() {
+    return charset;
+  }
+
+  /**
+   * Gets the payload of the response as a string. For a streaming response, the payload is read
+   * into memory on the first call and cannot be read otherwise afterwards.
+   *
+   * @return the payload, or an empty optional if the response has no payload
+   * @throws UncheckedIOException if the payload could not be read
+   * @throws IllegalStateException if the payload of a streaming response has already been consumed
+   */
   public Optional<String> getPayload() {
+    if (payload == null) {
+      if (response.getEntity() == null) {
+        payload = Optional.empty();
+      } else if (body != null) {
+        payload = Optional.of(new String(body, charset));
+      } else {
+        try (InputStream in = getPayloadAsStream()) {
+          payload = Optional.of(IOUtils.toString(in, charset));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+    }
+
     return payload;
   }
 
+  /**
+   * Gets the payload of the response as a stream of bytes. For a streaming response, the stream
+   * reads from the connection and can only be obtained once.
+   *
+   * @return the payload stream, which is empty if the response has no payload
+   * @throws IOException if the payload could not be read
+   * @throws IllegalStateException if the payload of a streaming response has already been consumed
+   */
+  public InputStream getPayloadAsStream() throws IOException {
+    HttpEntity entity = response.getEntity();
+
+    if (entity == null) {
+      return InputStream.nullInputStream();
+    }
+
+    if (!streaming) {
+      return new ByteArrayInputStream(body);
+    }
+
+    if (consumed) {
+      throw new IllegalStateException("The payload of a streaming response can only be read once.");
+    }
+    consumed = true;
+
+    return entity.getContent();
+  }
+
+  /**
+   * @return the payload of the response as a channel of bytes
+   * @throws IOException if the payload could not be read
+   * @throws IllegalStateException if the payload of a streaming response has already been consumed
+   * @see #getPayloadAsStream()
+   */
+  public ReadableByteChannel getPayloadAsChannel() throws IOException {
+    return Channels.newChannel(getPayloadAsStream());
+  }
+
+  /**
+   * Gets a reader that parses the JSON payload of the response token by token, such that large
+   * payloads do not have to be held in memory.
+   *
+   * @return the JSON reader
+   * @throws IOException if the payload could not be read
+   * @throws IllegalStateException if the payload of a streaming response has already been consumed
+   */
+  public JsonReader getPayloadAsJsonReader() throws IOException {
+    return new JsonReader(new InputStreamReader(getPayloadAsStream(), charset));
+  }
+
   public Boolean getPayloadAsBoolean() {
-    return new Gson().fromJson(payload.get(), Boolean.class);
+    return payloadCodec.decode(getPayload().get(), Boolean.class);
   }
 
   public Integer getPayloadAsInteger() {
-    return new Gson().fromJson(payload.get(), Integer.class);
+    return payloadCodec.decode(getPayload().get(), Integer.class);
   }
 
   public Double getPayloadAsDouble() {
-    return new Gson().fromJson(payload.get(), Double.class);
+    return payloadCodec.decode(getPayload().get(), Double.class);
   }
 
   public String getPayloadAsString() {
-    return new Gson().fromJson(payload.get(), String.class);
+    return payloadCodec.decode(getPayload().get(), String.class);
   }
 
   /**
@@ -112,6 +239,26 @@ public class TDHttpResponse {
     return (Map<String, Object>) getPayloadWithSchema(schema);
   }
 
+  /**
+   * Gets the payload of the response as a record, which is decoded with a binding of the record
+   * type to an <code>ObjectSchema</code>, without going through a map.
+   *
+   * @param binding the binding used for constructing the record
+   * @param <T> the type of the record
+   * @return the constructed record
+   * @throws IllegalArgumentException if the payload of the response does not conform to the schema
+   * @throws UncheckedIOException if the payload could not be read
+   * @see ObjectBinding
+   */
+  public <T extends Record> T getPayloadAsObject(ObjectBinding<T> binding)
+      throws IllegalArgumentException {
+    try (JsonReader reader = openJsonReader()) {
+      return payloadCodec.decode(reader, binding);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
   /**
    * Gets the payload of the response as an array that conforms to a given <code>ArraySchema</code>.
    * The array payload is represented as an ordered list of
@@ -131,8 +278,101 @@ public class TDHttpResponse {
     return (List<Object>) getPayloadWithSchema(schema);
   }
 
+  /**
+   * Gets the payload of the response as a value that conforms to a given <code>DataSchema</code>.
+   * The payload is decoded token by token directly from its bytes (or, for a streaming response,
+   * from the connection), without first being decoded into a string or parsed into a tree.
+   *
+   * @param schema schema to be used for validating the payload and constructing the value
+   * @return the constructed value
+   * @throws IllegalArgumentException if the payload of the response does not conform to the provided
+   * schema
+   * @throws UncheckedIOException if the payload could not be read
+   */
   public Object getPayloadWithSchema(DataSchema schema) throws IllegalArgumentException {
-    JsonElement content = JsonParser.parseString(payload.get());
-    return schema.parseJson(content);
+    try (JsonReader reader = openJsonReader()) {
+      return payloadCodec.decode(reader, schema);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Gets the payload of the response as an array of <code>double</code>s, without boxing its
+   * items. The items of the schema must include a <code>NumberSchema</code> or an
+   * <code>IntegerSchema</code>.
+   *
+   * @param schema schema to be used for validating the payload
+   * @return the constructed array
+   * @throws IllegalArgumentException if the payload of the response is not an array of numbers
+   * that conforms to the provided schema
+   * @throws UncheckedIOException if the payload could not be read
+   */
+  public double[] getPayloadAsDoubleArray(ArraySchema schema) throws IllegalArgumentException {
+    try (JsonReader reader = openJsonReader()) {
+      return payloadCodec.decodeDoubleArray(reader, schema);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Gets the payload of the response as an array of <code>long</code>s, without boxing its items.
+   * The items of the schema must include a <code>NumberSchema</code> or an
+   * <code>IntegerSchema</code>, and all items of the payload must be integral numbers.
+   *
+   * @param schema schema to be used for validating the payload
+   * @return the constructed array
+   * @throws IllegalArgumentException if the payload of the response is not an array of integers
+   * that conforms to the provided schema
+   * @throws UncheckedIOException if the payload could not be read
+   */
+  public long[] getPayloadAsLongArray(ArraySchema schema) throws IllegalArgumentException {
+    try (JsonReader reader = openJsonReader()) {
+      return payloadCodec.decodeLongArray(reader, schema);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private JsonReader openJsonReader() throws IOException {
+    return (payload != null && payload.isPresent())
+      ? new JsonReader(new StringReader(payload.get()))
+      : getPayloadAsJsonReader();
+  }
+
+  /**
+   * Closes the response. For a streaming response, the connection is released without reading
+   * the rest of the payload.
+   */
+  @Override
+  public void close() throws IOException {
+    response.close();
+  }
+
+  private static byte[] readBody(ClassicHttpResponse response) {
+    HttpEntity entity = response.getEntity();
+    if (entity == null) {
+      return null;
+    }
+
+    try {
+      return EntityUtils.toByteArray(entity);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static Charset getCharset(HttpEntity entity) {
+    if (entity == null || entity.getContentType() == null) {
+      return StandardCharsets.UTF_8;
+    }
+
+    try {
+      Charset charset = ContentType.parse(entity.getContentType()).getCharset();
+      return (charset == null) ? StandardCharsets.UTF_8 : charset;
+    } catch (UnsupportedCharsetException e) {
+      return StandardCharsets.UTF_8;
+    }
   }
 }
@@ -0,0 +1,112 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * The result of reading a batch of thing descriptions with
+ * {@link TDGraphReader#readAll(ThingDescription.TDFormat, java.util.stream.Stream)}. Thing
+ * descriptions and errors are kept in input order and are looked up by the position of the input in
+ * the batch. An input that could not be read does not abort the batch, but is reported through
+ * {@link #getError(int)} and {@link #getErrors()}.
+ */
+public class BatchReadResult {
+  private final List<Path> paths;
+  private final List<ThingDescription> tds;
+  private final List<Exception> errors;
+  private final Duration elapsedTime;
+
+  BatchReadResult(List<Path> paths, List<ThingDescription> tds, List<Exception> errors,
+      Duration elapsedTime) {
+    this.paths = paths;
+    this.tds = tds;
+    this.errors = errors;
+    this.elapsedTime = elapsedTime;
+  }
+
+  /**
+   * @return the number of inputs in the batch
+   */
+  public int size() {
+    return paths.size();
+  }
+
+  /**
+   * @param index the position of the input in the batch
+   * @return the location of the input
+   */
+  public Path getPath(int index) {
+    return paths.get(index);
+  }
+
+  /**
+   * @return the thing descriptions that were read successfully, in input order
+   */
+  public List<ThingDescription> getThingDescriptions() {
+    List<ThingDescription> result = new ArrayList<>();
+
+    for (ThingDescription td : tds) {
+      if (td != null) {
+        result.add(td);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * @param index the position of the input in the batch
+   * @return the thing description read from the input, or an empty optional if the input could not
+   * be read
+   */
+  public Optional<ThingDescription> getThingDescription(int index) {
+    return Optional.ofNullable(tds.get(index));
+  }
+
+  /**
+   * @param index the position of the input in the batch
+   * @return the cause of the failure (e.g., an {@link InvalidTDException} or an
+   * {@link java.io.IOException}), or an empty optional if the input was read successfully
+   */
+  public Optional<Exception> getError(int index) {
+    return Optional.ofNullable(errors.get(index));
+  }
+
+  /**
+   * @return the positions of the inputs that could not be read, in input order, mapped to the cause
+   * of the failure
+   */
+  public Map<Integer, Exception> getErrors() {
+    Map<Integer, Exception> result = new LinkedHashMap<>();
+
+    for (int i = 0; i < errors.size(); i++) {
+      if (errors.get(i) != null) {
+        result.put(i, errors.get(i));
+      }
+    }
+
+    return Collections.unmodifiableMap(result);
+  }
+
+  public boolean hasErrors() {
+    return errors.stream().anyMatch(Objects::nonNull);
+  }
+
+  /**
+   * @return the wall-clock time spent reading the batch
+   */
+  public Duration getElapsedTime() {
+    return elapsedTime;
+  }
+
+  /**
+   * @return the number of inputs processed per second, including the ones that could not be read
+   */
+  public double getThroughput() {
+    long nanos = elapsedTime.toNanos();
+    return (nanos == 0) ? 0 : paths.size() * 1e9 / nanos;
+  }
+}
@@ -0,0 +1,112 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A reader that percent-encodes curly braces on the fly (<code>{</code> as <code>%7B</code> and
+ * <code>}</code> as <code>%7D</code>). Used to read TURTLE representations of TDs that contain URI
+ * templates, which are not valid IRIs otherwise.
+ * <p>
+ * Mark and reset are not supported.
+ */
+final class BraceEscapingReader extends FilterReader {
+  private static final int ESCAPE_LENGTH = 3;
+
+  private final char[] buffer = new char[8192];
+  private final char[] pending = new char[ESCAPE_LENGTH - 1];
+  private int pendingIndex = pending.length;
+
+  BraceEscapingReader(Reader in) {
+    super(in);
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (pendingIndex < pending.length) {
+      return pending[pendingIndex++];
+    }
+
+    int c = in.read();
+
+    if (c == '{' || c == '}') {
+      pending[0] = '7';
+      pending[1] = (c == '{') ? 'B' : 'D';
+      pendingIndex = 0;
+      return '%';
+    }
+
+    return c;
+  }
+
+  @Override
+  public int read(char[] cbuf, int off, int len) throws IOException {
+    int count = 0;
+
+    while (count < len && pendingIndex < pending.length) {
+      cbuf[off + count++] = pending[pendingIndex++];
+    }
+
+    int remaining = len - count;
+    if (remaining == 0) {
+      return count;
+    }
+
+    if (remaining < ESCAPE_LENGTH) {
+      int c = read();
+      if (c == -1) {
+        return (count == 0) ? -1 : count;
+      }
+
+      cbuf[off + count++] = (char) c;
+      return count;
+    }
+
+    // Read only as many characters as can be written to cbuf even if they all need to be escaped
+    int n = in.read(buffer, 0, Math.min(remaining / ESCAPE_LENGTH, buffer.length));
+    if (n == -1) {
+      return (count == 0) ? -1 : count;
+    }
+
+    for (int i = 0; i < n; i++) {
+      char c = buffer[i];
+
+      if (c == '{' || c == '}') {
+        cbuf[off + count++] = '%';
+        cbuf[off + count++] = '7';
+        cbuf[off + count++] = (c == '{') ? 'B' : 'D';
+      } else {
+        cbuf[off + count++] = c;
+      }
+    }
+
+    return count;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    long skipped = 0;
+
+    while (skipped < n && read() != -1) {
+      skipped++;
+    }
+
+    return skipped;
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  @Override
+  public void mark(int readAheadLimit) throws IOException {
+    throw new IOException("mark() not supported");
+  }
+
+  @Override
+  public void reset() throws IOException {
+    throw new IOException("reset() not supported");
+  }
+}
@@ -0,0 +1,165 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import no.hasmac.jsonld.JsonLdError;
+import no.hasmac.jsonld.JsonLdErrorCode;
+import no.hasmac.jsonld.document.Document;
+import no.hasmac.jsonld.document.JsonDocument;
+import no.hasmac.jsonld.http.media.MediaType;
+import no.hasmac.jsonld.loader.DocumentLoader;
+import no.hasmac.jsonld.loader.DocumentLoaderOptions;
+import no.hasmac.jsonld.loader.SchemeRouter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads the JSON-LD contexts referenced by TDs parsed as JSON-LD, without network access by
+ * default.
+ * <p>
+ * The W3C contexts of TD 1.0 ({@link #TD_CONTEXT}) and TD 1.1 ({@link #TD_1_1_CONTEXT}) are bundled
+ * with this library and always served from memory, for both the HTTP and the HTTPS IRIs. Other
+ * contexts (e.g. application-specific contexts that are not reachable from air-gapped nodes) can
+ * be registered with {@link #addContext(String, String)}. Fetching contexts from the Web is
+ * opt-in: when enabled via {@link #setRemoteFetchingEnabled(boolean)}, remote contexts are kept in
+ * a bounded cache that evicts the least recently used context.
+ * <p>
+ * The loader is thread-safe. All TD readers share the instance returned by
+ * {@link #getSharedInstance()}.
+ */
+public final class ContextDocumentLoader implements DocumentLoader {
+  /** The IRI of the W3C context of TD 1.0 documents */
+  public static final String TD_CONTEXT = "https://www.w3.org/2019/wot/td/v1";
+  /** The IRI of the W3C context of TD 1.1 documents */
+  public static final String TD_1_1_CONTEXT = "https://www.w3.org/2022/wot/td/v1.1";
+
+  static final int DEFAULT_MAXIMUM_SIZE = 64;
+
+  private static final ContextDocumentLoader SHARED_INSTANCE =
+    new ContextDocumentLoader(DEFAULT_MAXIMUM_SIZE, SchemeRouter.defaultInstance());
+
+  private final Map<String, Document> contexts = new ConcurrentHashMap<>();
+  private final Map<String, Document> remoteContexts;
+  private final DocumentLoader remoteLoader;
+  private volatile boolean remoteFetchingEnabled = false;
+
+  ContextDocumentLoader(int maximumSize, DocumentLoader remoteLoader) {
+    if (maximumSize <= 0) {
+      throw new IllegalArgumentException("The maximum number of cached contexts must be positive.");
+    }
+
+    this.remoteLoader = remoteLoader;
+    this.remoteContexts = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Document> eldest) {
+        return size() > maximumSize;
+      }
+    };
+
+    addBundledContext(TD_CONTEXT, "contexts/td-context.jsonld");
+    addBundledContext(TD_1_1_CONTEXT, "contexts/td-context-1.1.jsonld");
+  }
+
+  public static ContextDocumentLoader getSharedInstance() {
+    return SHARED_INSTANCE;
+  }
+
+  /**
+   * Enables or disables fetching contexts that are neither bundled nor registered from the Web.
+   * Disabled by default.
+   */
+  public void setRemoteFetchingEnabled(boolean enabled) {
+    this.remoteFetchingEnabled = enabled;
+  }
+
+  public boolean isRemoteFetchingEnabled() {
+    return remoteFetchingEnabled;
+  }
+
+  /**
+   * Registers a context to be served for the given URL, e.g. an application-specific context that
+   * is not reachable from air-gapped nodes. Registered contexts are never evicted.
+   *
+   * @param url the URL of the context
+   * @param document the JSON-LD document of the context
+   * @throws IllegalArgumentException if the document is not valid JSON
+   */
+  public void addContext(String url, String document) {
+    try {
+      contexts.put(getKey(URI.create(url)), createDocument(url,
+        JsonDocument.of(MediaType.JSON_LD, new StringReader(document))));
+    } catch (JsonLdError e) {
+      throw new IllegalArgumentException("Invalid JSON-LD context: " + url, e);
+    }
+  }
+
+  /**
+   * @return the number of remote contexts currently cached
+   */
+  public int getCachedContextCount() {
+    synchronized (remoteContexts) {
+      return remoteContexts.size();
+    }
+  }
+
+  @Override
+  public Document loadDocument(URI url, DocumentLoaderOptions options) throws JsonLdError {
+    String key = getKey(url);
+
+    Document document = contexts.get(key);
+    if (document != null) {
+      return document;
+    }
+
+    synchronized (remoteContexts) {
+      document = remoteContexts.get(key);
+    }
+    if (document != null) {
+      return document;
+    }
+
+    if (!remoteFetchingEnabled) {
+      throw new JsonLdError(JsonLdErrorCode.LOADING_REMOTE_CONTEXT_FAILED, "The JSON-LD context "
+        + url + " is not available offline and remote fetching of contexts is disabled.");
+    }
+
+    document = remoteLoader.loadDocument(url, options);
+    synchronized (remoteContexts) {
+      remoteContexts.put(key, document);
+    }
+
+    return document;
+  }
+
+  private void addBundledContext(String url, String resource) {
+    try (InputStream in = ContextDocumentLoader.class.getResourceAsStream(resource)) {
+      if (in == null) {
+        throw new IllegalStateException("Missing bundled JSON-LD context: " + resource);
+      }
+      contexts.put(getKey(URI.create(url)), createDocument(url, JsonDocument.of(MediaType.JSON_LD,
+        in)));
+    } catch (IOException | JsonLdError e) {
+      throw new IllegalStateException("Could not load bundled JSON-LD context: " + resource, e);
+    }
+  }
+
+  private static Document createDocument(String url, JsonDocument document) {
+    document.setDocumentUrl(URI.create(url));
+    return document;
+  }
+
+  /* Contexts are identified regardless of the scheme (HTTP or HTTPS) and fragment of the URL */
+  private static String getKey(URI url) {
+    String scheme = url.getScheme();
+    if ("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme)) {
+      return "//" + url.getRawAuthority() + url.getRawPath()
+        + ((url.getRawQuery() == null) ? "" : "?" + url.getRawQuery());
+    }
+
+    return url.toString().split("#", 2)[0];
+  }
+}
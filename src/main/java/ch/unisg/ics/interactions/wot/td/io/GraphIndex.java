@@ -0,0 +1,119 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import org.eclipse.rdf4j.model.*;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+
+import java.util.*;
+
+/**
+ * A read-only index over an RDF graph that maps subjects to predicates to objects. Predicates are
+ * keyed by their IRI strings, such that lookups can use the constants defined in the vocabulary
+ * classes (e.g., <code>TD.hasForm</code>) without creating new IRIs.
+ * <p>
+ * The lookup methods mirror the ones provided by RDF4J's <code>Models</code> utility class, but
+ * only consider the statements of a single subject instead of filtering the whole graph.
+ */
+final class GraphIndex {
+  private static final String TYPE = RDF.TYPE.stringValue();
+
+  private final Map<Resource, Map<String, Set<Value>>> index;
+
+  GraphIndex(Model model) {
+    this.index = new HashMap<>();
+
+    for (Statement st : model) {
+      index.computeIfAbsent(st.getSubject(), subject -> new HashMap<>())
+        .computeIfAbsent(st.getPredicate().stringValue(), predicate -> new LinkedHashSet<>())
+        .add(st.getObject());
+    }
+  }
+
+  Set<Value> objects(Resource subject, String predicate) {
+    Map<String, Set<Value>> predicates = index.get(subject);
+    if (predicates == null) {
+      return Collections.emptySet();
+    }
+
+    Set<Value> objects = predicates.get(predicate);
+    return (objects == null) ? Collections.emptySet() : objects;
+  }
+
+  boolean contains(Resource subject, String predicate, Value object) {
+    return objects(subject, predicate).contains(object);
+  }
+
+  Set<IRI> types(Resource subject) {
+    return objectIRIs(subject, TYPE);
+  }
+
+  boolean hasType(Resource subject, String type) {
+    for (IRI iri : types(subject)) {
+      if (iri.stringValue().equals(type)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  Optional<Literal> objectLiteral(Resource subject, String predicate) {
+    return first(subject, predicate, Literal.class);
+  }
+
+  Set<Literal> objectLiterals(Resource subject, String predicate) {
+    return all(subject, predicate, Literal.class);
+  }
+
+  Optional<IRI> objectIRI(Resource subject, String predicate) {
+    return first(subject, predicate, IRI.class);
+  }
+
+  Set<IRI> objectIRIs(Resource subject, String predicate) {
+    return all(subject, predicate, IRI.class);
+  }
+
+  Optional<Resource> objectResource(Resource subject, String predicate) {
+    return first(subject, predicate, Resource.class);
+  }
+
+  Set<Resource> objectResources(Resource subject, String predicate) {
+    return all(subject, predicate, Resource.class);
+  }
+
+  Optional<String> objectString(Resource subject, String predicate) {
+    Iterator<Value> objects = objects(subject, predicate).iterator();
+    return objects.hasNext() ? Optional.of(objects.next().stringValue()) : Optional.empty();
+  }
+
+  Set<String> objectStrings(Resource subject, String predicate) {
+    Set<String> strings = new HashSet<>();
+
+    for (Value object : objects(subject, predicate)) {
+      strings.add(object.stringValue());
+    }
+
+    return strings;
+  }
+
+  private <T extends Value> Optional<T> first(Resource subject, String predicate, Class<T> type) {
+    for (Value object : objects(subject, predicate)) {
+      if (type.isInstance(object)) {
+        return Optional.of(type.cast(object));
+      }
+    }
+
+    return Optional.empty();
+  }
+
+  private <T extends Value> Set<T> all(Resource subject, String predicate, Class<T> type) {
+    Set<T> values = new LinkedHashSet<>();
+
+    for (Value object : objects(subject, predicate)) {
+      if (type.isInstance(object)) {
+        values.add(type.cast(object));
+      }
+    }
+
+    return values;
+  }
+}
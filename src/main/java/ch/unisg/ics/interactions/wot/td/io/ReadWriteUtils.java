@@ -7,6 +7,7 @@ import java.io.StringReader;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import ch.unisg.ics.interactions.wot.td.ThingDescription.TDFormat;
 import org.eclipse.rdf4j.model.Model;
 import org.eclipse.rdf4j.model.impl.LinkedHashModel;
 import org.eclipse.rdf4j.rio.RDFFormat;
@@ -17,6 +18,7 @@ import org.eclipse.rdf4j.rio.Rio;
 import org.eclipse.rdf4j.rio.WriterConfig;
 import org.eclipse.rdf4j.rio.helpers.BasicWriterSettings;
 import org.eclipse.rdf4j.rio.helpers.StatementCollector;
+import org.eclipse.rdf4j.rio.jsonld.JSONLDSettings;
 
 final class ReadWriteUtils {
   private final static Logger LOGGER = Logger.getLogger(ReadWriteUtils.class.getCanonicalName());
@@ -34,6 +36,21 @@ final class ReadWriteUtils {
     return model;
   }
   
+  /**
+   * Creates a parser for the given format. JSON-LD parsers load contexts through the shared
+   * {@link ContextDocumentLoader}, such that the TD contexts are not retrieved from the Web.
+   */
+  static RDFParser createParser(RDFFormat format) {
+    RDFParser parser = Rio.createParser(format);
+
+    if (format.equals(RDFFormat.JSONLD)) {
+      parser.getParserConfig().set(JSONLDSettings.DOCUMENT_LOADER,
+        ContextDocumentLoader.getSharedInstance());
+    }
+
+    return parser;
+  }
+
   static String writeToString(RDFFormat format, Model model) {
     OutputStream out = new ByteArrayOutputStream();
     
@@ -51,5 +68,54 @@ final class ReadWriteUtils {
     return out.toString();
   }
   
+  static RDFFormat getRDFFormat(TDFormat format) {
+    switch (format) {
+      case RDF_TURTLE:
+        return RDFFormat.TURTLE;
+      case RDF_JSONLD:
+        return RDFFormat.JSONLD;
+      case RDF_NTRIPLES:
+        return RDFFormat.NTRIPLES;
+      case RDF_BINARY:
+        return RDFFormat.BINARY;
+      default:
+        throw new IllegalArgumentException("Unknown TD format: " + format);
+    }
+  }
+
+  /**
+   * Percent-encodes curly braces (e.g., in URI templates) such that the string can be used as an IRI.
+   * Returns the given string if it does not contain any curly braces.
+   */
+  static String escapeBraces(String str) {
+    int index = indexOfBrace(str, 0);
+    if (index == -1) {
+      return str;
+    }
+
+    StringBuilder builder = new StringBuilder(str.length() + 8);
+    int start = 0;
+
+    while (index != -1) {
+      builder.append(str, start, index)
+        .append(str.charAt(index) == '{' ? "%7B" : "%7D");
+      start = index + 1;
+      index = indexOfBrace(str, start);
+    }
+
+    return builder.append(str, start, str.length()).toString();
+  }
+
+  private static int indexOfBrace(String str, int fromIndex) {
+    for (int i = fromIndex; i < str.length(); i++) {
+      char c = str.charAt(i);
+      if (c == '{' || c == '}') {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
   private ReadWriteUtils() { }
 }
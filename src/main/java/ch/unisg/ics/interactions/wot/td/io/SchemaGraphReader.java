@@ -2,9 +2,10 @@ package ch.unisg.ics.interactions.wot.td.io;
 
 import ch.unisg.ics.interactions.wot.td.schemas.*;
 import ch.unisg.ics.interactions.wot.td.vocabularies.JSONSchema;
-import org.eclipse.rdf4j.model.*;
-import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
-import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.vocabulary.RDF;
 
 import java.util.ArrayList;
@@ -14,50 +15,55 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 class SchemaGraphReader {
-  private final Model model;
-  private final ValueFactory rdf = SimpleValueFactory.getInstance();
+  private final GraphIndex graph;
 
-  SchemaGraphReader(Model model) {
-    this.model = model;
+  SchemaGraphReader(GraphIndex graph) {
+    this.graph = graph;
   }
 
   static Optional<DataSchema> readDataSchema(Resource nodeId, Model model) {
-    SchemaGraphReader reader = new SchemaGraphReader(model);
+    return readDataSchema(nodeId, new GraphIndex(model));
+  }
+
+  static Optional<DataSchema> readDataSchema(Resource nodeId, GraphIndex graph) {
+    SchemaGraphReader reader = new SchemaGraphReader(graph);
     return reader.readDataSchema(nodeId);
   }
 
   private Optional<DataSchema> readDataSchema(Resource schemaId) {
-    Set<IRI> types = Models.objectIRIs(model.filter(schemaId, RDF.TYPE, null));
+    Set<String> types = graph.types(schemaId).stream()
+      .map(iri -> iri.stringValue())
+      .collect(Collectors.toSet());
 
     if (!types.isEmpty()) {
-      if (types.contains(rdf.createIRI(JSONSchema.ObjectSchema))) {
+      if (types.contains(JSONSchema.ObjectSchema)) {
         return readObjectSchema(schemaId);
 
-      } else if (types.contains(rdf.createIRI(JSONSchema.ArraySchema))) {
+      } else if (types.contains(JSONSchema.ArraySchema)) {
         return readArraySchema(schemaId);
 
-      } else if (types.contains(rdf.createIRI(JSONSchema.BooleanSchema))) {
+      } else if (types.contains(JSONSchema.BooleanSchema)) {
         BooleanSchema.Builder builder = new BooleanSchema.Builder();
         readDataSchemaMetadata(builder, schemaId);
         return Optional.of(builder.build());
 
-      } else if (types.contains(rdf.createIRI(JSONSchema.NumberSchema))) {
+      } else if (types.contains(JSONSchema.NumberSchema)) {
         return readNumberSchema(schemaId);
 
-      } else if (types.contains(rdf.createIRI(JSONSchema.IntegerSchema))) {
+      } else if (types.contains(JSONSchema.IntegerSchema)) {
         return readIntegerSchema(schemaId);
 
-      } else if (types.contains(rdf.createIRI(JSONSchema.StringSchema))) {
+      } else if (types.contains(JSONSchema.StringSchema)) {
         StringSchema.Builder builder = new StringSchema.Builder();
         readDataSchemaMetadata(builder, schemaId);
         return Optional.of(builder.build());
 
-      } else if (types.contains(rdf.createIRI(JSONSchema.NullSchema))) {
+      } else if (types.contains(JSONSchema.NullSchema)) {
         NullSchema.Builder builder = new NullSchema.Builder();
         readDataSchemaMetadata(builder, schemaId);
         return Optional.of(builder.build());
 
-      } else if (types.contains(rdf.createIRI(JSONSchema.DataSchema))) {
+      } else if (types.contains(JSONSchema.DataSchema)) {
         return readSuperSchema(schemaId);
       }
     }
@@ -67,8 +73,7 @@ class SchemaGraphReader {
 
   private Optional<DataSchema> readSuperSchema(Resource schemaId) {
     DataSchema.Builder schemaBuilder = new DataSchema.Builder();
-    Set<Resource> oneOfSchemas = Models.objectResources(model.filter(schemaId,
-      rdf.createIRI(JSONSchema.oneOf), null));
+    Set<Resource> oneOfSchemas = graph.objectResources(schemaId, JSONSchema.oneOf);
     for (Resource oneSchemaId : oneOfSchemas) {
       Optional<DataSchema> oneSchema = readDataSchema(oneSchemaId);
       if (oneSchema.isPresent()) {
@@ -83,14 +88,12 @@ class SchemaGraphReader {
     readDataSchemaMetadata(builder, schemaId);
 
     /* Read properties */
-    Set<Resource> propertyIds = Models.objectResources(model.filter(schemaId,
-        rdf.createIRI(JSONSchema.properties), null));
+    Set<Resource> propertyIds = graph.objectResources(schemaId, JSONSchema.properties);
     for (Resource property : propertyIds) {
       Optional<DataSchema> propertySchema = readDataSchema(property);
       if (propertySchema.isPresent()) {
         // Each property of an object should also have an associated property name
-        Optional<Literal> propertyName = Models.objectLiteral(model.filter(property,
-            rdf.createIRI(JSONSchema.propertyName), null));
+        Optional<Literal> propertyName = graph.objectLiteral(property, JSONSchema.propertyName);
         if (!propertyName.isPresent()) {
           throw new InvalidTDException("ObjectSchema property is missing a property name.");
         }
@@ -99,8 +102,7 @@ class SchemaGraphReader {
     }
 
     /* Read required properties */
-    Set<Literal> requiredProperties = Models.objectLiterals(model.filter(schemaId,
-        rdf.createIRI(JSONSchema.required), null));
+    Set<Literal> requiredProperties = graph.objectLiterals(schemaId, JSONSchema.required);
     for (Literal requiredProp : requiredProperties) {
       builder.addRequiredProperties(requiredProp.stringValue());
     }
@@ -113,22 +115,19 @@ class SchemaGraphReader {
     readDataSchemaMetadata(builder, schemaId);
 
     /* Read minItems */
-    Optional<Literal> minItems = Models.objectLiteral(model.filter(schemaId,
-        rdf.createIRI(JSONSchema.minItems), null));
+    Optional<Literal> minItems = graph.objectLiteral(schemaId, JSONSchema.minItems);
     if (minItems.isPresent()) {
       builder.addMinItems(minItems.get().intValue());
     }
 
     /* Read maxItems */
-    Optional<Literal> maxItems = Models.objectLiteral(model.filter(schemaId,
-        rdf.createIRI(JSONSchema.maxItems), null));
+    Optional<Literal> maxItems = graph.objectLiteral(schemaId, JSONSchema.maxItems);
     if (maxItems.isPresent()) {
       builder.addMaxItems(maxItems.get().intValue());
     }
 
     /* Read items */
-    Set<Resource> itemIds = Models.objectResources(model.filter(schemaId,
-        rdf.createIRI(JSONSchema.items), null));
+    Set<Resource> itemIds = graph.objectResources(schemaId, JSONSchema.items);
     for (Resource itemId : itemIds) {
       Optional<DataSchema> item = readDataSchema(itemId);
       if (item.isPresent()) {
@@ -144,14 +143,12 @@ class SchemaGraphReader {
 
     readDataSchemaMetadata(builder, schemaId);
 
-    Optional<Literal> maximum = Models.objectLiteral(model.filter(schemaId,
-        rdf.createIRI(JSONSchema.maximum), null));
+    Optional<Literal> maximum = graph.objectLiteral(schemaId, JSONSchema.maximum);
     if (maximum.isPresent()) {
       builder.addMaximum(maximum.get().intValue());
     }
 
-    Optional<Literal> minimum = Models.objectLiteral(model.filter(schemaId,
-        rdf.createIRI(JSONSchema.minimum), null));
+    Optional<Literal> minimum = graph.objectLiteral(schemaId, JSONSchema.minimum);
     if (minimum.isPresent()) {
       builder.addMinimum(minimum.get().intValue());
     }
@@ -164,14 +161,12 @@ class SchemaGraphReader {
 
     readDataSchemaMetadata(builder, schemaId);
 
-    Optional<Literal> maximum = Models.objectLiteral(model.filter(schemaId,
-        rdf.createIRI(JSONSchema.maximum), null));
+    Optional<Literal> maximum = graph.objectLiteral(schemaId, JSONSchema.maximum);
     if (maximum.isPresent()) {
       builder.addMaximum(maximum.get().doubleValue());
     }
 
-    Optional<Literal> minimum = Models.objectLiteral(model.filter(schemaId,
-        rdf.createIRI(JSONSchema.minimum), null));
+    Optional<Literal> minimum = graph.objectLiteral(schemaId, JSONSchema.minimum);
     if (minimum.isPresent()) {
       builder.addMinimum(minimum.get().doubleValue());
     }
@@ -182,29 +177,26 @@ class SchemaGraphReader {
   @SuppressWarnings({ "rawtypes", "unchecked" })
   private void readDataSchemaMetadata(DataSchema.JsonSchemaBuilder builder, Resource schemaId) {
     /* Read semantic types (IRIs) */
-    Set<IRI> semIRIs = Models.objectIRIs(model.filter(schemaId, RDF.TYPE, null));
+    Set<IRI> semIRIs = graph.types(schemaId);
     builder.addSemanticTypes(semIRIs.stream().map(iri -> iri.stringValue())
         .collect(Collectors.toSet()));
 
     /* Read semantic types (strings) */
-    Set<String> semTags = Models.objectStrings(model.filter(schemaId, RDF.TYPE, null));
+    Set<String> semTags = graph.objectStrings(schemaId, RDF.TYPE.stringValue());
     builder.addSemanticTypes(semTags);
 
     /* Read enumeration */
-    Set<String> enumeration = Models.objectStrings(model.filter(schemaId,
-      rdf.createIRI(JSONSchema.enumeration), null));
+    Set<String> enumeration = graph.objectStrings(schemaId, JSONSchema.enumeration);
     builder.addEnum(enumeration);
 
     /* Read content media type */
-    Optional<Literal> contentMediaType = Models.objectLiteral(model.filter(schemaId,
-      rdf.createIRI(JSONSchema.contentMediaType), null));
+    Optional<Literal> contentMediaType = graph.objectLiteral(schemaId, JSONSchema.contentMediaType);
     if (contentMediaType.isPresent()) {
       builder.setContentMediaType(contentMediaType.get().stringValue());
     }
 
     /* Read one of schemas */
-    Set<Resource> oneOfSchemas = Models.objectResources(model.filter(schemaId,
-      rdf.createIRI(JSONSchema.oneOf), null));
+    Set<Resource> oneOfSchemas = graph.objectResources(schemaId, JSONSchema.oneOf);
     for (Resource oneSchemaId : oneOfSchemas) {
       Optional<DataSchema> oneSchema = readDataSchema(oneSchemaId);
       if (oneSchema.isPresent()) {
@@ -4,12 +4,16 @@ import ch.unisg.ics.interactions.wot.td.schemas.*;
 import ch.unisg.ics.interactions.wot.td.vocabularies.JSONSchema;
 import org.eclipse.rdf4j.model.BNode;
 import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.model.util.ModelBuilder;
 import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.rio.helpers.StatementCollector;
 
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Logger;
@@ -17,16 +21,24 @@ import java.util.logging.Logger;
 class SchemaGraphWriter {
   private final static Logger LOGGER = Logger.getLogger(SchemaGraphWriter.class.getCanonicalName());
 
-  private final ModelBuilder graphBuilder;
+  private final StatementSink graphBuilder;
   private final ValueFactory rdf = SimpleValueFactory.getInstance();
 
 
-  SchemaGraphWriter(ModelBuilder builder) {
-    this.graphBuilder = builder;
+  SchemaGraphWriter(StatementSink sink) {
+    this.graphBuilder = sink;
   }
 
   static void write(ModelBuilder builder, Resource nodeId, DataSchema schema) {
-    SchemaGraphWriter writer = new SchemaGraphWriter(builder);
+    Model model = builder.build();
+    Map<String, String> namespaces = new HashMap<>();
+    model.getNamespaces().forEach(ns -> namespaces.put(ns.getPrefix(), ns.getName()));
+
+    write(new StatementSink(new StatementCollector(model), namespaces), nodeId, schema);
+  }
+
+  static void write(StatementSink sink, Resource nodeId, DataSchema schema) {
+    SchemaGraphWriter writer = new SchemaGraphWriter(sink);
     writer.addDataSchema(nodeId, schema);
   }
 
@@ -60,9 +72,13 @@ class SchemaGraphWriter {
     }
   }
 
-  private void addDataSchemaMetadata(Resource nodeId, DataSchema schema) {
-    /* Add semantic types */
-    addObjectIRIs(nodeId, RDF.TYPE, schema.getSemanticTypes());
+  private void addDataSchemaMetadata(Resource nodeId, DataSchema schema, IRI schemaType) {
+    /* Add semantic types, except for the type of the schema that is already added */
+    for (String type : schema.getSemanticTypes()) {
+      if (!type.equals(schemaType.stringValue())) {
+        addObjectIRI(nodeId, RDF.TYPE, type);
+      }
+    }
 
     /* Add enumeration */
     addObjectIRIs(nodeId, rdf.createIRI(JSONSchema.enumeration), schema.getEnumeration());
@@ -81,8 +97,9 @@ class SchemaGraphWriter {
   }
 
   private void addObjectSchema(Resource nodeId, ObjectSchema schema) {
-    graphBuilder.add(nodeId, RDF.TYPE, rdf.createIRI(JSONSchema.ObjectSchema));
-    addDataSchemaMetadata(nodeId, schema);
+    IRI schemaType = rdf.createIRI(JSONSchema.ObjectSchema);
+    graphBuilder.add(nodeId, RDF.TYPE, schemaType);
+    addDataSchemaMetadata(nodeId, schema, schemaType);
 
     /* Add object properties */
     Map<String, DataSchema> properties = schema.getProperties();
@@ -96,15 +113,16 @@ class SchemaGraphWriter {
       addDataSchema(propertyId, properties.get(propertyName));
     }
 
-    /* Add names of required properties */
-    for (String required : schema.getRequiredProperties()) {
+    /* Add names of required properties, which the schema may list more than once */
+    for (String required : new LinkedHashSet<>(schema.getRequiredProperties())) {
       graphBuilder.add(nodeId, rdf.createIRI(JSONSchema.required), required);
     }
   }
 
   private void addArraySchema(Resource nodeId, ArraySchema schema) {
-    graphBuilder.add(nodeId, RDF.TYPE, rdf.createIRI(JSONSchema.ArraySchema));
-    addDataSchemaMetadata(nodeId, schema);
+    IRI schemaType = rdf.createIRI(JSONSchema.ArraySchema);
+    graphBuilder.add(nodeId, RDF.TYPE, schemaType);
+    addDataSchemaMetadata(nodeId, schema, schemaType);
 
     if (schema.getMinItems().isPresent()) {
       graphBuilder.add(nodeId, rdf.createIRI(JSONSchema.minItems),
@@ -131,16 +149,14 @@ class SchemaGraphWriter {
 
   private void addSimpleSchema(Resource nodeId, DataSchema schema, IRI schemaType) {
     graphBuilder.add(nodeId, RDF.TYPE, schemaType);
-    addDataSchemaMetadata(nodeId, schema);
+    addDataSchemaMetadata(nodeId, schema, schemaType);
   }
 
   private void addNumberSchema(Resource nodeId, NumberSchema numberSchema) {
-    if (numberSchema.getDatatype().equals(DataSchema.INTEGER)) {
-      graphBuilder.add(nodeId, RDF.TYPE, rdf.createIRI(JSONSchema.IntegerSchema));
-    } else {
-      graphBuilder.add(nodeId, RDF.TYPE, rdf.createIRI(JSONSchema.NumberSchema));
-    }
-    addDataSchemaMetadata(nodeId, numberSchema);
+    IRI schemaType = numberSchema.getDatatype().equals(DataSchema.INTEGER)
+        ? rdf.createIRI(JSONSchema.IntegerSchema) : rdf.createIRI(JSONSchema.NumberSchema);
+    graphBuilder.add(nodeId, RDF.TYPE, schemaType);
+    addDataSchemaMetadata(nodeId, numberSchema, schemaType);
 
     if (numberSchema.getMinimum().isPresent()) {
       if (numberSchema.getDatatype().equals(DataSchema.INTEGER)) {
@@ -162,13 +178,17 @@ class SchemaGraphWriter {
   }
 
   private void addObjectIRIs(Resource nodeId, IRI property, Set<String> objects) {
-    for (String type : objects) {
-      try {
-        graphBuilder.add(nodeId, property, rdf.createIRI(type));
-      } catch (IllegalArgumentException e) {
-        // The object is not an URI, but add it as a string
-        graphBuilder.add(nodeId, property, type);
-      }
+    for (String object : objects) {
+      addObjectIRI(nodeId, property, object);
+    }
+  }
+
+  private void addObjectIRI(Resource nodeId, IRI property, String object) {
+    try {
+      graphBuilder.add(nodeId, property, rdf.createIRI(object));
+    } catch (IllegalArgumentException e) {
+      // The object is not an URI, but add it as a string
+      graphBuilder.add(nodeId, property, object);
     }
   }
 }
@@ -0,0 +1,59 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import org.eclipse.rdf4j.model.*;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.util.Values;
+import org.eclipse.rdf4j.rio.RDFHandler;
+
+import java.util.Map;
+
+/**
+ * Passes statements to an RDF handler (e.g., an RDF writer) as they are created, without building an
+ * intermediate model. Objects are converted to RDF values in the same way as in a
+ * <code>ModelBuilder</code>: strings with a known prefix are converted to IRIs and other objects to
+ * literals. Statements are not deduplicated: writers add each statement once.
+ */
+final class StatementSink {
+  private final ValueFactory rdf = SimpleValueFactory.getInstance();
+
+  private final RDFHandler handler;
+  private final Map<String, String> namespaces;
+
+  /**
+   * @param handler the handler that receives the statements
+   * @param namespaces the prefix bindings used to convert prefixed names to IRIs
+   */
+  StatementSink(RDFHandler handler, Map<String, String> namespaces) {
+    this.handler = handler;
+    this.namespaces = namespaces;
+  }
+
+  StatementSink add(Resource subject, IRI predicate, Object object) {
+    return add(rdf.createStatement(subject, predicate, toValue(object)));
+  }
+
+  StatementSink add(Statement statement) {
+    handler.handleStatement(statement);
+    return this;
+  }
+
+  private Value toValue(Object object) {
+    if (object instanceof Value) {
+      return (Value) object;
+    }
+
+    if (object instanceof String) {
+      String str = (String) object;
+      int index = str.indexOf(':');
+
+      if (index >= 0) {
+        String namespace = namespaces.get(str.substring(0, index));
+        if (namespace != null) {
+          return rdf.createIRI(namespace, str.substring(index + 1));
+        }
+      }
+    }
+
+    return Values.literal(object);
+  }
+}
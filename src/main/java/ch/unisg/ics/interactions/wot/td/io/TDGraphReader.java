@@ -8,23 +8,41 @@ import ch.unisg.ics.interactions.wot.td.security.*;
 import ch.unisg.ics.interactions.wot.td.security.DigestSecurityScheme.QualityOfProtection;
 import ch.unisg.ics.interactions.wot.td.security.TokenBasedSecurityScheme.TokenLocation;
 import ch.unisg.ics.interactions.wot.td.vocabularies.*;
+import org.apache.commons.io.IOUtils;
+import org.apache.hc.client5.http.HttpResponseException;
 import org.apache.hc.client5.http.fluent.Request;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpStatus;
 import org.eclipse.rdf4j.model.*;
 import org.eclipse.rdf4j.model.impl.LinkedHashModel;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.model.util.Models;
-import org.eclipse.rdf4j.model.vocabulary.RDF;
 import org.eclipse.rdf4j.model.vocabulary.RDFS;
 import org.eclipse.rdf4j.rio.*;
 import org.eclipse.rdf4j.rio.helpers.StatementCollector;
 
-import java.io.IOException;
-import java.io.StringReader;
+import java.io.*;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.sql.Timestamp;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * A reader for deserializing TDs from RDF representations. The created <code>ThingDescription</code>
@@ -34,14 +52,51 @@ import java.util.stream.Collectors;
 public class TDGraphReader {
   private static final String[] HTTP_URI_SCHEMES = new String[]{"http", "https"};
   private static final String[] COAP_URI_SCHEMES = new String[]{"coap", "coaps"};
+  private static final long MEMORY_MAPPING_THRESHOLD = 1024 * 1024;
 
   private final Resource thingId;
   private final ValueFactory rdf = SimpleValueFactory.getInstance();
+  private final GraphIndex graph;
   private Model model;
 
+  /**
+   * Returns a ThingDescription object based on the representation retrieved from the given URL. The
+   * response body is parsed as it is received, using the charset given in the
+   * <code>Content-Type</code> header (UTF-8 by default).
+   *
+   * @param format the format of the thing description
+   * @param url the URL of the thing description
+   * @return the thing description
+   * @throws IOException if an I/O error occurs or the server responds with an error status code
+   */
   public static ThingDescription readFromURL(TDFormat format, String url) throws IOException {
-    String representation = Request.get(url).execute().returnContent().asString();
-    return readFromString(format, representation);
+    return Request.get(url).execute().handleResponse(response -> {
+      if (response.getCode() >= HttpStatus.SC_REDIRECTION) {
+        throw new HttpResponseException(response.getCode(), response.getReasonPhrase());
+      }
+
+      return readFromEntity(format, response.getEntity());
+    });
+  }
+
+  /*
+   * Parses the body of an HTTP response as it is received, using the charset given in the
+   * Content-Type header (UTF-8 by default).
+   */
+  static ThingDescription readFromEntity(TDFormat format, HttpEntity entity) throws IOException {
+    if (entity == null) {
+      return readFromString(format, "");
+    }
+
+    if (format == TDFormat.RDF_BINARY) {
+      return readFromStream(format, entity.getContent());
+    }
+
+    Charset charset = ContentType.getCharset(ContentType.parseLenient(entity.getContentType()),
+      StandardCharsets.UTF_8);
+
+    return readFromReader(format, new BufferedReader(new InputStreamReader(entity.getContent(),
+      charset)));
   }
 
   /**
@@ -54,19 +109,172 @@ public class TDGraphReader {
    * @throws IOException if an I/O error occurs reading from the stream
    */
   public static ThingDescription readFromFile(TDFormat format, String path) throws IOException {
-    String content = new String(Files.readAllBytes(Paths.get(path)));
-    return readFromString(format, content);
+    return readFromPath(format, Paths.get(path));
   }
 
-  public static ThingDescription readFromString(TDFormat format, String representation) {
-    TDGraphReader reader;
+  /**
+   * Returns a ThingDescription object read from a UTF-8 encoded file. Files larger than 1 MB are
+   * memory-mapped rather than read through a stream.
+   *
+   * @param format the format of the thing description
+   * @param path the location of the file that contains the thing description
+   * @return the thing description
+   * @throws IOException if an I/O error occurs reading from the file
+   */
+  public static ThingDescription readFromPath(TDFormat format, Path path) throws IOException {
+    if (Files.size(path) < MEMORY_MAPPING_THRESHOLD) {
+      try (InputStream in = Files.newInputStream(path)) {
+        return readFromStream(format, in);
+      }
+    }
 
-    if (format == TDFormat.RDF_TURTLE) {
-      reader = new TDGraphReader(RDFFormat.TURTLE, representation);
-    } else {
-      reader = new TDGraphReader(RDFFormat.JSONLD, representation);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return readFromBuffer(format, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Reads a batch of thing descriptions from files in parallel on the common fork-join pool. See
+   * {@link #readAll(TDFormat, Stream, Executor)}.
+   *
+   * @param format the format of the thing descriptions
+   * @param paths the locations of the files that contain the thing descriptions
+   * @return the thing descriptions and errors, in input order
+   * @throws InterruptedException if the current thread is interrupted while waiting for the batch
+   */
+  public static BatchReadResult readAll(TDFormat format, Stream<Path> paths)
+      throws InterruptedException {
+    return readAll(format, paths, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Reads a batch of thing descriptions from files in parallel on the given executor (e.g., a
+   * dedicated {@link ForkJoinPool} or a virtual-thread-per-task executor). Files that cannot be read
+   * do not abort the batch: the cause of each failure is collected in the result.
+   * <p>
+   * The calling thread blocks until all files are read. If it is a worker of a fork-join pool (e.g.,
+   * of the common pool), the pool may add a spare thread while it waits, such that the batch cannot
+   * starve the pool. Reading files is blocking I/O, so large batches are better read on a dedicated
+   * executor than on the common pool.
+   *
+   * @param format the format of the thing descriptions
+   * @param paths the locations of the files that contain the thing descriptions
+   * @param executor the executor that reads the files
+   * @return the thing descriptions and errors, in input order
+   * @throws InterruptedException if the current thread is interrupted while waiting for the batch,
+   * in which case the pending reads are cancelled
+   * @throws RejectedExecutionException if the executor rejects a read, in which case the reads
+   * already submitted are cancelled
+   */
+  public static BatchReadResult readAll(TDFormat format, Stream<Path> paths, Executor executor)
+      throws InterruptedException {
+    long start = System.nanoTime();
+
+    List<Path> inputs = paths.collect(Collectors.toList());
+    List<FutureTask<ThingDescription>> tasks = new ArrayList<>(inputs.size());
+    List<ThingDescription> tds = new ArrayList<>(inputs.size());
+    List<Exception> errors = new ArrayList<>(inputs.size());
+
+    try {
+      for (Path path : inputs) {
+        FutureTask<ThingDescription> task = new FutureTask<>(() -> readFromPath(format, path));
+        tasks.add(task);
+        executor.execute(task);
+      }
+
+      for (int i = 0; i < tasks.size(); i++) {
+        try {
+          tds.add(await(tasks.get(i)));
+          errors.add(null);
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof Error) {
+            throw (Error) e.getCause();
+          }
+
+          tds.add(null);
+          errors.add((Exception) e.getCause());
+        }
+      }
+    } catch (InterruptedException | RuntimeException | Error e) {
+      tasks.forEach(task -> task.cancel(true));
+      throw e;
     }
 
+    return new BatchReadResult(inputs, tds, errors, Duration.ofNanos(System.nanoTime() - start));
+  }
+
+  /* Waits for a task as a managed blocker, which lets a fork-join pool compensate for the waiting
+   * worker. Other threads just block. */
+  private static <T> T await(FutureTask<T> task) throws InterruptedException, ExecutionException {
+    ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+      @Override
+      public boolean block() throws InterruptedException {
+        try {
+          task.get();
+        } catch (ExecutionException | CancellationException e) {
+          /* Reported by the caller */
+        }
+        return true;
+      }
+
+      @Override
+      public boolean isReleasable() {
+        return task.isDone();
+      }
+    });
+
+    return task.get();
+  }
+
+  /**
+   * Returns a ThingDescription object read from the remaining UTF-8 encoded bytes of a buffer. The
+   * position of the buffer is not modified.
+   *
+   * @param format the format of the thing description
+   * @param buffer the buffer that contains the thing description
+   * @return the thing description
+   */
+  public static ThingDescription readFromBuffer(TDFormat format, ByteBuffer buffer) {
+    try {
+      return readFromStream(format, new ByteBufferInputStream(buffer));
+    } catch (IOException e) {
+      // Not thrown when reading from a buffer
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Returns a ThingDescription object read from a UTF-8 encoded stream (or a binary RDF stream). The
+   * stream is read only once and is not closed.
+   *
+   * @param format the format of the thing description
+   * @param in the stream that provides the thing description
+   * @return the thing description
+   * @throws IOException if an I/O error occurs reading from the stream
+   */
+  public static ThingDescription readFromStream(TDFormat format, InputStream in) throws IOException {
+    return readThingDescription(new TDGraphReader(ReadWriteUtils.getRDFFormat(format), in));
+  }
+
+  /**
+   * Returns a ThingDescription object read from a character stream. The reader is read only once
+   * and is not closed. Binary RDF cannot be read from a character stream.
+   *
+   * @param format the format of the thing description
+   * @param reader the reader that provides the thing description
+   * @return the thing description
+   * @throws IOException if an I/O error occurs reading from the reader
+   */
+  public static ThingDescription readFromReader(TDFormat format, Reader reader) throws IOException {
+    return readThingDescription(new TDGraphReader(ReadWriteUtils.getRDFFormat(format), reader));
+  }
+
+  public static ThingDescription readFromString(TDFormat format, String representation) {
+    return readThingDescription(new TDGraphReader(ReadWriteUtils.getRDFFormat(format),
+      representation));
+  }
+
+  private static ThingDescription readThingDescription(TDGraphReader reader) {
     ThingDescription.Builder tdBuilder = new ThingDescription.Builder(reader.readThingTitle())
       .addSemanticTypes(reader.readThingTypes())
       .addSecuritySchemes(reader.readSecuritySchemes())
@@ -89,29 +297,110 @@ public class TDGraphReader {
   }
 
   TDGraphReader(RDFFormat format, String representation) {
-    loadModel(format, representation, "");
+    try {
+      loadModel(format, new StringReader(representation));
+    } catch (IOException e) {
+      // Not thrown when reading from a string
+      throw new UncheckedIOException(e);
+    }
+
+    this.graph = new GraphIndex(model);
+    this.thingId = readThingId();
+  }
 
-    Optional<String> baseURI = readBaseURI();
-    if (baseURI.isPresent()) {
-      loadModel(format, representation, baseURI.get());
+  TDGraphReader(RDFFormat format, Reader reader) throws IOException {
+    loadModel(format, reader);
+
+    this.graph = new GraphIndex(model);
+    this.thingId = readThingId();
+  }
+
+  TDGraphReader(RDFFormat format, InputStream in) throws IOException {
+    if (format.hasCharset()) {
+      loadModel(format, new BufferedReader(new InputStreamReader(in, format.getCharset())));
+    } else {
+      this.model = new LinkedHashModel();
+      parse(ReadWriteUtils.createParser(format), in, new StatementCollector(model));
     }
 
-    try {
-      thingId = Models.subject(model.filter(null, rdf.createIRI(TD.hasSecurityConfiguration),
-          null)).get();
-    } catch (NoSuchElementException e) {
-      throw new InvalidTDException("Missing mandatory security definitions.", e);
+    this.graph = new GraphIndex(model);
+    this.thingId = readThingId();
+  }
+
+  private Resource readThingId() {
+    Optional<Resource> thingId = Models.subject(model.filter(null,
+        rdf.createIRI(TD.hasSecurityConfiguration), null));
+
+    if (!thingId.isPresent()) {
+      /* Security names that cannot be resolved to IRIs are dropped when expanding TDs that use the
+       * W3C contexts, but their security definitions are kept */
+      thingId = Stream.of(TD.definesSecurityScheme, TD.securityDefinitions)
+        .map(predicate -> Models.subject(model.filter(null, rdf.createIRI(predicate), null)))
+        .filter(Optional::isPresent)
+        .map(Optional::get)
+        .findFirst();
     }
+
+    return thingId.orElseThrow(() ->
+      new InvalidTDException("Missing mandatory security definitions."));
   }
 
-  private void loadModel(RDFFormat format, String representation, String baseURI) {
+  /*
+   * TURTLE representations are parsed in a single pass: relative IRIs that follow td:hasBase are
+   * resolved against the base URI. N-Triples cannot contain relative IRIs. JSON-LD documents are
+   * expanded as a whole before any statement is reported, so if a td:hasBase (or td:baseURI, as
+   * defined by the W3C contexts) is found the document is parsed again with the base URI.
+   */
+  private void loadModel(RDFFormat format, Reader reader) throws IOException {
+    if (!format.hasCharset()) {
+      throw new IllegalArgumentException(format.getName() + " cannot be read from a character "
+        + "stream.");
+    }
+
     this.model = new LinkedHashModel();
 
-    RDFParser parser = Rio.createParser(format);
-    parser.setRDFHandler(new StatementCollector(model));
-    try (StringReader stringReader = conversion(representation, format)) {
-      parser.parse(stringReader, baseURI);
-    } catch (RDFParseException | RDFHandlerException | IOException e) {
+    if (format.equals(RDFFormat.TURTLE)) {
+      parse(new TDTurtleParser(), new BraceEscapingReader(reader), "", new StatementCollector(model));
+      return;
+    }
+
+    if (format.equals(RDFFormat.NTRIPLES)) {
+      parse(ReadWriteUtils.createParser(format), reader, "", new StatementCollector(model));
+      return;
+    }
+
+    String representation = IOUtils.toString(reader);
+    BaseURIScanner scanner = new BaseURIScanner(model);
+    try {
+      parse(ReadWriteUtils.createParser(format), new StringReader(representation), "", scanner);
+    } catch (InvalidTDException e) {
+      if (!scanner.getBaseURI().isPresent()) {
+        throw e;
+      }
+    }
+
+    if (scanner.getBaseURI().isPresent()) {
+      this.model = new LinkedHashModel();
+      parse(ReadWriteUtils.createParser(format), new StringReader(representation), scanner.getBaseURI().get(),
+        new StatementCollector(model));
+    }
+  }
+
+  private void parse(RDFParser parser, Reader reader, String baseURI, RDFHandler handler)
+      throws IOException {
+    parser.setRDFHandler(handler);
+    try {
+      parser.parse(reader, baseURI);
+    } catch (RDFParseException | RDFHandlerException e) {
+      throw new InvalidTDException("RDF Syntax Error", e);
+    }
+  }
+
+  private void parse(RDFParser parser, InputStream in, RDFHandler handler) throws IOException {
+    parser.setRDFHandler(handler);
+    try {
+      parser.parse(in);
+    } catch (RDFParseException | RDFHandlerException e) {
       throw new InvalidTDException("RDF Syntax Error", e);
     }
   }
@@ -132,7 +421,7 @@ public class TDGraphReader {
   	Literal thingTitle;
 
     try {
-      thingTitle = Models.objectLiteral(model.filter(thingId, rdf.createIRI(TD.title), null)).get();
+      thingTitle = graph.objectLiteral(thingId, TD.title).get();
     } catch (NoSuchElementException e) {
       throw new InvalidTDException("Missing mandatory title.", e);
     }
@@ -141,7 +430,7 @@ public class TDGraphReader {
   }
 
   Set<String> readThingTypes() {
-    Set<IRI> thingTypes = Models.objectIRIs(model.filter(thingId, RDF.TYPE, null));
+    Set<IRI> thingTypes = graph.types(thingId);
 
     return thingTypes.stream()
       .map(iri -> iri.stringValue())
@@ -149,18 +438,29 @@ public class TDGraphReader {
   }
 
   final Optional<String> readBaseURI() {
-    Optional<IRI> baseURI = Models.objectIRI(model.filter(thingId, rdf.createIRI(TD.hasBase), null));
-
-    if (baseURI.isPresent()) {
-      return Optional.of(baseURI.get().stringValue());
+    Optional<String> baseURI = graph.objectString(thingId, TD.hasBase);
+    if (!baseURI.isPresent()) {
+      /* The W3C TD contexts map the base of TDs to td:baseURI, typed as an xsd:anyURI literal */
+      baseURI = graph.objectString(thingId, TD.baseURI);
     }
 
-    return Optional.empty();
+    return baseURI;
   }
 
   Map<String, SecurityScheme> readSecuritySchemes() {
-    Set<Resource> schemeIds = Models.objectResources(model.filter(thingId,
-      rdf.createIRI(TD.hasSecurityConfiguration), null));
+    Set<Resource> schemeIds = graph.objectResources(thingId, TD.hasSecurityConfiguration);
+
+    if (schemeIds.isEmpty() || schemeIds.stream().anyMatch(id -> graph.types(id).isEmpty())) {
+      /* The W3C TD contexts refer to security schemes by name: the schemes themselves are the
+       * security definitions of the TD */
+      Set<Resource> definitionIds = new HashSet<>(graph.objectResources(thingId,
+        TD.definesSecurityScheme));
+      definitionIds.addAll(graph.objectResources(thingId, TD.securityDefinitions));
+
+      if (!definitionIds.isEmpty()) {
+        schemeIds = definitionIds;
+      }
+    }
 
     if (schemeIds.isEmpty()) {
       throw new InvalidTDException("Missing mandatory security configuration.");
@@ -170,7 +470,7 @@ public class TDGraphReader {
 
     for (Resource schemeId : schemeIds) {
       SecurityScheme scheme;
-      Set<IRI> schemeTypeIRIs = Models.objectIRIs(model.filter(schemeId, RDF.TYPE, null));
+      Set<IRI> schemeTypeIRIs = graph.types(schemeId);
 
       Set<String> semanticTypes = schemeTypeIRIs.stream()
         .map(iri -> iri.stringValue())
@@ -207,12 +507,12 @@ public class TDGraphReader {
 
   private SecurityScheme readTokenBasedSecurityScheme(TokenBasedSecurityScheme.Builder<?, ?> schemeBuilder, Resource schemeId,
                                               Set<String> semanticTypes) {
-    Optional<Literal> in = Models.objectLiteral(model.filter(schemeId, rdf.createIRI(WoTSec.in), null));
+    Optional<Literal> in = graph.objectLiteral(schemeId, WoTSec.in);
     if (in.isPresent()) {
       schemeBuilder.addTokenLocation(TokenLocation.fromString(in.get().stringValue()));
     }
 
-    Optional<Literal> name = Models.objectLiteral(model.filter(schemeId, rdf.createIRI(WoTSec.name), null));
+    Optional<Literal> name = graph.objectLiteral(schemeId, WoTSec.name);
     if (name.isPresent()) {
       schemeBuilder.addTokenName(name.get().stringValue());
     }
@@ -234,7 +534,7 @@ public class TDGraphReader {
   private SecurityScheme readDigestSecurityScheme(Resource schemeId, Set<String> semanticTypes) {
     DigestSecurityScheme.Builder schemeBuilder = new DigestSecurityScheme.Builder();
 
-    Optional<Literal> qop = Models.objectLiteral(model.filter(schemeId, rdf.createIRI(WoTSec.qop), null));
+    Optional<Literal> qop = graph.objectLiteral(schemeId, WoTSec.qop);
     if (qop.isPresent()) {
       schemeBuilder.addQoP(QualityOfProtection.fromString(qop.get().stringValue()));
     }
@@ -245,18 +545,17 @@ public class TDGraphReader {
   private SecurityScheme readBearerSecurityScheme(Resource schemeId, Set<String> semanticTypes) {
     BearerSecurityScheme.Builder schemeBuilder = new BearerSecurityScheme.Builder();
 
-    Optional<Literal> alg = Models.objectLiteral(model.filter(schemeId, rdf.createIRI(WoTSec.alg), null));
+    Optional<Literal> alg = graph.objectLiteral(schemeId, WoTSec.alg);
     if (alg.isPresent()) {
       schemeBuilder.addAlg(alg.get().stringValue());
     }
 
-    Optional<IRI> authorization = Models.objectIRI(model.filter(schemeId, rdf.createIRI(WoTSec.authorization),
-      null));
+    Optional<IRI> authorization = graph.objectIRI(schemeId, WoTSec.authorization);
     if (authorization.isPresent()) {
       schemeBuilder.addAuthorization(authorization.get().stringValue());
     }
 
-    Optional<Literal> format = Models.objectLiteral(model.filter(schemeId, rdf.createIRI(WoTSec.format), null));
+    Optional<Literal> format = graph.objectLiteral(schemeId, WoTSec.format);
     if (format.isPresent()) {
       schemeBuilder.addFormat(format.get().stringValue());
     }
@@ -267,8 +566,7 @@ public class TDGraphReader {
   private SecurityScheme readPSKSecurityScheme(Resource schemeId, Set<String> semanticTypes) {
     PSKSecurityScheme.Builder schemeBuilder = new PSKSecurityScheme.Builder();
 
-    Optional<Literal> identity = Models.objectLiteral(model.filter(schemeId, rdf.createIRI(WoTSec.identity),
-      null));
+    Optional<Literal> identity = graph.objectLiteral(schemeId, WoTSec.identity);
     if (identity.isPresent()) {
       schemeBuilder.addIdentity(identity.get().stringValue());
     }
@@ -279,29 +577,27 @@ public class TDGraphReader {
 
   private SecurityScheme readOAuth2SecurityScheme(Resource schemeId, Set<String> semanticTypes) {
 
-    Optional<Literal> flow = Models.objectLiteral(model.filter(schemeId, rdf.createIRI(WoTSec.flow),
-      null));
+    Optional<Literal> flow = graph.objectLiteral(schemeId, WoTSec.flow);
 
     if (flow.isPresent()) {
       OAuth2SecurityScheme.Builder schemeBuilder = new OAuth2SecurityScheme.Builder(flow.get().stringValue());
 
-      Optional<IRI> authorization = Models.objectIRI(model.filter(schemeId, rdf.createIRI(WoTSec.authorization), null));
+      Optional<IRI> authorization = graph.objectIRI(schemeId, WoTSec.authorization);
       if (authorization.isPresent()) {
         schemeBuilder.addAuthorization(authorization.get().stringValue());
       }
 
-      Optional<IRI> token = Models.objectIRI(model.filter(schemeId, rdf.createIRI(WoTSec.token), null));
+      Optional<IRI> token = graph.objectIRI(schemeId, WoTSec.token);
       if (token.isPresent()) {
         schemeBuilder.addToken(token.get().stringValue());
       }
 
-      Optional<IRI> refresh = Models.objectIRI(model.filter(schemeId, rdf.createIRI(WoTSec.refresh), null));
+      Optional<IRI> refresh = graph.objectIRI(schemeId, WoTSec.refresh);
       if (refresh.isPresent()) {
         schemeBuilder.addRefresh(refresh.get().stringValue());
       }
 
-      Set<String> scopes = Models.objectLiterals(model.filter(schemeId, rdf.createIRI(WoTSec.scopes),
-          null))
+      Set<String> scopes = graph.objectLiterals(schemeId, WoTSec.scopes)
         .stream()
         .map(scope -> scope.stringValue())
         .collect(Collectors.toSet());
@@ -321,8 +617,7 @@ public class TDGraphReader {
   List<PropertyAffordance> readProperties() {
     List<PropertyAffordance> properties = new ArrayList<>();
 
-    Set<Resource> propertyIds = Models.objectResources(model.filter(thingId,
-        rdf.createIRI(TD.hasPropertyAffordance), null));
+    Set<Resource> propertyIds = graph.objectResources(thingId, TD.hasPropertyAffordance);
 
     for (Resource propertyId : propertyIds) {
       try {
@@ -330,7 +625,7 @@ public class TDGraphReader {
         String name = readAffordanceName(propertyId);
         PropertyAffordance.Builder builder = new PropertyAffordance.Builder(name, forms);
 
-        Optional<DataSchema> schema = SchemaGraphReader.readDataSchema(propertyId, model);
+        Optional<DataSchema> schema = SchemaGraphReader.readDataSchema(propertyId, graph);
 
         if (schema.isPresent()) {
           builder.addDataSchema(schema.get());
@@ -342,8 +637,7 @@ public class TDGraphReader {
         readAffordanceMetadata(builder, propertyId);
         readUriVariables(builder, propertyId);
 
-        Optional<Literal> observable = Models.objectLiteral(model.filter(propertyId,
-          rdf.createIRI(TD.isObservable), null));
+        Optional<Literal> observable = graph.objectLiteral(propertyId, TD.isObservable);
         if (observable.isPresent() && observable.get().booleanValue()) {
           builder.addObserve();
         }
@@ -360,11 +654,10 @@ public class TDGraphReader {
   List<ActionAffordance> readActions() {
     List<ActionAffordance> actions = new ArrayList<>();
 
-    Set<Resource> affordanceIds = Models.objectResources(model.filter(thingId,
-        rdf.createIRI(TD.hasActionAffordance), null));
+    Set<Resource> affordanceIds = graph.objectResources(thingId, TD.hasActionAffordance);
 
     for (Resource affordanceId : affordanceIds) {
-      if (!model.contains(affordanceId, RDF.TYPE, rdf.createIRI(TD.ActionAffordance))) {
+      if (!graph.hasType(affordanceId, TD.ActionAffordance)) {
         continue;
       }
 
@@ -388,12 +681,11 @@ public class TDGraphReader {
     readUriVariables(actionBuilder, affordanceId);
 
     try {
-      Optional<Resource> inputSchemaId = Models.objectResource(model.filter(affordanceId,
-          rdf.createIRI(TD.hasInputSchema), null));
+      Optional<Resource> inputSchemaId = graph.objectResource(affordanceId, TD.hasInputSchema);
 
       if (inputSchemaId.isPresent()) {
         try {
-          Optional<DataSchema> input = SchemaGraphReader.readDataSchema(inputSchemaId.get(), model);
+          Optional<DataSchema> input = SchemaGraphReader.readDataSchema(inputSchemaId.get(), graph);
           if (input.isPresent()) {
             actionBuilder.addInputSchema(input.get());
           }
@@ -402,11 +694,10 @@ public class TDGraphReader {
         }
       }
 
-      Optional<Resource> outSchemaId = Models.objectResource(model.filter(affordanceId,
-          rdf.createIRI(TD.hasOutputSchema), null));
+      Optional<Resource> outSchemaId = graph.objectResource(affordanceId, TD.hasOutputSchema);
 
       if (outSchemaId.isPresent()) {
-        Optional<DataSchema> output = SchemaGraphReader.readDataSchema(outSchemaId.get(), model);
+        Optional<DataSchema> output = SchemaGraphReader.readDataSchema(outSchemaId.get(), graph);
         if (output.isPresent()) {
           actionBuilder.addOutputSchema(output.get());
         }
@@ -421,11 +712,10 @@ public class TDGraphReader {
   List<EventAffordance> readEvents() {
     List<EventAffordance> events = new ArrayList<>();
 
-    Set<Resource> affordanceIds = Models.objectResources(model.filter(thingId,
-      rdf.createIRI(TD.hasEventAffordance), null));
+    Set<Resource> affordanceIds = graph.objectResources(thingId, TD.hasEventAffordance);
 
     for (Resource affordanceId : affordanceIds) {
-      if (!model.contains(affordanceId, RDF.TYPE, rdf.createIRI(TD.EventAffordance))) {
+      if (!graph.hasType(affordanceId, TD.EventAffordance)) {
         continue;
       }
 
@@ -449,31 +739,28 @@ public class TDGraphReader {
     readUriVariables(eventBuilder, affordanceId);
 
     try {
-      Optional<Resource> subscriptionSchemaId = Models.objectResource(model.filter(affordanceId,
-        rdf.createIRI(TD.hasSubscriptionSchema), null));
+      Optional<Resource> subscriptionSchemaId = graph.objectResource(affordanceId, TD.hasSubscriptionSchema);
 
       if (subscriptionSchemaId.isPresent()) {
-        Optional<DataSchema> subscription = SchemaGraphReader.readDataSchema(subscriptionSchemaId.get(), model);
+        Optional<DataSchema> subscription = SchemaGraphReader.readDataSchema(subscriptionSchemaId.get(), graph);
         if (subscription.isPresent()) {
           eventBuilder.addSubscriptionSchema(subscription.get());
         }
       }
 
-      Optional<Resource> notificationSchemaId = Models.objectResource(model.filter(affordanceId,
-        rdf.createIRI(TD.hasNotificationSchema), null));
+      Optional<Resource> notificationSchemaId = graph.objectResource(affordanceId, TD.hasNotificationSchema);
 
       if (notificationSchemaId.isPresent()) {
-        Optional<DataSchema> notification = SchemaGraphReader.readDataSchema(notificationSchemaId.get(), model);
+        Optional<DataSchema> notification = SchemaGraphReader.readDataSchema(notificationSchemaId.get(), graph);
         if (notification.isPresent()) {
           eventBuilder.addNotificationSchema(notification.get());
         }
       }
 
-      Optional<Resource> cancellationSchemaId = Models.objectResource(model.filter(affordanceId,
-        rdf.createIRI(TD.hasCancellationSchema), null));
+      Optional<Resource> cancellationSchemaId = graph.objectResource(affordanceId, TD.hasCancellationSchema);
 
       if (cancellationSchemaId.isPresent()) {
-        Optional<DataSchema> cancellation = SchemaGraphReader.readDataSchema(cancellationSchemaId.get(), model);
+        Optional<DataSchema> cancellation = SchemaGraphReader.readDataSchema(cancellationSchemaId.get(), graph);
         if (cancellation.isPresent()) {
           eventBuilder.addCancellationSchema(cancellation.get());
         }
@@ -490,8 +777,7 @@ public class TDGraphReader {
     Literal affordanceName;
 
     try {
-      affordanceName = Models.objectLiteral(model.filter(affordanceId, rdf.createIRI(TD.name),
-        null)).get();
+      affordanceName = graph.objectLiteral(affordanceId, TD.name).get();
     } catch (NoSuchElementException e) {
       throw new InvalidTDException("Missing mandatory affordance name.", e);
     }
@@ -502,57 +788,48 @@ public class TDGraphReader {
   private void readAffordanceMetadata(InteractionAffordance
                                         .Builder<?, ? extends InteractionAffordance.Builder<?, ?>> builder, Resource affordanceId) {
     /* Read semantic types */
-    Set<IRI> types = Models.objectIRIs(model.filter(affordanceId, RDF.TYPE, null));
+    Set<IRI> types = graph.types(affordanceId);
     builder.addSemanticTypes(types.stream().map(type -> type.stringValue())
       .collect(Collectors.toList()));
 
     /* Read title */
-    Optional<Literal> title = Models.objectLiteral(model.filter(affordanceId,
-      rdf.createIRI(TD.title), null));
+    Optional<Literal> title = graph.objectLiteral(affordanceId, TD.title);
     title.ifPresent(literal -> builder.addTitle(literal.stringValue()));
 
     /* Read comment */
-    Optional<Literal> comment = Models.objectLiteral(model.filter(affordanceId,
-      RDFS.COMMENT, null));
+    Optional<Literal> comment = graph.objectLiteral(affordanceId, RDFS.COMMENT.stringValue());
     comment.ifPresent(literal -> builder.addComment(literal.stringValue()));
   }
 
   private List<Form> readForms(Resource affordanceId, String affordanceType) {
     List<Form> forms = new ArrayList<>();
 
-    Set<Resource> formIdSet = Models.objectResources(model.filter(affordanceId,
-        rdf.createIRI(TD.hasForm), null));
+    Set<Resource> formIdSet = graph.objectResources(affordanceId, TD.hasForm);
 
     for (Resource formId : formIdSet) {
-      Optional<IRI> targetOpt = Models.objectIRI(model.filter(formId, rdf.createIRI(HCTL.hasTarget),
-          null));
+      Optional<String> targetOpt = readTarget(formId);
 
       if (!targetOpt.isPresent()) {
         continue;
       }
 
+      String target = targetOpt.get();
       Optional<Literal> methodNameOpt = Optional.empty();
-      if (Arrays.stream(HTTP_URI_SCHEMES).anyMatch(targetOpt.toString()::contains)) {
-        methodNameOpt = Models.objectLiteral(model.filter(formId,
-          rdf.createIRI(HTV.methodName), null));
-      } else if (Arrays.stream(COAP_URI_SCHEMES).anyMatch(targetOpt.toString()::contains)) {
-        methodNameOpt = Models.objectLiteral(model.filter(formId,
-          rdf.createIRI(COV.methodName), null));
+      if (Arrays.stream(HTTP_URI_SCHEMES).anyMatch(target::contains)) {
+        methodNameOpt = graph.objectLiteral(formId, HTV.methodName);
+      } else if (Arrays.stream(COAP_URI_SCHEMES).anyMatch(target::contains)) {
+        methodNameOpt = graph.objectLiteral(formId, COV.methodName);
       }
 
-      Optional<Literal> contentTypeOpt = Models.objectLiteral(model.filter(formId,
-        rdf.createIRI(HCTL.forContentType), null));
+      Optional<Literal> contentTypeOpt = graph.objectLiteral(formId, HCTL.forContentType);
       String contentType = contentTypeOpt.isPresent() ? contentTypeOpt.get().stringValue()
         : "application/json";
 
-      Optional<String> subprotocolOpt = Models.objectString(model.filter(formId,
-        rdf.createIRI(HCTL.forSubProtocol), null));
+      Optional<String> subprotocolOpt = graph.objectString(formId, HCTL.forSubProtocol);
 
-      Set<IRI> opsIRIs = Models.objectIRIs(model.filter(formId, rdf.createIRI(HCTL.hasOperationType),
-        null));
+      Set<IRI> opsIRIs = graph.objectIRIs(formId, HCTL.hasOperationType);
 
       Set<String> ops = opsIRIs.stream().map(op -> op.stringValue()).collect(Collectors.toSet());
-      String target = targetOpt.get().stringValue();
       Form.Builder builder = new Form.Builder(target)
           .setContentType(contentType)
           .addOperationTypes(ops);
@@ -576,9 +853,38 @@ public class TDGraphReader {
     return forms;
   }
 
+  /*
+   * The W3C TD contexts type form targets as xsd:anyURI literals, which are not resolved against the
+   * base URI when the TD is expanded.
+   */
+  private Optional<String> readTarget(Resource formId) {
+    Optional<IRI> targetIRI = graph.objectIRI(formId, HCTL.hasTarget);
+    if (targetIRI.isPresent()) {
+      return Optional.of(targetIRI.get().stringValue());
+    }
+
+    Optional<Literal> targetLiteral = graph.objectLiteral(formId, HCTL.hasTarget);
+    if (!targetLiteral.isPresent()) {
+      return Optional.empty();
+    }
+
+    String target = targetLiteral.get().stringValue();
+    Optional<String> base = readBaseURI();
+    if (!base.isPresent()) {
+      return Optional.of(target);
+    }
+
+    try {
+      return Optional.of(URI.create(base.get()).resolve(target).toString());
+    } catch (IllegalArgumentException e) {
+      /* URI templates are not valid URIs */
+      return Optional.of(target.contains(":") ? target : base.get() + target);
+    }
+  }
+
   private void readUriVariables(InteractionAffordance
                                   .Builder<?, ? extends InteractionAffordance.Builder<?, ?>> builder, Resource affordanceId){
-    Set<Resource> uriVariableIds = Models.objectResources(model.filter(affordanceId, rdf.createIRI(TD.hasUriTemplateSchema), null));
+    Set<Resource> uriVariableIds = graph.objectResources(affordanceId, TD.hasUriTemplateSchema);
     for (Resource uriVariableId : uriVariableIds){
       readUriVariable(builder, uriVariableId);
     }
@@ -586,8 +892,8 @@ public class TDGraphReader {
 
   private void readUriVariable(InteractionAffordance
                                   .Builder<?, ? extends InteractionAffordance.Builder<?, ?>> builder, Resource uriVariableId) {
-      Optional<DataSchema> opDataSchema = SchemaGraphReader.readDataSchema(uriVariableId, model);
-      Optional<Literal> opNameLiteral = Models.objectLiteral(model.filter(uriVariableId, rdf.createIRI(TD.name), null));
+      Optional<DataSchema> opDataSchema = SchemaGraphReader.readDataSchema(uriVariableId, graph);
+      Optional<Literal> opNameLiteral = graph.objectLiteral(uriVariableId, TD.name);
       if (opDataSchema.isPresent() && opNameLiteral.isPresent()){
         String name = opNameLiteral.get().stringValue();
         DataSchema schema = opDataSchema.get();
@@ -595,29 +901,77 @@ public class TDGraphReader {
       }
   }
 
-  private StringReader conversion(String str, RDFFormat format){
-    String newStr = "";
-    if (format.equals(RDFFormat.TURTLE)) {
-      for (int i = 0; i < str.length(); i++) {
-        char c = str.charAt(i);
-        if (c == '{') {
-          newStr = newStr + "%7B";
-        } else if (c == '}') {
-          newStr = newStr + "%7D";
-        } else {
-          newStr = newStr + c;
-        }
-      }
-    } else {
-      newStr = str;
-    }
-    return new StringReader(newStr);
-  }
-
   private String getUniqueSecurityName(String securitySchemeName) {
     Timestamp timestamp = new Timestamp(System.currentTimeMillis());
     Date date = new Date();
     return securitySchemeName + "_" + timestamp.getTime();
   }
 
+  /**
+   * An input stream that reads the remaining bytes of a (possibly memory-mapped) buffer.
+   */
+  private static class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer.duplicate();
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+
+      int n = Math.min(len, buffer.remaining());
+      buffer.get(b, off, n);
+      return n;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+
+  /**
+   * Collects the statements of a JSON-LD TD until a <code>td:hasBase</code> or
+   * <code>td:baseURI</code> statement is found, at which point parsing is aborted: the statements
+   * read so far would have relative IRIs resolved against the wrong base.
+   */
+  private static class BaseURIScanner extends StatementCollector {
+    private static final IRI HAS_BASE = SimpleValueFactory.getInstance().createIRI(TD.hasBase);
+    private static final IRI BASE_URI = SimpleValueFactory.getInstance().createIRI(TD.baseURI);
+
+    private Optional<String> baseURI = Optional.empty();
+
+    BaseURIScanner(Model model) {
+      super(model);
+    }
+
+    Optional<String> getBaseURI() {
+      return baseURI;
+    }
+
+    @Override
+    public void handleStatement(Statement st) {
+      if ((HAS_BASE.equals(st.getPredicate()) || BASE_URI.equals(st.getPredicate()))
+          && !(st.getObject() instanceof BNode)) {
+        baseURI = Optional.of(st.getObject().stringValue());
+        throw new RDFHandlerException("Found base URI: " + baseURI.get());
+      }
+
+      super.handleStatement(st);
+    }
+  }
+
 }
@@ -1,17 +1,31 @@
 package ch.unisg.ics.interactions.wot.td.io;
 
 import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.ThingDescription.TDFormat;
 import ch.unisg.ics.interactions.wot.td.affordances.*;
 import ch.unisg.ics.interactions.wot.td.schemas.DataSchema;
 import ch.unisg.ics.interactions.wot.td.security.SecurityScheme;
 import ch.unisg.ics.interactions.wot.td.vocabularies.*;
+import jakarta.json.*;
+import jakarta.json.stream.JsonGenerator;
+import no.hasmac.jsonld.JsonLd;
+import no.hasmac.jsonld.JsonLdError;
+import no.hasmac.jsonld.JsonLdOptions;
+import no.hasmac.jsonld.document.JsonDocument;
+import no.hasmac.jsonld.loader.DocumentLoaderOptions;
 import org.eclipse.rdf4j.model.*;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
-import org.eclipse.rdf4j.model.util.ModelBuilder;
 import org.eclipse.rdf4j.model.vocabulary.RDF;
 import org.eclipse.rdf4j.model.vocabulary.RDFS;
-import org.eclipse.rdf4j.rio.RDFFormat;
-
+import org.eclipse.rdf4j.model.vocabulary.XSD;
+import org.eclipse.rdf4j.rio.*;
+import org.eclipse.rdf4j.rio.helpers.BasicWriterSettings;
+import org.eclipse.rdf4j.rio.jsonld.JSONLDMode;
+import org.eclipse.rdf4j.rio.jsonld.JSONLDSettings;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -21,24 +35,48 @@ import java.util.*;
 public class TDGraphWriter {
   private static final String[] HTTP_URI_SCHEMES = new String[]{"http:", "https:"};
   private static final String[] COAP_URI_SCHEMES = new String[]{"coap:", "coaps:"};
+  private static final Map<String, String> TD_NAMESPACES = new LinkedHashMap<>();
+
+  static {
+    TD_NAMESPACES.put("td", TD.PREFIX);
+    TD_NAMESPACES.put("htv", HTV.PREFIX);
+    TD_NAMESPACES.put("cov", COV.PREFIX);
+    TD_NAMESPACES.put("hctl", HCTL.PREFIX);
+    TD_NAMESPACES.put("wotsec", WoTSec.PREFIX);
+    TD_NAMESPACES.put("js", JSONSchema.PREFIX);
+    TD_NAMESPACES.put("dct", DCT.PREFIX);
+  }
+
+  /* The term definitions of the bundled TD 1.1 context, loaded on first use */
+  private static volatile JsonObject tdContext;
+  /* The term definitions used to compact TDs, derived from the TD 1.1 context on first use */
+  private static volatile JsonObject compactionContext;
 
   private final Resource thingId;
   private final ThingDescription td;
-  private final ModelBuilder graphBuilder;
+  private final Map<String, String> namespaces = new LinkedHashMap<>();
   private final ValueFactory rdf = SimpleValueFactory.getInstance();
+  private StatementSink graphBuilder;
+  /* Whether the base and the form targets are written as in the W3C TD contexts */
+  private boolean usesContextTerms;
+  /* The statements about the thing that the graph of the TD may repeat */
+  private final Set<Statement> thingStatements = new HashSet<>();
 
   public TDGraphWriter(ThingDescription td) {
     this.thingId = td.getThingURI().isPresent() ? rdf.createIRI(td.getThingURI().get())
       : rdf.createBNode();
 
     this.td = td;
-    this.graphBuilder = new ModelBuilder();
   }
 
   public static String write(ThingDescription td) {
     return new TDGraphWriter(td).write();
   }
 
+  public static String write(ThingDescription td, TDFormat format) {
+    return new TDGraphWriter(td).write(format);
+  }
+
   /**
    * Sets a prefix binding for a given namespace.
    *
@@ -47,24 +85,324 @@ public class TDGraphWriter {
    * @return this <code>TDGraphWriter</code>
    */
   public TDGraphWriter setNamespace(String prefix, String namespace) {
-    this.graphBuilder.setNamespace(prefix, namespace);
+    this.namespaces.put(prefix, namespace);
     return this;
   }
 
   public String write() {
-    return this.addTypes()
+    return write(TDFormat.RDF_TURTLE);
+  }
+
+  /**
+   * Writes the TD in the given format. JSON-LD is framed as a tree of objects rooted at the thing
+   * (or written as a flat graph if the TD graph has nodes that cannot be reached from the thing) and
+   * compacted with the bundled TD 1.1 context ({@link ContextDocumentLoader#TD_1_1_CONTEXT}).
+   * Prefix bindings that the context does not define are added to the context of the document.
+   * Binary RDF cannot be written to a string, use {@link #write(TDFormat, OutputStream)} instead.
+   *
+   * @param format the format of the serialized representation
+   * @return the serialized representation
+   */
+  public String write(TDFormat format) {
+    StringWriter writer = new StringWriter();
+    if (format == TDFormat.RDF_JSONLD) {
+      writeJsonLd(writer);
+    } else {
+      write(createWriter(format, writer));
+    }
+    return writer.toString();
+  }
+
+  /**
+   * Writes the TD in TURTLE to an output stream using UTF-8. See
+   * {@link #write(TDFormat, OutputStream)}.
+   *
+   * @param out the output stream
+   * @throws IOException if an I/O error occurs while writing to the stream
+   */
+  public void write(OutputStream out) throws IOException {
+    write(TDFormat.RDF_TURTLE, out);
+  }
+
+  /**
+   * Writes the TD in the given format to an output stream using UTF-8. In TURTLE, N-Triples and
+   * binary RDF, the statements of the TD are written as they are created, without building an
+   * intermediate graph. JSON-LD is compacted with the TD 1.1 context, so the whole TD is buffered in
+   * memory before it is written. The stream is not closed.
+   *
+   * @param format the format of the serialized representation
+   * @param out the output stream
+   * @throws IOException if an I/O error occurs while writing to the stream
+   */
+  public void write(TDFormat format, OutputStream out) throws IOException {
+    if (format == TDFormat.RDF_JSONLD) {
+      Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+      write(format, writer);
+      writer.flush();
+      return;
+    }
+
+    try {
+      write(Rio.createWriter(ReadWriteUtils.getRDFFormat(format), out));
+    } catch (RDFHandlerException e) {
+      throw unwrapIOException(e);
+    }
+  }
+
+  /**
+   * Writes the TD in TURTLE to a character stream. See {@link #write(TDFormat, Writer)}.
+   *
+   * @param writer the character stream
+   * @throws IOException if an I/O error occurs while writing to the stream
+   */
+  public void write(Writer writer) throws IOException {
+    write(TDFormat.RDF_TURTLE, writer);
+  }
+
+  /**
+   * Writes the TD in the given format to a character stream. In TURTLE and N-Triples, the
+   * statements of the TD are written as they are created, without building an intermediate graph.
+   * JSON-LD is compacted with the TD 1.1 context, so the whole TD is buffered in memory before it is
+   * written. The writer is not closed. Binary RDF cannot be written to a character stream.
+   *
+   * @param format the format of the serialized representation
+   * @param writer the character stream
+   * @throws IOException if an I/O error occurs while writing to the stream
+   */
+  public void write(TDFormat format, Writer writer) throws IOException {
+    try {
+      if (format == TDFormat.RDF_JSONLD) {
+        writeJsonLd(writer);
+      } else {
+        write(createWriter(format, writer));
+      }
+    } catch (RDFHandlerException e) {
+      throw unwrapIOException(e);
+    }
+  }
+
+  private RDFWriter createWriter(TDFormat format, Writer writer) {
+    RDFFormat rdfFormat = ReadWriteUtils.getRDFFormat(format);
+
+    if (!rdfFormat.hasCharset()) {
+      throw new IllegalArgumentException(rdfFormat.getName() + " cannot be written to a character "
+        + "stream.");
+    }
+
+    return Rio.createWriter(rdfFormat, writer);
+  }
+
+  /*
+   * The JSON-LD writer of RDF4J compacts only with the prefixes of the graph and cannot load
+   * contexts offline, so the statements are written as expanded JSON-LD that is then framed with the
+   * TD context served by the shared ContextDocumentLoader. Framing drops the nodes that cannot be
+   * reached from the thing, so a TD whose graph has such nodes is compacted as a flat graph instead.
+   */
+  private void writeJsonLd(Writer out) {
+    StringWriter expanded = new StringWriter();
+    RDFWriter writer = Rio.createWriter(RDFFormat.JSONLD, expanded);
+    writer.getWriterConfig().set(JSONLDSettings.JSONLD_MODE, JSONLDMode.EXPAND);
+    writer.getWriterConfig().set(JSONLDSettings.USE_NATIVE_TYPES, true);
+    Map<String, String> prefixes = write(writer);
+
+    /* Adds the prefixes that the TD context does not define */
+    JsonObject tdContext = getTDContext();
+    JsonObjectBuilder localContext = Json.createObjectBuilder();
+    prefixes.forEach((prefix, namespace) -> {
+      if (!prefix.isEmpty() && !tdContext.containsKey(prefix)
+          && !tdContext.containsValue(Json.createValue(namespace))) {
+        localContext.add(prefix, namespace);
+      }
+    });
+    JsonObject context = localContext.build();
+
+    JsonArrayBuilder contexts = Json.createArrayBuilder().add(getCompactionContext());
+    if (!context.isEmpty()) {
+      contexts.add(context);
+    }
+
+    /* The TD refers to the TD context by its IRI */
+    JsonValue documentContext = context.isEmpty()
+      ? Json.createValue(ContextDocumentLoader.TD_1_1_CONTEXT)
+      : Json.createArrayBuilder().add(ContextDocumentLoader.TD_1_1_CONTEXT).add(context).build();
+
+    JsonLdOptions options = new JsonLdOptions();
+    options.setDocumentLoader(ContextDocumentLoader.getSharedInstance());
+
+    try {
+      JsonDocument input = JsonDocument.of(new StringReader(expanded.toString()));
+      JsonObject result;
+
+      if (isGraphReachableFromThing()) {
+        JsonObject frame = Json.createObjectBuilder()
+          .add("@context", contexts)
+          .add("@type", TD.Thing)
+          .build();
+        result = JsonLd.frame(input, JsonDocument.of(frame)).options(options).get();
+      } else {
+        JsonObject compactionContext = Json.createObjectBuilder().add("@context", contexts).build();
+        result = JsonLd.compact(input, JsonDocument.of(compactionContext)).options(options).get();
+      }
+
+      /* The context is written first, as in TDs */
+      JsonObjectBuilder document = Json.createObjectBuilder().add("@context", documentContext);
+      result.forEach((key, value) -> {
+        if (!key.equals("@context")) {
+          document.add(key, value);
+        }
+      });
+
+      JsonGenerator generator = Json.createGeneratorFactory(
+          Collections.singletonMap(JsonGenerator.PRETTY_PRINTING, true)).createGenerator(out);
+      generator.write(document.build());
+      generator.flush();
+    } catch (JsonLdError | JsonException e) {
+      throw new RDFHandlerException("Could not write the TD as JSON-LD.", e);
+    }
+  }
+
+  /* The statements written for the TD are all reachable from the thing, only its graph may not be */
+  private boolean isGraphReachableFromThing() {
+    if (!td.getGraph().isPresent()) {
+      return true;
+    }
+
+    Model graph = td.getGraph().get();
+    Set<Resource> reached = new HashSet<>();
+    Deque<Resource> pending = new ArrayDeque<>();
+    pending.add(thingId);
+
+    while (!pending.isEmpty()) {
+      Resource node = pending.poll();
+      if (reached.add(node)) {
+        for (Statement statement : graph.getStatements(node, null, null)) {
+          if (statement.getObject().isResource()) {
+            pending.add((Resource) statement.getObject());
+          }
+        }
+      }
+    }
+
+    return reached.containsAll(graph.subjects());
+  }
+
+  private static JsonObject getTDContext() {
+    if (tdContext == null) {
+      try {
+        JsonStructure document = ContextDocumentLoader.getSharedInstance()
+          .loadDocument(URI.create(ContextDocumentLoader.TD_1_1_CONTEXT), new DocumentLoaderOptions())
+          .getJsonContent().get();
+        tdContext = document.asJsonObject().getJsonObject("@context");
+      } catch (JsonLdError e) {
+        throw new IllegalStateException("The bundled TD context is not available.", e);
+      }
+    }
+
+    return tdContext;
+  }
+
+  /*
+   * The TD context aliases @type with both "type" and "scheme", and coerces booleans and unsigned
+   * integers that are written as native JSON values. The TD is compacted with a copy of the context
+   * where "scheme" is only used for security schemes and these coercions are dropped, which does
+   * not change how the TD is interpreted with the TD context.
+   */
+  private static JsonObject getCompactionContext() {
+    if (compactionContext == null) {
+      JsonObjectBuilder context = Json.createObjectBuilder(withoutNativeCoercions(getTDContext()))
+        .remove("scheme");
+
+      JsonObject schemeAlias = Json.createObjectBuilder().add("scheme", "@type").build();
+      for (String term : new String[]{"security", "securityDefinitions"}) {
+        context.add(term, Json.createObjectBuilder(getTDContext().getJsonObject(term))
+          .add("@context", schemeAlias));
+      }
+
+      compactionContext = context.build();
+    }
+
+    return compactionContext;
+  }
+
+  private static JsonObject withoutNativeCoercions(JsonObject context) {
+    JsonObjectBuilder builder = Json.createObjectBuilder();
+
+    context.forEach((term, definition) -> {
+      if (definition.getValueType() != JsonValue.ValueType.OBJECT) {
+        builder.add(term, definition);
+        return;
+      }
+
+      JsonObject object = definition.asJsonObject();
+      JsonObjectBuilder definitionBuilder = Json.createObjectBuilder(object);
+      String type = object.containsKey("@type") && object.get("@type").getValueType()
+        == JsonValue.ValueType.STRING ? object.getString("@type") : "";
+      if (type.equals("xsd:boolean") || type.equals("xsd:unsignedInt")) {
+        definitionBuilder.remove("@type");
+      }
+      if (object.containsKey("@context") && object.get("@context").getValueType()
+          == JsonValue.ValueType.OBJECT) {
+        definitionBuilder.add("@context", withoutNativeCoercions(object.getJsonObject("@context")));
+      }
+
+      builder.add(term, definitionBuilder);
+    });
+
+    return builder.build();
+  }
+
+  /* Returns the prefix bindings that were passed to the writer */
+  private Map<String, String> write(RDFWriter writer) {
+    RDFFormat format = writer.getRDFFormat();
+
+    if (format.equals(RDFFormat.TURTLE)) {
+      writer.getWriterConfig().set(BasicWriterSettings.INLINE_BLANK_NODES, true);
+    }
+
+    writer.startRDF();
+
+    /* Prefixed names are converted to IRIs only for the namespaces set on this writer */
+    Map<String, String> bindings = new LinkedHashMap<>(namespaces);
+    bindings.putIfAbsent(XSD.PREFIX, XSD.NAMESPACE);
+
+    /* Namespaces have to be handled before any statement is written */
+    Map<String, String> prefixes = new LinkedHashMap<>(bindings);
+    if (format.equals(RDFFormat.JSONLD)) {
+      /* The TD vocabularies are abbreviated unless their namespaces are already bound */
+      TD_NAMESPACES.forEach((prefix, namespace) -> {
+        if (!prefixes.containsKey(prefix) && !prefixes.containsValue(namespace)) {
+          prefixes.put(prefix, namespace);
+        }
+      });
+    }
+    if (td.getGraph().isPresent()) {
+      td.getGraph().get().getNamespaces().forEach(ns -> prefixes.putIfAbsent(ns.getPrefix(),
+        ns.getName()));
+    }
+    prefixes.forEach(writer::handleNamespace);
+
+    this.graphBuilder = new StatementSink(writer, bindings);
+    this.usesContextTerms = format.equals(RDFFormat.JSONLD);
+
+    this.addTypes()
       .addTitle()
       .addSecurity()
       .addBaseURI()
       .addProperties()
       .addActions()
       .addEvents()
-      .addGraph()
-      .write(RDFFormat.TURTLE);
+      .addGraph();
+
+    writer.endRDF();
+    return prefixes;
   }
 
-  private Model getModel() {
-    return graphBuilder.build();
+  private static IOException unwrapIOException(RDFHandlerException e) {
+    if (e.getCause() instanceof IOException) {
+      return (IOException) e.getCause();
+    }
+
+    throw e;
   }
 
   private TDGraphWriter addSecurity() {
@@ -111,29 +449,41 @@ public class TDGraphWriter {
   }
 
   private TDGraphWriter addTypes() {
-    graphBuilder.add(thingId, RDF.TYPE, rdf.createIRI(TD.Thing));
+    addThingStatement(RDF.TYPE, rdf.createIRI(TD.Thing));
 
     for (String type : td.getSemanticTypes()) {
-      graphBuilder.add(thingId, RDF.TYPE, rdf.createIRI(type));
+      if (!type.equals(TD.Thing)) {
+        addThingStatement(RDF.TYPE, rdf.createIRI(type));
+      }
     }
 
     return this;
   }
 
   private TDGraphWriter addTitle() {
-    graphBuilder.add(thingId, rdf.createIRI(TD.title), td.getTitle());
+    addThingStatement(rdf.createIRI(TD.title), rdf.createLiteral(td.getTitle()));
     return this;
   }
 
   private TDGraphWriter addBaseURI() {
     if (td.getBaseURI().isPresent()) {
-      graphBuilder.add(thingId, rdf.createIRI(TD.hasBase),
-        rdf.createIRI(td.getBaseURI().get()));
+      if (usesContextTerms) {
+        addThingStatement(rdf.createIRI(TD.baseURI), rdf.createLiteral(td.getBaseURI().get(),
+          XSD.ANYURI));
+      } else {
+        addThingStatement(rdf.createIRI(TD.hasBase), rdf.createIRI(td.getBaseURI().get()));
+      }
     }
 
     return this;
   }
 
+  private void addThingStatement(IRI predicate, Value object) {
+    Statement statement = rdf.createStatement(thingId, predicate, object);
+    thingStatements.add(statement);
+    graphBuilder.add(statement);
+  }
+
   private TDGraphWriter addProperties() {
     for (PropertyAffordance property : td.getProperties()) {
       Resource propertyId = addAffordance(property, TD.hasPropertyAffordance, TD.PropertyAffordance);
@@ -208,11 +558,11 @@ public class TDGraphWriter {
 
   private TDGraphWriter addGraph() {
     if (td.getGraph().isPresent()) {
-      getModel().addAll(td.getGraph().get());
-
-      td.getGraph().get().getNamespaces().stream()
-        .filter(ns -> !getModel().getNamespace(ns.getPrefix()).isPresent())
-        .forEach(graphBuilder::setNamespace);
+      for (Statement statement : td.getGraph().get()) {
+        if (!thingStatements.contains(statement)) {
+          graphBuilder.add(statement);
+        }
+      }
     }
     return this;
   }
@@ -225,7 +575,10 @@ public class TDGraphWriter {
     graphBuilder.add(affordanceId, RDF.TYPE, rdf.createIRI(affordanceClass));
     graphBuilder.add(affordanceId, rdf.createIRI(TD.name), rdf.createLiteral(affordance.getName()));
 
-    for (String type : affordance.getSemanticTypes()) {
+    /* The semantic types of affordances are a list, which may repeat types */
+    Set<String> types = new LinkedHashSet<>(affordance.getSemanticTypes());
+    types.remove(affordanceClass);
+    for (String type : types) {
       graphBuilder.add(affordanceId, RDF.TYPE, rdf.createIRI(type));
     }
 
@@ -269,7 +622,12 @@ public class TDGraphWriter {
           graphBuilder.add(formId, rdf.createIRI(COV.methodName), form.getMethodName().get());
         }
       }
-      graphBuilder.add(formId, rdf.createIRI(HCTL.hasTarget), rdf.createIRI(conversion(form.getTarget())));
+      if (usesContextTerms) {
+        graphBuilder.add(formId, rdf.createIRI(HCTL.hasTarget), rdf.createLiteral(form.getTarget(),
+          XSD.ANYURI));
+      } else {
+        graphBuilder.add(formId, rdf.createIRI(HCTL.hasTarget), rdf.createIRI(ReadWriteUtils.escapeBraces(form.getTarget())));
+      }
       graphBuilder.add(formId, rdf.createIRI(HCTL.forContentType), form.getContentType());
 
       for (String opType : form.getOperationTypes()) {
@@ -292,25 +650,4 @@ public class TDGraphWriter {
       }
     }
   }
-
-  private String write(RDFFormat format) {
-    return ReadWriteUtils.writeToString(format, getModel());
-  }
-
-  private String conversion(String str){
-    String newStr = "";
-    for (int i = 0; i<str.length();i++){
-      char c = str.charAt(i);
-      if (c == '{'){
-        newStr = newStr + "%7B";
-      }
-      else if (c == '}'){
-        newStr = newStr + "%7D";
-      }
-      else {
-        newStr = newStr + c;
-      }
-    }
-    return newStr;
-  }
 }
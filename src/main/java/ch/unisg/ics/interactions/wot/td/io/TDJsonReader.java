@@ -0,0 +1,641 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.affordances.ActionAffordance;
+import ch.unisg.ics.interactions.wot.td.affordances.EventAffordance;
+import ch.unisg.ics.interactions.wot.td.affordances.Form;
+import ch.unisg.ics.interactions.wot.td.affordances.InteractionAffordance;
+import ch.unisg.ics.interactions.wot.td.affordances.PropertyAffordance;
+import ch.unisg.ics.interactions.wot.td.schemas.*;
+import ch.unisg.ics.interactions.wot.td.security.*;
+import ch.unisg.ics.interactions.wot.td.security.DigestSecurityScheme.QualityOfProtection;
+import ch.unisg.ics.interactions.wot.td.security.TokenBasedSecurityScheme.TokenLocation;
+import ch.unisg.ics.interactions.wot.td.vocabularies.*;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.apache.commons.io.IOUtils;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.rio.*;
+import org.eclipse.rdf4j.rio.helpers.StatementCollector;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Reads TDs serialized as plain <a href="https://www.w3.org/TR/wot-thing-description11/">TD 1.1
+ * JSON</a> without going through RDF: the JSON members are mapped directly onto the builders of
+ * {@link ThingDescription}, its affordances, forms, data schemas and security schemes.
+ * <p>
+ * The TD is parsed with Gson's streaming API. Members that are not used by this library (e.g.,
+ * <code>links</code>) are skipped without being materialized, while each affordance and security
+ * definition is materialized as a JSON tree before it is mapped. The RDF graph of the TD is
+ * computed via JSON-LD expansion only when {@link ThingDescription#getGraph()} is called. To that
+ * end, the whole input is buffered as a string, which the TD keeps until its graph is computed:
+ * reading from a stream or a reader does not save memory compared to reading from a string.
+ * <p>
+ * Compact IRIs in <code>@type</code> values are expanded using the prefixes defined in the
+ * <code>@context</code> of the TD, and relative form targets are resolved against
+ * <code>base</code>.
+ */
+public class TDJsonReader {
+  private final static Logger LOGGER = Logger.getLogger(TDJsonReader.class.getCanonicalName());
+
+  private static final Map<String, String> DEFAULT_TERMS = new HashMap<>();
+  private static final Map<String, String> OPERATION_TYPES = new HashMap<>();
+
+  static {
+    DEFAULT_TERMS.put("td", TD.PREFIX);
+    DEFAULT_TERMS.put("htv", HTV.PREFIX);
+    DEFAULT_TERMS.put("cov", COV.PREFIX);
+    DEFAULT_TERMS.put("hctl", HCTL.PREFIX);
+    DEFAULT_TERMS.put("wotsec", WoTSec.PREFIX);
+    DEFAULT_TERMS.put("jsonschema", JSONSchema.PREFIX);
+    DEFAULT_TERMS.put("dct", DCT.PREFIX);
+    DEFAULT_TERMS.put("Thing", TD.Thing);
+
+    OPERATION_TYPES.put("readproperty", TD.readProperty);
+    OPERATION_TYPES.put("writeproperty", TD.writeProperty);
+    OPERATION_TYPES.put("observeproperty", TD.observeProperty);
+    OPERATION_TYPES.put("unobserveproperty", TD.unobserveProperty);
+    OPERATION_TYPES.put("invokeaction", TD.invokeAction);
+    OPERATION_TYPES.put("subscribeevent", TD.subscribeEvent);
+    OPERATION_TYPES.put("unsubscribeevent", TD.unsubscribeEvent);
+  }
+
+  private final Map<String, String> terms = new HashMap<>(DEFAULT_TERMS);
+  private Optional<String> vocab = Optional.empty();
+
+  private Optional<String> title = Optional.empty();
+  private Optional<String> thingURI = Optional.empty();
+  private Optional<String> base = Optional.empty();
+  private final Set<String> types = new HashSet<>();
+  private final Set<String> security = new HashSet<>();
+
+  private final Map<String, JsonObject> securityDefinitions = new LinkedHashMap<>();
+  private final Map<String, JsonObject> properties = new LinkedHashMap<>();
+  private final Map<String, JsonObject> actions = new LinkedHashMap<>();
+  private final Map<String, JsonObject> events = new LinkedHashMap<>();
+  private final List<JsonElement> typeValues = new ArrayList<>();
+
+  private TDJsonReader() { }
+
+  public static ThingDescription readFromString(String representation) {
+    TDJsonReader reader = new TDJsonReader();
+
+    try {
+      reader.read(new JsonReader(new StringReader(representation)));
+    } catch (IOException | JsonParseException | IllegalStateException e) {
+      throw new InvalidTDException("JSON Syntax Error", e);
+    }
+
+    return reader.readThingDescription(representation);
+  }
+
+  /**
+   * Reads a TD from a character stream. The whole input is buffered, see the class documentation.
+   * The reader is not closed.
+   */
+  public static ThingDescription readFromReader(Reader reader) throws IOException {
+    return readFromString(IOUtils.toString(reader));
+  }
+
+  /**
+   * Reads a TD from a UTF-8 encoded input stream. The whole input is buffered, see the class
+   * documentation. The stream is not closed.
+   */
+  public static ThingDescription readFromStream(InputStream in) throws IOException {
+    return readFromString(IOUtils.toString(in, StandardCharsets.UTF_8));
+  }
+
+  public static ThingDescription readFromPath(Path path) throws IOException {
+    return readFromString(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+  }
+
+  /*
+   * The top-level members are streamed. Affordances and security definitions are materialized one
+   * at a time, but only mapped onto builders once the whole document has been read, since the
+   * @context and base they depend on may appear anywhere in the document.
+   */
+  private void read(JsonReader reader) throws IOException {
+    reader.beginObject();
+
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case "@context":
+          readContext(JsonParser.parseReader(reader));
+          break;
+        case "@type":
+          typeValues.add(JsonParser.parseReader(reader));
+          break;
+        case "id":
+          thingURI = Optional.of(reader.nextString());
+          break;
+        case "title":
+          title = Optional.of(reader.nextString());
+          break;
+        case "base":
+          base = Optional.of(reader.nextString());
+          break;
+        case "security":
+          readStrings(JsonParser.parseReader(reader), security);
+          break;
+        case "securityDefinitions":
+          readObjects(reader, securityDefinitions);
+          break;
+        case "properties":
+          readObjects(reader, properties);
+          break;
+        case "actions":
+          readObjects(reader, actions);
+          break;
+        case "events":
+          readObjects(reader, events);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+
+    reader.endObject();
+  }
+
+  private void readContext(JsonElement context) {
+    if (context.isJsonArray()) {
+      for (JsonElement element : context.getAsJsonArray()) {
+        readContext(element);
+      }
+    } else if (context.isJsonObject()) {
+      for (Map.Entry<String, JsonElement> term : context.getAsJsonObject().entrySet()) {
+        JsonElement value = term.getValue();
+
+        if (term.getKey().equals("@vocab") && value.isJsonPrimitive()) {
+          vocab = Optional.of(value.getAsString());
+        } else if (value.isJsonPrimitive()) {
+          terms.put(term.getKey(), value.getAsString());
+        } else if (value.isJsonObject() && value.getAsJsonObject().has("@id")) {
+          terms.put(term.getKey(), value.getAsJsonObject().get("@id").getAsString());
+        }
+      }
+    }
+  }
+
+  private static void readObjects(JsonReader reader, Map<String, JsonObject> objects)
+      throws IOException {
+    if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+      throw new InvalidTDException("Expected a JSON object at " + reader.getPath());
+    }
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String name = reader.nextName();
+      JsonElement element = JsonParser.parseReader(reader);
+
+      if (!element.isJsonObject()) {
+        throw new InvalidTDException("Expected a JSON object at " + reader.getPath());
+      }
+
+      objects.put(name, element.getAsJsonObject());
+    }
+    reader.endObject();
+  }
+
+  private ThingDescription readThingDescription(String representation) {
+    if (!title.isPresent()) {
+      throw new InvalidTDException("Missing mandatory title.");
+    }
+
+    if (securityDefinitions.isEmpty()) {
+      throw new InvalidTDException("Missing mandatory security definitions.");
+    }
+
+    for (JsonElement typeValue : typeValues) {
+      types.addAll(readTypes(typeValue));
+    }
+
+    ThingDescription.Builder builder = new ThingDescription.Builder(title.get())
+      .addSemanticTypes(types);
+
+    for (Map.Entry<String, JsonObject> definition : securityDefinitions.entrySet()) {
+      builder.addSecurityScheme(definition.getKey(), readSecurityScheme(definition.getValue()),
+        security.contains(definition.getKey()));
+    }
+
+    for (Map.Entry<String, JsonObject> property : properties.entrySet()) {
+      builder.addProperty(readProperty(property.getKey(), property.getValue()));
+    }
+
+    for (Map.Entry<String, JsonObject> action : actions.entrySet()) {
+      builder.addAction(readAction(action.getKey(), action.getValue()));
+    }
+
+    for (Map.Entry<String, JsonObject> event : events.entrySet()) {
+      builder.addEvent(readEvent(event.getKey(), event.getValue()));
+    }
+
+    thingURI.ifPresent(builder::addThingURI);
+    base.ifPresent(builder::addBaseURI);
+
+    Optional<String> baseURI = base;
+    return builder.addGraph(() -> expandGraph(representation, baseURI)).build();
+  }
+
+  private SecurityScheme readSecurityScheme(JsonObject definition) {
+    Optional<String> scheme = getString(definition, "scheme");
+    if (!scheme.isPresent()) {
+      throw new InvalidTDException("Missing mandatory security scheme name.");
+    }
+
+    try {
+      Set<String> semanticTypes = readTypes(definition.get("@type"));
+
+      switch (scheme.get()) {
+        case SecurityScheme.NOSEC:
+          return SecurityScheme.getNoSecurityScheme();
+        case SecurityScheme.APIKEY:
+          return readTokenBasedSecurityScheme(new APIKeySecurityScheme.Builder(), definition,
+            semanticTypes);
+        case SecurityScheme.BASIC:
+          return readTokenBasedSecurityScheme(new BasicSecurityScheme.Builder(), definition,
+            semanticTypes);
+        case SecurityScheme.DIGEST:
+          DigestSecurityScheme.Builder digest = new DigestSecurityScheme.Builder();
+          getString(definition, "qop")
+            .ifPresent(qop -> digest.addQoP(QualityOfProtection.fromString(qop)));
+          return readTokenBasedSecurityScheme(digest, definition, semanticTypes);
+        case SecurityScheme.BEARER:
+          BearerSecurityScheme.Builder bearer = new BearerSecurityScheme.Builder();
+          getString(definition, "alg").ifPresent(bearer::addAlg);
+          getString(definition, "authorization").ifPresent(bearer::addAuthorization);
+          getString(definition, "format").ifPresent(bearer::addFormat);
+          return readTokenBasedSecurityScheme(bearer, definition, semanticTypes);
+        case SecurityScheme.PSK:
+          PSKSecurityScheme.Builder psk = new PSKSecurityScheme.Builder();
+          getString(definition, "identity").ifPresent(psk::addIdentity);
+          return psk.addSemanticTypes(semanticTypes).build();
+        case SecurityScheme.OAUTH2:
+          return readOAuth2SecurityScheme(definition);
+        default:
+          throw new InvalidTDException("Unknown type of security scheme");
+      }
+    } catch (Exception e) {
+      throw new InvalidTDException("Invalid security scheme configuration", e);
+    }
+  }
+
+  private SecurityScheme readTokenBasedSecurityScheme(TokenBasedSecurityScheme.Builder<?, ?> builder,
+      JsonObject definition, Set<String> semanticTypes) {
+    getString(definition, "in")
+      .ifPresent(in -> builder.addTokenLocation(TokenLocation.fromString(in)));
+    getString(definition, "name").ifPresent(builder::addTokenName);
+
+    builder.addSemanticTypes(semanticTypes);
+    return builder.build();
+  }
+
+  private SecurityScheme readOAuth2SecurityScheme(JsonObject definition) {
+    Optional<String> flow = getString(definition, "flow");
+    if (!flow.isPresent()) {
+      throw new InvalidTDException("Missing or invalid configuration value of type " + WoTSec.flow +
+        " on defining security scheme");
+    }
+
+    OAuth2SecurityScheme.Builder builder = new OAuth2SecurityScheme.Builder(flow.get());
+    getString(definition, "authorization").ifPresent(builder::addAuthorization);
+    getString(definition, "token").ifPresent(builder::addToken);
+    getString(definition, "refresh").ifPresent(builder::addRefresh);
+
+    Set<String> scopes = new HashSet<>();
+    readStrings(definition.get("scopes"), scopes);
+    if (!scopes.isEmpty()) {
+      builder.addScopes(scopes);
+    }
+
+    return builder.build();
+  }
+
+  private PropertyAffordance readProperty(String name, JsonObject property) {
+    try {
+      List<Form> forms = readForms(property, InteractionAffordance.PROPERTY);
+      PropertyAffordance.Builder builder = new PropertyAffordance.Builder(name, forms)
+        .addDataSchema(readDataSchema(property));
+
+      readAffordanceMetadata(builder, property);
+
+      Optional<JsonElement> observable = getMember(property, "observable");
+      if (observable.isPresent() && observable.get().getAsBoolean()) {
+        builder.addObserve();
+      }
+
+      return builder.build();
+    } catch (InvalidTDException | IllegalArgumentException | IllegalStateException e) {
+      throw new InvalidTDException("Invalid property definition.", e);
+    }
+  }
+
+  private ActionAffordance readAction(String name, JsonObject action) {
+    try {
+      List<Form> forms = readForms(action, InteractionAffordance.ACTION);
+      ActionAffordance.Builder builder = new ActionAffordance.Builder(name, forms);
+
+      readAffordanceMetadata(builder, action);
+
+      getObject(action, "input").ifPresent(input -> builder.addInputSchema(readDataSchema(input)));
+      getObject(action, "output").ifPresent(output -> builder.addOutputSchema(readDataSchema(output)));
+
+      return builder.build();
+    } catch (InvalidTDException | IllegalArgumentException | IllegalStateException e) {
+      throw new InvalidTDException("Invalid action definition.", e);
+    }
+  }
+
+  private EventAffordance readEvent(String name, JsonObject event) {
+    try {
+      List<Form> forms = readForms(event, InteractionAffordance.EVENT);
+      EventAffordance.Builder builder = new EventAffordance.Builder(name, forms);
+
+      readAffordanceMetadata(builder, event);
+
+      getObject(event, "subscription")
+        .ifPresent(schema -> builder.addSubscriptionSchema(readDataSchema(schema)));
+      getObject(event, "data")
+        .ifPresent(schema -> builder.addNotificationSchema(readDataSchema(schema)));
+      getObject(event, "cancellation")
+        .ifPresent(schema -> builder.addCancellationSchema(readDataSchema(schema)));
+
+      return builder.build();
+    } catch (InvalidTDException | IllegalArgumentException | IllegalStateException e) {
+      throw new InvalidTDException("Invalid event definition.", e);
+    }
+  }
+
+  private void readAffordanceMetadata(InteractionAffordance
+      .Builder<?, ? extends InteractionAffordance.Builder<?, ?>> builder, JsonObject affordance) {
+    builder.addSemanticTypes(new ArrayList<>(readTypes(affordance.get("@type"))));
+    getString(affordance, "title").ifPresent(builder::addTitle);
+    getString(affordance, "description").ifPresent(builder::addComment);
+
+    Optional<JsonObject> uriVariables = getObject(affordance, "uriVariables");
+    if (uriVariables.isPresent()) {
+      for (Map.Entry<String, JsonElement> variable : uriVariables.get().entrySet()) {
+        builder.addUriVariable(variable.getKey(),
+          readDataSchema(variable.getValue().getAsJsonObject()));
+      }
+    }
+  }
+
+  private List<Form> readForms(JsonObject affordance, String affordanceType) {
+    List<Form> forms = new ArrayList<>();
+
+    Optional<JsonElement> formElements = getMember(affordance, "forms");
+    if (formElements.isPresent() && formElements.get().isJsonArray()) {
+      for (JsonElement element : formElements.get().getAsJsonArray()) {
+        JsonObject form = element.getAsJsonObject();
+
+        Optional<String> href = getString(form, "href");
+        if (!href.isPresent()) {
+          LOGGER.warning("Ignoring a form without href in a " + affordanceType + ": " + form);
+          continue;
+        }
+
+        Form.Builder builder = new Form.Builder(resolve(href.get()))
+          .setContentType(getString(form, "contentType").orElse("application/json"));
+
+        Set<String> ops = new HashSet<>();
+        readStrings(form.get("op"), ops);
+        for (String op : ops) {
+          builder.addOperationType(OPERATION_TYPES.getOrDefault(op, expand(op)));
+        }
+
+        Optional<String> methodName = getString(form, "htv:methodName");
+        if (!methodName.isPresent()) {
+          methodName = getString(form, "cov:methodName");
+        }
+        methodName.ifPresent(builder::setMethodName);
+
+        getString(form, "subprotocol").ifPresent(builder::addSubProtocol);
+
+        forms.add(builder.build());
+      }
+    }
+
+    if (forms.isEmpty()) {
+      throw new InvalidTDException("[" + affordanceType + "] All interaction affordances should have "
+        + "at least one valid.");
+    }
+
+    return forms;
+  }
+
+  private DataSchema readDataSchema(JsonObject schema) {
+    Optional<String> type = getString(schema, "type");
+
+    if (!type.isPresent()) {
+      if (!schema.has("oneOf")) {
+        return new DataSchema.Builder().build();
+      }
+
+      DataSchema.Builder builder = new DataSchema.Builder();
+      readDataSchemaMetadata(builder, schema, JSONSchema.DataSchema);
+      return builder.build();
+    }
+
+    switch (type.get()) {
+      case DataSchema.OBJECT:
+        return readObjectSchema(schema);
+      case DataSchema.ARRAY:
+        return readArraySchema(schema);
+      case DataSchema.BOOLEAN:
+        BooleanSchema.Builder booleanBuilder = new BooleanSchema.Builder();
+        readDataSchemaMetadata(booleanBuilder, schema, JSONSchema.BooleanSchema);
+        return booleanBuilder.build();
+      case DataSchema.NUMBER:
+        NumberSchema.Builder numberBuilder = new NumberSchema.Builder();
+        readDataSchemaMetadata(numberBuilder, schema, JSONSchema.NumberSchema);
+        getMember(schema, "minimum").ifPresent(min -> numberBuilder.addMinimum(min.getAsDouble()));
+        getMember(schema, "maximum").ifPresent(max -> numberBuilder.addMaximum(max.getAsDouble()));
+        return numberBuilder.build();
+      case DataSchema.INTEGER:
+        IntegerSchema.Builder integerBuilder = new IntegerSchema.Builder();
+        readDataSchemaMetadata(integerBuilder, schema, JSONSchema.IntegerSchema);
+        getMember(schema, "minimum").ifPresent(min -> integerBuilder.addMinimum(min.getAsInt()));
+        getMember(schema, "maximum").ifPresent(max -> integerBuilder.addMaximum(max.getAsInt()));
+        return integerBuilder.build();
+      case DataSchema.STRING:
+        StringSchema.Builder stringBuilder = new StringSchema.Builder();
+        readDataSchemaMetadata(stringBuilder, schema, JSONSchema.StringSchema);
+        return stringBuilder.build();
+      case DataSchema.NULL:
+        NullSchema.Builder nullBuilder = new NullSchema.Builder();
+        readDataSchemaMetadata(nullBuilder, schema, JSONSchema.NullSchema);
+        return nullBuilder.build();
+      default:
+        throw new InvalidTDException("Unknown data schema type: " + type.get());
+    }
+  }
+
+  private DataSchema readObjectSchema(JsonObject schema) {
+    ObjectSchema.Builder builder = new ObjectSchema.Builder();
+    readDataSchemaMetadata(builder, schema, JSONSchema.ObjectSchema);
+
+    Optional<JsonObject> properties = getObject(schema, "properties");
+    if (properties.isPresent()) {
+      for (Map.Entry<String, JsonElement> property : properties.get().entrySet()) {
+        builder.addProperty(property.getKey(), readDataSchema(property.getValue().getAsJsonObject()));
+      }
+    }
+
+    Set<String> required = new LinkedHashSet<>();
+    readStrings(schema.get("required"), required);
+    builder.addRequiredProperties(required.toArray(new String[0]));
+
+    return builder.build();
+  }
+
+  private DataSchema readArraySchema(JsonObject schema) {
+    ArraySchema.Builder builder = new ArraySchema.Builder();
+    readDataSchemaMetadata(builder, schema, JSONSchema.ArraySchema);
+
+    getMember(schema, "minItems").ifPresent(min -> builder.addMinItems(min.getAsInt()));
+    getMember(schema, "maxItems").ifPresent(max -> builder.addMaxItems(max.getAsInt()));
+
+    Optional<JsonElement> items = getMember(schema, "items");
+    if (items.isPresent()) {
+      if (items.get().isJsonArray()) {
+        for (JsonElement item : items.get().getAsJsonArray()) {
+          builder.addItem(readDataSchema(item.getAsJsonObject()));
+        }
+      } else {
+        builder.addItem(readDataSchema(items.get().getAsJsonObject()));
+      }
+    }
+
+    return builder.build();
+  }
+
+  private void readDataSchemaMetadata(DataSchema.JsonSchemaBuilder<?, ?> builder, JsonObject schema,
+      String schemaType) {
+    /* The schema type is included in the semantic types, as when reading the schema from RDF */
+    builder.addSemanticType(schemaType);
+    builder.addSemanticTypes(readTypes(schema.get("@type")));
+
+    Optional<JsonElement> enumeration = getMember(schema, "enum");
+    if (enumeration.isPresent() && enumeration.get().isJsonArray()) {
+      Set<String> values = new HashSet<>();
+      for (JsonElement value : enumeration.get().getAsJsonArray()) {
+        values.add(value.isJsonPrimitive() ? value.getAsString() : value.toString());
+      }
+      builder.addEnum(values);
+    }
+
+    getString(schema, "contentMediaType").ifPresent(builder::setContentMediaType);
+
+    Optional<JsonElement> oneOf = getMember(schema, "oneOf");
+    if (oneOf.isPresent() && oneOf.get().isJsonArray()) {
+      for (JsonElement element : oneOf.get().getAsJsonArray()) {
+        builder.oneOf(readDataSchema(element.getAsJsonObject()));
+      }
+    }
+  }
+
+  private Set<String> readTypes(JsonElement typeValue) {
+    Set<String> values = new HashSet<>();
+    readStrings(typeValue, values);
+
+    Set<String> iris = new HashSet<>();
+    for (String value : values) {
+      iris.add(expand(value));
+    }
+
+    return iris;
+  }
+
+  /* Expands a term or a compact IRI using the prefixes of the context */
+  private String expand(String value) {
+    String iri = terms.get(value);
+    if (iri != null) {
+      return (iri.equals(value)) ? iri : expand(iri);
+    }
+
+    int index = value.indexOf(':');
+    if (index > 0) {
+      String namespace = terms.get(value.substring(0, index));
+      if (namespace != null && !value.startsWith("//", index + 1)) {
+        return namespace + value.substring(index + 1);
+      }
+      return value;
+    }
+
+    return vocab.isPresent() ? vocab.get() + value : value;
+  }
+
+  private String resolve(String href) {
+    if (!base.isPresent()) {
+      return href;
+    }
+
+    /* Curly braces of URI templates are escaped during resolution and restored afterwards */
+    try {
+      return URI.create(base.get()).resolve(ReadWriteUtils.escapeBraces(href)).toString()
+        .replace("%7B", "{").replace("%7D", "}");
+    } catch (IllegalArgumentException e) {
+      // The target is not a valid URI reference, use it as is
+      return href;
+    }
+  }
+
+  private static Model expandGraph(String representation, Optional<String> baseURI) {
+    Model model = new LinkedHashModel();
+
+    RDFParser parser = ReadWriteUtils.createParser(RDFFormat.JSONLD);
+    parser.setRDFHandler(new StatementCollector(model));
+
+    try {
+      parser.parse(new StringReader(representation), baseURI.orElse(""));
+    } catch (RDFParseException | RDFHandlerException e) {
+      throw new InvalidTDException("RDF Syntax Error", e);
+    } catch (IOException e) {
+      // Not thrown when reading from a string
+      throw new UncheckedIOException(e);
+    }
+
+    return model;
+  }
+
+  private static void readStrings(JsonElement element, Set<String> values) {
+    if (element == null || element.isJsonNull()) {
+      return;
+    }
+
+    if (element.isJsonArray()) {
+      for (JsonElement value : element.getAsJsonArray()) {
+        values.add(value.getAsString());
+      }
+    } else {
+      values.add(element.getAsString());
+    }
+  }
+
+  private static Optional<JsonElement> getMember(JsonObject object, String name) {
+    JsonElement element = object.get(name);
+    return (element == null || element.isJsonNull()) ? Optional.empty() : Optional.of(element);
+  }
+
+  private static Optional<String> getString(JsonObject object, String name) {
+    return getMember(object, name).map(JsonElement::getAsString);
+  }
+
+  private static Optional<JsonObject> getObject(JsonObject object, String name) {
+    return getMember(object, name).filter(JsonElement::isJsonObject)
+      .map(JsonElement::getAsJsonObject);
+  }
+}
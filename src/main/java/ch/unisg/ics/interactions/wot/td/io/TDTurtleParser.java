@@ -0,0 +1,30 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.eclipse.rdf4j.rio.RDFParseException;
+import org.eclipse.rdf4j.rio.turtle.TurtleParser;
+
+/**
+ * A TURTLE parser that treats the first <code>td:hasBase</code> statement of a TD like a
+ * <code>@base</code> directive: relative IRIs that follow the statement are resolved against the
+ * TD's base URI. This allows to read TDs in a single pass, including from streams that cannot be
+ * read twice.
+ */
+class TDTurtleParser extends TurtleParser {
+  private boolean baseURIFound = false;
+
+  @Override
+  protected void reportStatement(Resource subj, IRI pred, Value obj) throws RDFParseException,
+      RDFHandlerException {
+    if (!baseURIFound && TD.hasBase.equals(pred.stringValue()) && obj instanceof IRI) {
+      setBaseURI(obj.stringValue());
+      baseURIFound = true;
+    }
+
+    super.reportStatement(subj, pred, obj);
+  }
+}
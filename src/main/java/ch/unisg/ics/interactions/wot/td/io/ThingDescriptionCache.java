@@ -0,0 +1,265 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.ThingDescription.TDFormat;
+import org.apache.hc.client5.http.HttpResponseException;
+import org.apache.hc.client5.http.fluent.Request;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpStatus;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of thing descriptions retrieved via HTTP, in front of
+ * {@link TDGraphReader#readFromURL(TDFormat, String)}.
+ * <p>
+ * Cached thing descriptions are returned as long as they are fresh, i.e. for the configured
+ * time-to-live after they were retrieved. Stale thing descriptions are revalidated with a
+ * conditional request (<code>If-None-Match</code> / <code>If-Modified-Since</code>) if the server
+ * provided an <code>ETag</code> or a <code>Last-Modified</code> header, and retrieved again
+ * otherwise. When the cache is full, the least recently used thing description is evicted.
+ * <p>
+ * The cache is thread-safe. Concurrent requests for the same thing description are served by a
+ * single HTTP request.
+ */
+public class ThingDescriptionCache {
+  private final int maximumSize;
+  private final Duration timeToLive;
+  private final Clock clock;
+
+  private final Map<String, Entry> entries;
+  private final Map<String, CompletableFuture<Entry>> loads = new ConcurrentHashMap<>();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder revalidations = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * @param maximumSize the maximum number of cached thing descriptions
+   * @param timeToLive the time during which a cached thing description is used without revalidation
+   */
+  public ThingDescriptionCache(int maximumSize, Duration timeToLive) {
+    this(maximumSize, timeToLive, Clock.systemUTC());
+  }
+
+  ThingDescriptionCache(int maximumSize, Duration timeToLive, Clock clock) {
+    if (maximumSize <= 0) {
+      throw new IllegalArgumentException("The maximum size of the cache must be positive.");
+    }
+
+    if (timeToLive.isNegative()) {
+      throw new IllegalArgumentException("The time-to-live of the cache must not be negative.");
+    }
+
+    this.maximumSize = maximumSize;
+    this.timeToLive = timeToLive;
+    this.clock = clock;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        if (size() > ThingDescriptionCache.this.maximumSize) {
+          evictions.increment();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Returns the thing description retrieved from the given URL, from the cache if it is fresh.
+   *
+   * @param format the format of the thing description
+   * @param url the URL of the thing description
+   * @return the thing description
+   * @throws IOException if an I/O error occurs or the server responds with an error status code
+   */
+  public ThingDescription get(TDFormat format, String url) throws IOException {
+    String key = getKey(format, url);
+    Entry entry = getEntry(key);
+
+    if (entry != null && entry.isFresh(clock.instant())) {
+      hits.increment();
+      return entry.td;
+    }
+
+    CompletableFuture<Entry> load = new CompletableFuture<>();
+    CompletableFuture<Entry> pending = loads.putIfAbsent(key, load);
+
+    if (pending != null) {
+      // Another thread is already retrieving the thing description
+      hits.increment();
+      return await(pending).td;
+    }
+
+    try {
+      Entry loaded = load(format, url, getEntry(key));
+      synchronized (entries) {
+        entries.put(key, loaded);
+      }
+      load.complete(loaded);
+      return loaded.td;
+    } catch (Throwable e) {
+      /* Also completes the load on errors, such that no waiting thread hangs */
+      load.completeExceptionally(e);
+      throw e;
+    } finally {
+      loads.remove(key, load);
+    }
+  }
+
+  /**
+   * Returns the cached thing description retrieved from the given URL, if any. Stale thing
+   * descriptions are returned as well, and the cache is not updated.
+   *
+   * @param format the format of the thing description
+   * @param url the URL of the thing description
+   * @return the cached thing description or an empty optional
+   */
+  public Optional<ThingDescription> getIfPresent(TDFormat format, String url) {
+    Entry entry = getEntry(getKey(format, url));
+    return (entry == null) ? Optional.empty() : Optional.of(entry.td);
+  }
+
+  public void invalidate(TDFormat format, String url) {
+    synchronized (entries) {
+      entries.remove(getKey(format, url));
+    }
+  }
+
+  public void invalidateAll() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  /**
+   * @return the number of requests served from the cache, including requests that waited for a
+   * concurrent retrieval of the same thing description
+   */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * @return the number of requests for which the thing description was retrieved from the server
+   */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * @return the number of stale thing descriptions that the server reported as not modified
+   */
+  public long getRevalidationCount() {
+    return revalidations.sum();
+  }
+
+  /**
+   * @return the number of thing descriptions evicted because the cache was full
+   */
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  private Entry load(TDFormat format, String url, Entry stale) throws IOException {
+    Request request = Request.get(url);
+
+    if (stale != null) {
+      stale.etag.ifPresent(etag -> request.setHeader(HttpHeaders.IF_NONE_MATCH, etag));
+      stale.lastModified.ifPresent(date -> request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, date));
+    }
+
+    return request.execute().handleResponse(response -> {
+      Instant expires = clock.instant().plus(timeToLive);
+
+      if (stale != null && response.getCode() == HttpStatus.SC_NOT_MODIFIED) {
+        revalidations.increment();
+        return new Entry(stale.td, stale.etag, stale.lastModified, expires);
+      }
+
+      if (response.getCode() >= HttpStatus.SC_REDIRECTION) {
+        throw new HttpResponseException(response.getCode(), response.getReasonPhrase());
+      }
+
+      misses.increment();
+      ThingDescription td = TDGraphReader.readFromEntity(format, response.getEntity());
+
+      return new Entry(td, getHeader(response.getFirstHeader(HttpHeaders.ETAG)),
+        getHeader(response.getFirstHeader(HttpHeaders.LAST_MODIFIED)), expires);
+    });
+  }
+
+  private Entry getEntry(String key) {
+    synchronized (entries) {
+      return entries.get(key);
+    }
+  }
+
+  private Entry await(CompletableFuture<Entry> pending) throws IOException {
+    try {
+      return pending.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for thing description.");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  private static Optional<String> getHeader(Header header) {
+    return (header == null) ? Optional.empty() : Optional.of(header.getValue());
+  }
+
+  private static String getKey(TDFormat format, String url) {
+    return format.name() + " " + url;
+  }
+
+  private static class Entry {
+    private final ThingDescription td;
+    private final Optional<String> etag;
+    private final Optional<String> lastModified;
+    private final Instant expires;
+
+    Entry(ThingDescription td, Optional<String> etag, Optional<String> lastModified,
+        Instant expires) {
+      this.td = td;
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.expires = expires;
+    }
+
+    boolean isFresh(Instant now) {
+      return now.isBefore(expires);
+    }
+  }
+}
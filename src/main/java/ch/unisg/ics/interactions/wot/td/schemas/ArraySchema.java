@@ -3,8 +3,12 @@ package ch.unisg.ics.interactions.wot.td.schemas;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -24,9 +28,13 @@ public class ArraySchema extends DataSchema {
     this.maxItems = maxItems;
   }
 
+  /**
+   * @param values the items of the array
+   * @return <code>true</code> if the items are valid against this schema
+   * @see #getValidator()
+   */
   public boolean validate(List<Object> values) {
-    // TODO
-    return true;
+    return getValidator().isValid(values);
   }
 
   public List<DataSchema> getItems() {
@@ -62,14 +70,7 @@ public class ArraySchema extends DataSchema {
     }
 
     JsonArray arrayPayload = element.getAsJsonArray();
-
-    /* Array size validation */
-    if (minItems.isPresent() && arrayPayload.size() < minItems.get()) {
-      throw new IllegalArgumentException("The array has less items than the required minimum.");
-    }
-    if (maxItems.isPresent() && arrayPayload.size() > maxItems.get()) {
-      throw new IllegalArgumentException("The array has more items than the required maximum.");
-    }
+    checkSize(arrayPayload.size());
 
     List<Object> data = new ArrayList<Object>();
 
@@ -84,29 +85,165 @@ public class ArraySchema extends DataSchema {
     return data;
   }
 
-  private Optional<DataSchema> getItemSchema(JsonElement element) {
-    Optional<DataSchema> itemSchema = Optional.empty();
+  @Override
+  public List<Object> parseJson(JsonReader reader) throws IOException {
+    if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+      throw new IllegalArgumentException("The payload is not an array.");
+    }
+
+    List<Object> data = new ArrayList<Object>();
+    int size = 0;
+
+    reader.beginArray();
+    while (reader.hasNext()) {
+      Optional<DataSchema> itemSchema = getItemSchema(reader.peek());
+      if (itemSchema.isPresent()) {
+        data.add(itemSchema.get().parseJson(reader));
+      } else {
+        reader.skipValue();
+      }
+      size++;
+    }
+    reader.endArray();
 
+    checkSize(size);
+    return data;
+  }
+
+  /**
+   * Parses the next JSON array read by a reader into an array of <code>double</code>s, without
+   * boxing its items. The items of this schema must include a <code>NumberSchema</code> or an
+   * <code>IntegerSchema</code>, and all items of the JSON array must be numbers.
+   *
+   * @param reader the reader, positioned before the array
+   * @return the parsed array
+   * @throws IllegalArgumentException if the array does not conform to this schema
+   * @throws IOException if the array could not be read or is not valid JSON
+   */
+  public double[] parseJsonAsDoubleArray(JsonReader reader) throws IOException {
+    beginNumberArray(reader);
+
+    double[] data = new double[16];
+    int size = 0;
+
+    while (reader.hasNext()) {
+      checkNumberItem(reader);
+      if (size == data.length) {
+        data = Arrays.copyOf(data, size * 2);
+      }
+      data[size++] = reader.nextDouble();
+    }
+    reader.endArray();
+
+    checkSize(size);
+    return (size == data.length) ? data : Arrays.copyOf(data, size);
+  }
+
+  /**
+   * Parses the next JSON array read by a reader into an array of <code>long</code>s, without
+   * boxing its items. The items of this schema must include a <code>NumberSchema</code> or an
+   * <code>IntegerSchema</code>, and all items of the JSON array must be integral numbers.
+   *
+   * @param reader the reader, positioned before the array
+   * @return the parsed array
+   * @throws IllegalArgumentException if the array does not conform to this schema
+   * @throws IOException if the array could not be read or is not valid JSON
+   */
+  public long[] parseJsonAsLongArray(JsonReader reader) throws IOException {
+    beginNumberArray(reader);
+
+    long[] data = new long[16];
+    int size = 0;
+
+    while (reader.hasNext()) {
+      checkNumberItem(reader);
+      if (size == data.length) {
+        data = Arrays.copyOf(data, size * 2);
+      }
+      /* Throws a NumberFormatException for numbers that are not integral */
+      data[size++] = reader.nextLong();
+    }
+    reader.endArray();
+
+    checkSize(size);
+    return (size == data.length) ? data : Arrays.copyOf(data, size);
+  }
+
+  private void beginNumberArray(JsonReader reader) throws IOException {
+    if (!containsItemSchema(DataSchema.NUMBER) && !containsItemSchema(DataSchema.INTEGER)) {
+      throw new IllegalArgumentException("The items of the array are not numbers.");
+    }
+    if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+      throw new IllegalArgumentException("The payload is not an array.");
+    }
+    reader.beginArray();
+  }
+
+  private static void checkNumberItem(JsonReader reader) throws IOException {
+    if (reader.peek() != JsonToken.NUMBER) {
+      throw new IllegalArgumentException("The array contains an item that is not a number: "
+        + reader.peek());
+    }
+  }
+
+  /* Array size validation */
+  private void checkSize(int size) {
+    if (minItems.isPresent() && size < minItems.get()) {
+      throw new IllegalArgumentException("The array has less items than the required minimum.");
+    }
+    if (maxItems.isPresent() && size > maxItems.get()) {
+      throw new IllegalArgumentException("The array has more items than the required maximum.");
+    }
+  }
+
+  private Optional<DataSchema> getItemSchema(JsonElement element) {
     if (element.isJsonObject()) {
-      itemSchema = getFirstItemSchema(DataSchema.OBJECT);
+      return getItemSchema(JsonToken.BEGIN_OBJECT);
     } else if (element.isJsonArray()) {
-      itemSchema = getFirstItemSchema(DataSchema.ARRAY);
+      return getItemSchema(JsonToken.BEGIN_ARRAY);
     } else if (element.isJsonPrimitive()) {
       JsonPrimitive primitive = element.getAsJsonPrimitive();
       if (primitive.isBoolean()) {
-        itemSchema = getFirstItemSchema(DataSchema.BOOLEAN);
+        return getItemSchema(JsonToken.BOOLEAN);
       } else if (primitive.isString()) {
-        itemSchema = getFirstItemSchema(DataSchema.STRING);
+        return getItemSchema(JsonToken.STRING);
       } else if (primitive.isNumber()) {
+        return getItemSchema(JsonToken.NUMBER);
+      }
+    } else if (element.isJsonNull()) {
+      return getItemSchema(JsonToken.NULL);
+    }
+
+    return Optional.empty();
+  }
+
+  private Optional<DataSchema> getItemSchema(JsonToken token) {
+    Optional<DataSchema> itemSchema = Optional.empty();
+
+    switch (token) {
+      case BEGIN_OBJECT:
+        itemSchema = getFirstItemSchema(DataSchema.OBJECT);
+        break;
+      case BEGIN_ARRAY:
+        itemSchema = getFirstItemSchema(DataSchema.ARRAY);
+        break;
+      case BOOLEAN:
+        itemSchema = getFirstItemSchema(DataSchema.BOOLEAN);
+        break;
+      case STRING:
+        itemSchema = getFirstItemSchema(DataSchema.STRING);
+        break;
+      case NUMBER:
         // Try number first
         itemSchema = getFirstItemSchema(DataSchema.NUMBER);
         if (!itemSchema.isPresent()) {
           // If both NumberSchema and IntegerSchema are present, NumberSchmea will be kept first
           itemSchema = getFirstItemSchema(DataSchema.INTEGER);
         }
-      }
-    } else if (element.isJsonNull()) {
-      itemSchema = getFirstItemSchema(DataSchema.NULL);
+        break;
+      case NULL:
+        itemSchema = getFirstItemSchema(DataSchema.NULL);
+        break;
     }
 
     return itemSchema;
@@ -1,7 +1,10 @@
 package ch.unisg.ics.interactions.wot.td.schemas;
 
 import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -22,6 +25,15 @@ public class BooleanSchema extends DataSchema {
     return element.getAsBoolean();
   }
 
+  @Override
+  public Object parseJson(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonToken.BOOLEAN) {
+      return reader.nextBoolean();
+    }
+
+    return Boolean.parseBoolean(nextPrimitiveAsString(reader));
+  }
+
   public static final class Builder extends DataSchema.JsonSchemaBuilder<BooleanSchema, BooleanSchema.Builder> {
 
     @Override
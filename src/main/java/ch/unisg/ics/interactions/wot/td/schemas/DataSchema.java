@@ -2,7 +2,11 @@ package ch.unisg.ics.interactions.wot.td.schemas;
 
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
+import java.io.IOException;
 import java.lang.reflect.ParameterizedType;
 import java.util.*;
 
@@ -23,6 +27,7 @@ public class DataSchema {
   final private Set<String> enumeration;
   private final Optional<String> contentMediaType;
   private final List<DataSchema> dataSchemas;
+  private volatile SchemaValidator validator;
 
   protected DataSchema(Set<String> semanticTypes, Set<String> enumeration,
                        Optional<String> contentMediaType, List<DataSchema> dataSchemas) {
@@ -63,6 +68,50 @@ public class DataSchema {
     return data;
   }
 
+  /**
+   * Parses the next JSON value read by a reader, with the same result as
+   * {@link #parseJson(JsonElement)} but without first building a tree of the value. Object
+   * members that are not declared by a schema are skipped. Only values that have to be matched
+   * against subschemas (<code>oneOf</code>) are buffered as a tree.
+   *
+   * @param reader the reader, positioned before the value
+   * @return the parsed value
+   * @throws IllegalArgumentException if the value does not conform to this schema
+   * @throws IOException if the value could not be read or is not valid JSON
+   */
+  public Object parseJson(JsonReader reader) throws IOException {
+    if (!dataSchemas.isEmpty()) {
+      /* Subschemas are tried one after another, hence the value is read only once into a tree */
+      return parseJson(JsonParser.parseReader(reader));
+    }
+
+    if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+      reader.beginObject();
+      if (!reader.hasNext()) {
+        reader.endObject();
+        return Optional.empty();
+      }
+    }
+
+    throw new IllegalArgumentException("JSON element should be an empty JSON object when " +
+      "no subschemas are provided for a generic schema of type data");
+  }
+
+  /*
+   * Reads a JSON primitive as a string, as JsonPrimitive.getAsString() does for trees.
+   */
+  static String nextPrimitiveAsString(JsonReader reader) throws IOException {
+    switch (reader.peek()) {
+      case STRING:
+      case NUMBER:
+        return reader.nextString();
+      case BOOLEAN:
+        return String.valueOf(reader.nextBoolean());
+      default:
+        throw new IllegalArgumentException("JSON element is not a primitive type.");
+    }
+  }
+
   public String getDatatype() {
     return datatype;
   }
@@ -107,6 +156,21 @@ public class DataSchema {
     return schemas;
   }
 
+  /**
+   * Returns the validator of this schema, which is compiled when first requested and reused
+   * afterwards. Changes made to the schema through its builder after that are not validated.
+   *
+   * @return the validator
+   */
+  public SchemaValidator getValidator() {
+    SchemaValidator current = validator;
+    if (current == null) {
+      current = SchemaValidator.compile(this);
+      validator = current;
+    }
+    return current;
+  }
+
   public static DataSchema getEmptySchema() {
     Set<String> semanticTypes = Collections.unmodifiableSet(new HashSet<String>());
     Set<String> enumeration = Collections.unmodifiableSet(new HashSet<String>());
@@ -1,6 +1,11 @@
 package ch.unisg.ics.interactions.wot.td.schemas;
 
 import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.math.BigDecimal;
 
 import java.util.List;
 import java.util.Optional;
@@ -32,6 +37,25 @@ public class IntegerSchema extends NumberSchema {
     return element.getAsInt();
   }
 
+  @Override
+  public Object parseJson(JsonReader reader) throws IOException {
+    if (reader.peek() != JsonToken.NUMBER) {
+      return Integer.parseInt(nextPrimitiveAsString(reader));
+    }
+
+    /* Numbers are narrowed like JsonPrimitive.getAsInt() does, e.g. 21.5 is parsed as 21 */
+    String number = reader.nextString();
+    try {
+      return Integer.parseInt(number);
+    } catch (NumberFormatException e) {
+      try {
+        return (int) Long.parseLong(number);
+      } catch (NumberFormatException notLong) {
+        return new BigDecimal(number).intValue();
+      }
+    }
+  }
+
   public static final class Builder extends DataSchema.JsonSchemaBuilder<IntegerSchema, IntegerSchema.Builder> {
     private Optional<Double> minimum;
     private Optional<Double> maximum;
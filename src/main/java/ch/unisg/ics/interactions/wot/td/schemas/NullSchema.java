@@ -1,7 +1,10 @@
 package ch.unisg.ics.interactions.wot.td.schemas;
 
 import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -22,6 +25,16 @@ public class NullSchema extends DataSchema {
     return null;
   }
 
+  @Override
+  public Object parseJson(JsonReader reader) throws IOException {
+    if (reader.peek() != JsonToken.NULL) {
+      throw new IllegalArgumentException("JSON element is not a null value.");
+    }
+
+    reader.nextNull();
+    return null;
+  }
+
   public static final class Builder extends DataSchema.JsonSchemaBuilder<NullSchema, NullSchema.Builder> {
 
     @Override
@@ -1,7 +1,10 @@
 package ch.unisg.ics.interactions.wot.td.schemas;
 
 import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -41,6 +44,15 @@ public class NumberSchema extends DataSchema {
     return element.getAsDouble();
   }
 
+  @Override
+  public Object parseJson(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonToken.NUMBER) {
+      return reader.nextDouble();
+    }
+
+    return Double.parseDouble(nextPrimitiveAsString(reader));
+  }
+
   public static final class Builder extends DataSchema.JsonSchemaBuilder<NumberSchema, NumberSchema.Builder> {
     private Optional<Double> minimum;
     private Optional<Double> maximum;
@@ -0,0 +1,429 @@
+package ch.unisg.ics.interactions.wot.td.schemas;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InaccessibleObjectException;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.util.*;
+
+/**
+ * Binds an {@link ObjectSchema} to a Java record, such that object payloads are decoded into and
+ * encoded from records directly, without going through a <code>Map&lt;String,Object&gt;</code>.
+ * A binding is compiled once with {@link #compile(ObjectSchema, Class)}: the record components
+ * are matched with the properties of the schema, and the accessors and the canonical constructor
+ * of the record are resolved into method handles. Decoding and encoding a payload then involves
+ * no reflection, no semantic-type lookups, and no intermediate map.
+ * <p>
+ * A record component is bound to the property of the schema with the same name, or, if the
+ * component is annotated with {@link SemanticType}, to the first property with that semantic type.
+ * The supported component types are:
+ * <ul>
+ * <li><code>String</code> for string schemas, <code>boolean</code> for boolean schemas,
+ * <code>int</code> and <code>long</code> for integer schemas, and <code>double</code> and
+ * <code>float</code> for number and integer schemas, as well as their wrapper types</li>
+ * <li>records for object schemas, which are bound in turn</li>
+ * <li><code>double[]</code> and <code>long[]</code> for array schemas with numeric items</li>
+ * <li><code>List</code> for array schemas, <code>Map</code> for object schemas, and
+ * <code>Object</code> for any schema, which hold values as returned by
+ * {@link DataSchema#parseJson(JsonReader)}</li>
+ * </ul>
+ * Every required property of the schema must be bound to a component. Properties that are not
+ * bound are skipped when decoding. A component of a primitive type whose property is absent from
+ * a payload is set to zero or <code>false</code>. A <code>ObjectBinding</code> is thread-safe.
+ *
+ * @param <T> the type of the record
+ */
+public final class ObjectBinding<T extends Record> {
+  private static final Gson GSON = new Gson();
+
+  private final ObjectSchema schema;
+  private final Class<T> type;
+  private final Component[] components;
+  private final Map<String, Component> componentsByProperty;
+  private final MethodHandle constructor;
+
+  private ObjectBinding(ObjectSchema schema, Class<T> type, Component[] components,
+                        MethodHandle constructor) {
+    this.schema = schema;
+    this.type = type;
+    this.components = components;
+    this.constructor = constructor;
+
+    this.componentsByProperty = new HashMap<>();
+    for (Component component : components) {
+      componentsByProperty.put(component.propertyName, component);
+    }
+  }
+
+  /**
+   * Compiles a binding between an object schema and a record type.
+   *
+   * @param schema the object schema
+   * @param type the record type
+   * @param <T> the type of the record
+   * @return the binding
+   * @throws IllegalArgumentException if a record component cannot be bound to a property of the
+   * schema, if a required property is not bound, or if the record cannot be accessed
+   */
+  public static <T extends Record> ObjectBinding<T> compile(ObjectSchema schema, Class<T> type) {
+    RecordComponent[] recordComponents = type.getRecordComponents();
+    Component[] components = new Component[recordComponents.length];
+    Class<?>[] parameterTypes = new Class<?>[recordComponents.length];
+    Set<String> boundProperties = new HashSet<>();
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    try {
+      for (int i = 0; i < recordComponents.length; i++) {
+        components[i] = new Component(i, schema, recordComponents[i], lookup);
+        parameterTypes[i] = recordComponents[i].getType();
+
+        if (!boundProperties.add(components[i].propertyName)) {
+          throw new IllegalArgumentException("The property " + components[i].propertyName
+            + " is bound to more than one component of " + type.getName() + ".");
+        }
+      }
+
+      Constructor<T> canonical = type.getDeclaredConstructor(parameterTypes);
+      canonical.setAccessible(true);
+      MethodHandle constructor = lookup.unreflectConstructor(canonical)
+        .asSpreader(Object[].class, parameterTypes.length)
+        .asType(MethodType.methodType(Object.class, Object[].class));
+
+      for (String required : schema.getRequiredProperties()) {
+        if (!boundProperties.contains(required)) {
+          throw new IllegalArgumentException("The required property " + required
+            + " is not bound to a component of " + type.getName() + ".");
+        }
+      }
+
+      return new ObjectBinding<>(schema, type, components, constructor);
+    } catch (ReflectiveOperationException | SecurityException | InaccessibleObjectException e) {
+      throw new IllegalArgumentException("The record " + type.getName() + " cannot be accessed.",
+        e);
+    }
+  }
+
+  public ObjectSchema getSchema() {
+    return schema;
+  }
+
+  public Class<T> getType() {
+    return type;
+  }
+
+  /**
+   * Parses the next JSON object read by a reader into a record. As with
+   * {@link ObjectSchema#parseJson(JsonReader)}, the types of the values and the presence of
+   * required properties are checked, but the values are not validated otherwise.
+   *
+   * @param reader the reader, positioned before the object
+   * @return the parsed record
+   * @throws IllegalArgumentException if the object does not conform to the schema
+   * @throws IOException if the object could not be read or is not valid JSON
+   */
+  public T parseJson(JsonReader reader) throws IOException {
+    return type.cast(read(reader));
+  }
+
+  /**
+   * Writes a record as a JSON object, keyed by the names of the properties of the schema.
+   * Components with a <code>null</code> value are omitted. The record is validated against the
+   * schema while it is written.
+   *
+   * @param writer the writer
+   * @param value the record
+   * @throws IllegalArgumentException if the record is not valid against the schema
+   * @throws IOException if the object could not be written
+   */
+  public void writeJson(JsonWriter writer, T value) throws IOException {
+    write(writer, value, "$");
+  }
+
+  private Object read(JsonReader reader) throws IOException {
+    if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+      throw new IllegalArgumentException("The payload is not an object.");
+    }
+
+    Object[] values = new Object[components.length];
+    boolean[] present = new boolean[components.length];
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      Component component = componentsByProperty.get(reader.nextName());
+
+      if (component == null) {
+        reader.skipValue();
+      } else {
+        values[component.index] = component.reader.read(reader);
+        present[component.index] = true;
+      }
+    }
+    reader.endObject();
+
+    for (Component component : components) {
+      if (!present[component.index]) {
+        if (component.required) {
+          throw new IllegalArgumentException("Missing required property: "
+            + component.propertyName);
+        }
+        values[component.index] = component.defaultValue;
+      }
+    }
+
+    try {
+      return (Object) constructor.invokeExact(values);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private void write(JsonWriter writer, Record value, String path) throws IOException {
+    writer.beginObject();
+
+    for (Component component : components) {
+      Object componentValue = component.get(value);
+
+      if (componentValue == null) {
+        if (component.required) {
+          throw SchemaValidator.invalid(Collections.singletonList(path
+            + ": missing required property " + component.propertyName));
+        }
+        continue;
+      }
+
+      writer.name(component.propertyName);
+      component.writer.write(writer, componentValue, path);
+    }
+
+    writer.endObject();
+  }
+
+  private interface ValueReader {
+    Object read(JsonReader reader) throws IOException;
+  }
+
+  /*
+   * Writes the value of a property. The path is that of the object that contains the property, as
+   * the path of the property is only built to describe a violation.
+   */
+  private interface ValueWriter {
+    void write(JsonWriter writer, Object value, String path) throws IOException;
+  }
+
+  /*
+   * A record component bound to a property, with the reader and writer for its values selected
+   * once from the type of the component and the schema of the property.
+   */
+  private static final class Component {
+    private final int index;
+    private final String propertyName;
+    private final boolean required;
+    private final Object defaultValue;
+    private final MethodHandle accessor;
+    private final ValueReader reader;
+    private final ValueWriter writer;
+
+    @SuppressWarnings("unchecked")
+    private Component(int index, ObjectSchema schema, RecordComponent component,
+                      MethodHandles.Lookup lookup) throws ReflectiveOperationException {
+      this.index = index;
+      this.propertyName = getPropertyName(schema, component);
+      this.required = schema.hasRequiredProperty(propertyName);
+
+      Method method = component.getAccessor();
+      method.setAccessible(true);
+      this.accessor = lookup.unreflect(method)
+        .asType(MethodType.methodType(Object.class, Record.class));
+
+      DataSchema propertySchema = schema.getProperty(propertyName).get();
+      Class<?> type = component.getType();
+      /* The default value of a primitive type, e.g. 0 for int */
+      this.defaultValue = type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+
+      if (Record.class.isAssignableFrom(type)) {
+        requireDatatype(propertySchema.getDatatype(), component.getName(), type, DataSchema.OBJECT);
+        ObjectBinding<?> binding = compile((ObjectSchema) propertySchema, (Class<Record>) type);
+        this.reader = binding::read;
+        this.writer = (writer, value, path) -> binding.write(writer, (Record) value,
+          path + "." + propertyName);
+      } else {
+        this.reader = getReader(propertySchema, type, component.getName());
+        this.writer = getWriter(propertySchema, type, propertyName);
+      }
+    }
+
+    private Object get(Record value) {
+      try {
+        return (Object) accessor.invokeExact(value);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    private static String getPropertyName(ObjectSchema schema, RecordComponent component) {
+      SemanticType semanticType = component.getAnnotation(SemanticType.class);
+
+      if (semanticType != null) {
+        return schema.getFirstPropertyNameBySemnaticType(semanticType.value()).orElseThrow(() ->
+          new IllegalArgumentException("The schema has no property with the semantic type "
+            + semanticType.value() + " for the component " + component.getName() + "."));
+      }
+
+      if (schema.getProperty(component.getName()).isEmpty()) {
+        throw new IllegalArgumentException("The schema has no property for the component "
+          + component.getName() + ".");
+      }
+      return component.getName();
+    }
+
+    private static ValueReader getReader(DataSchema schema, Class<?> type, String name) {
+      String datatype = schema.getDatatype();
+
+      if (type == double[].class) {
+        requireDatatype(datatype, name, type, DataSchema.ARRAY);
+        return ((ArraySchema) schema)::parseJsonAsDoubleArray;
+      }
+      if (type == long[].class) {
+        requireDatatype(datatype, name, type, DataSchema.ARRAY);
+        return ((ArraySchema) schema)::parseJsonAsLongArray;
+      }
+      if (type == String.class) {
+        requireDatatype(datatype, name, type, DataSchema.STRING);
+        return schema::parseJson;
+      }
+      if (type == boolean.class || type == Boolean.class) {
+        requireDatatype(datatype, name, type, DataSchema.BOOLEAN);
+        return schema::parseJson;
+      }
+      if (type == int.class || type == Integer.class) {
+        requireDatatype(datatype, name, type, DataSchema.INTEGER);
+        return schema::parseJson;
+      }
+      if (type == long.class || type == Long.class) {
+        requireDatatype(datatype, name, type, DataSchema.INTEGER);
+        /* Read directly, as integer schemas parse values as ints */
+        return reader -> (reader.peek() == JsonToken.NUMBER)
+          ? reader.nextLong()
+          : Long.parseLong(DataSchema.nextPrimitiveAsString(reader));
+      }
+      if (type == double.class || type == Double.class) {
+        requireDatatype(datatype, name, type, DataSchema.NUMBER, DataSchema.INTEGER);
+        return reader -> ((Number) schema.parseJson(reader)).doubleValue();
+      }
+      if (type == float.class || type == Float.class) {
+        requireDatatype(datatype, name, type, DataSchema.NUMBER, DataSchema.INTEGER);
+        return reader -> ((Number) schema.parseJson(reader)).floatValue();
+      }
+      if (type == List.class) {
+        requireDatatype(datatype, name, type, DataSchema.ARRAY);
+        return schema::parseJson;
+      }
+      if (type == Map.class) {
+        requireDatatype(datatype, name, type, DataSchema.OBJECT);
+        return schema::parseJson;
+      }
+      if (type == Object.class) {
+        return schema::parseJson;
+      }
+
+      throw new IllegalArgumentException("The component " + name + " has an unsupported type: "
+        + type.getName());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ValueWriter getWriter(DataSchema schema, Class<?> type, String propertyName) {
+      SchemaValidator validator = schema.getValidator();
+
+      if (type == double[].class) {
+        return (writer, value, path) -> {
+          double[] values = (double[]) value;
+          if (!validator.isValidArray(values)) {
+            throw invalid(errors ->
+              validator.checkNumbers(values, path + "." + propertyName, errors));
+          }
+
+          writer.beginArray();
+          for (double item : values) {
+            writer.value(item);
+          }
+          writer.endArray();
+        };
+      }
+      if (type == long[].class) {
+        return (writer, value, path) -> {
+          long[] values = (long[]) value;
+          if (!validator.isValidArray(values)) {
+            throw invalid(errors ->
+              validator.checkNumbers(values, path + "." + propertyName, errors));
+          }
+
+          writer.beginArray();
+          for (long item : values) {
+            writer.value(item);
+          }
+          writer.endArray();
+        };
+      }
+
+      if (type == Map.class) {
+        /* Maps are keyed by semantic types or property names, as for object payloads */
+        ObjectSchema objectSchema = (ObjectSchema) schema;
+        return (writer, value, path) -> {
+          Map<String, Object> instance = objectSchema.instantiate((Map<String, Object>) value);
+          if (!validator.isValid(instance)) {
+            throw invalid(errors -> validator.check(instance, path + "." + propertyName, errors));
+          }
+          GSON.toJson(instance, Map.class, writer);
+        };
+      }
+
+      return (writer, value, path) -> {
+        if (!validator.isValid(value)) {
+          throw invalid(errors -> validator.check(value, path + "." + propertyName, errors));
+        }
+
+        if (value instanceof String) {
+          writer.value((String) value);
+        } else if (value instanceof Boolean) {
+          writer.value((Boolean) value);
+        } else if (value instanceof Number) {
+          writer.value((Number) value);
+        } else {
+          GSON.toJson(value, value.getClass(), writer);
+        }
+      };
+    }
+
+    private static void requireDatatype(String datatype, String name, Class<?> type,
+                                        String... datatypes) {
+      if (!Arrays.asList(datatypes).contains(datatype)) {
+        throw new IllegalArgumentException("The component " + name + " of type "
+          + type.getSimpleName() + " cannot be bound to a property of type " + datatype + ".");
+      }
+    }
+
+    private static IllegalArgumentException invalid(Check check) {
+      List<String> errors = new ArrayList<>();
+      check.check(errors);
+      return SchemaValidator.invalid(errors);
+    }
+
+    private interface Check {
+      void check(List<String> errors);
+    }
+  }
+}
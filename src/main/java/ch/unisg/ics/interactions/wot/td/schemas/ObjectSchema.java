@@ -4,26 +4,53 @@ import ch.unisg.ics.interactions.wot.td.io.InvalidTDException;
 import ch.unisg.ics.interactions.wot.td.vocabularies.JSONSchema;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
+import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class ObjectSchema extends DataSchema {
   final private Map<String, DataSchema> properties;
   final private List<String> required;
+  final private Set<String> requiredSet;
+  /* Lookup tables computed once, such that parsing and instantiating payloads is O(fields) */
+  final private Map<String, String> propertyNamesBySemanticType;
+  final private Map<String, String> outputKeys;
 
   protected ObjectSchema(Set<String> semanticTypes, Set<String> enumeration,
                          Optional<String> contentMediaType, List<DataSchema> dataSchemas,
                          Map<String, DataSchema> properties, List<String> required) {
     super(DataSchema.OBJECT, semanticTypes, enumeration, contentMediaType, dataSchemas);
 
-    this.properties = properties;
-    this.required = required;
+    this.properties = Collections.unmodifiableMap(properties);
+    this.required = Collections.unmodifiableList(required);
+    this.requiredSet = Collections.unmodifiableSet(new HashSet<>(required));
+
+    Map<String, String> propertyNamesBySemanticType = new HashMap<>();
+    Map<String, String> outputKeys = new HashMap<>();
+
+    for (Map.Entry<String, DataSchema> property : properties.entrySet()) {
+      Set<String> types = property.getValue().getSemanticTypes();
+
+      /* The first property that has a semantic type, in the order of the properties */
+      for (String type : types) {
+        propertyNamesBySemanticType.putIfAbsent(type, property.getKey());
+      }
+      outputKeys.put(property.getKey(), getOutputKey(property.getKey(), types));
+    }
+
+    this.propertyNamesBySemanticType = Collections.unmodifiableMap(propertyNamesBySemanticType);
+    this.outputKeys = Collections.unmodifiableMap(outputKeys);
   }
 
+  /**
+   * @param values the values of the properties, keyed by property names
+   * @return <code>true</code> if the values are valid against this schema
+   * @see #getValidator()
+   */
   public boolean validate(Map<String, Object> values) {
-    // TODO
-    return true;
+    return getValidator().isValid(values);
   }
 
   @Override
@@ -45,24 +72,58 @@ public class ObjectSchema extends DataSchema {
         continue;
       }
 
-      DataSchema propSchema = properties.get(propName);
+      data.put(outputKeys.get(propName), properties.get(propName).parseJson(prop));
+    }
 
-      // Filter out data schema tags, if any
-      List<String> tags = propSchema.getSemanticTypes().stream().filter(tag ->
-        !tag.startsWith(JSONSchema.PREFIX)).collect(Collectors.toList());
+    return data;
+  }
+
+  @Override
+  public Object parseJson(JsonReader reader) throws IOException {
+    if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+      throw new IllegalArgumentException("The payload is not an object.");
+    }
 
-      if (tags.isEmpty()) {
-        data.put(propName, properties.get(propName).parseJson(prop));
+    Map<String, Object> data = new HashMap<String, Object>();
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String propName = reader.nextName();
+      DataSchema propSchema = properties.get(propName);
+
+      if (propSchema == null) {
+        reader.skipValue();
       } else {
-        // Currently returns one semantic tag; TODO: handle multiple semantic tags
-        String semanticType = tags.get(0);
-        data.put(semanticType, properties.get(propName).parseJson(prop));
+        data.put(outputKeys.get(propName), propSchema.parseJson(reader));
+      }
+    }
+    reader.endObject();
+
+    for (String propName : required) {
+      if (properties.containsKey(propName) && !data.containsKey(outputKeys.get(propName))) {
+        throw new IllegalArgumentException("Missing required property: " + propName);
       }
     }
 
     return data;
   }
 
+  /*
+   * The key of a property in parsed values: its first semantic type that is not a data schema
+   * tag, or else its name.
+   */
+  private static String getOutputKey(String propName, Set<String> semanticTypes) {
+    // Currently returns one semantic tag; TODO: handle multiple semantic tags
+    for (String tag : semanticTypes) {
+      // Filter out data schema tags, if any
+      if (!tag.startsWith(JSONSchema.PREFIX)) {
+        return tag;
+      }
+    }
+
+    return propName;
+  }
+
   @SuppressWarnings("unchecked")
   public Map<String, Object> instantiate(Map<String, Object> values) {
     Map<String, Object> instance = new HashMap<String, Object>();
@@ -70,25 +131,22 @@ public class ObjectSchema extends DataSchema {
     // TODO: handle semantic arrays
     // TODO: handle semantic arrays with semantic elements
 
-    for (String tag : values.keySet()) {
-      Optional<String> propertyName = getFirstPropertyNameBySemnaticType(tag);
-      Optional<String> name = Optional.empty();
+    for (Map.Entry<String, Object> value : values.entrySet()) {
+      String tag = value.getKey();
+      String name = propertyNamesBySemanticType.get(tag);
 
-      if (propertyName.isPresent()) {
-        name = propertyName;
-      } else if (properties.containsKey(tag)) {
-        name = Optional.of(tag);
+      if (name == null && properties.containsKey(tag)) {
+        name = tag;
       }
 
-      if (name.isPresent()) {
-        Optional<DataSchema> property = getProperty(name.get());
-        if (property.isPresent() && property.get().getDatatype().equals(DataSchema.OBJECT)
-          && values.get(tag) instanceof Map) {
-          ObjectSchema propertySchema = (ObjectSchema) property.get();
-          Map propertyMap = propertySchema.instantiate((Map) values.get(tag));
-          instance.put(name.get(), propertyMap);
+      if (name != null) {
+        DataSchema property = properties.get(name);
+        if (property.getDatatype().equals(DataSchema.OBJECT) && value.getValue() instanceof Map) {
+          ObjectSchema propertySchema = (ObjectSchema) property;
+          Map propertyMap = propertySchema.instantiate((Map) value.getValue());
+          instance.put(name, propertyMap);
         } else {
-          instance.put(name.get(), values.get(tag));
+          instance.put(name, value.getValue());
         }
       }
     }
@@ -102,13 +160,7 @@ public class ObjectSchema extends DataSchema {
   }
 
   public Optional<String> getFirstPropertyNameBySemnaticType(String type) {
-    for (Map.Entry<String, DataSchema> property : properties.entrySet()) {
-      if (property.getValue().isA(type)) {
-        return Optional.of(property.getKey());
-      }
-    }
-
-    return Optional.empty();
+    return Optional.ofNullable(propertyNamesBySemanticType.get(type));
   }
 
   public Map<String, DataSchema> getProperties() {
@@ -120,7 +172,7 @@ public class ObjectSchema extends DataSchema {
   }
 
   public boolean hasRequiredProperty(String propName) {
-    return required.contains(propName);
+    return requiredSet.contains(propName);
   }
 
   public static final class Builder extends DataSchema.JsonSchemaBuilder<ObjectSchema, ObjectSchema.Builder> {
@@ -151,7 +203,9 @@ public class ObjectSchema extends DataSchema {
         }
       }
 
-      return new ObjectSchema(semanticTypes, enumeration, contentMediaType, dataSchemas, properties, required);
+      /* Copied, as the lookup tables of the schema must not change if the builder is reused */
+      return new ObjectSchema(semanticTypes, enumeration, contentMediaType, dataSchemas,
+        new HashMap<>(properties), new ArrayList<>(required));
     }
   }
 }
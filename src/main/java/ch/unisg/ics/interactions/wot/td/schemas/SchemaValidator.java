@@ -0,0 +1,669 @@
+package ch.unisg.ics.interactions.wot.td.schemas;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * Validates Java values against a {@link DataSchema}. A validator is compiled once from a schema
+ * into an immutable tree of checks, and is obtained with {@link DataSchema#getValidator()}.
+ * <p>
+ * Values are represented as in the payloads of requests: strings as {@link String}s, numbers as
+ * {@link Number}s, booleans as {@link Boolean}s, objects as <code>Map&lt;String,Object&gt;</code>
+ * keyed by property names, arrays as {@link List}s, and null as <code>null</code>. The validator
+ * checks:
+ * <ul>
+ * <li>the type of a value; an integer schema also accepts floating-point numbers without a
+ * fractional part</li>
+ * <li><code>enum</code>, by comparing the lexical form of the value with the enumerated
+ * values</li>
+ * <li><code>minimum</code> and <code>maximum</code> of number and integer schemas</li>
+ * <li><code>properties</code> and <code>required</code> of object schemas; a property with a
+ * <code>null</code> value that is not required is treated as absent</li>
+ * <li><code>items</code>, <code>minItems</code>, and <code>maxItems</code> of array schemas;
+ * each item must be valid against one of the item schemas</li>
+ * <li><code>oneOf</code>: a value must be valid against exactly one of the subschemas</li>
+ * </ul>
+ * Validating a valid value does not allocate, except for the lexical forms of numbers compared
+ * with an <code>enum</code>. Arrays of numbers can also be validated as <code>double[]</code> or
+ * <code>long[]</code>, without boxing their items. A <code>SchemaValidator</code> is thread-safe.
+ */
+public abstract class SchemaValidator {
+  private static final SchemaValidator ANY = new SchemaValidator() {
+    @Override
+    boolean check(Object value, String path, List<String> errors) {
+      return true;
+    }
+
+    @Override
+    boolean checkNumber(double value, String path, List<String> errors) {
+      return true;
+    }
+
+    @Override
+    boolean checkNumber(long value, String path, List<String> errors) {
+      return true;
+    }
+
+    @Override
+    boolean checkNumbers(double[] values, String path, List<String> errors) {
+      return true;
+    }
+
+    @Override
+    boolean checkNumbers(long[] values, String path, List<String> errors) {
+      return true;
+    }
+  };
+
+  private SchemaValidator() {
+  }
+
+  /**
+   * Compiles a validator for a schema. Prefer {@link DataSchema#getValidator()}, which compiles
+   * the validator of a schema only once.
+   *
+   * @param schema the schema
+   * @return the validator
+   */
+  public static SchemaValidator compile(DataSchema schema) {
+    SchemaValidator validator;
+
+    switch (schema.getDatatype()) {
+      case DataSchema.OBJECT:
+        validator = new ObjectValidator((ObjectSchema) schema);
+        break;
+      case DataSchema.ARRAY:
+        validator = new ArrayValidator((ArraySchema) schema);
+        break;
+      case DataSchema.STRING:
+        validator = new StringValidator(schema);
+        break;
+      case DataSchema.INTEGER:
+      case DataSchema.NUMBER:
+        validator = new NumberValidator((NumberSchema) schema);
+        break;
+      case DataSchema.BOOLEAN:
+        validator = new BooleanValidator(schema);
+        break;
+      case DataSchema.NULL:
+        validator = new NullValidator();
+        break;
+      default:
+        validator = ANY;
+    }
+
+    if (schema.getValidSchemas().isEmpty()) {
+      return validator;
+    }
+
+    SchemaValidator[] subschemas = new SchemaValidator[schema.getValidSchemas().size()];
+    for (int i = 0; i < subschemas.length; i++) {
+      subschemas[i] = schema.getValidSchemas().get(i).getValidator();
+    }
+    return new OneOfValidator(validator, subschemas);
+  }
+
+  /**
+   * @param value the value to be validated
+   * @return <code>true</code> if the value is valid
+   */
+  public boolean isValid(Object value) {
+    return check(value, null, null);
+  }
+
+  /**
+   * Validates a value and describes all violations of the schema. Each description starts with
+   * the path to the invalid value, where <code>$</code> denotes the validated value.
+   *
+   * @param value the value to be validated
+   * @return the descriptions of the violations, or an empty list if the value is valid
+   */
+  public List<String> validate(Object value) {
+    if (isValid(value)) {
+      return Collections.emptyList();
+    }
+
+    List<String> errors = new ArrayList<>();
+    check(value, "$", errors);
+    return errors;
+  }
+
+  /**
+   * Validates a value.
+   *
+   * @param value the value to be validated
+   * @throws IllegalArgumentException if the value is not valid, with a message that describes all
+   * violations of the schema
+   */
+  public void requireValid(Object value) {
+    List<String> errors = validate(value);
+    if (!errors.isEmpty()) {
+      throw invalid(errors);
+    }
+  }
+
+  /**
+   * Validates an array of numbers without boxing them, as if it were a list of
+   * <code>Double</code>s.
+   *
+   * @param values the array to be validated
+   * @return <code>true</code> if the array is valid
+   */
+  public boolean isValidArray(double[] values) {
+    return (values == null) ? isValid(null) : checkNumbers(values, null, null);
+  }
+
+  /**
+   * Validates an array of integers without boxing them, as if it were a list of
+   * <code>Long</code>s.
+   *
+   * @param values the array to be validated
+   * @return <code>true</code> if the array is valid
+   */
+  public boolean isValidArray(long[] values) {
+    return (values == null) ? isValid(null) : checkNumbers(values, null, null);
+  }
+
+  /**
+   * @param values the array to be validated
+   * @throws IllegalArgumentException if the array is not valid
+   * @see #isValidArray(double[])
+   */
+  public void requireValidArray(double[] values) {
+    if (values == null) {
+      requireValid(null);
+    } else if (!isValidArray(values)) {
+      List<String> errors = new ArrayList<>();
+      checkNumbers(values, "$", errors);
+      throw invalid(errors);
+    }
+  }
+
+  /**
+   * @param values the array to be validated
+   * @throws IllegalArgumentException if the array is not valid
+   * @see #isValidArray(long[])
+   */
+  public void requireValidArray(long[] values) {
+    if (values == null) {
+      requireValid(null);
+    } else if (!isValidArray(values)) {
+      List<String> errors = new ArrayList<>();
+      checkNumbers(values, "$", errors);
+      throw invalid(errors);
+    }
+  }
+
+  static IllegalArgumentException invalid(List<String> errors) {
+    return new IllegalArgumentException("The payload is not valid against its schema: "
+      + String.join("; ", errors));
+  }
+
+  /*
+   * Checks a value. If errors is null, the check stops at the first violation and no descriptions
+   * are built; otherwise, all violations are described and added to errors.
+   */
+  abstract boolean check(Object value, String path, List<String> errors);
+
+  /*
+   * Checks a number without boxing it. Only validators that may accept numbers override these
+   * methods; the others box the number to describe the violation.
+   */
+  boolean checkNumber(double value, String path, List<String> errors) {
+    return errors != null && check(value, path, errors);
+  }
+
+  boolean checkNumber(long value, String path, List<String> errors) {
+    return errors != null && check(value, path, errors);
+  }
+
+  /*
+   * Checks an array of numbers without boxing them. Only array validators accept arrays.
+   */
+  boolean checkNumbers(double[] values, String path, List<String> errors) {
+    return fail(errors, path, "an array is not valid against the schema");
+  }
+
+  boolean checkNumbers(long[] values, String path, List<String> errors) {
+    return fail(errors, path, "an array is not valid against the schema");
+  }
+
+  static boolean fail(List<String> errors, String path, String message) {
+    if (errors != null) {
+      errors.add(path + ": " + message);
+    }
+    return false;
+  }
+
+  static boolean isIntegral(Object value) {
+    if (value instanceof Integer || value instanceof Long || value instanceof Short
+        || value instanceof Byte || value instanceof BigInteger) {
+      return true;
+    }
+    if (value instanceof Double || value instanceof Float) {
+      return isIntegral(((Number) value).doubleValue());
+    }
+    if (value instanceof BigDecimal) {
+      return ((BigDecimal) value).stripTrailingZeros().scale() <= 0;
+    }
+    return false;
+  }
+
+  static boolean isIntegral(double value) {
+    return !Double.isInfinite(value) && value == Math.rint(value);
+  }
+
+  private static abstract class EnumValidator extends SchemaValidator {
+    private final Set<String> enumeration;
+
+    EnumValidator(DataSchema schema) {
+      this.enumeration = schema.getEnumeration();
+    }
+
+    boolean checkEnumeration(Object value, String path, List<String> errors) {
+      if (enumeration.isEmpty()) {
+        return true;
+      }
+      boolean integral = value instanceof Number && isIntegral(value);
+      return checkEnumeration(value.toString(), integral,
+        integral ? ((Number) value).longValue() : 0, path, errors);
+    }
+
+    boolean hasEnumeration() {
+      return !enumeration.isEmpty();
+    }
+
+    boolean checkEnumeration(String lexicalForm, boolean integral, long integralValue, String path,
+                             List<String> errors) {
+      if (enumeration.contains(lexicalForm)) {
+        return true;
+      }
+      /* Enumerations are strings, e.g. "3" also matches the number 3.0 */
+      if (integral && enumeration.contains(String.valueOf(integralValue))) {
+        return true;
+      }
+      return fail(errors, path, lexicalForm + " is not one of " + enumeration);
+    }
+  }
+
+  private static final class StringValidator extends EnumValidator {
+    StringValidator(DataSchema schema) {
+      super(schema);
+    }
+
+    @Override
+    boolean check(Object value, String path, List<String> errors) {
+      if (!(value instanceof String)) {
+        return fail(errors, path, "expected a string but was " + value);
+      }
+      return checkEnumeration(value, path, errors);
+    }
+  }
+
+  private static final class BooleanValidator extends EnumValidator {
+    BooleanValidator(DataSchema schema) {
+      super(schema);
+    }
+
+    @Override
+    boolean check(Object value, String path, List<String> errors) {
+      if (!(value instanceof Boolean)) {
+        return fail(errors, path, "expected a boolean but was " + value);
+      }
+      return checkEnumeration(value, path, errors);
+    }
+  }
+
+  private static final class NullValidator extends SchemaValidator {
+    @Override
+    boolean check(Object value, String path, List<String> errors) {
+      return value == null || fail(errors, path, "expected null but was " + value);
+    }
+  }
+
+  private static final class NumberValidator extends EnumValidator {
+    private final boolean integer;
+    private final double minimum;
+    private final double maximum;
+
+    NumberValidator(NumberSchema schema) {
+      super(schema);
+      this.integer = DataSchema.INTEGER.equals(schema.getDatatype());
+      this.minimum = schema.getMinimum().orElse(Double.NEGATIVE_INFINITY);
+      this.maximum = schema.getMaximum().orElse(Double.POSITIVE_INFINITY);
+    }
+
+    @Override
+    boolean check(Object value, String path, List<String> errors) {
+      if (!(value instanceof Number)) {
+        return fail(errors, path, "expected " + (integer ? "an integer" : "a number") + " but was "
+          + value);
+      }
+      if (integer && !isIntegral(value)) {
+        return fail(errors, path, "expected an integer but was " + value);
+      }
+
+      double number = ((Number) value).doubleValue();
+      boolean valid = withinBounds(number) || failBounds(number, value, path, errors);
+      if (!valid && errors == null) {
+        return false;
+      }
+      return checkEnumeration(value, path, errors) && valid;
+    }
+
+    @Override
+    boolean checkNumber(double value, String path, List<String> errors) {
+      if (integer && !isIntegral(value)) {
+        return fail(errors, path, "expected an integer but was " + value);
+      }
+
+      boolean valid = withinBounds(value) || failBounds(value, value, path, errors);
+      if (!hasEnumeration() || (!valid && errors == null)) {
+        return valid;
+      }
+      return checkEnumeration(String.valueOf(value), isIntegral(value), (long) value, path, errors)
+        && valid;
+    }
+
+    @Override
+    boolean checkNumber(long value, String path, List<String> errors) {
+      boolean valid = withinBounds(value) || failBounds(value, value, path, errors);
+      if (!hasEnumeration() || (!valid && errors == null)) {
+        return valid;
+      }
+      return checkEnumeration(String.valueOf(value), true, value, path, errors) && valid;
+    }
+
+    private boolean withinBounds(double number) {
+      return number >= minimum && number <= maximum;
+    }
+
+    /* Called only for numbers out of bounds, such that valid numbers are not boxed */
+    private boolean failBounds(double number, Object value, String path, List<String> errors) {
+      if (number < minimum) {
+        return fail(errors, path, value + " is less than the minimum " + minimum);
+      }
+      return fail(errors, path, value + " is greater than the maximum " + maximum);
+    }
+  }
+
+  private static final class ObjectValidator extends SchemaValidator {
+    private final String[] names;
+    private final SchemaValidator[] properties;
+    private final boolean[] required;
+    /* Required names that are not declared as properties; not possible with ObjectSchema.Builder */
+    private final String[] undeclaredRequired;
+
+    ObjectValidator(ObjectSchema schema) {
+      Map<String, DataSchema> declared = schema.getProperties();
+      this.names = new String[declared.size()];
+      this.properties = new SchemaValidator[declared.size()];
+      this.required = new boolean[declared.size()];
+
+      int i = 0;
+      for (Map.Entry<String, DataSchema> property : declared.entrySet()) {
+        names[i] = property.getKey();
+        properties[i] = property.getValue().getValidator();
+        required[i] = schema.hasRequiredProperty(property.getKey());
+        i++;
+      }
+
+      List<String> undeclared = new ArrayList<>();
+      for (String name : schema.getRequiredProperties()) {
+        if (!declared.containsKey(name)) {
+          undeclared.add(name);
+        }
+      }
+      this.undeclaredRequired = undeclared.toArray(new String[0]);
+    }
+
+    @Override
+    boolean check(Object value, String path, List<String> errors) {
+      if (!(value instanceof Map)) {
+        return fail(errors, path, "expected an object but was " + value);
+      }
+
+      Map<?, ?> map = (Map<?, ?>) value;
+      boolean valid = true;
+
+      for (int i = 0; i < names.length && (valid || errors != null); i++) {
+        Object propertyValue = map.get(names[i]);
+
+        if (propertyValue == null && !map.containsKey(names[i])) {
+          if (required[i]) {
+            valid = fail(errors, path, "missing required property " + names[i]);
+          }
+        } else if (propertyValue == null && !required[i]) {
+          /* Null values of optional properties are treated as absent */
+          continue;
+        } else if (!properties[i].check(propertyValue, child(path, errors, names[i]), errors)) {
+          valid = false;
+        }
+      }
+
+      for (int i = 0; i < undeclaredRequired.length && (valid || errors != null); i++) {
+        if (!map.containsKey(undeclaredRequired[i])) {
+          valid = fail(errors, path, "missing required property " + undeclaredRequired[i]);
+        }
+      }
+
+      return valid;
+    }
+
+    private static String child(String path, List<String> errors, String name) {
+      return (errors == null) ? null : path + "." + name;
+    }
+  }
+
+  private static final class ArrayValidator extends SchemaValidator {
+    private final SchemaValidator[] items;
+    private final int minItems;
+    private final int maxItems;
+
+    ArrayValidator(ArraySchema schema) {
+      this.items = new SchemaValidator[schema.getItems().size()];
+      for (int i = 0; i < items.length; i++) {
+        items[i] = schema.getItems().get(i).getValidator();
+      }
+      this.minItems = schema.getMinItems().orElse(0);
+      this.maxItems = schema.getMaxItems().orElse(Integer.MAX_VALUE);
+    }
+
+    @Override
+    boolean check(Object value, String path, List<String> errors) {
+      if (!(value instanceof List)) {
+        return fail(errors, path, "expected an array but was " + value);
+      }
+
+      List<?> list = (List<?>) value;
+      boolean valid = checkSize(list.size(), path, errors);
+
+      if (items.length == 0 || (!valid && errors == null)) {
+        return valid;
+      }
+
+      if (list instanceof RandomAccess) {
+        for (int i = 0; i < list.size() && (valid || errors != null); i++) {
+          valid &= checkItem(list.get(i), path, i, errors);
+        }
+      } else {
+        int i = 0;
+        for (Object item : list) {
+          if (!valid && errors == null) {
+            break;
+          }
+          valid &= checkItem(item, path, i++, errors);
+        }
+      }
+
+      return valid;
+    }
+
+    private boolean checkItem(Object item, String path, int index, List<String> errors) {
+      for (SchemaValidator validator : items) {
+        if (validator.isValid(item)) {
+          return true;
+        }
+      }
+
+      if (errors == null) {
+        return false;
+      }
+
+      String itemPath = path + "[" + index + "]";
+      if (items.length == 1) {
+        return items[0].check(item, itemPath, errors);
+      }
+      return fail(errors, itemPath, item + " is not valid against any of the item schemas");
+    }
+
+    @Override
+    boolean checkNumbers(double[] values, String path, List<String> errors) {
+      boolean valid = checkSize(values.length, path, errors);
+
+      for (int i = 0; i < values.length && items.length > 0 && (valid || errors != null); i++) {
+        valid &= checkItem(values[i], path, i, errors);
+      }
+      return valid;
+    }
+
+    @Override
+    boolean checkNumbers(long[] values, String path, List<String> errors) {
+      boolean valid = checkSize(values.length, path, errors);
+
+      for (int i = 0; i < values.length && items.length > 0 && (valid || errors != null); i++) {
+        valid &= checkItem(values[i], path, i, errors);
+      }
+      return valid;
+    }
+
+    private boolean checkSize(int size, String path, List<String> errors) {
+      if (size < minItems) {
+        return fail(errors, path, "expected at least " + minItems + " items but was " + size);
+      }
+      if (size > maxItems) {
+        return fail(errors, path, "expected at most " + maxItems + " items but was " + size);
+      }
+      return true;
+    }
+
+    private boolean checkItem(double item, String path, int index, List<String> errors) {
+      for (SchemaValidator validator : items) {
+        if (validator.checkNumber(item, null, null)) {
+          return true;
+        }
+      }
+      /* Boxed only to describe the violation */
+      return errors != null && checkItem((Object) item, path, index, errors);
+    }
+
+    private boolean checkItem(long item, String path, int index, List<String> errors) {
+      for (SchemaValidator validator : items) {
+        if (validator.checkNumber(item, null, null)) {
+          return true;
+        }
+      }
+      /* Boxed only to describe the violation */
+      return errors != null && checkItem((Object) item, path, index, errors);
+    }
+  }
+
+  private static final class OneOfValidator extends SchemaValidator {
+    private final SchemaValidator base;
+    private final SchemaValidator[] subschemas;
+
+    OneOfValidator(SchemaValidator base, SchemaValidator[] subschemas) {
+      this.base = base;
+      this.subschemas = subschemas;
+    }
+
+    @Override
+    boolean check(Object value, String path, List<String> errors) {
+      if (!base.check(value, path, errors)) {
+        return false;
+      }
+
+      int matches = 0;
+      for (int i = 0; i < subschemas.length && matches < 2; i++) {
+        if (subschemas[i].isValid(value)) {
+          matches++;
+        }
+      }
+      return checkMatches(matches, value, path, errors);
+    }
+
+    @Override
+    boolean checkNumber(double value, String path, List<String> errors) {
+      if (!base.checkNumber(value, path, errors)) {
+        return false;
+      }
+
+      int matches = 0;
+      for (int i = 0; i < subschemas.length && matches < 2; i++) {
+        if (subschemas[i].checkNumber(value, null, null)) {
+          matches++;
+        }
+      }
+      /* Boxed only to describe the violation */
+      return matches == 1 || checkMatches(matches, value, path, errors);
+    }
+
+    @Override
+    boolean checkNumber(long value, String path, List<String> errors) {
+      if (!base.checkNumber(value, path, errors)) {
+        return false;
+      }
+
+      int matches = 0;
+      for (int i = 0; i < subschemas.length && matches < 2; i++) {
+        if (subschemas[i].checkNumber(value, null, null)) {
+          matches++;
+        }
+      }
+      /* Boxed only to describe the violation */
+      return matches == 1 || checkMatches(matches, value, path, errors);
+    }
+
+    @Override
+    boolean checkNumbers(double[] values, String path, List<String> errors) {
+      if (!base.checkNumbers(values, path, errors)) {
+        return false;
+      }
+
+      int matches = 0;
+      for (int i = 0; i < subschemas.length && matches < 2; i++) {
+        if (subschemas[i].checkNumbers(values, null, null)) {
+          matches++;
+        }
+      }
+      return checkMatches(matches, "the array", path, errors);
+    }
+
+    @Override
+    boolean checkNumbers(long[] values, String path, List<String> errors) {
+      if (!base.checkNumbers(values, path, errors)) {
+        return false;
+      }
+
+      int matches = 0;
+      for (int i = 0; i < subschemas.length && matches < 2; i++) {
+        if (subschemas[i].checkNumbers(values, null, null)) {
+          matches++;
+        }
+      }
+      return checkMatches(matches, "the array", path, errors);
+    }
+
+    private static boolean checkMatches(int matches, Object value, String path,
+        List<String> errors) {
+      if (matches == 1) {
+        return true;
+      }
+      if (matches == 0) {
+        return fail(errors, path, value + " is not valid against any of the subschemas");
+      }
+      return fail(errors, path, value + " is valid against more than one of the subschemas");
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package ch.unisg.ics.interactions.wot.td.schemas;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a record component to the property of an {@link ObjectSchema} that has the given semantic
+ * type, rather than to the property with the same name as the component.
+ *
+ * @see ObjectBinding
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.RECORD_COMPONENT)
+public @interface SemanticType {
+
+  /**
+   * @return the IRI of the semantic type
+   */
+  String value();
+}
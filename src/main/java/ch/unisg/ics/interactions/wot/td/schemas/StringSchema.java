@@ -1,7 +1,9 @@
 package ch.unisg.ics.interactions.wot.td.schemas;
 
 import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -22,6 +24,11 @@ public class StringSchema extends DataSchema {
     return element.getAsString();
   }
 
+  @Override
+  public Object parseJson(JsonReader reader) throws IOException {
+    return nextPrimitiveAsString(reader);
+  }
+
   public static final class Builder extends DataSchema.JsonSchemaBuilder<StringSchema, StringSchema.Builder> {
 
     @Override
@@ -14,6 +14,8 @@ public final class TD {
 
   /* Object properties */
   public static final String hasBase = PREFIX + "hasBase";
+  /* Used for the base of TDs by the W3C TD contexts */
+  public static final String baseURI = PREFIX + "baseURI";
   public static final String name = PREFIX + "name";
   public static final String title = PREFIX + "title";
 
@@ -23,6 +25,9 @@ public final class TD {
   public static final String hasEventAffordance = PREFIX + "hasEventAffordance";
 
   public static final String hasSecurityConfiguration = PREFIX + "hasSecurityConfiguration";
+  /* Used for the security definitions of TDs by the W3C TD 1.0 and 1.1 contexts */
+  public static final String securityDefinitions = PREFIX + "securityDefinitions";
+  public static final String definesSecurityScheme = PREFIX + "definesSecurityScheme";
 
   public static final String isObservable = PREFIX + "isObservable";
 
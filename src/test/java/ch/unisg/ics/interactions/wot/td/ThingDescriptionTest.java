@@ -9,11 +9,17 @@ import ch.unisg.ics.interactions.wot.td.security.APIKeySecurityScheme;
 import ch.unisg.ics.interactions.wot.td.security.SecurityScheme;
 import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
 import ch.unisg.ics.interactions.wot.td.vocabularies.WoTSec;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.util.ModelBuilder;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 
@@ -241,4 +247,28 @@ public class ThingDescriptionTest {
     Optional<EventAffordance> unknownEvent = commonTd.getFirstEventBySemanticType("ex:NoAlarm");
     assertFalse(unknownEvent.isPresent());
   }
+
+  @Test
+  public void testLazyGraph() {
+    IRI thing = SimpleValueFactory.getInstance().createIRI("http://example.org/#thing");
+    AtomicInteger invocations = new AtomicInteger();
+
+    ThingDescription td = new ThingDescription.Builder("My Thing")
+      .addTriple(thing, RDF.TYPE, SimpleValueFactory.getInstance().createIRI(TD.Thing))
+      .addGraph(() -> {
+        invocations.incrementAndGet();
+        return new ModelBuilder()
+          .add(thing, RDF.TYPE, SimpleValueFactory.getInstance()
+            .createIRI("http://w3id.org/eve#Artifact"))
+          .build();
+      })
+      .build();
+
+    assertEquals(0, invocations.get());
+
+    Model graph = td.getGraph().get();
+    assertEquals(2, graph.size());
+    assertSame(graph, td.getGraph().get());
+    assertEquals(1, invocations.get());
+  }
 }
@@ -0,0 +1,70 @@
+package ch.unisg.ics.interactions.wot.td.affordances;
+
+import ch.unisg.ics.interactions.wot.td.schemas.ArraySchema;
+import ch.unisg.ics.interactions.wot.td.schemas.DataSchema;
+import ch.unisg.ics.interactions.wot.td.schemas.IntegerSchema;
+import ch.unisg.ics.interactions.wot.td.schemas.StringSchema;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compares the throughput of expanding a {@link UriTemplate} that is compiled for each expansion
+ * with one that is cached per {@link Form}. Not run as part of the test suite; run the main method
+ * with the test runtime classpath, optionally passing the number of iterations as argument.
+ */
+public class UriTemplateBenchmark {
+
+  public static void main(String[] args) {
+    int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+
+    Form form = new Form.Builder("http://example.org/things/{thing}/properties{/path*}"
+      + "{?limit,since}{&tags*}").build();
+
+    Map<String, DataSchema> uriVariables = new HashMap<>();
+    uriVariables.put("thing", new StringSchema.Builder().build());
+    uriVariables.put("path", new ArraySchema.Builder().build());
+    uriVariables.put("limit", new IntegerSchema.Builder().build());
+    uriVariables.put("since", new StringSchema.Builder().build());
+    uriVariables.put("tags", new ArraySchema.Builder().build());
+
+    Map<String, Object> values = new HashMap<>();
+    values.put("thing", "lamp 42");
+    values.put("path", Arrays.asList("status", "brightness"));
+    values.put("limit", 10);
+    values.put("since", "2024-01-01T00:00:00Z");
+    values.put("tags", Arrays.asList("indoor", "living room"));
+
+    System.out.printf("%d iterations, %s%n", iterations,
+      form.getUriTemplate().createUri(uriVariables, values));
+
+    run("compiled per call", iterations,
+      () -> new UriTemplate(form.getTarget()).createUri(uriVariables, values));
+    run("cached per form", iterations,
+      () -> form.getUriTemplate().createUri(uriVariables, values));
+  }
+
+  private static void run(String name, int iterations, Expansion expansion) {
+    long length = 0;
+
+    // Warm-up
+    for (int i = 0; i < iterations; i++) {
+      length += expansion.expand().length();
+    }
+
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      length += expansion.expand().length();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    /* The total length keeps the expansions from being eliminated */
+    System.out.printf("%-18s %12.0f URIs/s %8.0f ns/URI (%d)%n", name, iterations / seconds,
+      seconds * 1e9 / iterations, length);
+  }
+
+  private interface Expansion {
+    String expand();
+  }
+}
@@ -1,7 +1,6 @@
-package ch.unisg.ics.interactions.wot.td.clients;
+package ch.unisg.ics.interactions.wot.td.affordances;
 
 import ch.unisg.ics.interactions.wot.td.ThingDescription;
-import ch.unisg.ics.interactions.wot.td.affordances.ActionAffordance;
 import ch.unisg.ics.interactions.wot.td.io.TDGraphReader;
 import ch.unisg.ics.interactions.wot.td.schemas.*;
 import org.junit.Test;
@@ -196,4 +195,161 @@ public class UriTemplateTest {
     String uri = new UriTemplate(path).createUri(uriVariables, map2);  
     assertEquals("http://mylamp.example.org/toggle?p=abc&q=32", uri);
   }
+
+  private static Map<String, DataSchema> rfcVariables() {
+    Map<String, DataSchema> uriVariables = new HashMap<>();
+    for (String name : new String[] {"var", "hello", "half", "empty", "path", "x", "y", "who"}) {
+      uriVariables.put(name, new StringSchema.Builder().build());
+    }
+    uriVariables.put("list", new ArraySchema.Builder().build());
+    uriVariables.put("keys", new ObjectSchema.Builder().build());
+    return uriVariables;
+  }
+
+  /* Values of the examples in Section 3.2 of RFC 6570 */
+  private static Map<String, Object> rfcValues() {
+    Map<String, Object> values = new HashMap<>();
+    values.put("var", "value");
+    values.put("hello", "Hello World!");
+    values.put("half", "50%");
+    values.put("empty", "");
+    values.put("path", "/foo/bar");
+    values.put("x", "1024");
+    values.put("y", "768");
+    values.put("who", "fred");
+    values.put("list", Arrays.asList("red", "green", "blue"));
+    Map<String, Object> keys = new LinkedHashMap<>();
+    keys.put("semi", ";");
+    keys.put("dot", ".");
+    keys.put("comma", ",");
+    values.put("keys", keys);
+    return values;
+  }
+
+  private static String expand(String template) {
+    return new UriTemplate(template).createUri(rfcVariables(), rfcValues());
+  }
+
+  @Test
+  public void testSimpleExpansion() {
+    assertEquals("value", expand("{var}"));
+    assertEquals("Hello%20World%21", expand("{hello}"));
+    assertEquals("50%25", expand("{half}"));
+    assertEquals("OX", expand("O{empty}X"));
+    assertEquals("OX", expand("O{undef}X"));
+    assertEquals("1024,768", expand("{x,y}"));
+    assertEquals("1024,768", expand("{x,undef,y}"));
+    assertEquals("val", expand("{var:3}"));
+    assertEquals("red,green,blue", expand("{list}"));
+    assertEquals("semi,%3B,dot,.,comma,%2C", expand("{keys}"));
+  }
+
+  @Test
+  public void testReservedAndFragmentExpansion() {
+    assertEquals("Hello%20World!", expand("{+hello}"));
+    assertEquals("/foo/bar/here", expand("{+path}/here"));
+    assertEquals("here?ref=/foo/bar", expand("here?ref={+path}"));
+    assertEquals("/foo/b/here", expand("{+path:6}/here"));
+    assertEquals("semi=;,dot=.,comma=,", expand("{+keys*}"));
+    assertEquals("#Hello%20World!", expand("{#hello}"));
+    assertEquals("#/foo/bar,1024", expand("{#path,x}"));
+    assertEquals("#red,green,blue", expand("{#list*}"));
+    assertEquals("", expand("{#undef}"));
+  }
+
+  @Test
+  public void testLabelAndPathExpansion() {
+    assertEquals("X.value", expand("X{.var}"));
+    assertEquals("X.red.green.blue", expand("X{.list*}"));
+    assertEquals("/value", expand("{/var}"));
+    assertEquals("/value/1024/here", expand("{/var,x}/here"));
+    assertEquals("/v/value", expand("{/var:1,var}"));
+    assertEquals("/red/green/blue", expand("{/list*}"));
+    assertEquals("/semi=%3B/dot=./comma=%2C", expand("{/keys*}"));
+  }
+
+  @Test
+  public void testParameterExpansion() {
+    assertEquals(";x=1024;y=768", expand("{;x,y}"));
+    assertEquals(";x=1024;y=768;empty", expand("{;x,y,empty}"));
+    assertEquals(";hello=Hello", expand("{;hello:5}"));
+    assertEquals(";list=red,green,blue", expand("{;list}"));
+    assertEquals(";list=red;list=green;list=blue", expand("{;list*}"));
+    assertEquals(";semi=%3B;dot=.;comma=%2C", expand("{;keys*}"));
+  }
+
+  @Test
+  public void testQueryExpansion() {
+    assertEquals("?x=1024&y=768&empty=", expand("{?x,y,empty}"));
+    assertEquals("?fixed=yes&x=1024", expand("?fixed=yes{&x}"));
+    assertEquals("?var=val", expand("{?var:3}"));
+    assertEquals("?list=red,green,blue", expand("{?list}"));
+    assertEquals("?list=red&list=green&list=blue", expand("{?list*}"));
+    assertEquals("?keys=semi,%3B,dot,.,comma,%2C", expand("{?keys}"));
+    assertEquals("?semi=%3B&dot=.&comma=%2C", expand("{?keys*}"));
+    assertEquals("", expand("{?undef}"));
+  }
+
+  @Test
+  public void testEncodingOfNonAsciiValues() {
+    Map<String, DataSchema> uriVariables = new HashMap<>();
+    uriVariables.put("p", new StringSchema.Builder().build());
+    Map<String, Object> values = new HashMap<>();
+    values.put("p", "Gr\u00fc\u00dfe \u20ac\uD83D\uDE00");
+    assertEquals("http://example.com/Gr%C3%BC%C3%9Fe%20%E2%82%AC%F0%9F%98%80",
+      new UriTemplate("http://example.com/{p}").createUri(uriVariables, values));
+  }
+
+  @Test
+  public void testEncodedBraces() {
+    Map<String, DataSchema> uriVariables = new HashMap<>();
+    uriVariables.put("p", new StringSchema.Builder().build());
+    Map<String, Object> values = new HashMap<>();
+    values.put("p", "abc");
+    assertEquals("http://example.com/a%20b?p=abc", new UriTemplate("http://example.com/a%20b"
+      + "%7B%3Fp%7D").createUri(uriVariables, values));
+  }
+
+  @Test
+  public void testGetVariableNames() {
+    assertEquals(new ArrayList<>(Arrays.asList("x", "y", "list")),
+      new ArrayList<>(new UriTemplate("http://example.com{/x}{?y,list*}{&x}").getVariableNames()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnterminatedExpression() {
+    new UriTemplate("http://example.com/{p");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPrefix() {
+    new UriTemplate("http://example.com/{p:0}");
+  }
+
+  @Test
+  public void testTemplateIsCachedPerForm() {
+    Form form = new Form.Builder("http://example.com/cached{?p}").build();
+    UriTemplate template = form.getUriTemplate();
+    assertSame(template, form.getUriTemplate());
+    assertEquals("http://example.com/cached{?p}", template.getTemplate());
+  }
+
+  @Test
+  public void testCheckValidatesAllVariables() {
+    Map<String, DataSchema> uriVariables = new LinkedHashMap<>();
+    uriVariables.put("p", new IntegerSchema.Builder().build());
+    uriVariables.put("q", new StringSchema.Builder().build());
+    Map<String, Object> values = new HashMap<>();
+    values.put("p", "abc");
+    values.put("q", "abc");
+    assertFalse(UriTemplate.check(uriVariables, values));
+
+    try {
+      new UriTemplate("http://example.com/{p}{?q}").createUri(uriVariables, values);
+      fail("Expected UriVariableException");
+    } catch (UriVariableException e) {
+      assertEquals(1, e.getErrors().size());
+      assertEquals("p", e.getErrors().get(0).getVariableName());
+    }
+  }
 }
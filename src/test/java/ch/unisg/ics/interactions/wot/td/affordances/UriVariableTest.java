@@ -12,6 +12,7 @@ import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class UriVariableTest {
@@ -62,6 +63,25 @@ public class UriVariableTest {
     assertEquals(DataSchema.NUMBER, affordance.getUriVariables().get().get("number").getDatatype());
   }
 
+  @Test
+  public void uriVariablesAreCopied() {
+    ActionAffordance.Builder builder = new ActionAffordance.Builder("actionAffordance", form)
+      .addUriVariable("name", new StringSchema.Builder().build());
+    affordance = builder.build();
+
+    builder.addUriVariable("number", new NumberSchema.Builder().build());
+    assertEquals(1, affordance.getUriVariables().get().size());
+    assertFalse(affordance.getUriVariables().get().containsKey("number"));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void uriVariablesAreUnmodifiable() {
+    affordance = new ActionAffordance.Builder("actionAffordance", form)
+      .addUriVariables(uriVariable.get())
+      .build();
+    affordance.getUriVariables().get().put("number", new NumberSchema.Builder().build());
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void impossibleUriVariable() {
     DataSchema name = new StringSchema.Builder().build();
@@ -0,0 +1,140 @@
+package ch.unisg.ics.interactions.wot.td.affordances;
+
+import ch.unisg.ics.interactions.wot.td.affordances.UriVariableError.Reason;
+import ch.unisg.ics.interactions.wot.td.schemas.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class UriVariableValidatorTest {
+  private Map<String, DataSchema> uriVariables;
+  private Map<String, Object> values;
+
+  @Before
+  public void init() {
+    uriVariables = new LinkedHashMap<>();
+    uriVariables.put("name", new StringSchema.Builder()
+      .addEnum(new HashSet<>(Arrays.asList("lamp", "fan")))
+      .build());
+    uriVariables.put("level", new IntegerSchema.Builder().addMinimum(0).addMaximum(10).build());
+    uriVariables.put("brightness", new NumberSchema.Builder().addMinimum(0.0).addMaximum(1.0)
+      .build());
+    uriVariables.put("on", new BooleanSchema.Builder().build());
+    uriVariables.put("tags", new ArraySchema.Builder().build());
+
+    values = new HashMap<>();
+    values.put("name", "lamp");
+    values.put("level", 3);
+    values.put("brightness", 0.5);
+    values.put("on", true);
+    values.put("tags", Arrays.asList("a", "b"));
+  }
+
+  @Test
+  public void testValidValues() {
+    UriVariableValidator validator = new UriVariableValidator(uriVariables);
+    assertTrue(validator.validate(values).isEmpty());
+    assertTrue(validator.isValid(values));
+    validator.requireValid(values);
+  }
+
+  @Test
+  public void testIntegerValuesForNumberSchema() {
+    values.put("brightness", 1);
+    values.put("level", 10L);
+    assertTrue(new UriVariableValidator(uriVariables).isValid(values));
+  }
+
+  @Test
+  public void testAllVariablesAreChecked() {
+    values.put("name", 42);
+    values.put("level", 11);
+    values.put("brightness", -0.1);
+    values.remove("on");
+
+    List<UriVariableError> errors = new UriVariableValidator(uriVariables).validate(values);
+    assertEquals(4, errors.size());
+
+    assertEquals("name", errors.get(0).getVariableName());
+    assertEquals(Reason.INVALID_TYPE, errors.get(0).getReason());
+    assertEquals(42, errors.get(0).getValue());
+    assertEquals("level", errors.get(1).getVariableName());
+    assertEquals(Reason.ABOVE_MAXIMUM, errors.get(1).getReason());
+    assertEquals("brightness", errors.get(2).getVariableName());
+    assertEquals(Reason.BELOW_MINIMUM, errors.get(2).getReason());
+    assertEquals("on", errors.get(3).getVariableName());
+    assertEquals(Reason.MISSING, errors.get(3).getReason());
+    assertNull(errors.get(3).getValue());
+  }
+
+  @Test
+  public void testEnumeration() {
+    values.put("name", "door");
+    List<UriVariableError> errors = new UriVariableValidator(uriVariables).validate(values);
+    assertEquals(1, errors.size());
+    assertEquals(Reason.NOT_IN_ENUM, errors.get(0).getReason());
+
+    Map<String, DataSchema> numbers = new HashMap<>();
+    numbers.put("n", new NumberSchema.Builder().addEnum(new HashSet<>(Arrays.asList("1", "2.5")))
+      .build());
+    UriVariableValidator validator = new UriVariableValidator(numbers);
+    assertTrue(validator.isValid(Collections.singletonMap("n", 1.0)));
+    assertTrue(validator.isValid(Collections.singletonMap("n", 1)));
+    assertTrue(validator.isValid(Collections.singletonMap("n", 2.5)));
+    assertFalse(validator.isValid(Collections.singletonMap("n", 2)));
+  }
+
+  @Test
+  public void testNullAndUnsupportedSchemas() {
+    Map<String, DataSchema> schemas = new HashMap<>();
+    schemas.put("nothing", new NullSchema.Builder().build());
+    schemas.put("data", DataSchema.getEmptySchema());
+
+    Map<String, Object> input = new HashMap<>();
+    input.put("data", "abc");
+
+    List<UriVariableError> errors = new UriVariableValidator(schemas).validate(input);
+    assertEquals(1, errors.size());
+    assertEquals("data", errors.get(0).getVariableName());
+    assertEquals(Reason.UNSUPPORTED_SCHEMA, errors.get(0).getReason());
+  }
+
+  @Test
+  public void testRequireValid() {
+    values.put("level", -1);
+    values.put("on", "yes");
+
+    try {
+      new UriVariableValidator(uriVariables).requireValid(values);
+      fail("Expected UriVariableException");
+    } catch (UriVariableException e) {
+      assertEquals(2, e.getErrors().size());
+      assertTrue(e.getMessage().contains("level"));
+      assertTrue(e.getMessage().contains("on"));
+    }
+  }
+
+  @Test
+  public void testValidatorIsCachedPerAffordance() {
+    /* Affordances do not accept array and object schemas for URI variables */
+    uriVariables.remove("tags");
+    ActionAffordance action = new ActionAffordance.Builder("action",
+        new Form.Builder("http://example.org/action{?name,level}").build())
+      .addUriVariables(uriVariables)
+      .build();
+
+    UriVariableValidator validator = action.getUriVariableValidator();
+    assertSame(validator, action.getUriVariableValidator());
+    assertEquals(4, validator.validate(Collections.emptyMap()).size());
+    assertEquals("http://example.org/action?name=lamp&level=3",
+      action.getForms().get(0).getUriTemplate().createUri(action, values));
+
+    ActionAffordance withoutVariables = new ActionAffordance.Builder("action",
+        new Form.Builder("http://example.org/action").build())
+      .build();
+    assertTrue(withoutVariables.getUriVariableValidator().isValid(Collections.emptyMap()));
+  }
+}
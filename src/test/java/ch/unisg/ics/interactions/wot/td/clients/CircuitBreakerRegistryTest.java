@@ -0,0 +1,42 @@
+package ch.unisg.ics.interactions.wot.td.clients;
+
+import ch.unisg.ics.interactions.wot.td.affordances.Form;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+
+public class CircuitBreakerRegistryTest {
+
+  @Test
+  public void testGetHost() {
+    assertEquals("example.org", CircuitBreakerRegistry.getHost("http://example.org/lamp"));
+    assertEquals("example.org:8080", CircuitBreakerRegistry.getHost("https://user@Example.org:8080"));
+    assertEquals("example.org", CircuitBreakerRegistry.getHost("coap://example.org?x=1"));
+    assertEquals("example.org", CircuitBreakerRegistry.getHost("http://example.org{?x}"));
+  }
+
+  @Test
+  public void testCircuitBreakerPerHost() {
+    CircuitBreakerRegistry registry = new CircuitBreakerRegistry.Builder().build();
+
+    CircuitBreaker lamp = registry.getCircuitBreaker("http://example.org/lamp");
+    assertSame(lamp, registry.getCircuitBreaker(new Form.Builder("http://example.org/fan").build()));
+    assertNotSame(lamp, registry.getCircuitBreaker("http://example.org:8080/lamp"));
+
+    assertEquals(2, registry.getCircuitBreakers().size());
+    assertSame(lamp, registry.getCircuitBreakers().get("example.org"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidTimeoutBounds() {
+    new CircuitBreakerRegistry.Builder().setTimeoutBounds(Duration.ofSeconds(2),
+      Duration.ofSeconds(1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidFailureThreshold() {
+    new CircuitBreakerRegistry.Builder().setFailureThreshold(0);
+  }
+}
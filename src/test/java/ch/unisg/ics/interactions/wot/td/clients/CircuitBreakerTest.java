@@ -0,0 +1,188 @@
+package ch.unisg.ics.interactions.wot.td.clients;
+
+import ch.unisg.ics.interactions.wot.td.clients.CircuitBreaker.State;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.Assert.*;
+
+public class CircuitBreakerTest {
+  private MutableClock clock;
+  private CircuitBreaker circuitBreaker;
+
+  @Before
+  public void init() {
+    clock = new MutableClock();
+    circuitBreaker = new CircuitBreakerRegistry.Builder()
+      .setFailureThreshold(3)
+      .setOpenDuration(Duration.ofSeconds(10))
+      .setTimeoutBounds(Duration.ofMillis(50), Duration.ofSeconds(5))
+      .setClock(clock)
+      .build()
+      .getCircuitBreaker("http://example.org/lamp");
+  }
+
+  @Test
+  public void testOpensAfterConsecutiveFailures() throws CircuitBreakerOpenException {
+    for (int i = 0; i < 2; i++) {
+      circuitBreaker.acquire();
+      circuitBreaker.onFailure();
+    }
+    assertEquals(State.CLOSED, circuitBreaker.getState());
+
+    circuitBreaker.acquire();
+    circuitBreaker.onFailure();
+    assertEquals(State.OPEN, circuitBreaker.getState());
+    assertEquals(3, circuitBreaker.getConsecutiveFailures());
+
+    try {
+      circuitBreaker.acquire();
+      fail("Expected CircuitBreakerOpenException");
+    } catch (CircuitBreakerOpenException e) {
+      assertEquals("example.org", e.getHost());
+    }
+    assertEquals(1, circuitBreaker.getRejectedCount());
+  }
+
+  @Test
+  public void testSuccessResetsFailures() throws CircuitBreakerOpenException {
+    for (int i = 0; i < 2; i++) {
+      circuitBreaker.acquire();
+      circuitBreaker.onFailure();
+    }
+    circuitBreaker.acquire();
+    circuitBreaker.onSuccess(1_000_000);
+
+    assertEquals(0, circuitBreaker.getConsecutiveFailures());
+    assertEquals(2, circuitBreaker.getFailureCount());
+    assertEquals(1, circuitBreaker.getSuccessCount());
+  }
+
+  @Test
+  public void testHalfOpenAllowsSingleTrial() throws CircuitBreakerOpenException {
+    open();
+    clock.advance(Duration.ofSeconds(10));
+    assertEquals(State.HALF_OPEN, circuitBreaker.getState());
+
+    circuitBreaker.acquire();
+    try {
+      circuitBreaker.acquire();
+      fail("Expected CircuitBreakerOpenException");
+    } catch (CircuitBreakerOpenException e) {
+      /* only one trial request is allowed */
+    }
+
+    circuitBreaker.onSuccess(1_000_000);
+    assertEquals(State.CLOSED, circuitBreaker.getState());
+    circuitBreaker.acquire();
+  }
+
+  @Test
+  public void testFailedTrialReopens() throws CircuitBreakerOpenException {
+    open();
+    clock.advance(Duration.ofSeconds(10));
+
+    circuitBreaker.acquire();
+    circuitBreaker.onFailure();
+    assertEquals(State.OPEN, circuitBreaker.getState());
+
+    clock.advance(Duration.ofSeconds(9));
+    assertEquals(State.OPEN, circuitBreaker.getState());
+  }
+
+  @Test
+  public void testReleasedTrialAllowsAnotherTrial() throws CircuitBreakerOpenException {
+    open();
+    clock.advance(Duration.ofSeconds(10));
+
+    circuitBreaker.acquire();
+    circuitBreaker.release();
+    circuitBreaker.acquire();
+  }
+
+  @Test
+  public void testAdaptiveTimeout() {
+    assertEquals(Duration.ofSeconds(5), circuitBreaker.getTimeout());
+
+    for (int i = 1; i <= CircuitBreaker.MIN_SAMPLES; i++) {
+      circuitBreaker.onSuccess(Duration.ofMillis(100).toNanos());
+    }
+
+    assertEquals(Duration.ofMillis(200), circuitBreaker.getTimeout());
+    assertEquals(CircuitBreaker.MIN_SAMPLES, circuitBreaker.getLatency().getCount());
+  }
+
+  @Test
+  public void testAdaptiveTimeoutIsBounded() {
+    for (int i = 1; i <= CircuitBreaker.MIN_SAMPLES; i++) {
+      circuitBreaker.onSuccess(Duration.ofMillis(1).toNanos());
+    }
+    assertEquals(Duration.ofMillis(50), circuitBreaker.getTimeout());
+
+    for (int i = 1; i <= CircuitBreaker.WINDOW_SIZE; i++) {
+      circuitBreaker.onSuccess(Duration.ofSeconds(10).toNanos());
+    }
+    assertEquals(Duration.ofSeconds(5), circuitBreaker.getTimeout());
+  }
+
+  @Test
+  public void testAdaptiveTimeoutRecoversFromLatencyIncrease() throws CircuitBreakerOpenException {
+    for (int i = 1; i <= CircuitBreaker.MIN_SAMPLES; i++) {
+      circuitBreaker.acquire();
+      circuitBreaker.onSuccess(Duration.ofMillis(100).toNanos());
+    }
+    assertEquals(Duration.ofMillis(200), circuitBreaker.getTimeout());
+
+    /* The latency of the host steps up to 1s, so the requests time out after 200ms */
+    open();
+    assertEquals(Duration.ofSeconds(5), circuitBreaker.getTimeout());
+
+    clock.advance(Duration.ofSeconds(10));
+    circuitBreaker.acquire();
+    circuitBreaker.onSuccess(Duration.ofSeconds(1).toNanos());
+    assertEquals(State.CLOSED, circuitBreaker.getState());
+    assertEquals(Duration.ofSeconds(5), circuitBreaker.getTimeout());
+
+    for (int i = 2; i <= CircuitBreaker.MIN_SAMPLES; i++) {
+      circuitBreaker.acquire();
+      circuitBreaker.onSuccess(Duration.ofSeconds(1).toNanos());
+    }
+    assertEquals(Duration.ofSeconds(2), circuitBreaker.getTimeout());
+  }
+
+  private void open() throws CircuitBreakerOpenException {
+    for (int i = 0; i < 3; i++) {
+      circuitBreaker.acquire();
+      circuitBreaker.onFailure();
+    }
+  }
+
+  private static class MutableClock extends Clock {
+    private Instant now = Instant.EPOCH;
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
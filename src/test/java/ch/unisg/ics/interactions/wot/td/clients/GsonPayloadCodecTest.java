@@ -0,0 +1,173 @@
+package ch.unisg.ics.interactions.wot.td.clients;
+
+import ch.unisg.ics.interactions.wot.td.schemas.ArraySchema;
+import ch.unisg.ics.interactions.wot.td.schemas.IntegerSchema;
+import ch.unisg.ics.interactions.wot.td.schemas.NullSchema;
+import ch.unisg.ics.interactions.wot.td.schemas.NumberSchema;
+import ch.unisg.ics.interactions.wot.td.schemas.ObjectBinding;
+import ch.unisg.ics.interactions.wot.td.schemas.ObjectSchema;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class GsonPayloadCodecTest {
+
+  record Count(int count) { }
+
+  @Test
+  public void testDefaultCodecIsShared() {
+    assertSame(PayloadCodec.getDefault(), PayloadCodec.getDefault());
+    assertTrue(PayloadCodec.getDefault() instanceof GsonPayloadCodec);
+  }
+
+  @Test
+  public void testEncode() {
+    Map<String, Object> value = new HashMap<>();
+    value.put("values", Arrays.asList(1, 2));
+
+    assertEquals("{\"values\":[1,2]}", PayloadCodec.getDefault().encode(value));
+  }
+
+  @Test
+  public void testEncodeWithCustomGson() {
+    Map<String, Object> value = new HashMap<>();
+    value.put("value", null);
+
+    PayloadCodec codec = new GsonPayloadCodec(new GsonBuilder().serializeNulls().create());
+    assertEquals("{\"value\":null}", codec.encode(value));
+    assertEquals("{}", PayloadCodec.getDefault().encode(value));
+  }
+
+  @Test
+  public void testDecode() {
+    assertEquals(Integer.valueOf(101), PayloadCodec.getDefault().decode("101", Integer.class));
+    assertEquals("test", PayloadCodec.getDefault().decode("\"test\"", String.class));
+  }
+
+  @Test(expected = JsonSyntaxException.class)
+  public void testDecodeInvalid() {
+    PayloadCodec.getDefault().decode("{", Boolean.class);
+  }
+
+  @Test
+  public void testParse() {
+    JsonElement fromString = PayloadCodec.getDefault().parse("{\"a\": [true]}");
+    JsonElement fromReader = PayloadCodec.getDefault()
+      .parse(new JsonReader(new StringReader("{\"a\": [true]}")));
+
+    assertTrue(fromString.getAsJsonObject().get("a").getAsJsonArray().get(0).getAsBoolean());
+    assertEquals(fromString, fromReader);
+  }
+
+  @Test
+  public void testDecodeWithSchema() {
+    ObjectSchema schema = new ObjectSchema.Builder()
+      .addProperty("count", new IntegerSchema.Builder().build())
+      .build();
+
+    Object value = PayloadCodec.getDefault()
+      .decode(reader("{\"count\": 3, \"ignored\": [1, 2]}"), schema);
+    assertEquals(Collections.singletonMap("count", 3), value);
+  }
+
+  @Test
+  public void testDecodeWithSchemaIsLenient() {
+    ObjectSchema schema = new ObjectSchema.Builder()
+      .addProperty("count", new IntegerSchema.Builder().build())
+      .build();
+
+    JsonReader reader = reader("{count: 3}");
+    assertEquals(Collections.singletonMap("count", 3),
+      PayloadCodec.getDefault().decode(reader, schema));
+    assertEquals(Strictness.LEGACY_STRICT, reader.getStrictness());
+  }
+
+  @Test
+  public void testDecodeEmptyPayloadWithSchema() {
+    assertNull(PayloadCodec.getDefault().decode(reader(""), new NullSchema.Builder().build()));
+  }
+
+  @Test(expected = JsonSyntaxException.class)
+  public void testDecodeTrailingContentWithSchema() {
+    PayloadCodec.getDefault().decode(reader("1 2"), new IntegerSchema.Builder().build());
+  }
+
+  @Test(expected = JsonSyntaxException.class)
+  public void testDecodeInvalidWithSchema() {
+    PayloadCodec.getDefault().decode(reader("{\"count\": 3"), new ObjectSchema.Builder()
+      .addProperty("count", new IntegerSchema.Builder().build())
+      .build());
+  }
+
+  @Test
+  public void testEncodeNumericArrays() {
+    assertEquals("[1.0,-2.5,1.0E-7]",
+      PayloadCodec.getDefault().encode(new double[] { 1, -2.5, 1e-7 }));
+    assertEquals("[]", PayloadCodec.getDefault().encode(new double[0]));
+    assertEquals("[1,-2," + Long.MAX_VALUE + "]",
+      PayloadCodec.getDefault().encode(new long[] { 1, -2, Long.MAX_VALUE }));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEncodeNaN() {
+    PayloadCodec.getDefault().encode(new double[] { 1, Double.NaN });
+  }
+
+  @Test
+  public void testDecodeNumericArrays() {
+    ArraySchema schema = new ArraySchema.Builder()
+      .addItem(new NumberSchema.Builder().build())
+      .build();
+
+    assertArrayEquals(new double[] { 1, 2.5 },
+      PayloadCodec.getDefault().decodeDoubleArray(reader("[1, 2.5]"), schema), 0.0);
+    assertArrayEquals(new long[] { 1, 2 },
+      PayloadCodec.getDefault().decodeLongArray(reader("[1, 2]"), schema));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDecodeEmptyPayloadAsNumericArray() {
+    PayloadCodec.getDefault().decodeDoubleArray(reader(""), new ArraySchema.Builder()
+      .addItem(new NumberSchema.Builder().build())
+      .build());
+  }
+
+  @Test(expected = JsonSyntaxException.class)
+  public void testDecodeTrailingContentAsNumericArray() {
+    PayloadCodec.getDefault().decodeLongArray(reader("[1] [2]"), new ArraySchema.Builder()
+      .addItem(new IntegerSchema.Builder().build())
+      .build());
+  }
+
+  @Test
+  public void testRecords() {
+    ObjectBinding<Count> binding = ObjectBinding.compile(new ObjectSchema.Builder()
+      .addProperty("count", new IntegerSchema.Builder().build())
+      .build(), Count.class);
+
+    assertEquals("{\"count\":3}", PayloadCodec.getDefault().encode(binding, new Count(3)));
+    assertEquals(new Count(3), PayloadCodec.getDefault().decode(reader("{count: 3}"), binding));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDecodeEmptyPayloadAsRecord() {
+    PayloadCodec.getDefault().decode(reader(""), ObjectBinding.compile(new ObjectSchema.Builder()
+      .addProperty("count", new IntegerSchema.Builder().build())
+      .build(), Count.class));
+  }
+
+  private static JsonReader reader(String payload) {
+    return new JsonReader(new StringReader(payload));
+  }
+}
@@ -0,0 +1,58 @@
+package ch.unisg.ics.interactions.wot.td.clients;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void testEmptyHistogram() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    assertEquals(0, histogram.getCount());
+    assertEquals(Duration.ZERO, histogram.getMean());
+    assertEquals(Duration.ZERO, histogram.getMax());
+    assertEquals(Duration.ZERO, histogram.getPercentile(99));
+  }
+
+  @Test
+  public void testRecord() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(Duration.ofMillis(i));
+    }
+
+    assertEquals(100, histogram.getCount());
+    assertEquals(Duration.ofNanos(50_500_000), histogram.getMean());
+    assertEquals(Duration.ofMillis(100), histogram.getMax());
+    assertEquals(Duration.ofMillis(100), histogram.getPercentile(100));
+
+    Duration median = histogram.getPercentile(50);
+    assertTrue(median.compareTo(Duration.ofMillis(50)) >= 0);
+    assertTrue(median.compareTo(Duration.ofMillis(100)) <= 0);
+  }
+
+  @Test
+  public void testBuckets() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    histogram.record(Duration.ofNanos(500));
+    histogram.record(Duration.ofNanos(1500));
+    histogram.record(Duration.ofNanos(4000));
+
+    long[] counts = histogram.getBucketCounts();
+    assertEquals(1, counts[0]);
+    assertEquals(1, counts[1]);
+    assertEquals(1, counts[2]);
+    assertEquals(Duration.ofNanos(2000), histogram.getPercentile(50));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPercentile() {
+    new LatencyHistogram().getPercentile(101);
+  }
+}
@@ -0,0 +1,267 @@
+package ch.unisg.ics.interactions.wot.td.clients;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.affordances.Form;
+import ch.unisg.ics.interactions.wot.td.affordances.PropertyAffordance;
+import ch.unisg.ics.interactions.wot.td.clients.PropertyReader.PropertyRead;
+import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class PropertyReaderTest {
+  private HttpServer server;
+  private TDHttpClient client;
+  private AtomicInteger requests;
+  private AtomicInteger activeRequests;
+  private AtomicInteger maxActiveRequests;
+
+  @Before
+  public void init() throws IOException {
+    requests = new AtomicInteger();
+    activeRequests = new AtomicInteger();
+    maxActiveRequests = new AtomicInteger();
+
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.createContext("/", this::handle);
+    server.start();
+
+    client = new TDHttpClient.Builder().build();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    client.close();
+    server.stop(0);
+  }
+
+  @Test(timeout = 10000)
+  public void testRead() throws Exception {
+    PropertyReader reader = new PropertyReader(client, 4);
+    TDHttpResponse response = reader.read(createTD("lamp"), "status").get();
+
+    assertEquals(200, response.getStatusCode());
+    assertEquals("\"/lamp/status\"", response.getPayload().get());
+    assertEquals(1, reader.getReadLatency().getCount());
+    assertEquals(1, reader.getRequestLatency().getCount());
+  }
+
+  @Test(timeout = 10000)
+  public void testConcurrentReadsAreCoalesced() throws Exception {
+    PropertyReader reader = new PropertyReader(client, 4);
+    ThingDescription td = createTD("lamp");
+
+    List<CompletableFuture<TDHttpResponse>> responses = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      responses.add(reader.read(td, "status"));
+    }
+
+    for (CompletableFuture<TDHttpResponse> response : responses) {
+      assertEquals("\"/lamp/status\"", response.get().getPayload().get());
+    }
+
+    assertEquals(1, requests.get());
+    assertEquals(9, reader.getCoalescedReadCount());
+    assertEquals(10, reader.getReadLatency().getCount());
+    assertEquals(1, reader.getRequestLatency().getCount());
+    assertEquals(0, reader.getInFlightCount());
+  }
+
+  @Test(timeout = 10000)
+  public void testReadsWithDifferentMethodsAreNotCoalesced() throws Exception {
+    PropertyReader reader = new PropertyReader(client, 4);
+    ThingDescription td = createTD("lamp");
+    Form postForm = new Form.Builder(td.getPropertyByName("status").get().getForms().get(0)
+        .getTarget())
+      .setMethodName("POST")
+      .addOperationType(TD.readProperty)
+      .build();
+    ThingDescription postTD = new ThingDescription.Builder("lamp")
+      .addProperty(new PropertyAffordance.Builder("status", postForm).build())
+      .build();
+
+    CompletableFuture<TDHttpResponse> get = reader.read(td, "status");
+    CompletableFuture<TDHttpResponse> post = reader.read(postTD, "status");
+
+    assertEquals(200, get.get().getStatusCode());
+    assertEquals(200, post.get().getStatusCode());
+    assertEquals(2, requests.get());
+    assertEquals(0, reader.getCoalescedReadCount());
+  }
+
+  @Test(timeout = 10000)
+  public void testReadUsesHttpForm() throws Exception {
+    PropertyReader reader = new PropertyReader(client, 4);
+    Form coapForm = new Form.Builder("coap://localhost/lamp/status")
+      .addOperationType(TD.readProperty)
+      .build();
+    Form httpForm = new Form.Builder("http://localhost:" + server.getAddress().getPort()
+        + "/lamp/status")
+      .addOperationType(TD.readProperty)
+      .build();
+    ThingDescription td = new ThingDescription.Builder("lamp")
+      .addProperty(new PropertyAffordance.Builder("status", Arrays.asList(coapForm, httpForm)).build())
+      .build();
+
+    assertEquals("\"/lamp/status\"", reader.read(td, "status").get().getPayload().get());
+  }
+
+  @Test(timeout = 10000)
+  public void testCancelledReadDoesNotCancelCoalescedReads() throws Exception {
+    PropertyReader reader = new PropertyReader(client, 4);
+    ThingDescription td = createTD("lamp");
+
+    CompletableFuture<TDHttpResponse> first = reader.read(td, "status");
+    CompletableFuture<TDHttpResponse> second = reader.read(td, "status");
+    first.cancel(true);
+
+    assertEquals(200, second.get().getStatusCode());
+  }
+
+  @Test(timeout = 10000)
+  public void testReadAllWithBoundedInFlightRequests() throws InterruptedException {
+    PropertyReader reader = new PropertyReader(client, 2);
+
+    List<PropertyRead> reads = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      reads.add(new PropertyRead(createTD("thing" + i), "status"));
+    }
+
+    PropertyReadResult result = reader.readAll(reads);
+
+    assertEquals(8, result.size());
+    assertFalse(result.hasErrors());
+    assertEquals(8, result.getResponses().size());
+    assertEquals("\"/thing3/status\"", result.getResponse(3).get().getPayload().get());
+    assertEquals(8, requests.get());
+    assertTrue(maxActiveRequests.get() <= 2);
+  }
+
+  @Test(timeout = 10000)
+  public void testReadAllCollectsErrors() throws InterruptedException {
+    PropertyReader reader = new PropertyReader(client, 2);
+    ThingDescription td = createTD("lamp");
+
+    PropertyRead unknown = new PropertyRead(td, "color");
+    List<PropertyRead> reads = new ArrayList<>();
+    reads.add(new PropertyRead(td, "status"));
+    reads.add(unknown);
+
+    PropertyReadResult result = reader.readAll(reads);
+
+    assertTrue(result.hasErrors());
+    assertEquals(1, result.getResponses().size());
+    assertFalse(result.getResponse(1).isPresent());
+    assertTrue(result.getErrors().get(unknown) instanceof IllegalArgumentException);
+  }
+
+  @Test(timeout = 10000)
+  public void testReadFailsOnUnreachableThing() throws InterruptedException {
+    server.stop(0);
+    PropertyReader reader = new PropertyReader(client, 2);
+
+    try {
+      reader.read(createTD("lamp"), "status").get();
+      fail("Expected ExecutionException");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IOException);
+    }
+
+    assertEquals(0, reader.getInFlightCount());
+  }
+
+  @Test(timeout = 10000)
+  public void testReadAllAgainstOpenCircuit() throws Exception {
+    CircuitBreakerRegistry circuitBreakers = new CircuitBreakerRegistry.Builder()
+      .setFailureThreshold(1)
+      .setOpenDuration(Duration.ofMinutes(1))
+      .build();
+    CircuitBreaker circuitBreaker = circuitBreakers.getCircuitBreaker(createTD("127.0.0.1",
+      "lamp").getPropertyByName("status").get().getForms().get(0));
+    circuitBreaker.acquire();
+    circuitBreaker.onFailure();
+    assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+    try (TDHttpClient guardedClient = new TDHttpClient.Builder()
+        .setCircuitBreakerRegistry(circuitBreakers)
+        .build()) {
+      PropertyReader reader = new PropertyReader(guardedClient, 1);
+
+      /* The reads of the open circuit are queued behind the first one, and then each fails
+      synchronously as soon as it is sent */
+      List<PropertyRead> reads = new ArrayList<>();
+      reads.add(new PropertyRead(createTD("lamp"), "status"));
+      for (int i = 0; i < 2000; i++) {
+        reads.add(new PropertyRead(createTD("127.0.0.1", "lamp" + i), "status"));
+      }
+
+      PropertyReadResult result = reader.readAll(reads);
+      assertTrue(result.getResponse(0).isPresent());
+      assertEquals(2000, result.getErrors().size());
+      assertTrue(result.getErrors().values().stream()
+        .allMatch(e -> e instanceof CircuitBreakerOpenException));
+      assertEquals(0, reader.getInFlightCount());
+    }
+
+    assertEquals(1, requests.get());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidMaxInFlight() {
+    new PropertyReader(client, 0);
+  }
+
+  private ThingDescription createTD(String name) {
+    return createTD("localhost", name);
+  }
+
+  private ThingDescription createTD(String host, String name) {
+    Form form = new Form.Builder("http://" + host + ":" + server.getAddress().getPort() + "/"
+      + name + "/status")
+      .addOperationType(TD.readProperty)
+      .build();
+
+    return new ThingDescription.Builder(name)
+      .addProperty(new PropertyAffordance.Builder("status", form).build())
+      .build();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    requests.incrementAndGet();
+    maxActiveRequests.accumulateAndGet(activeRequests.incrementAndGet(), Math::max);
+
+    try {
+      Thread.sleep(100);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    byte[] body = ("\"" + exchange.getRequestURI().getPath() + "\"")
+      .getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    activeRequests.decrementAndGet();
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+}
@@ -0,0 +1,179 @@
+package ch.unisg.ics.interactions.wot.td.clients;
+
+import ch.unisg.ics.interactions.wot.td.affordances.Form;
+import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
+import org.eclipse.californium.core.CoapResource;
+import org.eclipse.californium.core.CoapServer;
+import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.eclipse.californium.core.coap.MediaTypeRegistry;
+import org.eclipse.californium.core.network.CoapEndpoint;
+import org.eclipse.californium.core.network.config.NetworkConfig;
+import org.eclipse.californium.core.server.resources.CoapExchange;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class TDCoapClientTest {
+  private CoapServer server;
+  private Form form;
+  private Form errorForm;
+  private Set<Integer> clientPorts;
+
+  @Before
+  public void init() {
+    clientPorts = ConcurrentHashMap.newKeySet();
+
+    server = new CoapServer(NetworkConfig.createStandardWithoutFile());
+    server.addEndpoint(new CoapEndpoint.Builder()
+      .setNetworkConfig(NetworkConfig.createStandardWithoutFile())
+      .setInetSocketAddress(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+      .build());
+    server.add(new CoapResource("status") {
+      @Override
+      public void handleGET(CoapExchange exchange) {
+        clientPorts.add(exchange.getSourcePort());
+        exchange.respond(ResponseCode.CONTENT, "true", MediaTypeRegistry.APPLICATION_JSON);
+      }
+    });
+    server.add(new CoapResource("error") {
+      @Override
+      public void handleGET(CoapExchange exchange) {
+        exchange.respond(ResponseCode.SERVICE_UNAVAILABLE);
+      }
+    });
+    server.start();
+
+    int port = server.getEndpoints().get(0).getAddress().getPort();
+    form = new Form.Builder("coap://127.0.0.1:" + port + "/status")
+      .setMethodName("GET")
+      .addOperationType(TD.readProperty)
+      .build();
+    errorForm = new Form.Builder("coap://127.0.0.1:" + port + "/error")
+      .setMethodName("GET")
+      .addOperationType(TD.readProperty)
+      .build();
+  }
+
+  @After
+  public void tearDown() {
+    server.destroy();
+  }
+
+  @Test(timeout = 10000)
+  public void testEndpointIsReused() throws IOException {
+    try (TDCoapClient client = new TDCoapClient.Builder().setThreads(2).build()) {
+      for (int i = 0; i < 10; i++) {
+        TDCoapResponse response = new TDCoapRequest(form, TD.readProperty).execute(client);
+        assertEquals("CONTENT", response.getResponseCodeName());
+        assertTrue(response.getPayloadAsBoolean());
+      }
+
+      assertTrue(client.isStarted());
+      assertEquals(1, clientPorts.size());
+      assertEquals(client.getAddress().getPort(), clientPorts.iterator().next().intValue());
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testExecuteAsync() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(5);
+
+    try (TDCoapClient client = new TDCoapClient.Builder().build()) {
+      for (int i = 0; i < 5; i++) {
+        new TDCoapRequest(form, TD.readProperty).execute(client, new TDCoapHandler() {
+          @Override
+          public void handleLoad(TDCoapResponse response) {
+            if (response.getPayloadAsBoolean()) {
+              latch.countDown();
+            }
+          }
+
+          @Override
+          public void handleError() {
+          }
+        });
+      }
+
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+      assertEquals(1, clientPorts.size());
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testClose() throws IOException {
+    TDCoapClient client = new TDCoapClient.Builder().build();
+    new TDCoapRequest(form, TD.readProperty).execute(client);
+
+    client.close();
+    assertFalse(client.isStarted());
+  }
+
+  @Test(timeout = 10000)
+  public void testCircuitBreakerFailsFast() throws IOException {
+    CircuitBreakerRegistry registry = new CircuitBreakerRegistry.Builder()
+      .setFailureThreshold(2)
+      .build();
+
+    try (TDCoapClient client = new TDCoapClient.Builder().setCircuitBreakerRegistry(registry)
+        .build()) {
+      assertTrue(new TDCoapRequest(form, TD.readProperty).execute(client).getPayloadAsBoolean());
+
+      for (int i = 0; i < 2; i++) {
+        assertEquals("SERVICE_UNAVAILABLE", new TDCoapRequest(errorForm, TD.readProperty)
+          .execute(client).getResponseCodeName());
+      }
+
+      try {
+        new TDCoapRequest(form, TD.readProperty).execute(client);
+        fail("Expected CircuitBreakerOpenException");
+      } catch (CircuitBreakerOpenException e) {
+        assertEquals(1, registry.getCircuitBreakers().size());
+        assertEquals(CircuitBreaker.State.OPEN, registry.getCircuitBreaker(form).getState());
+      }
+    }
+  }
+
+  @Test
+  public void testDefaultClient() {
+    assertSame(TDCoapClient.getDefault(), TDCoapClient.getDefault());
+  }
+
+  @Test(timeout = 10000)
+  public void testDefaultClientUsesDaemonThreads() throws Exception {
+    CountDownLatch latch = new CountDownLatch(1);
+    AtomicBoolean daemon = new AtomicBoolean();
+
+    new TDCoapRequest(form, TD.readProperty).execute(new TDCoapHandler() {
+      @Override
+      public void handleLoad(TDCoapResponse response) {
+        daemon.set(Thread.currentThread().isDaemon());
+        latch.countDown();
+      }
+
+      @Override
+      public void handleError() {
+      }
+    });
+
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    assertTrue(daemon.get());
+    assertTrue(TDCoapClient.getDefault().getScheduler()
+      .schedule(() -> Thread.currentThread().isDaemon(), 0, TimeUnit.MILLISECONDS).get());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidThreads() {
+    new TDCoapClient.Builder().setThreads(0);
+  }
+}
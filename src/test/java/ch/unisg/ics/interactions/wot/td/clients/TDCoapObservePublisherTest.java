@@ -0,0 +1,291 @@
+package ch.unisg.ics.interactions.wot.td.clients;
+
+import ch.unisg.ics.interactions.wot.td.affordances.Form;
+import ch.unisg.ics.interactions.wot.td.clients.ObserveOptions.OverflowStrategy;
+import ch.unisg.ics.interactions.wot.td.vocabularies.COV;
+import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
+import org.eclipse.californium.core.CoapResource;
+import org.eclipse.californium.core.CoapServer;
+import org.eclipse.californium.core.coap.CoAP;
+import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.eclipse.californium.core.coap.MediaTypeRegistry;
+import org.eclipse.californium.core.network.CoapEndpoint;
+import org.eclipse.californium.core.network.config.NetworkConfig;
+import org.eclipse.californium.core.server.resources.CoapExchange;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+public class TDCoapObservePublisherTest {
+  private CoapServer server;
+  private CounterResource resource;
+  private TDCoapClient client;
+  private Form form;
+
+  @Before
+  public void init() {
+    server = new CoapServer(NetworkConfig.createStandardWithoutFile());
+    server.addEndpoint(new CoapEndpoint.Builder()
+      .setNetworkConfig(NetworkConfig.createStandardWithoutFile())
+      .setInetSocketAddress(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+      .build());
+    resource = new CounterResource();
+    server.add(resource);
+    server.start();
+
+    client = new TDCoapClient.Builder().setThreads(2).build();
+
+    int port = server.getEndpoints().get(0).getAddress().getPort();
+    form = new Form.Builder("coap://127.0.0.1:" + port + "/counter")
+      .setMethodName("GET")
+      .addOperationType(TD.observeProperty)
+      .addSubProtocol(COV.observe)
+      .build();
+  }
+
+  @After
+  public void tearDown() {
+    client.close();
+    server.destroy();
+  }
+
+  @Test(timeout = 10000)
+  public void testNotificationsAreDelivered() throws InterruptedException {
+    TestSubscriber subscriber = new TestSubscriber(Long.MAX_VALUE);
+    new TDCoapRequest(form, TD.observeProperty).observe(client).subscribe(subscriber);
+
+    assertEquals(0, subscriber.next().getPayloadAsInteger().intValue());
+    resource.increment();
+    assertEquals(1, subscriber.next().getPayloadAsInteger().intValue());
+    resource.increment();
+    assertEquals(2, subscriber.next().getPayloadAsInteger().intValue());
+  }
+
+  @Test(timeout = 10000)
+  public void testLatestOnly() throws InterruptedException {
+    ObserveOptions options = new ObserveOptions.Builder()
+      .setOverflowStrategy(OverflowStrategy.LATEST_ONLY)
+      .build();
+    TDCoapObservePublisher publisher = new TDCoapRequest(form, TD.observeProperty)
+      .observe(client, options);
+
+    TestSubscriber subscriber = new TestSubscriber(1);
+    publisher.subscribe(subscriber);
+    assertEquals(0, subscriber.next().getPayloadAsInteger().intValue());
+
+    for (int i = 0; i < 10; i++) {
+      resource.incrementAndWait();
+    }
+    /* Without demand, only the latest notification is kept */
+    await(() -> publisher.getDroppedCount() == 9);
+    assertTrue(subscriber.items.isEmpty());
+
+    subscriber.subscription.request(1);
+    assertEquals(10, subscriber.next().getPayloadAsInteger().intValue());
+  }
+
+  @Test(timeout = 10000)
+  public void testDropOldest() throws InterruptedException {
+    ObserveOptions options = new ObserveOptions.Builder()
+      .setOverflowStrategy(OverflowStrategy.DROP_OLDEST)
+      .setBufferSize(3)
+      .build();
+    TDCoapObservePublisher publisher = new TDCoapRequest(form, TD.observeProperty)
+      .observe(client, options);
+
+    /* Receiving the first response ensures no notification overtakes it */
+    TestSubscriber subscriber = new TestSubscriber(1);
+    publisher.subscribe(subscriber);
+    assertEquals(0, subscriber.next().getPayloadAsInteger().intValue());
+
+    for (int i = 0; i < 5; i++) {
+      resource.incrementAndWait();
+    }
+    await(() -> publisher.getDroppedCount() == 2);
+
+    subscriber.subscription.request(Long.MAX_VALUE);
+    assertEquals(3, subscriber.next().getPayloadAsInteger().intValue());
+    assertEquals(4, subscriber.next().getPayloadAsInteger().intValue());
+    assertEquals(5, subscriber.next().getPayloadAsInteger().intValue());
+  }
+
+  @Test(timeout = 10000)
+  public void testBufferOverflow() throws InterruptedException {
+    ObserveOptions options = new ObserveOptions.Builder()
+      .setOverflowStrategy(OverflowStrategy.BUFFER)
+      .setBufferSize(2)
+      .build();
+
+    TestSubscriber subscriber = new TestSubscriber(1);
+    new TDCoapRequest(form, TD.observeProperty).observe(client, options).subscribe(subscriber);
+    subscriber.next();
+
+    resource.incrementAndWait();
+    resource.incrementAndWait();
+    resource.increment();
+
+    assertTrue(subscriber.terminated.await(5, TimeUnit.SECONDS));
+    assertTrue(subscriber.error instanceof IllegalStateException);
+    await(() -> resource.getObserverCount() == 0);
+  }
+
+  @Test(timeout = 10000)
+  public void testCancel() throws InterruptedException {
+    TestSubscriber subscriber = new TestSubscriber(Long.MAX_VALUE);
+    new TDCoapRequest(form, TD.observeProperty).observe(client).subscribe(subscriber);
+    subscriber.next();
+
+    subscriber.subscription.cancel();
+    await(() -> resource.getObserverCount() == 0);
+    assertEquals(1, subscriber.terminated.getCount());
+  }
+
+  @Test(timeout = 10000)
+  public void testCompletesWhenServerEndsRelation() throws InterruptedException {
+    TestSubscriber subscriber = new TestSubscriber(Long.MAX_VALUE);
+    new TDCoapRequest(form, TD.observeProperty).observe(client).subscribe(subscriber);
+    subscriber.next();
+
+    resource.clearAndNotifyObserveRelations(ResponseCode.NOT_FOUND);
+
+    assertEquals("NOT_FOUND", subscriber.next().getResponseCodeName());
+    assertTrue(subscriber.terminated.await(5, TimeUnit.SECONDS));
+    assertNull(subscriber.error);
+  }
+
+  @Test(timeout = 10000)
+  public void testStaleRelationIsReregistered() throws InterruptedException {
+    resource.maxAge = 1;
+    ObserveOptions options = new ObserveOptions.Builder()
+      .setReregistrationBackoff(Duration.ofMillis(100))
+      .build();
+    TDCoapObservePublisher publisher = new TDCoapRequest(form, TD.observeProperty)
+      .observe(client, options);
+
+    TestSubscriber subscriber = new TestSubscriber(Long.MAX_VALUE);
+    publisher.subscribe(subscriber);
+    subscriber.next();
+
+    await(() -> publisher.getReregistrationCount() >= 1 && resource.requests.get() >= 2);
+    assertEquals(0, subscriber.next().getPayloadAsInteger().intValue());
+    assertEquals(1, resource.getObserverCount());
+  }
+
+  @Test(timeout = 10000)
+  public void testInvalidRequest() throws InterruptedException {
+    TestSubscriber subscriber = new TestSubscriber(0);
+    new TDCoapRequest(form, TD.observeProperty).observe(client).subscribe(subscriber);
+
+    subscriber.subscription.request(0);
+    assertTrue(subscriber.terminated.await(5, TimeUnit.SECONDS));
+    assertTrue(subscriber.error instanceof IllegalArgumentException);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testObserveWithoutObserveForm() {
+    Form readForm = new Form.Builder(form.getTarget())
+      .setMethodName("GET")
+      .addOperationType(TD.readProperty)
+      .build();
+    new TDCoapRequest(readForm, TD.readProperty).observe(client);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBufferSize() {
+    new ObserveOptions.Builder().setBufferSize(0);
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    while (!condition.getAsBoolean()) {
+      Thread.sleep(10);
+    }
+  }
+
+  private static class CounterResource extends CoapResource {
+    private final AtomicInteger value = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger responses = new AtomicInteger();
+    private volatile long maxAge = 60;
+
+    CounterResource() {
+      super("counter");
+      setObservable(true);
+      setObserveType(CoAP.Type.NON);
+    }
+
+    void increment() {
+      value.incrementAndGet();
+      changed();
+    }
+
+    /* Sending notifications one at a time keeps them from being reordered */
+    void incrementAndWait() throws InterruptedException {
+      int sent = responses.get();
+      increment();
+      await(() -> responses.get() > sent);
+      Thread.sleep(10);
+    }
+
+    @Override
+    public void handleGET(CoapExchange exchange) {
+      if (exchange.getRequestOptions().hasObserve()) {
+        requests.incrementAndGet();
+      }
+      exchange.setMaxAge(maxAge);
+      exchange.respond(ResponseCode.CONTENT, String.valueOf(value.get()),
+        MediaTypeRegistry.APPLICATION_JSON);
+      responses.incrementAndGet();
+    }
+  }
+
+  private static class TestSubscriber implements Flow.Subscriber<TDCoapResponse> {
+    private final long initialDemand;
+    private final BlockingQueue<TDCoapResponse> items = new LinkedBlockingQueue<>();
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private volatile Flow.Subscription subscription;
+    private volatile Throwable error;
+
+    TestSubscriber(long initialDemand) {
+      this.initialDemand = initialDemand;
+    }
+
+    TDCoapResponse next() throws InterruptedException {
+      TDCoapResponse item = items.poll(5, TimeUnit.SECONDS);
+      assertNotNull("No notification received", item);
+      return item;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      if (initialDemand > 0) {
+        subscription.request(initialDemand);
+      }
+    }
+
+    @Override
+    public void onNext(TDCoapResponse item) {
+      items.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+      terminated.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+      terminated.countDown();
+    }
+  }
+}
@@ -34,11 +34,20 @@ public class TDCoapRequestTest {
     .addRequiredProperties("last_name")
     .build();
 
+  record User(@SemanticType(PREFIX + "FirstName") String firstName,
+              @SemanticType(PREFIX + "LastName") String lastName) { }
+
   private static final Form FORM = new Form.Builder("coap://example.org/toggle")
     .setMethodName("PUT")
     .addOperationType(TD.invokeAction)
     .build();
 
+  /* Validation tests do not need host name resolution */
+  private static final Form LOCAL_FORM = new Form.Builder("coap://127.0.0.1/toggle")
+    .setMethodName("PUT")
+    .addOperationType(TD.invokeAction)
+    .build();
+
   private static final String FORKLIFT_ROBOT_TD = "@prefix td: <https://www.w3.org/2019/wot/td#> .\n" +
     "@prefix cov: <http://www.example.org/coap-binding#> .\n" +
     "@prefix hctl: <https://www.w3.org/2019/wot/hypermedia#> .\n" +
@@ -411,7 +420,82 @@ public class TDCoapRequestTest {
 
   @Test
   public void testValidateArrayPayload() {
-    // TODO
+    ArraySchema payloadSchema = new ArraySchema.Builder()
+      .addItem(new NumberSchema.Builder().build())
+      .addMaxItems(2)
+      .build();
+
+    Exception ex = assertThrows(IllegalArgumentException.class, () -> {
+      new TDCoapRequest(LOCAL_FORM, TD.invokeAction)
+        .setArrayPayload(payloadSchema, Arrays.asList(1, "3", 5));
+    });
+
+    assertTrue(ex.getMessage().contains("$: expected at most 2 items but was 3"));
+    assertTrue(ex.getMessage().contains("$[1]: expected a number but was 3"));
+  }
+
+  @Test
+  public void testNumericArrayPayload() throws IOException {
+    ArraySchema payloadSchema = new ArraySchema.Builder()
+      .addItem(new NumberSchema.Builder().addMinimum(0.0).build())
+      .build();
+
+    TDCoapRequest request = new TDCoapRequest(LOCAL_FORM, TD.invokeAction)
+      .setArrayPayload(payloadSchema, new double[] { 1.5, 3.0 });
+    assertEquals("[1.5,3.0]", request.getPayloadAsString());
+
+    request.setArrayPayload(payloadSchema, new long[] { 1, 3, 5 });
+    assertEquals("[1,3,5]", request.getPayloadAsString());
+  }
+
+  @Test
+  public void testValidateNumericArrayPayload() {
+    ArraySchema payloadSchema = new ArraySchema.Builder()
+      .addItem(new NumberSchema.Builder().addMinimum(0.0).build())
+      .build();
+
+    Exception ex = assertThrows(IllegalArgumentException.class, () -> {
+      new TDCoapRequest(LOCAL_FORM, TD.invokeAction)
+        .setArrayPayload(payloadSchema, new double[] { 1.5, -3.0 });
+    });
+
+    assertTrue(ex.getMessage().contains("$[1]: -3.0 is less than the minimum 0.0"));
+  }
+
+  @Test
+  public void testRecordPayload() throws IOException {
+    ObjectBinding<User> binding = ObjectBinding.compile(USER_SCHEMA, User.class);
+
+    TDCoapRequest request = new TDCoapRequest(LOCAL_FORM, TD.invokeAction)
+      .setObjectPayload(binding, new User("Andrei", "Ciortea"));
+
+    assertEquals("{\"first_name\":\"Andrei\",\"last_name\":\"Ciortea\"}",
+      request.getPayloadAsString());
+  }
+
+  @Test
+  public void testValidateRecordPayload() {
+    ObjectBinding<User> binding = ObjectBinding.compile(USER_SCHEMA, User.class);
+
+    Exception ex = assertThrows(IllegalArgumentException.class, () -> {
+      new TDCoapRequest(LOCAL_FORM, TD.invokeAction)
+        .setObjectPayload(binding, new User("Andrei", null));
+    });
+
+    assertTrue(ex.getMessage().contains("$: missing required property last_name"));
+  }
+
+  @Test
+  public void testValidateObjectPayload() {
+    Map<String, Object> payload = new HashMap<>();
+    payload.put(PREFIX + "FirstName", "Andrei");
+
+    Exception ex = assertThrows(IllegalArgumentException.class, () -> {
+      new TDCoapRequest(LOCAL_FORM, TD.invokeAction)
+        .setObjectPayload(USER_SCHEMA, payload);
+    });
+
+    assertTrue(ex.getMessage().contains("$: missing required property last_name"));
   }
 
   @Test
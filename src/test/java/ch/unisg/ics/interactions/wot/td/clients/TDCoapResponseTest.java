@@ -1,6 +1,7 @@
 package ch.unisg.ics.interactions.wot.td.clients;
 
 import ch.unisg.ics.interactions.wot.td.schemas.*;
+import com.google.gson.Gson;
 import org.eclipse.californium.core.coap.Option;
 import org.eclipse.californium.core.coap.OptionNumberRegistry;
 import org.eclipse.californium.core.coap.OptionSet;
@@ -10,6 +11,7 @@ import org.junit.Test;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.eclipse.californium.core.coap.CoAP.ResponseCode;
 import static org.junit.Assert.*;
@@ -39,6 +41,24 @@ public class TDCoapResponseTest {
     assertFalse(testResponse.getPayloadAsBoolean());
   }
 
+  @Test
+  public void testPayloadWithCustomCodec() {
+    Response response = new Response(ResponseCode.VALID);
+    response.setPayload("\"test\"");
+
+    AtomicInteger decoded = new AtomicInteger();
+    PayloadCodec codec = new GsonPayloadCodec(new Gson()) {
+      @Override
+      public <T> T decode(String payload, Class<T> type) {
+        decoded.incrementAndGet();
+        return super.decode(payload, type);
+      }
+    };
+
+    assertEquals("test", new TDCoapResponse(response, codec).getPayloadAsString());
+    assertEquals(1, decoded.get());
+  }
+
   @Test
   public void testStringPayload() {
     Response response = new Response(ResponseCode.VALID);
@@ -211,6 +231,63 @@ public class TDCoapResponseTest {
     assertEquals("Ciortea", user.get(prefix + "LastName"));
   }
 
+  @Test
+  public void testNumericArrayPayload() {
+
+    ArraySchema schema = new ArraySchema.Builder()
+      .addItem(new NumberSchema.Builder().build())
+      .build();
+
+    Response response = new Response(ResponseCode.VALID);
+    response.setPayload("[1, 2.5, -3]");
+
+    TDCoapResponse testResponse = new TDCoapResponse(response);
+    assertArrayEquals(new double[] { 1, 2.5, -3 }, testResponse.getPayloadAsDoubleArray(schema),
+      0.0);
+
+    response.setPayload("[1, 2, -3]");
+    testResponse = new TDCoapResponse(response);
+    assertArrayEquals(new long[] { 1, 2, -3 }, testResponse.getPayloadAsLongArray(schema));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNumericArrayMaxItemsPayload() {
+
+    ArraySchema schema = new ArraySchema.Builder()
+      .addItem(new IntegerSchema.Builder().build())
+      .addMaxItems(2)
+      .build();
+
+    Response response = new Response(ResponseCode.VALID);
+    response.setPayload("[1, 2, 3]");
+
+    new TDCoapResponse(response).getPayloadAsLongArray(schema);
+  }
+
+  @Test
+  public void testRecordPayload() {
+    ObjectBinding<TDCoapRequestTest.User> binding =
+      ObjectBinding.compile(TDCoapRequestTest.USER_SCHEMA, TDCoapRequestTest.User.class);
+    Response coapResponse = new Response(ResponseCode.VALID);
+    coapResponse.setPayload(USER_PAYLOAD);
+    TDCoapResponse response = new TDCoapResponse(coapResponse);
+
+    TDCoapRequestTest.User user = response.getPayloadAsObject(binding);
+    assertEquals("Andrei", user.firstName());
+    assertEquals("Ciortea", user.lastName());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRecordPayloadMissingRequired() {
+    ObjectBinding<TDCoapRequestTest.User> binding =
+      ObjectBinding.compile(TDCoapRequestTest.USER_SCHEMA, TDCoapRequestTest.User.class);
+    Response coapResponse = new Response(ResponseCode.VALID);
+    coapResponse.setPayload("{\"first_name\": \"Andrei\"}");
+    TDCoapResponse response = new TDCoapResponse(coapResponse);
+
+    response.getPayloadAsObject(binding);
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testArrayMinItemsPayload() {
 
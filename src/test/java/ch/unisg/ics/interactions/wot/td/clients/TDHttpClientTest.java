@@ -0,0 +1,379 @@
+package ch.unisg.ics.interactions.wot.td.clients;
+
+import ch.unisg.ics.interactions.wot.td.affordances.Form;
+import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.function.Supplier;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.nio.AsyncPushConsumer;
+import org.apache.hc.core5.http.nio.AsyncRequestProducer;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.HandlerFactory;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorStatus;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TDHttpClientTest {
+  private HttpServer server;
+  private Form form;
+  private Set<Integer> clientPorts;
+  private AtomicInteger activeRequests;
+  private AtomicInteger maxActiveRequests;
+
+  @Before
+  public void init() throws IOException {
+    clientPorts = ConcurrentHashMap.newKeySet();
+    activeRequests = new AtomicInteger();
+    maxActiveRequests = new AtomicInteger();
+
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.createContext("/status", this::handle);
+    server.start();
+
+    form = new Form.Builder("http://localhost:" + server.getAddress().getPort() + "/status")
+      .addOperationType(TD.readProperty)
+      .build();
+  }
+
+  @After
+  public void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  public void testExecute() throws IOException {
+    try (TDHttpClient client = new TDHttpClient.Builder().build()) {
+      TDHttpResponse response = new TDHttpRequest(form, TD.readProperty).execute(client);
+
+      assertEquals(200, response.getStatusCode());
+      assertTrue(response.getPayloadAsBoolean());
+    }
+  }
+
+  @Test
+  public void testExecuteWithDefaultClient() throws IOException {
+    TDHttpResponse response = new TDHttpRequest(form, TD.readProperty).execute();
+
+    assertEquals(200, response.getStatusCode());
+    assertSame(TDHttpClient.getDefault(), TDHttpClient.getDefault());
+  }
+
+  @Test
+  public void testConnectionsAreReused() throws IOException {
+    try (TDHttpClient client = new TDHttpClient.Builder().build()) {
+      for (int i = 0; i < 10; i++) {
+        assertEquals(200, new TDHttpRequest(form, TD.readProperty).execute(client).getStatusCode());
+      }
+
+      assertEquals(1, clientPorts.size());
+      assertEquals(0, client.getPoolStats().getLeased());
+      assertEquals(1, client.getPoolStats().getAvailable());
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testMaxConnectionsPerRoute() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    try (TDHttpClient client = new TDHttpClient.Builder().setMaxConnectionsPerRoute(2).build()) {
+      List<Future<TDHttpResponse>> responses = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        responses.add(executor.submit(() -> new TDHttpRequest(form, TD.readProperty)
+          .execute(client)));
+      }
+
+      for (Future<TDHttpResponse> response : responses) {
+        assertEquals(200, response.get().getStatusCode());
+      }
+
+      assertTrue(maxActiveRequests.get() <= 2);
+      assertTrue(clientPorts.size() <= 2);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testExecuteStreaming() throws IOException {
+    try (TDHttpClient client = new TDHttpClient.Builder().build()) {
+      try (TDHttpResponse response = new TDHttpRequest(form, TD.readProperty)
+          .executeStreaming(client)) {
+        assertTrue(response.isStreaming());
+        assertEquals(1, client.getPoolStats().getLeased());
+
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        ReadableByteChannel channel = response.getPayloadAsChannel();
+        while (channel.read(buffer) >= 0) {
+          /* read the payload */
+        }
+        assertEquals("true", new String(buffer.array(), 0, buffer.position(),
+          response.getCharset()));
+      }
+
+      assertEquals(0, client.getPoolStats().getLeased());
+    }
+  }
+
+  @Test
+  public void testCloseStreamingResponseReleasesConnection() throws IOException {
+    try (TDHttpClient client = new TDHttpClient.Builder().build()) {
+      new TDHttpRequest(form, TD.readProperty).executeStreaming(client).close();
+      assertEquals(0, client.getPoolStats().getLeased());
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testExecuteAsync() throws Exception {
+    try (TDHttpClient client = new TDHttpClient.Builder().build()) {
+      TDHttpResponse response = client.executeAsync(new TDHttpRequest(form, TD.readProperty)).get();
+
+      assertEquals(200, response.getStatusCode());
+      assertTrue(response.getPayloadAsBoolean());
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testExecuteAsyncWithVirtualThreads() throws Exception {
+    ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    try (TDHttpClient client = new TDHttpClient.Builder().build()) {
+      List<CompletableFuture<Boolean>> responses = new ArrayList<>();
+      for (int i = 0; i < 50; i++) {
+        responses.add(new TDHttpRequest(form, TD.readProperty).executeAsync(client, executor)
+          .thenApply(response -> Thread.currentThread().isVirtual()
+            && response.getPayloadAsBoolean()));
+      }
+
+      for (CompletableFuture<Boolean> response : responses) {
+        assertTrue(response.get());
+      }
+
+      assertTrue(maxActiveRequests.get() > 1);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testExecuteAsyncFails() throws Exception {
+    Form unreachable = new Form.Builder("http://localhost:" + server.getAddress().getPort()
+      + "/status").addOperationType(TD.readProperty).build();
+    server.stop(0);
+
+    try (TDHttpClient client = new TDHttpClient.Builder().build()) {
+      new TDHttpRequest(unreachable, TD.readProperty).executeAsync(client, Runnable::run).get();
+      fail("Expected ExecutionException");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IOException);
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testExecuteAsyncAfterClose() throws Exception {
+    TDHttpClient client = new TDHttpClient.Builder().build();
+    client.close();
+
+    CompletableFuture<TDHttpResponse> response =
+      new TDHttpRequest(form, TD.readProperty).executeAsync(client, Runnable::run);
+    assertTrue(response.isCompletedExceptionally());
+  }
+
+  @Test(timeout = 10000)
+  public void testCircuitBreakerFailsFast() throws IOException {
+    server.createContext("/error", exchange -> {
+      clientPorts.add(exchange.getRemoteAddress().getPort());
+      exchange.sendResponseHeaders(503, -1);
+      exchange.close();
+    });
+    Form errorForm = new Form.Builder("http://localhost:" + server.getAddress().getPort()
+      + "/error").addOperationType(TD.readProperty).build();
+
+    CircuitBreakerRegistry registry = new CircuitBreakerRegistry.Builder()
+      .setFailureThreshold(2)
+      .build();
+
+    try (TDHttpClient client = new TDHttpClient.Builder().setCircuitBreakerRegistry(registry)
+        .build()) {
+      for (int i = 0; i < 2; i++) {
+        assertEquals(503, new TDHttpRequest(errorForm, TD.readProperty).execute(client)
+          .getStatusCode());
+      }
+
+      try {
+        new TDHttpRequest(errorForm, TD.readProperty).execute(client);
+        fail("Expected CircuitBreakerOpenException");
+      } catch (CircuitBreakerOpenException e) {
+        assertEquals("localhost:" + server.getAddress().getPort(), e.getHost());
+      }
+
+      try {
+        new TDHttpRequest(errorForm, TD.readProperty).executeAsync(client, Runnable::run).get();
+        fail("Expected ExecutionException");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof CircuitBreakerOpenException);
+      }
+
+      CircuitBreaker circuitBreaker = registry.getCircuitBreaker(errorForm);
+      assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+      assertEquals(2, circuitBreaker.getFailureCount());
+      assertEquals(2, circuitBreaker.getRejectedCount());
+    } catch (InterruptedException e) {
+      fail(e.getMessage());
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testCircuitBreakerRecordsLatency() throws Exception {
+    CircuitBreakerRegistry registry = new CircuitBreakerRegistry.Builder().build();
+
+    try (TDHttpClient client = new TDHttpClient.Builder().setCircuitBreakerRegistry(registry)
+        .build()) {
+      new TDHttpRequest(form, TD.readProperty).execute(client);
+      client.executeAsync(new TDHttpRequest(form, TD.readProperty)).get();
+
+      CircuitBreaker circuitBreaker = registry.getCircuitBreaker(form);
+      assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+      assertEquals(2, circuitBreaker.getSuccessCount());
+      assertEquals(2, circuitBreaker.getLatency().getCount());
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testCircuitBreakerReleasedOnError() throws Exception {
+    CircuitBreakerRegistry registry = new CircuitBreakerRegistry.Builder()
+      .setFailureThreshold(1)
+      .setOpenDuration(Duration.ZERO)
+      .build();
+    CircuitBreaker circuitBreaker = registry.getCircuitBreaker(form);
+    circuitBreaker.acquire();
+    circuitBreaker.onFailure();
+
+    try (TDHttpClient client = new TDHttpClient(null, new FailingClient(), FailingAsyncClient::new,
+        RequestConfig.DEFAULT, Optional.of(registry))) {
+      for (int i = 0; i < 2; i++) {
+        /* Each request is the trial request of the half-open circuit */
+        assertThrows(AssertionError.class, () ->
+          new TDHttpRequest(form, TD.readProperty).execute(client));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        assertThrows(AssertionError.class, () ->
+          new TDHttpRequest(form, TD.readProperty).executeAsync(client, Runnable::run));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+      }
+
+      assertEquals(0, circuitBreaker.getRejectedCount());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidMaxConnections() {
+    new TDHttpClient.Builder().setMaxConnections(0);
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    clientPorts.add(exchange.getRemoteAddress().getPort());
+    maxActiveRequests.accumulateAndGet(activeRequests.incrementAndGet(), Math::max);
+
+    try {
+      Thread.sleep(20);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    byte[] body = "true".getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    activeRequests.decrementAndGet();
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  /* Clients that fail with an error before a request is sent */
+  private static class FailingClient extends CloseableHttpClient {
+
+    @Override
+    protected CloseableHttpResponse doExecute(HttpHost target, ClassicHttpRequest request,
+        HttpContext context) {
+      throw new AssertionError("Failing client");
+    }
+
+    @Override
+    public void close(CloseMode closeMode) {
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  private static class FailingAsyncClient extends CloseableHttpAsyncClient {
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public IOReactorStatus getStatus() {
+      return IOReactorStatus.ACTIVE;
+    }
+
+    @Override
+    public void awaitShutdown(TimeValue waitTime) {
+    }
+
+    @Override
+    public void initiateShutdown() {
+    }
+
+    @Override
+    protected <T> Future<T> doExecute(HttpHost target, AsyncRequestProducer requestProducer,
+        AsyncResponseConsumer<T> responseConsumer,
+        HandlerFactory<AsyncPushConsumer> pushHandlerFactory, HttpContext context,
+        FutureCallback<T> callback) {
+      throw new AssertionError("Failing client");
+    }
+
+    @Override
+    public void register(String hostname, String uriPattern,
+        Supplier<AsyncPushConsumer> supplier) {
+    }
+
+    @Override
+    public void close(CloseMode closeMode) {
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
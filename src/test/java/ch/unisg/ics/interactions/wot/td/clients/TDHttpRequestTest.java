@@ -40,6 +40,9 @@ public class TDHttpRequestTest {
     .addRequiredProperties("last_name")
     .build();
 
+  record User(@SemanticType(PREFIX + "FirstName") String firstName,
+              @SemanticType(PREFIX + "LastName") String lastName) { }
+
   private static final Form FORM = new Form.Builder(PREFIX + "toggle")
     .setMethodName("PUT")
     .addOperationType(TD.invokeAction)
@@ -191,6 +194,31 @@ public class TDHttpRequestTest {
     assertUserSchemaPayload(request);
   }
 
+  @Test
+  public void testObjectPayloadWithCustomCodec() throws IOException,
+    org.apache.hc.core5.http.ParseException {
+    Map<String, Object> payloadVariables = new HashMap<>();
+    payloadVariables.put(PREFIX + "FirstName", "Andrei");
+    payloadVariables.put(PREFIX + "LastName", null);
+
+    ObjectSchema schema = new ObjectSchema.Builder()
+      .addProperty("first_name", new StringSchema.Builder()
+        .addSemanticType(PREFIX + "FirstName")
+        .build())
+      .addProperty("last_name", new StringSchema.Builder()
+        .addSemanticType(PREFIX + "LastName")
+        .build())
+      .build();
+
+    TDHttpRequest request = new TDHttpRequest(FORM, TD.invokeAction)
+      .setPayloadCodec(new GsonPayloadCodec(new GsonBuilder().serializeNulls().create()))
+      .setObjectPayload(schema, payloadVariables);
+
+    JsonObject payload = JsonParser.parseString(request.getPayloadAsString()).getAsJsonObject();
+    assertTrue(payload.has("last_name"));
+    assertTrue(payload.get("last_name").isJsonNull());
+  }
+
   @Test
   public void testSimpleSemanticObjectPayload() throws ProtocolException, URISyntaxException,
     JsonSyntaxException, ParseException, IOException {
@@ -347,7 +375,84 @@ public class TDHttpRequestTest {
 
   @Test
   public void testValidateArrayPayload() {
-    // TODO
+    ArraySchema payloadSchema = new ArraySchema.Builder()
+      .addItem(new NumberSchema.Builder().build())
+      .addMaxItems(2)
+      .build();
+
+    Exception ex = assertThrows(IllegalArgumentException.class, () -> {
+      new TDHttpRequest(FORM, TD.invokeAction)
+        .setArrayPayload(payloadSchema, Arrays.asList(1, "3", 5));
+    });
+
+    assertTrue(ex.getMessage().contains("$: expected at most 2 items but was 3"));
+    assertTrue(ex.getMessage().contains("$[1]: expected a number but was 3"));
+  }
+
+  @Test
+  public void testNumericArrayPayload() throws IOException,
+    org.apache.hc.core5.http.ParseException {
+    ArraySchema payloadSchema = new ArraySchema.Builder()
+      .addItem(new NumberSchema.Builder().addMinimum(0.0).build())
+      .build();
+
+    TDHttpRequest request = new TDHttpRequest(FORM, TD.invokeAction)
+      .setArrayPayload(payloadSchema, new double[] { 1.5, 3.0 });
+    assertEquals("[1.5,3.0]", request.getPayloadAsString());
+
+    request.setArrayPayload(payloadSchema, new long[] { 1, 3, 5 });
+    assertEquals("[1,3,5]", request.getPayloadAsString());
+  }
+
+  @Test
+  public void testValidateNumericArrayPayload() {
+    ArraySchema payloadSchema = new ArraySchema.Builder()
+      .addItem(new NumberSchema.Builder().addMinimum(0.0).build())
+      .build();
+
+    Exception ex = assertThrows(IllegalArgumentException.class, () -> {
+      new TDHttpRequest(FORM, TD.invokeAction)
+        .setArrayPayload(payloadSchema, new double[] { 1.5, -3.0 });
+    });
+
+    assertTrue(ex.getMessage().contains("$[1]: -3.0 is less than the minimum 0.0"));
+  }
+
+  @Test
+  public void testRecordPayload() throws IOException,
+    org.apache.hc.core5.http.ParseException {
+    ObjectBinding<User> binding = ObjectBinding.compile(USER_SCHEMA, User.class);
+
+    TDHttpRequest request = new TDHttpRequest(FORM, TD.invokeAction)
+      .setObjectPayload(binding, new User("Andrei", "Ciortea"));
+
+    assertEquals("{\"first_name\":\"Andrei\",\"last_name\":\"Ciortea\"}",
+      request.getPayloadAsString());
+  }
+
+  @Test
+  public void testValidateRecordPayload() {
+    ObjectBinding<User> binding = ObjectBinding.compile(USER_SCHEMA, User.class);
+
+    Exception ex = assertThrows(IllegalArgumentException.class, () -> {
+      new TDHttpRequest(FORM, TD.invokeAction)
+        .setObjectPayload(binding, new User("Andrei", null));
+    });
+
+    assertTrue(ex.getMessage().contains("$: missing required property last_name"));
+  }
+
+  @Test
+  public void testValidateObjectPayload() {
+    Map<String, Object> payload = new HashMap<>();
+    payload.put(PREFIX + "FirstName", "Andrei");
+
+    Exception ex = assertThrows(IllegalArgumentException.class, () -> {
+      new TDHttpRequest(FORM, TD.invokeAction)
+        .setObjectPayload(USER_SCHEMA, payload);
+    });
+
+    assertTrue(ex.getMessage().contains("$: missing required property last_name"));
   }
 
   @Test
@@ -1,24 +1,33 @@
 package ch.unisg.ics.interactions.wot.td.clients;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
 import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
 import org.junit.Test;
 
+import com.google.gson.stream.JsonReader;
+
 import ch.unisg.ics.interactions.wot.td.schemas.ArraySchema;
 import ch.unisg.ics.interactions.wot.td.schemas.BooleanSchema;
 import ch.unisg.ics.interactions.wot.td.schemas.IntegerSchema;
 import ch.unisg.ics.interactions.wot.td.schemas.NullSchema;
 import ch.unisg.ics.interactions.wot.td.schemas.NumberSchema;
+import ch.unisg.ics.interactions.wot.td.schemas.ObjectBinding;
 import ch.unisg.ics.interactions.wot.td.schemas.ObjectSchema;
 import ch.unisg.ics.interactions.wot.td.schemas.StringSchema;
 
@@ -156,6 +165,52 @@ public class TDHttpResponseTest {
     assertEquals("Ciortea", user.get(prefix + "LastName"));
   }
 
+  @Test
+  public void testNumericArrayPayload() {
+    ArraySchema schema = new ArraySchema.Builder()
+        .addItem(new NumberSchema.Builder().build())
+        .build();
+
+    TDHttpResponse response = new TDHttpResponse(constructHttpResponse("[1, 2.5, -3]"));
+    assertArrayEquals(new double[] { 1, 2.5, -3 }, response.getPayloadAsDoubleArray(schema), 0.0);
+
+    response = new TDHttpResponse(constructHttpResponse("[1, 2, -3]"));
+    assertArrayEquals(new long[] { 1, 2, -3 }, response.getPayloadAsLongArray(schema));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNumericArrayMaxItemsPayload() {
+    ClassicHttpResponse response = constructHttpResponse("[1, 2, 3]");
+
+    ArraySchema schema = new ArraySchema.Builder()
+        .addItem(new IntegerSchema.Builder().build())
+        .addMaxItems(2)
+        .build();
+
+    new TDHttpResponse(response).getPayloadAsLongArray(schema);
+  }
+
+  @Test
+  public void testRecordPayload() {
+    ObjectBinding<TDHttpRequestTest.User> binding =
+      ObjectBinding.compile(TDHttpRequestTest.USER_SCHEMA, TDHttpRequestTest.User.class);
+    TDHttpResponse response = new TDHttpResponse(constructHttpResponse(USER_PAYLOAD));
+
+    TDHttpRequestTest.User user = response.getPayloadAsObject(binding);
+    assertEquals("Andrei", user.firstName());
+    assertEquals("Ciortea", user.lastName());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRecordPayloadMissingRequired() {
+    ObjectBinding<TDHttpRequestTest.User> binding =
+      ObjectBinding.compile(TDHttpRequestTest.USER_SCHEMA, TDHttpRequestTest.User.class);
+    TDHttpResponse response = new TDHttpResponse(
+        constructHttpResponse("{\"first_name\": \"Andrei\"}"));
+
+    response.getPayloadAsObject(binding);
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testArrayMinItemsPayload() {
     ClassicHttpResponse response = constructHttpResponse("[1, 2]");
@@ -190,6 +245,74 @@ public class TDHttpResponseTest {
 
   }
 
+  @Test
+  public void testPayloadCharset() {
+    ClassicHttpResponse response = new BasicClassicHttpResponse(HttpStatus.SC_OK);
+    response.setEntity(new StringEntity("\"caf\u00e9\"", ContentType.create("application/json",
+        StandardCharsets.ISO_8859_1)));
+
+    TDHttpResponse tdHttpResponse = new TDHttpResponse(response);
+    assertEquals(StandardCharsets.ISO_8859_1, tdHttpResponse.getCharset());
+    assertEquals("caf\u00e9", tdHttpResponse.getPayloadAsString());
+  }
+
+  @Test
+  public void testDefaultPayloadCharset() {
+    ClassicHttpResponse response = new BasicClassicHttpResponse(HttpStatus.SC_OK);
+    response.setEntity(new ByteArrayEntity("\"caf\u00e9\"".getBytes(StandardCharsets.UTF_8),
+        ContentType.parse("application/json")));
+
+    assertEquals("caf\u00e9", new TDHttpResponse(response).getPayloadAsString());
+  }
+
+  @Test
+  public void testPayloadAsStream() throws IOException {
+    ClassicHttpResponse response = constructHttpResponse(USER_PAYLOAD);
+    TDHttpResponse tdHttpResponse = new TDHttpResponse(response);
+
+    assertFalse(tdHttpResponse.isStreaming());
+    assertEquals(USER_PAYLOAD, IOUtils.toString(tdHttpResponse.getPayloadAsStream(),
+        tdHttpResponse.getCharset()));
+    assertEquals(USER_PAYLOAD, IOUtils.toString(tdHttpResponse.getPayloadAsStream(),
+        tdHttpResponse.getCharset()));
+  }
+
+  @Test
+  public void testNoPayloadAsStream() throws IOException {
+    ClassicHttpResponse response = new BasicClassicHttpResponse(HttpStatus.SC_OK);
+    assertEquals(-1, new TDHttpResponse(response).getPayloadAsStream().read());
+  }
+
+  @Test
+  public void testPayloadAsJsonReader() throws IOException {
+    ClassicHttpResponse response = constructHttpResponse(USER_PAYLOAD);
+
+    try (JsonReader reader = new TDHttpResponse(response).getPayloadAsJsonReader()) {
+      reader.beginObject();
+      assertEquals("first_name", reader.nextName());
+      assertEquals("Andrei", reader.nextString());
+    }
+  }
+
+  @Test
+  public void testStreamingPayloadWithSchema() {
+    ClassicHttpResponse response = constructHttpResponse(USER_PAYLOAD);
+    TDHttpResponse tdHttpResponse = TDHttpResponse.stream(response, PayloadCodec.getDefault());
+
+    Map<String, Object> payload = tdHttpResponse.getPayloadAsObject(TDHttpRequestTest.USER_SCHEMA);
+    assertEquals("Andrei", payload.get(PREFIX + "FirstName"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testStreamingPayloadIsReadOnce() throws IOException {
+    ClassicHttpResponse response = constructHttpResponse(USER_PAYLOAD);
+    TDHttpResponse tdHttpResponse = TDHttpResponse.stream(response, PayloadCodec.getDefault());
+
+    assertTrue(tdHttpResponse.isStreaming());
+    assertEquals(USER_PAYLOAD, tdHttpResponse.getPayload().get());
+    tdHttpResponse.getPayloadAsStream();
+  }
+
   private ClassicHttpResponse constructHttpResponse(Object payload) {
     ClassicHttpResponse response = new BasicClassicHttpResponse(HttpStatus.SC_OK);
     response.setEntity(new StringEntity(String.valueOf(payload)));
@@ -0,0 +1,97 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.ThingDescription.TDFormat;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+public class BraceEscapingReaderTest {
+
+  private static final String TEMPLATE = "http://example.org/{id}/things{?p,q}";
+  private static final String ESCAPED_TEMPLATE = "http://example.org/%7Bid%7D/things%7B?p,q%7D";
+
+  @Test
+  public void testEscapeBraces() throws IOException {
+    try (Reader reader = new BraceEscapingReader(new StringReader(TEMPLATE))) {
+      assertEquals(ESCAPED_TEMPLATE, IOUtils.toString(reader));
+    }
+
+    assertEquals(ESCAPED_TEMPLATE, ReadWriteUtils.escapeBraces(TEMPLATE));
+  }
+
+  @Test
+  public void testNoBraces() throws IOException {
+    String target = "http://example.org/things";
+
+    try (Reader reader = new BraceEscapingReader(new StringReader(target))) {
+      assertEquals(target, IOUtils.toString(reader));
+    }
+
+    assertSame(target, ReadWriteUtils.escapeBraces(target));
+  }
+
+  @Test
+  public void testReadSingleCharacters() throws IOException {
+    StringBuilder builder = new StringBuilder();
+
+    try (Reader reader = new BraceEscapingReader(new StringReader("{}a"))) {
+      char[] cbuf = new char[1];
+      while (reader.read(cbuf, 0, 1) != -1) {
+        builder.append(cbuf[0]);
+      }
+    }
+
+    assertEquals("%7B%7Da", builder.toString());
+  }
+
+  @Test(timeout = 5000)
+  public void testEscapeLargeDocument() throws IOException {
+    String document = generateTD(5 * 1024 * 1024);
+    char[] cbuf = new char[8192];
+    long length = 0;
+
+    try (Reader reader = new BraceEscapingReader(new StringReader(document))) {
+      int n;
+      while ((n = reader.read(cbuf, 0, cbuf.length)) != -1) {
+        length += n;
+      }
+    }
+
+    // Each URI template in the generated TD has two pairs of braces
+    long templates = document.chars().filter(c -> c == '{').count() / 2;
+    assertEquals(document.length() + templates * 8, length);
+  }
+
+  @Test(timeout = 30000)
+  public void testReadLargeTD() {
+    ThingDescription td = TDGraphReader.readFromString(TDFormat.RDF_TURTLE, generateTD(1024 * 1024));
+
+    assertTrue(td.getProperties().size() > 5000);
+    assertEquals("http://example.org/properties/%7Bid%7D%7B?p,q%7D",
+      td.getPropertyByName("p0").get().getForms().get(0).getTarget());
+  }
+
+  private String generateTD(int minLength) {
+    StringBuilder builder = new StringBuilder(
+      "@prefix td: <https://www.w3.org/2019/wot/td#> .\n" +
+      "@prefix hctl: <https://www.w3.org/2019/wot/hypermedia#> .\n" +
+      "@prefix wotsec: <https://www.w3.org/2019/wot/security#> .\n" +
+      "<http://example.org/#thing> a td:Thing ;\n" +
+      "    td:title \"My Thing\" ;\n" +
+      "    td:hasSecurityConfiguration [ a wotsec:NoSecurityScheme ] ");
+
+    for (int i = 0; builder.length() < minLength; i++) {
+      builder.append(";\n    td:hasPropertyAffordance [ a td:PropertyAffordance ; td:name \"p")
+        .append(i)
+        .append("\" ; td:hasForm [ hctl:hasTarget <http://example.org/properties/{id}{?p,q}> ] ] ");
+    }
+
+    return builder.append(".\n").toString();
+  }
+}
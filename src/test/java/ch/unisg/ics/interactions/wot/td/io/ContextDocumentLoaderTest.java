@@ -0,0 +1,178 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.ThingDescription.TDFormat;
+import ch.unisg.ics.interactions.wot.td.affordances.Form;
+import ch.unisg.ics.interactions.wot.td.affordances.PropertyAffordance;
+import ch.unisg.ics.interactions.wot.td.schemas.DataSchema;
+import ch.unisg.ics.interactions.wot.td.security.BasicSecurityScheme;
+import ch.unisg.ics.interactions.wot.td.security.SecurityScheme;
+import ch.unisg.ics.interactions.wot.td.security.TokenBasedSecurityScheme.TokenLocation;
+import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
+import jakarta.json.Json;
+import no.hasmac.jsonld.JsonLdError;
+import no.hasmac.jsonld.document.Document;
+import no.hasmac.jsonld.document.JsonDocument;
+import no.hasmac.jsonld.loader.DocumentLoader;
+import no.hasmac.jsonld.loader.DocumentLoaderOptions;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ContextDocumentLoaderTest {
+  private static final String TEST_TD_JSONLD =
+    "{\n" +
+      "  \"@context\": \"" + ContextDocumentLoader.TD_1_1_CONTEXT + "\",\n" +
+      "  \"id\": \"http://example.org/#thing\",\n" +
+      "  \"@type\": \"Thing\",\n" +
+      "  \"title\": \"My Thing\",\n" +
+      "  \"security\": {\"scheme\": \"basic\", \"in\": \"header\", \"name\": \"Authorization\"},\n" +
+      "  \"properties\": {\n" +
+      "    \"status\": {\n" +
+      "      \"type\": \"string\",\n" +
+      "      \"forms\": [{\"href\": \"http://example.org/status\", \"op\": \"readproperty\"}]\n" +
+      "    }\n" +
+      "  }\n" +
+      "}";
+
+  private AtomicInteger remoteLoads;
+  private ContextDocumentLoader loader;
+
+  @Before
+  public void init() {
+    remoteLoads = new AtomicInteger();
+    loader = new ContextDocumentLoader(2, new CountingLoader());
+  }
+
+  @Test
+  public void testBundledContextsAreServedOffline() throws JsonLdError {
+    assertNotNull(loader.loadDocument(URI.create(ContextDocumentLoader.TD_CONTEXT),
+      new DocumentLoaderOptions()));
+    assertNotNull(loader.loadDocument(URI.create(ContextDocumentLoader.TD_1_1_CONTEXT),
+      new DocumentLoaderOptions()));
+    assertNotNull(loader.loadDocument(URI.create("http://www.w3.org/2019/wot/td/v1"),
+      new DocumentLoaderOptions()));
+    assertNotNull(loader.loadDocument(URI.create("http://www.w3.org/2022/wot/td/v1.1"),
+      new DocumentLoaderOptions()));
+
+    assertEquals(0, remoteLoads.get());
+  }
+
+  @Test
+  public void testRemoteFetchingIsDisabledByDefault() {
+    assertFalse(loader.isRemoteFetchingEnabled());
+
+    try {
+      loader.loadDocument(URI.create("https://example.org/context"), new DocumentLoaderOptions());
+      fail("Expected JsonLdError");
+    } catch (JsonLdError e) {
+      assertEquals(0, remoteLoads.get());
+    }
+  }
+
+  @Test
+  public void testRemoteContextsAreCached() throws JsonLdError {
+    loader.setRemoteFetchingEnabled(true);
+
+    Document first = loader.loadDocument(URI.create("https://example.org/a"),
+      new DocumentLoaderOptions());
+    assertSame(first, loader.loadDocument(URI.create("https://example.org/a"),
+      new DocumentLoaderOptions()));
+
+    assertEquals(1, remoteLoads.get());
+    assertEquals(1, loader.getCachedContextCount());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedRemoteContextIsEvicted() throws JsonLdError {
+    loader.setRemoteFetchingEnabled(true);
+
+    loader.loadDocument(URI.create("https://example.org/a"), new DocumentLoaderOptions());
+    loader.loadDocument(URI.create("https://example.org/b"), new DocumentLoaderOptions());
+    loader.loadDocument(URI.create("https://example.org/a"), new DocumentLoaderOptions());
+    loader.loadDocument(URI.create("https://example.org/c"), new DocumentLoaderOptions());
+    assertEquals(3, remoteLoads.get());
+    assertEquals(2, loader.getCachedContextCount());
+
+    loader.loadDocument(URI.create("https://example.org/a"), new DocumentLoaderOptions());
+    assertEquals(3, remoteLoads.get());
+
+    loader.loadDocument(URI.create("https://example.org/b"), new DocumentLoaderOptions());
+    assertEquals(4, remoteLoads.get());
+  }
+
+  @Test
+  public void testAddContext() throws JsonLdError {
+    loader.addContext("https://example.org/context", "{\"@context\": {\"ex\": \"https://example.org#\"}}");
+
+    assertNotNull(loader.loadDocument(URI.create("https://example.org/context"),
+      new DocumentLoaderOptions()));
+    assertEquals(0, remoteLoads.get());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddInvalidContext() {
+    loader.addContext("https://example.org/context", "{\"@context\": ");
+  }
+
+  @Test
+  public void testReadTDWithBundledContext() {
+    ThingDescription td = TDGraphReader.readFromString(TDFormat.RDF_JSONLD, TEST_TD_JSONLD);
+
+    assertEquals("My Thing", td.getTitle());
+    assertEquals(Optional.of("http://example.org/#thing"), td.getThingURI());
+    assertTrue(td.getSemanticTypes().contains(TD.Thing));
+
+    SecurityScheme scheme = td.getSecuritySchemes().iterator().next();
+    assertTrue(scheme instanceof BasicSecurityScheme);
+    assertEquals(TokenLocation.HEADER, ((BasicSecurityScheme) scheme).getTokenLocation());
+    assertEquals(Optional.of("Authorization"), ((BasicSecurityScheme) scheme).getTokenName());
+
+    PropertyAffordance status = td.getPropertyByName("status").get();
+    assertEquals(DataSchema.STRING, status.getDataSchema().getDatatype());
+
+    Form form = status.getForms().get(0);
+    assertEquals("http://example.org/status", form.getTarget());
+    assertTrue(form.hasOperationType(TD.readProperty));
+  }
+
+  @Test
+  public void testReadTDWithBaseURI() {
+    ThingDescription td = TDGraphReader.readFromString(TDFormat.RDF_JSONLD,
+      TEST_TD_JSONLD.replace("\"title\": \"My Thing\",", "\"title\": \"My Thing\", "
+        + "\"base\": \"http://example.org/\",")
+        .replace("http://example.org/status", "status"));
+
+    assertEquals(Optional.of("http://example.org/"), td.getBaseURI());
+    assertEquals("http://example.org/status",
+      td.getPropertyByName("status").get().getForms().get(0).getTarget());
+  }
+
+  @Test
+  public void testReadTDWithSecurityDefinitions() {
+    ThingDescription td = TDGraphReader.readFromString(TDFormat.RDF_JSONLD,
+      TEST_TD_JSONLD.replace("\"security\": {\"scheme\": \"basic\", \"in\": \"header\", "
+          + "\"name\": \"Authorization\"},",
+        "\"securityDefinitions\": {\"basic_sc\": {\"scheme\": \"basic\", \"in\": \"header\"}},\n"
+          + "  \"security\": \"basic_sc\","));
+
+    assertEquals("My Thing", td.getTitle());
+    SecurityScheme scheme = td.getSecuritySchemes().iterator().next();
+    assertTrue(scheme instanceof BasicSecurityScheme);
+    assertEquals(TokenLocation.HEADER, ((BasicSecurityScheme) scheme).getTokenLocation());
+  }
+
+  private class CountingLoader implements DocumentLoader {
+    @Override
+    public Document loadDocument(URI url, DocumentLoaderOptions options) {
+      remoteLoads.incrementAndGet();
+      return JsonDocument.of(Json.createObjectBuilder().add("@context", Json.createObjectBuilder())
+        .build());
+    }
+  }
+}
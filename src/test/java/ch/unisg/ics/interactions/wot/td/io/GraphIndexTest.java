@@ -0,0 +1,57 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.util.ModelBuilder;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GraphIndexTest {
+  private static final ValueFactory rdf = SimpleValueFactory.getInstance();
+  private static final IRI THING = rdf.createIRI("http://example.org/#thing");
+  private static final IRI OTHER = rdf.createIRI("http://example.org/#other");
+
+  private GraphIndex graph;
+
+  @Before
+  public void init() {
+    Model model = new ModelBuilder()
+      .add(THING, RDF.TYPE, rdf.createIRI(TD.Thing))
+      .add(THING, RDF.TYPE, "Lamp")
+      .add(THING, rdf.createIRI(TD.title), "My Thing")
+      .add(OTHER, rdf.createIRI(TD.title), "Other Thing")
+      .build();
+
+    graph = new GraphIndex(model);
+  }
+
+  @Test
+  public void testObjectsBySubjectAndPredicate() {
+    assertEquals(1, graph.objects(THING, TD.title).size());
+    assertEquals("My Thing", graph.objectString(THING, TD.title).get());
+    assertEquals("Other Thing", graph.objectLiteral(OTHER, TD.title).get().stringValue());
+  }
+
+  @Test
+  public void testObjectsFilteredByValueType() {
+    assertEquals(2, graph.objectStrings(THING, RDF.TYPE.stringValue()).size());
+    assertEquals(1, graph.types(THING).size());
+    assertEquals(1, graph.objectLiterals(THING, RDF.TYPE.stringValue()).size());
+    assertTrue(graph.hasType(THING, TD.Thing));
+    assertFalse(graph.hasType(OTHER, TD.Thing));
+  }
+
+  @Test
+  public void testMissingObjects() {
+    assertTrue(graph.objects(OTHER, TD.hasBase).isEmpty());
+    assertTrue(graph.objects(rdf.createBNode(), TD.title).isEmpty());
+    assertFalse(graph.objectIRI(THING, TD.title).isPresent());
+    assertFalse(graph.objectResource(THING, TD.hasForm).isPresent());
+  }
+}
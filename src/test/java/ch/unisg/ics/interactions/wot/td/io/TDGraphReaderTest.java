@@ -16,20 +16,35 @@ import ch.unisg.ics.interactions.wot.td.vocabularies.COV;
 import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
 import ch.unisg.ics.interactions.wot.td.vocabularies.WoTSec;
 import org.eclipse.rdf4j.rio.RDFFormat;
+import org.junit.Rule;
 import org.junit.Test;
-
-import java.io.IOException;
-import java.io.PrintWriter;
-import java.io.StringWriter;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 
 public class TDGraphReaderTest {
 
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
   private static final String PREFIXES =
     "@prefix td: <https://www.w3.org/2019/wot/td#> .\n" +
       "@prefix htv: <http://www.w3.org/2011/http#> .\n" +
@@ -275,6 +290,198 @@ public class TDGraphReaderTest {
     assertEquals("http://example.org/", reader.readBaseURI().get());
   }
 
+  @Test
+  public void testReadRelativeTargetResolvedAgainstBaseURI() {
+    String testTD = PREFIXES +
+      "\n" +
+      "<http://example.org/#thing> a td:Thing ;\n" +
+      "    td:title \"My Thing\" ;\n" +
+      "    td:hasSecurityConfiguration [ a wotsec:NoSecurityScheme ] ;\n" +
+      "    td:hasBase <http://example.org/things/> ;\n" +
+      "    td:hasPropertyAffordance [\n" +
+      "        a td:PropertyAffordance ;\n" +
+      "        td:name \"my_property\" ;\n" +
+      "        td:hasForm [\n" +
+      "            hctl:hasTarget <property> ;\n" +
+      "        ] ;\n" +
+      "    ] .";
+
+    ThingDescription td = TDGraphReader.readFromString(TDFormat.RDF_TURTLE, testTD);
+
+    assertEquals("http://example.org/things/", td.getBaseURI().get());
+    assertEquals("http://example.org/things/property",
+      td.getPropertyByName("my_property").get().getForms().get(0).getTarget());
+  }
+
+  @Test
+  public void testReadFromStream() throws IOException {
+    InputStream in = new ByteArrayInputStream(TEST_SIMPLE_TD.getBytes(StandardCharsets.UTF_8));
+
+    ThingDescription td = TDGraphReader.readFromStream(TDFormat.RDF_TURTLE, in);
+
+    assertEquals("My Thing", td.getTitle());
+    assertEquals("http://example.org/", td.getBaseURI().get());
+    assertEquals(1, td.getProperties().size());
+  }
+
+  @Test
+  public void testReadFromReader() throws IOException {
+    ThingDescription td = TDGraphReader.readFromReader(TDFormat.RDF_TURTLE,
+      new StringReader(TEST_SIMPLE_TD));
+
+    assertEquals("My Thing", td.getTitle());
+    assertEquals(1, td.getActions().size());
+
+    TDGraphReader reader = new TDGraphReader(RDFFormat.JSONLD,
+      new StringReader(TEST_SIMPLE_TD_JSONLD));
+
+    assertEquals("My Thing", reader.readThingTitle());
+    assertEquals("http://example.org/", reader.readBaseURI().get());
+  }
+
+  @Test
+  public void testReadFromBuffer() {
+    ByteBuffer buffer = ByteBuffer.wrap(TEST_SIMPLE_TD.getBytes(StandardCharsets.UTF_8));
+
+    ThingDescription td = TDGraphReader.readFromBuffer(TDFormat.RDF_TURTLE, buffer);
+
+    assertEquals("My Thing", td.getTitle());
+    assertEquals(0, buffer.position());
+  }
+
+  @Test
+  public void testReadFromPath() throws IOException {
+    Path path = folder.newFile("td.ttl").toPath();
+    Files.write(path, TEST_SIMPLE_TD.getBytes(StandardCharsets.UTF_8));
+
+    ThingDescription td = TDGraphReader.readFromPath(TDFormat.RDF_TURTLE, path);
+
+    assertEquals("My Thing", td.getTitle());
+    assertEquals(1, td.getProperties().size());
+  }
+
+  @Test
+  public void testReadFromLargePath() throws IOException {
+    // Files larger than 1 MB are memory-mapped
+    StringBuilder comments = new StringBuilder();
+    while (comments.length() < 1024 * 1024) {
+      comments.append("# Comment that makes the TD larger than the memory mapping threshold\n");
+    }
+
+    Path path = folder.newFile("large-td.ttl").toPath();
+    Files.write(path, (comments + TEST_SIMPLE_TD).getBytes(StandardCharsets.UTF_8));
+
+    ThingDescription td = TDGraphReader.readFromPath(TDFormat.RDF_TURTLE, path);
+
+    assertEquals("My Thing", td.getTitle());
+    assertEquals(1, td.getProperties().size());
+  }
+
+  @Test
+  public void testReadAll() throws IOException, InterruptedException {
+    List<Path> paths = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      Path path = folder.newFile("td" + i + ".ttl").toPath();
+      Files.write(path, TEST_SIMPLE_TD.replace("My Thing", "My Thing " + i)
+        .getBytes(StandardCharsets.UTF_8));
+      paths.add(path);
+    }
+
+    BatchReadResult result = TDGraphReader.readAll(TDFormat.RDF_TURTLE, paths.stream());
+
+    assertEquals(10, result.size());
+    assertFalse(result.hasErrors());
+    assertTrue(result.getThroughput() > 0);
+
+    List<ThingDescription> tds = result.getThingDescriptions();
+    for (int i = 0; i < 10; i++) {
+      assertEquals("My Thing " + i, tds.get(i).getTitle());
+    }
+  }
+
+  @Test
+  public void testReadAllCollectsErrors() throws IOException, InterruptedException {
+    Path valid = folder.newFile("valid.ttl").toPath();
+    Files.write(valid, TEST_SIMPLE_TD.getBytes(StandardCharsets.UTF_8));
+
+    Path invalid = folder.newFile("invalid.ttl").toPath();
+    Files.write(invalid, PREFIXES.getBytes(StandardCharsets.UTF_8));
+
+    Path missing = folder.getRoot().toPath().resolve("missing.ttl");
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    BatchReadResult result;
+    try {
+      result = TDGraphReader.readAll(TDFormat.RDF_TURTLE, Stream.of(invalid, valid, missing),
+        executor);
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(3, result.size());
+    assertEquals(1, result.getThingDescriptions().size());
+    assertFalse(result.getThingDescription(0).isPresent());
+    assertEquals("My Thing", result.getThingDescription(1).get().getTitle());
+    assertFalse(result.getThingDescription(2).isPresent());
+
+    assertEquals(List.of(0, 2), new ArrayList<>(result.getErrors().keySet()));
+    assertEquals(invalid, result.getPath(0));
+    assertTrue(result.getError(0).get() instanceof InvalidTDException);
+    assertFalse(result.getError(1).isPresent());
+    assertEquals(missing, result.getPath(2));
+    assertTrue(result.getError(2).get() instanceof IOException);
+  }
+
+  @Test
+  public void testReadAllKeepsErrorsOfRepeatedInputs() throws IOException, InterruptedException {
+    Path missing = folder.getRoot().toPath().resolve("missing.ttl");
+
+    BatchReadResult result = TDGraphReader.readAll(TDFormat.RDF_TURTLE,
+      Stream.of(missing, missing));
+
+    assertEquals(List.of(0, 1), new ArrayList<>(result.getErrors().keySet()));
+    assertTrue(result.getError(0).get() instanceof IOException);
+    assertTrue(result.getError(1).get() instanceof IOException);
+  }
+
+  @Test
+  public void testReadAllCancelsSubmittedReadsOnRejection() throws IOException {
+    Path path = folder.newFile("td.ttl").toPath();
+    Files.write(path, TEST_SIMPLE_TD.getBytes(StandardCharsets.UTF_8));
+
+    /* Queues two reads without running them and rejects the third */
+    List<Runnable> submitted = new ArrayList<>();
+    Executor executor = task -> {
+      if (submitted.size() == 2) {
+        throw new RejectedExecutionException();
+      }
+      submitted.add(task);
+    };
+
+    assertThrows(RejectedExecutionException.class, () ->
+      TDGraphReader.readAll(TDFormat.RDF_TURTLE, Stream.of(path, path, path), executor));
+    assertEquals(2, submitted.size());
+    for (Runnable task : submitted) {
+      assertTrue(((Future<?>) task).isCancelled());
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testReadAllFromWorkerOfSamePool() throws Exception {
+    Path path = folder.newFile("td.ttl").toPath();
+    Files.write(path, TEST_SIMPLE_TD.getBytes(StandardCharsets.UTF_8));
+
+    /* The only worker waits for the batch, so the pool must compensate to read the files */
+    ForkJoinPool pool = new ForkJoinPool(1);
+    try {
+      BatchReadResult result = pool.submit(() ->
+        TDGraphReader.readAll(TDFormat.RDF_TURTLE, Stream.of(path, path), pool)).get();
+      assertEquals(2, result.getThingDescriptions().size());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
   //Test security schemes
   @Test
   public void testReadOneSecurityScheme() {
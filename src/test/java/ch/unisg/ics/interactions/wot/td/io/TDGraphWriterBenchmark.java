@@ -0,0 +1,88 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.ThingDescription.TDFormat;
+import ch.unisg.ics.interactions.wot.td.affordances.ActionAffordance;
+import ch.unisg.ics.interactions.wot.td.affordances.Form;
+import ch.unisg.ics.interactions.wot.td.affordances.PropertyAffordance;
+import ch.unisg.ics.interactions.wot.td.schemas.BooleanSchema;
+import ch.unisg.ics.interactions.wot.td.schemas.NumberSchema;
+import ch.unisg.ics.interactions.wot.td.schemas.ObjectSchema;
+import ch.unisg.ics.interactions.wot.td.security.SecurityScheme;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Compares the serialization throughput of {@link TDGraphWriter} for each {@link TDFormat}. Not run
+ * as part of the test suite; run the main method with the test runtime classpath, optionally
+ * passing the number of affordances and iterations as arguments.
+ */
+public class TDGraphWriterBenchmark {
+
+  public static void main(String[] args) throws IOException {
+    int affordances = (args.length > 0) ? Integer.parseInt(args[0]) : 50;
+    int iterations = (args.length > 1) ? Integer.parseInt(args[1]) : 500;
+
+    ThingDescription td = generateTD(affordances);
+
+    System.out.printf("%d affordances, %d iterations%n", affordances, iterations);
+
+    for (TDFormat format : TDFormat.values()) {
+      CountingOutputStream out = new CountingOutputStream();
+
+      // Warm-up
+      for (int i = 0; i < iterations; i++) {
+        new TDGraphWriter(td).write(format, out);
+      }
+
+      out.count = 0;
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        new TDGraphWriter(td).write(format, out);
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+
+      System.out.printf("%-14s %10.1f TDs/s %10.1f MB/s %10d bytes/TD%n", format,
+        iterations / seconds, out.count / seconds / (1024 * 1024), out.count / iterations);
+    }
+  }
+
+  private static ThingDescription generateTD(int affordances) {
+    ThingDescription.Builder builder = new ThingDescription.Builder("Benchmark Thing")
+      .addThingURI("http://example.org/thing")
+      .addSecurityScheme("nosec_sc", SecurityScheme.getNoSecurityScheme());
+
+    for (int i = 0; i < affordances; i++) {
+      builder.addProperty(new PropertyAffordance.Builder("property" + i,
+          new Form.Builder("http://example.org/properties/" + i).build())
+        .addDataSchema(new NumberSchema.Builder().addMinimum(0.0).addMaximum(100.0).build())
+        .addObserve()
+        .build());
+
+      builder.addAction(new ActionAffordance.Builder("action" + i,
+          new Form.Builder("http://example.org/actions/" + i).build())
+        .addInputSchema(new ObjectSchema.Builder()
+          .addProperty("value", new BooleanSchema.Builder().build())
+          .addRequiredProperties("value")
+          .build())
+        .build());
+    }
+
+    return builder.build();
+  }
+
+  private static class CountingOutputStream extends OutputStream {
+    private long count = 0;
+
+    @Override
+    public void write(int b) {
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      count += len;
+    }
+  }
+}
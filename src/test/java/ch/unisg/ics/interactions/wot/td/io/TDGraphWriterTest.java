@@ -9,6 +9,7 @@ import ch.unisg.ics.interactions.wot.td.schemas.*;
 import ch.unisg.ics.interactions.wot.td.security.*;
 import ch.unisg.ics.interactions.wot.td.security.TokenBasedSecurityScheme.TokenLocation;
 import ch.unisg.ics.interactions.wot.td.vocabularies.COV;
+import ch.unisg.ics.interactions.wot.td.vocabularies.JSONSchema;
 import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
 import ch.unisg.ics.interactions.wot.td.vocabularies.WoTSec;
 import org.eclipse.rdf4j.model.BNode;
@@ -25,9 +26,15 @@ import org.eclipse.rdf4j.rio.RDFHandlerException;
 import org.eclipse.rdf4j.rio.RDFParseException;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
@@ -79,6 +86,167 @@ public class TDGraphWriterTest {
     assertIsomorphicGraphs(testTD, td);
   }
 
+  @Test
+  public void testWriteToOutputStream() throws IOException {
+    ThingDescription td = new ThingDescription.Builder(THING_TITLE)
+        .addThingURI(THING_IRI)
+        .addSecurityScheme("nosec_sc", SecurityScheme.getNoSecurityScheme())
+        .addProperty(new PropertyAffordance.Builder("my_property",
+            new Form.Builder("http://example.org/{id}/property").build()).build())
+        .build();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new TDGraphWriter(td).write(out);
+
+    assertEquals(TDGraphWriter.write(td), out.toString(StandardCharsets.UTF_8.name()));
+  }
+
+  @Test
+  public void testWriteToWriter() throws IOException {
+    ThingDescription td = new ThingDescription.Builder(THING_TITLE)
+        .addThingURI(THING_IRI)
+        .addSecurityScheme("nosec_sc", SecurityScheme.getNoSecurityScheme())
+        .build();
+
+    StringWriter writer = new StringWriter();
+    new TDGraphWriter(td).write(writer);
+
+    ThingDescription readTD = TDGraphReader.readFromString(ThingDescription.TDFormat.RDF_TURTLE,
+        writer.toString());
+    assertEquals(THING_TITLE, readTD.getTitle());
+    assertEquals(THING_IRI, readTD.getThingURI().get());
+  }
+
+  @Test
+  public void testWriteGraphStatementsOnce() {
+    ValueFactory rdf = SimpleValueFactory.getInstance();
+
+    ThingDescription td = new ThingDescription.Builder(THING_TITLE)
+        .addThingURI(THING_IRI)
+        .addSecurityScheme("nosec_sc", SecurityScheme.getNoSecurityScheme())
+        .addTriple(rdf.createIRI(THING_IRI), rdf.createIRI(TD.title), rdf.createLiteral(THING_TITLE))
+        .build();
+
+    String description = TDGraphWriter.write(td);
+
+    assertEquals(description.indexOf(THING_TITLE), description.lastIndexOf(THING_TITLE));
+  }
+
+  @Test
+  public void testWriteRepeatedTypesOnce() {
+    PropertyAffordance property = new PropertyAffordance.Builder("my_property",
+            new Form.Builder("http://example.org/count").build())
+        .addDataSchema(new ObjectSchema.Builder()
+            .addSemanticType(JSONSchema.ObjectSchema)
+            .addProperty("count", new IntegerSchema.Builder().build())
+            .addRequiredProperties("count", "count")
+            .build())
+        .addSemanticType(TD.PropertyAffordance)
+        .addSemanticType("http://iotschema.org/MyProperty")
+        .addSemanticType("http://iotschema.org/MyProperty")
+        .build();
+
+    ThingDescription td = new ThingDescription.Builder(THING_TITLE)
+        .addThingURI(THING_IRI)
+        .addSemanticType(TD.Thing)
+        .addProperty(property)
+        .build();
+
+    String[] statements = TDGraphWriter.write(td, ThingDescription.TDFormat.RDF_NTRIPLES)
+        .split("\n");
+
+    assertEquals(statements.length, new HashSet<>(Arrays.asList(statements)).size());
+  }
+
+  @Test
+  public void testWriteJSONLD() {
+    ThingDescription td = getFormatTestTD();
+
+    String description = TDGraphWriter.write(td, ThingDescription.TDFormat.RDF_JSONLD);
+
+    assertTrue(description.contains("\"https://www.w3.org/2022/wot/td/v1.1\""));
+    assertTrue(description.contains("\"title\": \"My Thing\""));
+    assertTrue(description.contains("\"base\": \"" + IO_BASE_IRI + "\""));
+    assertTrue(description.contains("\"href\": \"http://example.org/property\""));
+    assertTrue(description.contains("\"observable\": true"));
+    assertTrue(description.contains("\"minimum\": 0"));
+    assertFormatRoundTrip(td, TDGraphReader.readFromString(ThingDescription.TDFormat.RDF_JSONLD,
+        description));
+  }
+
+  @Test
+  public void testWriteJSONLDKeepsUnreachableStatements() {
+    ValueFactory rdf = SimpleValueFactory.getInstance();
+
+    ThingDescription td = new ThingDescription.Builder(THING_TITLE)
+        .addThingURI(THING_IRI)
+        .addSecurityScheme("nosec_sc", SecurityScheme.getNoSecurityScheme())
+        .addTriple(rdf.createIRI("http://example.org/other"), rdf.createIRI(TD.title),
+            rdf.createLiteral("Other Thing"))
+        .build();
+
+    String description = TDGraphWriter.write(td, ThingDescription.TDFormat.RDF_JSONLD);
+
+    assertTrue(description.contains("\"" + ContextDocumentLoader.TD_1_1_CONTEXT + "\""));
+    assertTrue(description.contains("\"@graph\""));
+    assertTrue(description.contains("\"title\": \"Other Thing\""));
+    assertEquals(THING_TITLE, TDGraphReader.readFromString(ThingDescription.TDFormat.RDF_JSONLD,
+        description).getTitle());
+  }
+
+  @Test
+  public void testWriteJSONLDWithPrefixes() throws IOException {
+    ThingDescription td = new ThingDescription.Builder(THING_TITLE)
+        .addSemanticType("https://saref.etsi.org/core/LightSwitch")
+        .addSecurityScheme("nosec_sc", SecurityScheme.getNoSecurityScheme())
+        .build();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new TDGraphWriter(td)
+        .setNamespace("saref", "https://saref.etsi.org/core/")
+        .setNamespace("td", TD.PREFIX)
+        .write(ThingDescription.TDFormat.RDF_JSONLD, out);
+    String description = out.toString(StandardCharsets.UTF_8.name());
+
+    /* Only the prefixes that the TD context does not define are added to the context */
+    assertTrue(description.contains("\"saref\": \"https://saref.etsi.org/core/\""));
+    assertFalse(description.contains("\"td\":"));
+    assertTrue(description.contains("\"saref:LightSwitch\""));
+    assertTrue(description.contains("\"scheme\": \"nosec\""));
+
+    ThingDescription readTD = TDGraphReader.readFromString(ThingDescription.TDFormat.RDF_JSONLD,
+        description);
+    assertEquals(THING_TITLE, readTD.getTitle());
+    assertTrue(readTD.getSemanticTypes().contains("https://saref.etsi.org/core/LightSwitch"));
+  }
+
+  @Test
+  public void testWriteNTriples() {
+    ThingDescription td = getFormatTestTD();
+
+    String description = TDGraphWriter.write(td, ThingDescription.TDFormat.RDF_NTRIPLES);
+
+    assertTrue(description.contains("<" + THING_IRI + "> <" + TD.title + "> \"My Thing\" ."));
+    assertFormatRoundTrip(td, TDGraphReader.readFromString(ThingDescription.TDFormat.RDF_NTRIPLES,
+        description));
+  }
+
+  @Test
+  public void testWriteBinary() throws IOException {
+    ThingDescription td = getFormatTestTD();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new TDGraphWriter(td).write(ThingDescription.TDFormat.RDF_BINARY, out);
+
+    assertFormatRoundTrip(td, TDGraphReader.readFromStream(ThingDescription.TDFormat.RDF_BINARY,
+        new ByteArrayInputStream(out.toByteArray())));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWriteBinaryToString() {
+    TDGraphWriter.write(getFormatTestTD(), ThingDescription.TDFormat.RDF_BINARY);
+  }
+
   // Test APIKeySecurityScheme
   @Test
   public void testWriteAPIKeySecurityScheme() throws RDFParseException, RDFHandlerException, IOException {
@@ -1072,6 +1240,31 @@ public class TDGraphWriterTest {
     assertIsomorphicGraphs(testTD, td);
   }
 
+  private ThingDescription getFormatTestTD() {
+    return new ThingDescription.Builder(THING_TITLE)
+        .addThingURI(THING_IRI)
+        .addBaseURI(IO_BASE_IRI)
+        .addSecurityScheme("nosec_sc", SecurityScheme.getNoSecurityScheme())
+        .addProperty(new PropertyAffordance.Builder("my_property",
+            new Form.Builder("http://example.org/property").build())
+            .addDataSchema(new IntegerSchema.Builder().addMinimum(0).build())
+            .addObserve()
+            .build())
+        .build();
+  }
+
+  private void assertFormatRoundTrip(ThingDescription expected, ThingDescription actual) {
+    assertEquals(expected.getTitle(), actual.getTitle());
+    assertEquals(expected.getThingURI(), actual.getThingURI());
+    assertEquals(expected.getBaseURI(), actual.getBaseURI());
+
+    PropertyAffordance property = actual.getPropertyByName("my_property").get();
+    assertTrue(property.isObservable());
+    assertEquals("http://example.org/property", property.getForms().get(0).getTarget());
+    assertEquals(0, ((IntegerSchema) property.getDataSchema()).getMinimumAsInteger().get()
+        .intValue());
+  }
+
   private void assertIsomorphicGraphs(String expectedTD, ThingDescription td) throws RDFParseException,
     RDFHandlerException, IOException {
     Model expectedModel = ReadWriteUtils.readModelFromString(RDFFormat.TURTLE, expectedTD, IO_BASE_IRI);
@@ -0,0 +1,337 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.affordances.ActionAffordance;
+import ch.unisg.ics.interactions.wot.td.affordances.EventAffordance;
+import ch.unisg.ics.interactions.wot.td.affordances.Form;
+import ch.unisg.ics.interactions.wot.td.affordances.PropertyAffordance;
+import ch.unisg.ics.interactions.wot.td.schemas.ArraySchema;
+import ch.unisg.ics.interactions.wot.td.schemas.DataSchema;
+import ch.unisg.ics.interactions.wot.td.schemas.IntegerSchema;
+import ch.unisg.ics.interactions.wot.td.schemas.NumberSchema;
+import ch.unisg.ics.interactions.wot.td.schemas.ObjectSchema;
+import ch.unisg.ics.interactions.wot.td.security.APIKeySecurityScheme;
+import ch.unisg.ics.interactions.wot.td.security.SecurityScheme;
+import ch.unisg.ics.interactions.wot.td.security.TokenBasedSecurityScheme.TokenLocation;
+import ch.unisg.ics.interactions.wot.td.vocabularies.JSONSchema;
+import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
+import ch.unisg.ics.interactions.wot.td.vocabularies.WoTSec;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.XSD;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+
+public class TDJsonReaderTest {
+  private static final String TEST_TD =
+    "{\n" +
+      "  \"@context\": [\"https://www.w3.org/2019/wot/td/v1\", {\"saref\": \"https://saref.etsi.org/core/\"}],\n" +
+      "  \"id\": \"http://example.org/#thing\",\n" +
+      "  \"@type\": [\"Thing\", \"saref:LightSwitch\"],\n" +
+      "  \"title\": \"My Thing\",\n" +
+      "  \"base\": \"http://example.org/\",\n" +
+      "  \"links\": [{\"href\": \"http://example.org/other\", \"rel\": \"next\"}],\n" +
+      "  \"securityDefinitions\": {\n" +
+      "    \"nosec_sc\": {\"scheme\": \"nosec\"},\n" +
+      "    \"apikey_sc\": {\"scheme\": \"apikey\", \"in\": \"header\", \"name\": \"X-API-Key\"}\n" +
+      "  },\n" +
+      "  \"security\": \"apikey_sc\",\n" +
+      "  \"properties\": {\n" +
+      "    \"brightness\": {\n" +
+      "      \"@type\": \"saref:LightingDevice\",\n" +
+      "      \"title\": \"Brightness\",\n" +
+      "      \"type\": \"integer\",\n" +
+      "      \"minimum\": 0,\n" +
+      "      \"maximum\": 100,\n" +
+      "      \"observable\": true,\n" +
+      "      \"forms\": [{\"href\": \"properties/brightness\", \"op\": [\"readproperty\", \"observeproperty\"]}]\n" +
+      "    },\n" +
+      "    \"status\": {\n" +
+      "      \"forms\": [{\"href\": \"coap://example.org/status\", \"cov:methodName\": \"GET\", " +
+      "\"contentType\": \"text/plain\"}]\n" +
+      "    }\n" +
+      "  },\n" +
+      "  \"actions\": {\n" +
+      "    \"fade\": {\n" +
+      "      \"@type\": \"saref:ToggleCommand\",\n" +
+      "      \"uriVariables\": {\"duration\": {\"type\": \"number\", \"minimum\": 0.5}},\n" +
+      "      \"input\": {\n" +
+      "        \"type\": \"object\",\n" +
+      "        \"properties\": {\n" +
+      "          \"target\": {\"type\": \"integer\"},\n" +
+      "          \"colors\": {\"type\": \"array\", \"items\": {\"type\": \"string\"}, \"minItems\": 1}\n" +
+      "        },\n" +
+      "        \"required\": [\"target\"]\n" +
+      "      },\n" +
+      "      \"output\": {\"type\": \"boolean\"},\n" +
+      "      \"forms\": [{\"href\": \"actions/fade{?duration}\", \"htv:methodName\": \"PUT\"}]\n" +
+      "    }\n" +
+      "  },\n" +
+      "  \"events\": {\n" +
+      "    \"overheating\": {\n" +
+      "      \"data\": {\"type\": \"string\", \"enum\": [\"warning\", \"critical\"]},\n" +
+      "      \"forms\": [{\"href\": \"events/overheating\", \"subprotocol\": \"longpoll\"}]\n" +
+      "    }\n" +
+      "  }\n" +
+      "}";
+
+  @Test
+  public void testReadThingMetadata() {
+    ThingDescription td = TDJsonReader.readFromString(TEST_TD);
+
+    assertEquals("My Thing", td.getTitle());
+    assertEquals(Optional.of("http://example.org/#thing"), td.getThingURI());
+    assertEquals(Optional.of("http://example.org/"), td.getBaseURI());
+    assertEquals(2, td.getSemanticTypes().size());
+    assertTrue(td.getSemanticTypes().contains(TD.Thing));
+    assertTrue(td.getSemanticTypes().contains("https://saref.etsi.org/core/LightSwitch"));
+  }
+
+  @Test
+  public void testReadSecurityDefinitions() {
+    ThingDescription td = TDJsonReader.readFromString(TEST_TD);
+
+    assertEquals(2, td.getSecurityDefinitions().size());
+    assertTrue(td.getSecuritySchemeByDefinition("nosec_sc").get().getSemanticTypes()
+      .contains(WoTSec.NoSecurityScheme));
+
+    SecurityScheme scheme = td.getSecuritySchemeByDefinition("apikey_sc").get();
+    assertTrue(scheme instanceof APIKeySecurityScheme);
+    assertEquals(TokenLocation.HEADER, ((APIKeySecurityScheme) scheme).getTokenLocation());
+    assertEquals(Optional.of("X-API-Key"), ((APIKeySecurityScheme) scheme).getTokenName());
+
+    assertEquals(1, td.getSecuritySchemes().size());
+    assertTrue(td.getSecuritySchemes().contains(scheme));
+  }
+
+  @Test
+  public void testReadProperties() {
+    ThingDescription td = TDJsonReader.readFromString(TEST_TD);
+    assertEquals(2, td.getProperties().size());
+
+    PropertyAffordance brightness = td.getPropertyByName("brightness").get();
+    assertEquals(Optional.of("Brightness"), brightness.getTitle());
+    assertTrue(brightness.isObservable());
+    assertTrue(brightness.getSemanticTypes().contains("https://saref.etsi.org/core/LightingDevice"));
+
+    Form form = brightness.getForms().get(0);
+    assertEquals("http://example.org/properties/brightness", form.getTarget());
+    assertEquals("application/json", form.getContentType());
+    assertTrue(form.hasOperationType(TD.readProperty));
+    assertTrue(form.hasOperationType(TD.observeProperty));
+    assertFalse(form.hasOperationType(TD.writeProperty));
+
+    IntegerSchema schema = (IntegerSchema) brightness.getDataSchema();
+    assertEquals(Optional.of(0), schema.getMinimumAsInteger());
+    assertEquals(Optional.of(100), schema.getMaximumAsInteger());
+    assertTrue(schema.getSemanticTypes().contains(JSONSchema.IntegerSchema));
+
+    PropertyAffordance status = td.getPropertyByName("status").get();
+    assertFalse(status.isObservable());
+    assertEquals(DataSchema.DATA, status.getDataSchema().getDatatype());
+
+    Form statusForm = status.getForms().get(0);
+    assertEquals("coap://example.org/status", statusForm.getTarget());
+    assertEquals("text/plain", statusForm.getContentType());
+    assertEquals(Optional.of("GET"), statusForm.getMethodName());
+    assertTrue(statusForm.hasOperationType(TD.readProperty));
+    assertTrue(statusForm.hasOperationType(TD.writeProperty));
+  }
+
+  @Test
+  public void testReadActions() {
+    ThingDescription td = TDJsonReader.readFromString(TEST_TD);
+
+    ActionAffordance fade = td.getFirstActionBySemanticType("https://saref.etsi.org/core/ToggleCommand")
+      .get();
+    assertEquals("fade", fade.getName());
+
+    Form form = fade.getForms().get(0);
+    assertEquals("http://example.org/actions/fade{?duration}", form.getTarget());
+    assertEquals(Optional.of("PUT"), form.getMethodName());
+    assertTrue(form.hasOperationType(TD.invokeAction));
+
+    NumberSchema duration = (NumberSchema) fade.getUriVariables().get().get("duration");
+    assertEquals(Optional.of(0.5), duration.getMinimum());
+
+    ObjectSchema input = (ObjectSchema) fade.getInputSchema().get();
+    assertEquals(DataSchema.INTEGER, input.getProperties().get("target").getDatatype());
+    assertTrue(input.getRequiredProperties().contains("target"));
+
+    ArraySchema colors = (ArraySchema) input.getProperties().get("colors");
+    assertEquals(Optional.of(1), colors.getMinItems());
+    assertEquals(DataSchema.STRING, colors.getItems().get(0).getDatatype());
+
+    assertEquals(DataSchema.BOOLEAN, fade.getOutputSchema().get().getDatatype());
+  }
+
+  @Test
+  public void testReadEvents() {
+    ThingDescription td = TDJsonReader.readFromString(TEST_TD);
+
+    EventAffordance overheating = td.getEventByName("overheating").get();
+    assertTrue(overheating.hasFormWithOperationType(TD.subscribeEvent));
+    assertEquals(Optional.of("longpoll"), overheating.getForms().get(0).getSubProtocol());
+
+    DataSchema data = overheating.getNotificationSchema().get();
+    assertEquals(DataSchema.STRING, data.getDatatype());
+    assertEquals(2, data.getEnumeration().size());
+    assertTrue(data.getEnumeration().contains("critical"));
+  }
+
+  @Test
+  public void testReadFromReaderAndStream() throws IOException {
+    ThingDescription fromReader = TDJsonReader.readFromReader(new StringReader(TEST_TD));
+    assertEquals("My Thing", fromReader.getTitle());
+
+    ThingDescription fromStream = TDJsonReader.readFromStream(
+      new ByteArrayInputStream(TEST_TD.getBytes(StandardCharsets.UTF_8)));
+    assertEquals(1, fromStream.getActions().size());
+  }
+
+  @Test
+  public void testGraphIsExpandedOnDemand() {
+    String tdDescription =
+      "{\n" +
+        "  \"@context\": {\n" +
+        "    \"td\": \"https://www.w3.org/2019/wot/td#\",\n" +
+        "    \"title\": \"td:title\",\n" +
+        "    \"Thing\": \"td:Thing\"\n" +
+        "  },\n" +
+        "  \"@id\": \"http://example.org/#thing\",\n" +
+        "  \"@type\": \"Thing\",\n" +
+        "  \"title\": \"My Thing\",\n" +
+        "  \"securityDefinitions\": {\"nosec_sc\": {\"scheme\": \"nosec\"}},\n" +
+        "  \"security\": [\"nosec_sc\"]\n" +
+        "}";
+
+    ThingDescription td = TDJsonReader.readFromString(tdDescription);
+    assertTrue(td.getSemanticTypes().contains(TD.Thing));
+
+    Model graph = td.getGraph().get();
+    SimpleValueFactory rdf = SimpleValueFactory.getInstance();
+    assertTrue(graph.contains(rdf.createIRI("http://example.org/#thing"), RDF.TYPE,
+      rdf.createIRI(TD.Thing)));
+    assertTrue(graph.contains(rdf.createIRI("http://example.org/#thing"), rdf.createIRI(TD.title),
+      rdf.createLiteral("My Thing")));
+  }
+
+  @Test
+  public void testGraphIsExpandedWithBundledContext() {
+    ThingDescription td = TDJsonReader.readFromString(TEST_TD);
+
+    Model graph = td.getGraph().get();
+    SimpleValueFactory rdf = SimpleValueFactory.getInstance();
+    assertTrue(graph.contains(rdf.createIRI("http://example.org/#thing"), rdf.createIRI(TD.title),
+      rdf.createLiteral("My Thing")));
+    assertTrue(graph.contains(rdf.createIRI("http://example.org/#thing"), RDF.TYPE,
+      rdf.createIRI("https://saref.etsi.org/core/LightSwitch")));
+  }
+
+  @Test
+  public void testGraphOfTD11Document() {
+    String tdDescription = "{\n" +
+        "  \"@context\": \"https://www.w3.org/2022/wot/td/v1.1\",\n" +
+        "  \"id\": \"urn:uuid:0804d572-cce8-422a-bb7c-4412fcd56f06\",\n" +
+        "  \"title\": \"MyLampThing\",\n" +
+        "  \"base\": \"https://mylamp.example.com/\",\n" +
+        "  \"securityDefinitions\": {\"basic_sc\": {\"scheme\": \"basic\", \"in\": \"header\"}},\n" +
+        "  \"security\": \"basic_sc\",\n" +
+        "  \"properties\": {\n" +
+        "    \"status\": {\n" +
+        "      \"type\": \"string\",\n" +
+        "      \"forms\": [{\"href\": \"status\"}]\n" +
+        "    }\n" +
+        "  }\n" +
+        "}";
+
+    ThingDescription td = TDJsonReader.readFromString(tdDescription);
+
+    Model graph = td.getGraph().get();
+    SimpleValueFactory rdf = SimpleValueFactory.getInstance();
+    IRI thingId = rdf.createIRI("urn:uuid:0804d572-cce8-422a-bb7c-4412fcd56f06");
+    assertTrue(graph.contains(thingId, rdf.createIRI(TD.title), rdf.createLiteral("MyLampThing")));
+    assertTrue(graph.contains(thingId, rdf.createIRI(TD.baseURI),
+      rdf.createLiteral("https://mylamp.example.com/", XSD.ANYURI)));
+    assertTrue(graph.contains(null, rdf.createIRI(TD.name), rdf.createLiteral("status")));
+  }
+
+  @Test
+  public void testFormWithoutHrefIsIgnored() {
+    List<LogRecord> records = new ArrayList<>();
+    Handler handler = new Handler() {
+      @Override
+      public void publish(LogRecord record) {
+        records.add(record);
+      }
+
+      @Override
+      public void flush() { }
+
+      @Override
+      public void close() { }
+    };
+
+    Logger logger = Logger.getLogger(TDJsonReader.class.getCanonicalName());
+    logger.addHandler(handler);
+    try {
+      ThingDescription td = TDJsonReader.readFromString("{\"title\": \"My Thing\", "
+        + "\"securityDefinitions\": {\"nosec_sc\": {\"scheme\": \"nosec\"}}, "
+        + "\"properties\": {\"status\": {\"forms\": [{\"op\": \"readproperty\"}, "
+        + "{\"href\": \"http://example.org/status\"}]}}}");
+
+      List<Form> forms = td.getPropertyByName("status").get().getForms();
+      assertEquals(1, forms.size());
+      assertEquals("http://example.org/status", forms.get(0).getTarget());
+    } finally {
+      logger.removeHandler(handler);
+    }
+
+    assertEquals(1, records.size());
+    assertEquals(Level.WARNING, records.get(0).getLevel());
+    assertTrue(records.get(0).getMessage().contains("without href"));
+  }
+
+  @Test(expected = InvalidTDException.class)
+  public void testMissingTitle() {
+    TDJsonReader.readFromString("{\"securityDefinitions\": {\"nosec_sc\": {\"scheme\": \"nosec\"}}}");
+  }
+
+  @Test(expected = InvalidTDException.class)
+  public void testMissingSecurityDefinitions() {
+    TDJsonReader.readFromString("{\"title\": \"My Thing\"}");
+  }
+
+  @Test(expected = InvalidTDException.class)
+  public void testUnknownSecurityScheme() {
+    TDJsonReader.readFromString("{\"title\": \"My Thing\", " +
+      "\"securityDefinitions\": {\"sc\": {\"scheme\": \"unknown\"}}}");
+  }
+
+  @Test(expected = InvalidTDException.class)
+  public void testPropertyWithoutForms() {
+    TDJsonReader.readFromString("{\"title\": \"My Thing\", " +
+      "\"securityDefinitions\": {\"nosec_sc\": {\"scheme\": \"nosec\"}}, " +
+      "\"properties\": {\"status\": {\"type\": \"string\"}}}");
+  }
+
+  @Test(expected = InvalidTDException.class)
+  public void testMalformedJson() {
+    TDJsonReader.readFromString("{\"title\": \"My Thing\", ");
+  }
+}
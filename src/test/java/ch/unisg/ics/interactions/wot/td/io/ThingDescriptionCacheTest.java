@@ -0,0 +1,226 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.ThingDescription.TDFormat;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.HttpResponseException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ThingDescriptionCacheTest {
+  private static final String TD_TEMPLATE =
+    "@prefix td: <https://www.w3.org/2019/wot/td#> .\n" +
+      "@prefix wotsec: <https://www.w3.org/2019/wot/security#> .\n" +
+      "<http://example.org/#thing> a td:Thing ;\n" +
+      "    td:title \"%s\" ;\n" +
+      "    td:hasSecurityConfiguration [ a wotsec:NoSecurityScheme ] .";
+
+  private static final String ETAG = "\"v1\"";
+
+  private HttpServer server;
+  private String baseURL;
+  private AtomicInteger requests;
+  private AtomicInteger conditionalRequests;
+  private volatile CountDownLatch responseLatch;
+  private MutableClock clock;
+
+  @Before
+  public void init() throws IOException {
+    requests = new AtomicInteger();
+    conditionalRequests = new AtomicInteger();
+    responseLatch = new CountDownLatch(0);
+    clock = new MutableClock();
+
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.createContext("/things/", this::handle);
+    server.createContext("/missing", exchange -> {
+      exchange.sendResponseHeaders(404, -1);
+      exchange.close();
+    });
+    server.start();
+
+    baseURL = "http://localhost:" + server.getAddress().getPort();
+  }
+
+  @After
+  public void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  public void testFreshEntryIsServedFromCache() throws IOException {
+    ThingDescriptionCache cache = new ThingDescriptionCache(10, Duration.ofMinutes(1), clock);
+
+    ThingDescription td = cache.get(TDFormat.RDF_TURTLE, baseURL + "/things/lamp");
+    assertEquals("lamp", td.getTitle());
+    assertSame(td, cache.get(TDFormat.RDF_TURTLE, baseURL + "/things/lamp"));
+
+    assertEquals(1, requests.get());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testStaleEntryIsRevalidated() throws IOException {
+    ThingDescriptionCache cache = new ThingDescriptionCache(10, Duration.ofMinutes(1), clock);
+
+    ThingDescription td = cache.get(TDFormat.RDF_TURTLE, baseURL + "/things/lamp");
+    clock.advance(Duration.ofMinutes(2));
+
+    assertSame(td, cache.get(TDFormat.RDF_TURTLE, baseURL + "/things/lamp"));
+    assertEquals(2, requests.get());
+    assertEquals(1, conditionalRequests.get());
+    assertEquals(1, cache.getRevalidationCount());
+
+    // The revalidated entry is fresh again
+    assertSame(td, cache.get(TDFormat.RDF_TURTLE, baseURL + "/things/lamp"));
+    assertEquals(2, requests.get());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEntryIsEvicted() throws IOException {
+    ThingDescriptionCache cache = new ThingDescriptionCache(2, Duration.ofMinutes(1), clock);
+
+    cache.get(TDFormat.RDF_TURTLE, baseURL + "/things/lamp");
+    cache.get(TDFormat.RDF_TURTLE, baseURL + "/things/robot");
+    cache.get(TDFormat.RDF_TURTLE, baseURL + "/things/lamp");
+    cache.get(TDFormat.RDF_TURTLE, baseURL + "/things/sensor");
+
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.getEvictionCount());
+    assertTrue(cache.getIfPresent(TDFormat.RDF_TURTLE, baseURL + "/things/lamp").isPresent());
+    assertFalse(cache.getIfPresent(TDFormat.RDF_TURTLE, baseURL + "/things/robot").isPresent());
+  }
+
+  @Test
+  public void testInvalidate() throws IOException {
+    ThingDescriptionCache cache = new ThingDescriptionCache(10, Duration.ofMinutes(1), clock);
+
+    cache.get(TDFormat.RDF_TURTLE, baseURL + "/things/lamp");
+    cache.invalidate(TDFormat.RDF_TURTLE, baseURL + "/things/lamp");
+    cache.get(TDFormat.RDF_TURTLE, baseURL + "/things/lamp");
+
+    assertEquals(2, requests.get());
+    assertEquals(0, conditionalRequests.get());
+  }
+
+  @Test(timeout = 10000)
+  public void testConcurrentLoadsAreDeduplicated() throws Exception {
+    ThingDescriptionCache cache = new ThingDescriptionCache(10, Duration.ofMinutes(1), clock);
+    responseLatch = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<ThingDescription>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(executor.submit(() -> cache.get(TDFormat.RDF_TURTLE,
+          baseURL + "/things/lamp")));
+      }
+
+      // Give all threads the chance to request the TD before the server responds
+      Thread.sleep(200);
+      responseLatch.countDown();
+
+      ThingDescription td = results.get(0).get();
+      for (Future<ThingDescription> result : results) {
+        assertSame(td, result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(1, requests.get());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  public void testErrorResponseIsNotCached() throws IOException {
+    ThingDescriptionCache cache = new ThingDescriptionCache(10, Duration.ofMinutes(1), clock);
+
+    try {
+      cache.get(TDFormat.RDF_TURTLE, baseURL + "/missing");
+      fail("Expected HttpResponseException");
+    } catch (HttpResponseException e) {
+      assertEquals(404, e.getStatusCode());
+    }
+
+    assertEquals(0, cache.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidMaximumSize() {
+    new ThingDescriptionCache(0, Duration.ofMinutes(1));
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    requests.incrementAndGet();
+
+    try {
+      responseLatch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+      conditionalRequests.incrementAndGet();
+      exchange.sendResponseHeaders(304, -1);
+      exchange.close();
+      return;
+    }
+
+    String path = exchange.getRequestURI().getPath();
+    byte[] body = String.format(TD_TEMPLATE, path.substring(path.lastIndexOf('/') + 1))
+      .getBytes(StandardCharsets.UTF_8);
+
+    exchange.getResponseHeaders().set("Content-Type", "text/turtle");
+    exchange.getResponseHeaders().set("ETag", ETAG);
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  private static class MutableClock extends Clock {
+    private volatile Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
@@ -1,12 +1,19 @@
 package ch.unisg.ics.interactions.wot.td.schemas;
 
 import ch.unisg.ics.interactions.wot.td.io.InvalidTDException;
+import ch.unisg.ics.interactions.wot.td.vocabularies.JSONSchema;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.*;
 
 import static org.junit.Assert.*;
@@ -280,6 +287,60 @@ public class DataSchemaTest {
     assertEquals("Douglas Adams", userPayload.get("full_name"));
   }
 
+  @Test
+  public void testInstantiateObjectByPropertyName() {
+    HashMap<String, Object> user = new HashMap<>();
+    user.put("id", 42);
+    user.put("http://example.com#FullName", "Douglas Adams");
+    user.put("unknown", true);
+
+    Map<String, Object> userPayload = userSchema.instantiate(user);
+
+    assertEquals(2, userPayload.size());
+    assertEquals(42, userPayload.get("id"));
+    assertEquals("Douglas Adams", userPayload.get("full_name"));
+  }
+
+  @Test
+  public void testGetPropertyNameBySemanticType() {
+    assertEquals(Optional.of("id"),
+      userSchema.getFirstPropertyNameBySemnaticType("http://example.com#Id"));
+    assertEquals(Optional.of("admin"),
+      userGroupSchema.getFirstPropertyNameBySemnaticType("http://example.com#User"));
+    assertFalse(userSchema.getFirstPropertyNameBySemnaticType("id").isPresent());
+  }
+
+  @Test
+  public void testObjectSchemaIsNotChangedByItsBuilder() {
+    ObjectSchema.Builder builder = new ObjectSchema.Builder()
+      .addProperty("id", new IntegerSchema.Builder()
+        .addSemanticType("http://example.com#Id")
+        .build());
+    ObjectSchema schema = builder.build();
+
+    builder.addProperty("name", new StringSchema.Builder()
+      .addSemanticType("http://example.com#Name")
+      .build());
+    builder.addRequiredProperties("name");
+
+    assertEquals(Collections.singleton("id"), schema.getProperties().keySet());
+    assertTrue(schema.getRequiredProperties().isEmpty());
+    assertFalse(schema.getFirstPropertyNameBySemnaticType("http://example.com#Name").isPresent());
+    assertThrows(UnsupportedOperationException.class, () -> schema.getProperties().clear());
+  }
+
+  @Test
+  public void testParseJsonOutputKeysIgnoreSchemaTags() {
+    ObjectSchema schema = new ObjectSchema.Builder()
+      .addProperty("count", new IntegerSchema.Builder()
+        .addSemanticType(JSONSchema.IntegerSchema)
+        .build())
+      .build();
+
+    assertEquals(Collections.singletonMap("count", 3),
+      schema.parseJson(JsonParser.parseString("{\"count\": 3}")));
+  }
+
   @Test
   public void testArraySchema() {
     IntegerSchema itemSchema = new IntegerSchema.Builder()
@@ -510,4 +571,153 @@ public class DataSchemaTest {
     String actualMessage = exception.getMessage();
     assertTrue(actualMessage.contains(expectedMessage));
   }
+
+  @Test
+  public void testStreamingParseMatchesTree() throws IOException {
+    ArraySchema mixedArray = new ArraySchema.Builder()
+      .addItem(new StringSchema.Builder().build())
+      .addItem(new IntegerSchema.Builder().build())
+      .addItem(new NullSchema.Builder().build())
+      .build();
+
+    assertParsedLikeTree(userSchema, "{\"id\": 42, \"full_name\": \"Ada\"}");
+    assertParsedLikeTree(userGroupSchema, "{\"count\": 1, \"admin\": {\"id\": 7}}");
+    assertParsedLikeTree(mixedArray, "[\"a\", 1, null, true, {\"x\": 1}]");
+    assertParsedLikeTree(new StringSchema.Builder().build(), "12.50");
+    assertParsedLikeTree(new StringSchema.Builder().build(), "false");
+    assertParsedLikeTree(new BooleanSchema.Builder().build(), "\"true\"");
+    assertParsedLikeTree(new NumberSchema.Builder().build(), "\"2.5\"");
+    assertParsedLikeTree(new IntegerSchema.Builder().build(), "21.9");
+    assertParsedLikeTree(new IntegerSchema.Builder().build(), "4294967297");
+    assertParsedLikeTree(DataSchema.getEmptySchema(), "{}");
+  }
+
+  @Test
+  public void testStreamingParseSkipsUnknownProperties() throws IOException {
+    JsonReader reader = new JsonReader(new StringReader("{\"unknown\": {\"a\": [1, {}]}, "
+      + "\"id\": 1, \"more\": [[]]} 2"));
+    /* Lenient, such that the reader accepts several top-level values */
+    reader.setStrictness(Strictness.LENIENT);
+
+    Map<String, Object> expected = new HashMap<>();
+    expected.put("http://example.com#Id", 1);
+    assertEquals(expected, userSchema.parseJson(reader));
+    /* The reader is positioned after the parsed value */
+    assertEquals(JsonToken.NUMBER, reader.peek());
+  }
+
+  @Test
+  public void testStreamingParseMissingRequired() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () ->
+      parseStreaming(userSchema, "{\"full_name\": \"Ada\"}"));
+    assertEquals("Missing required property: id", exception.getMessage());
+  }
+
+  @Test
+  public void testStreamingParseArraySize() {
+    ArraySchema arraySchema = new ArraySchema.Builder()
+      .addItem(new NumberSchema.Builder().build())
+      .addMinItems(2)
+      .addMaxItems(3)
+      .build();
+
+    assertThrows(IllegalArgumentException.class, () -> parseStreaming(arraySchema, "[1]"));
+    assertThrows(IllegalArgumentException.class, () -> parseStreaming(arraySchema,
+      "[1, 2, 3, \"4\"]"));
+    assertThrows(IllegalArgumentException.class, () -> parseStreaming(arraySchema, "{}"));
+  }
+
+  @Test
+  public void testStreamingParseMismatchedTypes() {
+    assertThrows(IllegalArgumentException.class, () ->
+      parseStreaming(new StringSchema.Builder().build(), "[\"a\"]"));
+    assertThrows(IllegalArgumentException.class, () ->
+      parseStreaming(new IntegerSchema.Builder().build(), "\"one\""));
+    assertThrows(IllegalArgumentException.class, () ->
+      parseStreaming(new NullSchema.Builder().build(), "0"));
+    assertThrows(IllegalArgumentException.class, () ->
+      parseStreaming(userSchema, "[]"));
+    assertThrows(IllegalArgumentException.class, () ->
+      parseStreaming(DataSchema.getEmptySchema(), "{\"a\": 1}"));
+  }
+
+  @Test
+  public void testStreamingParseOneOf() throws IOException {
+    DataSchema superSchema = new DataSchema.Builder()
+      .oneOf(new IntegerSchema.Builder().build(), new ObjectSchema.Builder()
+        .addProperty("prop", new IntegerSchema.Builder().build())
+        .build())
+      .build();
+
+    assertParsedLikeTree(superSchema, "{\"prop\": 1}");
+    assertParsedLikeTree(superSchema, "3");
+
+    ObjectSchema objectSchema = new ObjectSchema.Builder()
+      .addProperty("value", superSchema)
+      .build();
+    assertParsedLikeTree(objectSchema, "{\"value\": {\"prop\": 2}, \"other\": 1}");
+  }
+
+  @Test
+  public void testParseDoubleArray() throws IOException {
+    ArraySchema arraySchema = new ArraySchema.Builder()
+      .addItem(new NumberSchema.Builder().build())
+      .addMinItems(1)
+      .addMaxItems(20)
+      .build();
+
+    StringBuilder json = new StringBuilder("[");
+    double[] expected = new double[20];
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] = i / 4.0;
+      json.append(i == 0 ? "" : ", ").append(i / 4.0);
+    }
+    json.append("]");
+
+    double[] parsed = arraySchema.parseJsonAsDoubleArray(new JsonReader(
+      new StringReader(json.toString())));
+    assertArrayEquals(expected, parsed, 0.0);
+
+    assertThrows(IllegalArgumentException.class, () -> arraySchema.parseJsonAsDoubleArray(
+      new JsonReader(new StringReader("[]"))));
+    assertThrows(IllegalArgumentException.class, () -> arraySchema.parseJsonAsDoubleArray(
+      new JsonReader(new StringReader("[" + json + "]"))));
+    assertThrows(IllegalArgumentException.class, () -> arraySchema.parseJsonAsDoubleArray(
+      new JsonReader(new StringReader("[1, \"2\"]"))));
+    assertThrows(IllegalArgumentException.class, () -> arraySchema.parseJsonAsDoubleArray(
+      new JsonReader(new StringReader("1"))));
+  }
+
+  @Test
+  public void testParseLongArray() throws IOException {
+    ArraySchema arraySchema = new ArraySchema.Builder()
+      .addItem(new IntegerSchema.Builder().build())
+      .build();
+
+    assertArrayEquals(new long[] { 1, -2, 9007199254740993L }, arraySchema.parseJsonAsLongArray(
+      new JsonReader(new StringReader("[1, -2, 9007199254740993]"))));
+    assertArrayEquals(new long[0], arraySchema.parseJsonAsLongArray(
+      new JsonReader(new StringReader("[]"))));
+    assertThrows(IllegalArgumentException.class, () -> arraySchema.parseJsonAsLongArray(
+      new JsonReader(new StringReader("[1, 1.5]"))));
+  }
+
+  @Test
+  public void testParseNumericArrayWithoutNumericItems() {
+    ArraySchema arraySchema = new ArraySchema.Builder()
+      .addItem(new StringSchema.Builder().build())
+      .build();
+
+    Exception exception = assertThrows(IllegalArgumentException.class, () ->
+      arraySchema.parseJsonAsDoubleArray(new JsonReader(new StringReader("[1]"))));
+    assertEquals("The items of the array are not numbers.", exception.getMessage());
+  }
+
+  private static Object parseStreaming(DataSchema schema, String json) throws IOException {
+    return schema.parseJson(new JsonReader(new StringReader(json)));
+  }
+
+  private static void assertParsedLikeTree(DataSchema schema, String json) throws IOException {
+    assertEquals(schema.parseJson(JsonParser.parseString(json)), parseStreaming(schema, json));
+  }
 }
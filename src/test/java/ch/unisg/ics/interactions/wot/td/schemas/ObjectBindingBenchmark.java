@@ -0,0 +1,109 @@
+package ch.unisg.ics.interactions.wot.td.schemas;
+
+import ch.unisg.ics.interactions.wot.td.clients.PayloadCodec;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+/**
+ * Compares decoding and encoding object payloads through a <code>Map&lt;String,Object&gt;</code>,
+ * with {@link ObjectSchema#parseJson(JsonReader)} and {@link ObjectSchema#instantiate(Map)}, with
+ * decoding and encoding them as records with an {@link ObjectBinding}. Reports the time and the
+ * bytes allocated per payload. Not run as part of the test suite; run the main method with the
+ * test runtime classpath, optionally passing the number of iterations as argument.
+ */
+public class ObjectBindingBenchmark {
+  private static final String PREFIX = "http://example.org/";
+
+  record Reading(String id, long timestamp,
+                 @SemanticType(PREFIX + "Temperature") double temperature,
+                 @SemanticType(PREFIX + "Humidity") double humidity, String unit, boolean online) { }
+
+  public static void main(String[] args) {
+    int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+
+    ObjectSchema schema = new ObjectSchema.Builder()
+      .addProperty("id", new StringSchema.Builder().build())
+      .addProperty("timestamp", new IntegerSchema.Builder().addMinimum(0).build())
+      .addProperty("temperature", new NumberSchema.Builder()
+        .addSemanticType(PREFIX + "Temperature")
+        .addMinimum(-40.0)
+        .addMaximum(85.0)
+        .build())
+      .addProperty("humidity", new NumberSchema.Builder()
+        .addSemanticType(PREFIX + "Humidity")
+        .addMinimum(0.0)
+        .addMaximum(100.0)
+        .build())
+      .addProperty("unit", new StringSchema.Builder().build())
+      .addProperty("online", new BooleanSchema.Builder().build())
+      .addRequiredProperties("id", "timestamp", "temperature")
+      .build();
+    ObjectBinding<Reading> binding = ObjectBinding.compile(schema, Reading.class);
+
+    String payload = "{\"id\": \"sensor-17\", \"timestamp\": 1700000000, \"temperature\": 21.5, "
+      + "\"humidity\": 43.2, \"unit\": \"celsius\", \"online\": true}";
+    Reading reading = new Reading("sensor-17", 1700000000L, 21.5, 43.2, "celsius", true);
+    @SuppressWarnings("unchecked")
+    Map<String, Object> values = (Map<String, Object>) parse(schema, payload);
+
+    /* Both variants are run in turns, such that neither benefits from running last */
+    for (int round = 1; round <= 3; round++) {
+      System.out.printf("Round %d%n", round);
+      run("decode, map", iterations, () -> parse(schema, payload).hashCode());
+      run("decode, record", iterations, () -> {
+        try (JsonReader reader = new JsonReader(new StringReader(payload))) {
+          return binding.parseJson(reader).hashCode();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+      run("encode, map", iterations, () -> {
+        Map<String, Object> instance = schema.instantiate(values);
+        schema.getValidator().requireValid(instance);
+        return PayloadCodec.getDefault().encode(instance).length();
+      });
+      run("encode, record", iterations, () ->
+        PayloadCodec.getDefault().encode(binding, reading).length());
+    }
+  }
+
+  private static Object parse(ObjectSchema schema, String payload) {
+    try (JsonReader reader = new JsonReader(new StringReader(payload))) {
+      return schema.parseJson(reader);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void run(String name, int iterations, Operation operation) {
+    com.sun.management.ThreadMXBean threads =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long hash = 0;
+
+    // Warm-up
+    for (int i = 0; i < iterations; i++) {
+      hash += operation.run();
+    }
+
+    long allocated = threads.getCurrentThreadAllocatedBytes();
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      hash += operation.run();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+
+    /* The hash of the results keeps the operations from being eliminated */
+    System.out.printf("%-16s %10.0f ns/op %8d B/op (%d)%n", name, seconds * 1e9 / iterations,
+      allocated / iterations, hash);
+  }
+
+  private interface Operation {
+    int run();
+  }
+}
@@ -0,0 +1,204 @@
+package ch.unisg.ics.interactions.wot.td.schemas;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ObjectBindingTest {
+  private static final String PREFIX = "http://example.org/";
+
+  record Location(String room, long floor) { }
+
+  record Reading(String id, double temperature, @SemanticType(PREFIX + "Humidity") int humidity,
+                 Boolean active, double[] samples, Location location) { }
+
+  record Untyped(String id, List<Object> tags, Map<String, Object> extra, Object any) { }
+
+  private ObjectSchema readingSchema;
+
+  @Before
+  public void init() {
+    readingSchema = new ObjectSchema.Builder()
+      .addProperty("id", new StringSchema.Builder().build())
+      .addProperty("temperature", new NumberSchema.Builder()
+        .addMinimum(-40.0)
+        .addMaximum(85.0)
+        .build())
+      .addProperty("hum", new IntegerSchema.Builder()
+        .addSemanticType(PREFIX + "Humidity")
+        .build())
+      .addProperty("active", new BooleanSchema.Builder().build())
+      .addProperty("samples", new ArraySchema.Builder()
+        .addItem(new NumberSchema.Builder().build())
+        .addMaxItems(3)
+        .build())
+      .addProperty("location", new ObjectSchema.Builder()
+        .addProperty("room", new StringSchema.Builder().build())
+        .addProperty("floor", new IntegerSchema.Builder().addMinimum(0).build())
+        .addRequiredProperties("room")
+        .build())
+      .addRequiredProperties("id", "temperature")
+      .build();
+  }
+
+  @Test
+  public void testParseJson() throws IOException {
+    Reading reading = parse("{\"id\": \"sensor-1\", \"temperature\": 21.5, \"hum\": 40, "
+      + "\"active\": true, \"samples\": [21.4, 21.5], \"unknown\": {\"a\": [1]}, "
+      + "\"location\": {\"room\": \"kitchen\", \"floor\": 9007199254740993}}");
+
+    assertEquals("sensor-1", reading.id());
+    assertEquals(21.5, reading.temperature(), 0.0);
+    assertEquals(40, reading.humidity());
+    assertEquals(Boolean.TRUE, reading.active());
+    assertArrayEquals(new double[] { 21.4, 21.5 }, reading.samples(), 0.0);
+    assertEquals(new Location("kitchen", 9007199254740993L), reading.location());
+  }
+
+  @Test
+  public void testParseAbsentProperties() throws IOException {
+    Reading reading = parse("{\"id\": \"sensor-1\", \"temperature\": 21}");
+
+    assertEquals(21.0, reading.temperature(), 0.0);
+    assertEquals(0, reading.humidity());
+    assertNull(reading.active());
+    assertNull(reading.samples());
+    assertNull(reading.location());
+  }
+
+  @Test
+  public void testParseInvalid() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () ->
+      parse("{\"temperature\": 21.5}"));
+    assertEquals("Missing required property: id", exception.getMessage());
+
+    exception = assertThrows(IllegalArgumentException.class, () ->
+      parse("{\"id\": \"sensor-1\", \"temperature\": 21.5, \"location\": {\"floor\": 1}}"));
+    assertEquals("Missing required property: room", exception.getMessage());
+
+    assertThrows(IllegalArgumentException.class, () -> parse("[]"));
+    assertThrows(IllegalArgumentException.class, () ->
+      parse("{\"id\": \"sensor-1\", \"temperature\": 21.5, \"samples\": [1, 2, 3, 4]}"));
+    assertThrows(IllegalArgumentException.class, () ->
+      parse("{\"id\": \"sensor-1\", \"temperature\": {}}"));
+  }
+
+  @Test
+  public void testWriteJson() throws IOException {
+    Reading reading = new Reading("sensor-1", 21.5, 40, null, new double[] { 21.4 },
+      new Location("kitchen", 1));
+
+    assertEquals("{\"id\":\"sensor-1\",\"temperature\":21.5,\"hum\":40,\"samples\":[21.4],"
+      + "\"location\":{\"room\":\"kitchen\",\"floor\":1}}", write(reading));
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    Reading reading = new Reading("sensor-1", -3.25, 55, false, new double[] { 1, 2, 3 },
+      new Location("hall", 2));
+    Reading parsed = parse(write(reading));
+
+    assertEquals(reading.id(), parsed.id());
+    assertEquals(reading.temperature(), parsed.temperature(), 0.0);
+    assertEquals(reading.humidity(), parsed.humidity());
+    assertEquals(reading.active(), parsed.active());
+    assertArrayEquals(reading.samples(), parsed.samples(), 0.0);
+    assertEquals(reading.location(), parsed.location());
+  }
+
+  @Test
+  public void testWriteInvalid() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () ->
+      write(new Reading("sensor-1", 100, 40, null, null, null)));
+    assertTrue(exception.getMessage().contains("$.temperature: 100.0 is greater than the maximum "
+      + "85.0"));
+
+    exception = assertThrows(IllegalArgumentException.class, () ->
+      write(new Reading(null, 21.5, 40, null, null, null)));
+    assertTrue(exception.getMessage().contains("$: missing required property id"));
+
+    exception = assertThrows(IllegalArgumentException.class, () ->
+      write(new Reading("sensor-1", 21.5, 40, null, null, new Location("hall", -1))));
+    assertTrue(exception.getMessage().contains("$.location.floor: -1 is less than the minimum "
+      + "0.0"));
+
+    exception = assertThrows(IllegalArgumentException.class, () ->
+      write(new Reading("sensor-1", 21.5, 40, null, new double[4], null)));
+    assertTrue(exception.getMessage().contains("$.samples: expected at most 3 items but was 4"));
+  }
+
+  @Test
+  public void testUntypedComponents() throws IOException {
+    ObjectSchema schema = new ObjectSchema.Builder()
+      .addProperty("id", new StringSchema.Builder().build())
+      .addProperty("tags", new ArraySchema.Builder()
+        .addItem(new StringSchema.Builder().build())
+        .build())
+      .addProperty("extra", new ObjectSchema.Builder()
+        .addProperty("note", new StringSchema.Builder()
+          .addSemanticType(PREFIX + "Note")
+          .build())
+        .build())
+      .addProperty("any", DataSchema.getEmptySchema())
+      .build();
+    ObjectBinding<Untyped> binding = ObjectBinding.compile(schema, Untyped.class);
+
+    Untyped untyped = binding.parseJson(new JsonReader(new StringReader("{\"id\": \"a\", "
+      + "\"tags\": [\"x\", \"y\"], \"extra\": {\"note\": \"n\"}, \"any\": {}}")));
+    assertEquals(Arrays.asList("x", "y"), untyped.tags());
+    assertEquals(Collections.singletonMap(PREFIX + "Note", "n"), untyped.extra());
+    assertEquals(Optional.empty(), untyped.any());
+
+    /* Maps are instantiated like object payloads */
+    StringWriter json = new StringWriter();
+    binding.writeJson(new JsonWriter(json), new Untyped("a", Arrays.asList("x"),
+      Collections.singletonMap(PREFIX + "Note", "n"), null));
+    assertEquals("{\"id\":\"a\",\"tags\":[\"x\"],\"extra\":{\"note\":\"n\"}}", json.toString());
+  }
+
+  @Test
+  public void testCompileErrors() {
+    record NoProperty(String id, double temperature, String unit) { }
+    record WrongType(String id, String temperature) { }
+    record MissingRequired(String id) { }
+    record UnknownSemanticType(String id, double temperature,
+                               @SemanticType(PREFIX + "Pressure") double pressure) { }
+    record DuplicateProperty(String id, double temperature,
+                             @SemanticType(PREFIX + "Humidity") int hum, int humidity) { }
+
+    assertCompileError(NoProperty.class, "The schema has no property for the component unit.");
+    assertCompileError(WrongType.class, "The component temperature of type String cannot be "
+      + "bound to a property of type number.");
+    assertCompileError(MissingRequired.class, "The required property temperature is not bound to "
+      + "a component of " + MissingRequired.class.getName() + ".");
+    assertCompileError(UnknownSemanticType.class, "The schema has no property with the semantic "
+      + "type http://example.org/Pressure for the component pressure.");
+    assertThrows(IllegalArgumentException.class, () ->
+      ObjectBinding.compile(readingSchema, DuplicateProperty.class));
+  }
+
+  private void assertCompileError(Class<? extends Record> type, String message) {
+    Exception exception = assertThrows(IllegalArgumentException.class, () ->
+      ObjectBinding.compile(readingSchema, type));
+    assertEquals(message, exception.getMessage());
+  }
+
+  private Reading parse(String json) throws IOException {
+    return ObjectBinding.compile(readingSchema, Reading.class)
+      .parseJson(new JsonReader(new StringReader(json)));
+  }
+
+  private String write(Reading reading) throws IOException {
+    StringWriter json = new StringWriter();
+    ObjectBinding.compile(readingSchema, Reading.class).writeJson(new JsonWriter(json), reading);
+    return json.toString();
+  }
+}
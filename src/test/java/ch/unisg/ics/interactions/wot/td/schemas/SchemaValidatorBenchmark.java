@@ -0,0 +1,87 @@
+package ch.unisg.ics.interactions.wot.td.schemas;
+
+import java.util.*;
+
+/**
+ * Measures the throughput of validating typical sensor payloads with a compiled
+ * {@link SchemaValidator}. Not run as part of the test suite; run the main method with the test
+ * runtime classpath, optionally passing the number of iterations as argument.
+ */
+public class SchemaValidatorBenchmark {
+
+  public static void main(String[] args) {
+    int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : 5_000_000;
+
+    ObjectSchema readingSchema = new ObjectSchema.Builder()
+      .addProperty("id", new StringSchema.Builder().build())
+      .addProperty("timestamp", new IntegerSchema.Builder().addMinimum(0).build())
+      .addProperty("temperature", new NumberSchema.Builder()
+        .addMinimum(-40.0)
+        .addMaximum(85.0)
+        .build())
+      .addProperty("humidity", new NumberSchema.Builder()
+        .addMinimum(0.0)
+        .addMaximum(100.0)
+        .build())
+      .addProperty("unit", new StringSchema.Builder()
+        .addEnum(new HashSet<>(Arrays.asList("celsius", "fahrenheit")))
+        .build())
+      .addProperty("online", new BooleanSchema.Builder().build())
+      .addRequiredProperties("id", "timestamp", "temperature")
+      .build();
+
+    Map<String, Object> reading = new HashMap<>();
+    reading.put("id", "sensor-17");
+    reading.put("timestamp", 1700000000L);
+    reading.put("temperature", 21.5);
+    reading.put("humidity", 43.2);
+    reading.put("unit", "celsius");
+    reading.put("online", true);
+
+    ArraySchema seriesSchema = new ArraySchema.Builder()
+      .addItem(new NumberSchema.Builder().addMinimum(-40.0).addMaximum(85.0).build())
+      .addMinItems(1)
+      .addMaxItems(256)
+      .build();
+
+    List<Object> series = new ArrayList<>();
+    double[] primitiveSeries = new double[64];
+    for (int i = 0; i < 64; i++) {
+      series.add(20.0 + i / 10.0);
+      primitiveSeries[i] = 20.0 + i / 10.0;
+    }
+
+    ArraySchema batchSchema = new ArraySchema.Builder().addItem(readingSchema).build();
+    List<Object> batch = Collections.nCopies(16, reading);
+
+    System.out.printf("%d iterations%n", iterations);
+    run("reading (6 props)", iterations, () -> readingSchema.validate(reading));
+    run("series (64 items)", iterations / 8, () -> seriesSchema.validate(series));
+    run("series (double[64])", iterations / 8,
+      () -> seriesSchema.getValidator().isValidArray(primitiveSeries));
+    run("batch (16 readings)", iterations / 8, () -> batchSchema.validate(batch));
+  }
+
+  private static void run(String name, int iterations, Validation validation) {
+    int valid = 0;
+
+    // Warm-up
+    for (int i = 0; i < iterations; i++) {
+      valid += validation.validate() ? 1 : 0;
+    }
+
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      valid += validation.validate() ? 1 : 0;
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    /* The count of valid payloads keeps the validations from being eliminated */
+    System.out.printf("%-20s %12.0f ops/s %8.1f ns/op (%d)%n", name, iterations / seconds,
+      seconds * 1e9 / iterations, valid);
+  }
+
+  private interface Validation {
+    boolean validate();
+  }
+}
@@ -0,0 +1,297 @@
+package ch.unisg.ics.interactions.wot.td.schemas;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class SchemaValidatorTest {
+  private ObjectSchema sensorSchema;
+  private Map<String, Object> reading;
+
+  @Before
+  public void init() {
+    sensorSchema = new ObjectSchema.Builder()
+      .addProperty("id", new StringSchema.Builder().build())
+      .addProperty("temperature", new NumberSchema.Builder()
+        .addMinimum(-40.0)
+        .addMaximum(85.0)
+        .build())
+      .addProperty("humidity", new IntegerSchema.Builder()
+        .addMinimum(0)
+        .addMaximum(100)
+        .build())
+      .addProperty("unit", new StringSchema.Builder()
+        .addEnum(new HashSet<>(Arrays.asList("celsius", "fahrenheit")))
+        .build())
+      .addProperty("active", new BooleanSchema.Builder().build())
+      .addProperty("samples", new ArraySchema.Builder()
+        .addItem(new NumberSchema.Builder().build())
+        .addMinItems(1)
+        .addMaxItems(3)
+        .build())
+      .addRequiredProperties("id", "temperature")
+      .build();
+
+    reading = new HashMap<>();
+    reading.put("id", "sensor-1");
+    reading.put("temperature", 21.5);
+    reading.put("humidity", 40);
+    reading.put("unit", "celsius");
+    reading.put("active", true);
+    reading.put("samples", Arrays.asList(21.4, 21.5, 21.6));
+  }
+
+  @Test
+  public void testValidObject() {
+    SchemaValidator validator = sensorSchema.getValidator();
+    assertTrue(validator.isValid(reading));
+    assertTrue(validator.validate(reading).isEmpty());
+    assertTrue(sensorSchema.validate(reading));
+    validator.requireValid(reading);
+  }
+
+  @Test
+  public void testValidatorIsCompiledOnce() {
+    assertSame(sensorSchema.getValidator(), sensorSchema.getValidator());
+  }
+
+  @Test
+  public void testAllViolationsAreReported() {
+    reading.put("temperature", 100);
+    reading.put("humidity", 40.5);
+    reading.put("unit", "kelvin");
+    reading.put("active", "yes");
+    reading.put("samples", Arrays.asList(21.4, "21.5"));
+    reading.remove("id");
+
+    assertFalse(sensorSchema.validate(reading));
+
+    List<String> errors = sensorSchema.getValidator().validate(reading);
+    assertEquals(6, errors.size());
+    assertTrue(errors.contains("$: missing required property id"));
+    assertTrue(errors.contains("$.temperature: 100 is greater than the maximum 85.0"));
+    assertTrue(errors.contains("$.humidity: expected an integer but was 40.5"));
+    assertTrue(errors.contains("$.unit: kelvin is not one of [celsius, fahrenheit]")
+      || errors.contains("$.unit: kelvin is not one of [fahrenheit, celsius]"));
+    assertTrue(errors.contains("$.active: expected a boolean but was yes"));
+    assertTrue(errors.contains("$.samples[1]: expected a number but was 21.5"));
+  }
+
+  @Test
+  public void testOptionalProperties() {
+    reading.remove("humidity");
+    reading.put("unit", null);
+    /* Properties that are not declared are ignored */
+    reading.put("location", "kitchen");
+    assertTrue(sensorSchema.validate(reading));
+
+    reading.put("temperature", null);
+    assertFalse(sensorSchema.validate(reading));
+  }
+
+  @Test
+  public void testNotAnObject() {
+    assertFalse(sensorSchema.getValidator().isValid(null));
+    assertEquals(Collections.singletonList("$: expected an object but was [1]"),
+      sensorSchema.getValidator().validate(Collections.singletonList(1)));
+  }
+
+  @Test
+  public void testNestedObject() {
+    ObjectSchema schema = new ObjectSchema.Builder()
+      .addProperty("sensor", sensorSchema)
+      .addRequiredProperties("sensor")
+      .build();
+
+    assertTrue(schema.validate(Collections.singletonMap("sensor", reading)));
+
+    reading.put("temperature", -41);
+    assertEquals(Collections.singletonList("$.sensor.temperature: -41 is less than the minimum "
+      + "-40.0"), schema.getValidator().validate(Collections.singletonMap("sensor", reading)));
+  }
+
+  @Test
+  public void testArrayItems() {
+    ArraySchema schema = new ArraySchema.Builder()
+      .addItem(new IntegerSchema.Builder().build())
+      .addItem(new StringSchema.Builder().build())
+      .addMinItems(2)
+      .build();
+
+    assertTrue(schema.validate(Arrays.asList(1, "a", 3L)));
+    assertTrue(schema.validate(new LinkedList<>(Arrays.asList(1, "a"))));
+    assertFalse(schema.validate(Arrays.asList(1, true)));
+    assertFalse(schema.validate(Collections.singletonList(1)));
+
+    assertEquals(Arrays.asList("$[1]: true is not valid against any of the item schemas",
+        "$[2]: 2.5 is not valid against any of the item schemas"),
+      schema.getValidator().validate(Arrays.asList(1, true, 2.5)));
+  }
+
+  @Test
+  public void testArrayWithoutItems() {
+    ArraySchema schema = new ArraySchema.Builder().addMaxItems(2).build();
+
+    assertTrue(schema.validate(Arrays.asList(1, "a")));
+    assertEquals(Collections.singletonList("$: expected at most 2 items but was 3"),
+      schema.getValidator().validate(Arrays.asList(1, "a", null)));
+  }
+
+  @Test
+  public void testIntegers() {
+    SchemaValidator validator = new IntegerSchema.Builder().addMaximum(10).build().getValidator();
+
+    assertTrue(validator.isValid(10));
+    assertTrue(validator.isValid(10L));
+    assertTrue(validator.isValid(10.0));
+    assertFalse(validator.isValid(11));
+    assertFalse(validator.isValid(9.5));
+    assertFalse(validator.isValid(Double.NaN));
+    assertFalse(validator.isValid("10"));
+  }
+
+  @Test
+  public void testNumberEnumeration() {
+    SchemaValidator validator = new NumberSchema.Builder()
+      .addEnum(new HashSet<>(Arrays.asList("1", "2.5")))
+      .build()
+      .getValidator();
+
+    assertTrue(validator.isValid(1));
+    assertTrue(validator.isValid(1.0));
+    assertTrue(validator.isValid(2.5));
+    assertFalse(validator.isValid(2));
+  }
+
+  @Test
+  public void testNullAndBoolean() {
+    assertTrue(new NullSchema.Builder().build().getValidator().isValid(null));
+    assertFalse(new NullSchema.Builder().build().getValidator().isValid("null"));
+    assertTrue(new BooleanSchema.Builder().build().getValidator().isValid(false));
+    assertFalse(new BooleanSchema.Builder().build().getValidator().isValid(0));
+  }
+
+  @Test
+  public void testOneOf() {
+    DataSchema schema = new DataSchema.Builder()
+      .oneOf(new StringSchema.Builder().build(), new IntegerSchema.Builder().build())
+      .build();
+
+    assertTrue(schema.getValidator().isValid("abc"));
+    assertTrue(schema.getValidator().isValid(42));
+    assertFalse(schema.getValidator().isValid(true));
+    assertEquals(Collections.singletonList("$: true is not valid against any of the subschemas"),
+      schema.getValidator().validate(true));
+
+    /* A schema without subschemas accepts any value */
+    assertTrue(DataSchema.getEmptySchema().getValidator().isValid(true));
+  }
+
+  @Test
+  public void testOneOfRejectsValuesValidAgainstSeveralSubschemas() {
+    DataSchema schema = new NumberSchema.Builder()
+      .oneOf(new NumberSchema.Builder().addMinimum(0.0).build(), new IntegerSchema.Builder().build())
+      .build();
+
+    assertTrue(schema.getValidator().isValid(2.5));
+    assertTrue(schema.getValidator().isValid(-1));
+    assertFalse(schema.getValidator().isValid(5));
+    assertFalse(schema.getValidator().isValid(-1.5));
+    assertEquals(Collections.singletonList("$: 5 is valid against more than one of the subschemas"),
+      schema.getValidator().validate(5));
+
+
+    /* Items of arrays of numbers are checked without boxing */
+    DataSchema arraySchema = new ArraySchema.Builder().addItem(schema).build();
+    assertTrue(arraySchema.getValidator().isValidArray(new double[]{2.5, -1}));
+    assertFalse(arraySchema.getValidator().isValidArray(new long[]{5}));
+  }
+
+  @Test
+  public void testRequireValid() {
+    reading.put("temperature", "warm");
+
+    try {
+      sensorSchema.getValidator().requireValid(reading);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("$.temperature: expected a number but was warm"));
+    }
+  }
+
+  @Test
+  public void testDoubleArray() {
+    ArraySchema schema = new ArraySchema.Builder()
+      .addItem(new NumberSchema.Builder().addMinimum(-40.0).addMaximum(85.0).build())
+      .addMinItems(1)
+      .addMaxItems(3)
+      .build();
+    SchemaValidator validator = schema.getValidator();
+
+    assertTrue(validator.isValidArray(new double[] { 21.4, -40.0, 85.0 }));
+    assertFalse(validator.isValidArray(new double[] { 21.4, 85.5 }));
+    assertFalse(validator.isValidArray(new double[] { Double.NaN }));
+    assertFalse(validator.isValidArray(new double[0]));
+    assertFalse(validator.isValidArray(new double[4]));
+    assertFalse(validator.isValidArray((double[]) null));
+
+
+    try {
+      validator.requireValidArray(new double[] { 21.4, 85.5 });
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("$[1]: 85.5 is greater than the maximum 85.0"));
+    }
+  }
+
+  @Test
+  public void testLongArray() {
+    ArraySchema schema = new ArraySchema.Builder()
+      .addItem(new IntegerSchema.Builder().addMinimum(0).build())
+      .build();
+    SchemaValidator validator = schema.getValidator();
+
+    assertTrue(validator.isValidArray(new long[] { 0, 1, Long.MAX_VALUE }));
+    assertFalse(validator.isValidArray(new long[] { 1, -1 }));
+    validator.requireValidArray(new long[] { 1, 2, 3 });
+
+    /* Integral doubles are valid against an integer schema */
+    assertTrue(validator.isValidArray(new double[] { 1.0, 2.0 }));
+    assertFalse(validator.isValidArray(new double[] { 1.0, 2.5 }));
+  }
+
+  @Test
+  public void testNumericArrayEnumeration() {
+    SchemaValidator validator = new ArraySchema.Builder()
+      .addItem(new NumberSchema.Builder()
+        .addEnum(new HashSet<>(Arrays.asList("1", "2.5")))
+        .build())
+      .build()
+      .getValidator();
+
+    assertTrue(validator.isValidArray(new double[] { 1.0, 2.5 }));
+    assertTrue(validator.isValidArray(new long[] { 1, 1 }));
+    assertFalse(validator.isValidArray(new double[] { 2.0 }));
+    assertFalse(validator.isValidArray(new long[] { 2 }));
+  }
+
+  @Test
+  public void testNumericArrayAgainstOtherSchemas() {
+    /* Arrays are valid against array schemas without items, and against empty schemas */
+    assertTrue(new ArraySchema.Builder().addMaxItems(2).build().getValidator()
+      .isValidArray(new double[] { 1.0, 2.0 }));
+    assertTrue(DataSchema.getEmptySchema().getValidator().isValidArray(new long[] { 1 }));
+
+    assertFalse(new ArraySchema.Builder()
+      .addItem(new StringSchema.Builder().build())
+      .build()
+      .getValidator()
+      .isValidArray(new double[] { 1.0 }));
+    assertFalse(new NumberSchema.Builder().build().getValidator()
+      .isValidArray(new double[] { 1.0 }));
+    assertFalse(sensorSchema.getValidator().isValidArray(new long[0]));
+  }
+}
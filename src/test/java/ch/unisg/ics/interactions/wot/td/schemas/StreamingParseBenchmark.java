@@ -0,0 +1,111 @@
+package ch.unisg.ics.interactions.wot.td.schemas;
+
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Compares parsing payloads into a tree with {@link JsonParser} before applying
+ * {@link DataSchema#parseJson(com.google.gson.JsonElement)} with parsing them token by token with
+ * {@link DataSchema#parseJson(JsonReader)}, and, for arrays of numbers, with parsing them into
+ * primitive arrays with {@link ArraySchema#parseJsonAsDoubleArray(JsonReader)}. Reports the time
+ * and the bytes allocated per payload.
+ * Not run as part of the test suite; run the main method with the test runtime classpath,
+ * optionally passing the number of iterations as argument.
+ */
+public class StreamingParseBenchmark {
+
+  public static void main(String[] args) {
+    int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : 20_000;
+
+    /* A thing state with 20 declared properties, polled with 20 undeclared ones */
+    ObjectSchema.Builder stateBuilder = new ObjectSchema.Builder();
+    StringBuilder state = new StringBuilder("{");
+    for (int i = 0; i < 20; i++) {
+      stateBuilder.addProperty("value" + i, new NumberSchema.Builder()
+        .addSemanticType("http://example.org/Value" + i)
+        .build());
+      state.append("\"value").append(i).append("\": ").append(20.0 + i / 8.0).append(", ");
+      state.append("\"meta").append(i).append("\": {\"unit\": \"celsius\", \"ts\": ")
+        .append(1700000000 + i).append("}, ");
+    }
+    state.append("\"status\": \"ok\"}");
+    ObjectSchema stateSchema = stateBuilder.build();
+
+    /* A waveform of 10,000 samples */
+    ArraySchema waveformSchema = new ArraySchema.Builder()
+      .addItem(new NumberSchema.Builder().build())
+      .build();
+    StringBuilder waveform = new StringBuilder("[");
+    for (int i = 0; i < 10_000; i++) {
+      waveform.append(i == 0 ? "" : ",").append(Math.sin(i / 100.0));
+    }
+    waveform.append("]");
+    String waveformPayload = waveform.toString();
+
+    /* Both variants are run in turns, such that neither benefits from running last */
+    for (int round = 1; round <= 3; round++) {
+      System.out.printf("Round %d%n", round);
+      run("state, tree", iterations * 10, stateSchema, state.toString(), false);
+      run("state, streaming", iterations * 10, stateSchema, state.toString(), true);
+      run("waveform, tree", iterations / 10, waveformSchema, waveformPayload, false);
+      run("waveform, streaming", iterations / 10, waveformSchema, waveformPayload, true);
+      run("waveform, double[]", iterations / 10, () -> {
+        try (JsonReader reader = new JsonReader(new StringReader(waveformPayload))) {
+          return Arrays.hashCode(waveformSchema.parseJsonAsDoubleArray(reader));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    }
+  }
+
+  private static void run(String name, int iterations, DataSchema schema, String payload,
+                          boolean streaming) {
+    run(name, iterations, () -> parse(schema, payload, streaming).hashCode());
+  }
+
+  private static void run(String name, int iterations, Parse parse) {
+    com.sun.management.ThreadMXBean threads =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long hash = 0;
+
+    // Warm-up
+    for (int i = 0; i < iterations; i++) {
+      hash += parse.parse();
+    }
+
+    long allocated = threads.getCurrentThreadAllocatedBytes();
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      hash += parse.parse();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+
+    /* The hash of the parsed values keeps the parsing from being eliminated */
+    System.out.printf("%-20s %10.1f us/op %12d B/op (%d)%n", name, seconds * 1e6 / iterations,
+      allocated / iterations, hash);
+  }
+
+  private interface Parse {
+    int parse();
+  }
+
+  private static Object parse(DataSchema schema, String payload, boolean streaming) {
+    if (!streaming) {
+      return schema.parseJson(JsonParser.parseString(payload));
+    }
+
+    try (JsonReader reader = new JsonReader(new StringReader(payload))) {
+      return schema.parseJson(reader);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}